@@ -0,0 +1,73 @@
+package com.example.barcodeconverter.config;
+
+import com.example.barcodeconverter.dto.ConversionJsonCodec;
+import com.example.barcodeconverter.dto.ConversionRequest;
+import com.example.barcodeconverter.dto.ConversionResponse;
+import com.example.barcodeconverter.service.ConversionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+
+/**
+ * JSON converter for the /api/convert bodies, ahead of the databind converter; see {@link ConversionJsonCodec}.
+ */
+@Component
+public class ConversionMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final ConversionJsonCodec codec;
+
+    @Autowired
+    public ConversionMessageConverter(ObjectMapper objectMapper, ConversionService conversionService) {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        // The dictionary is read through a view; the codec copies what it pre-encodes
+        this.codec = new ConversionJsonCodec(objectMapper.getFactory(), new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return conversionService.getWord(index);
+            }
+
+            @Override
+            public int size() {
+                return conversionService.getWordCount();
+            }
+        });
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ConversionRequest.class || clazz == ConversionResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == ConversionRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == ConversionResponse.class && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return codec.readRequest(inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object response, HttpOutputMessage outputMessage) throws IOException {
+        codec.writeResponse((ConversionResponse) response, outputMessage.getBody());
+    }
+}
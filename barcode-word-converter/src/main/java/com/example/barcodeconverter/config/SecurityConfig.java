@@ -24,7 +24,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(authorizeRequests ->
                 authorizeRequests
                     .requestMatchers("/admin/**").hasRole("ADMIN")
-                    .requestMatchers("/", "/api/convert", "/css/**", "/js/**", "/images/**").permitAll() // Allow public access to home, API, and static resources
+                    .requestMatchers("/", "/ready", "/api/convert", "/api/validate", "/api/validate/batch", "/api/rulesets", "/api/barcodes/**", "/css/**", "/js/**", "/images/**").permitAll() // Allow public access to home, API, and static resources
                     .anyRequest().authenticated()
             )
             .formLogin(formLogin ->
@@ -33,6 +33,7 @@ public class SecurityConfig {
                     .defaultSuccessUrl("/admin/rules", true) // Redirect to admin rules page on successful login
                     .permitAll()
             )
+            .httpBasic(withDefaults()) // For scripted API clients such as bulk generation
             .logout(logout ->
                 logout
                     .logoutSuccessUrl("/login?logout")
@@ -0,0 +1,51 @@
+package com.example.barcodeconverter.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Multipart limits. The spring.servlet.multipart limits stay the limits for every upload except the corpus uploads
+ * listed in barcode.uploads.large-paths, which may be up to barcode.uploads.large-max-size. The servlet container
+ * is given the larger limit and {@link UploadLimitFilter} holds every other multipart request to the default one
+ * before its body is read.
+ */
+@Configuration
+public class UploadConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties multipart,
+                                                         @Value("${barcode.uploads.large-max-size:512MB}") String largeMaxSize) {
+        DataSize large = DataSize.parse(largeMaxSize);
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        if (StringUtils.hasText(multipart.getLocation())) {
+            factory.setLocation(multipart.getLocation());
+        }
+        factory.setFileSizeThreshold(multipart.getFileSizeThreshold());
+        factory.setMaxFileSize(larger(multipart.getMaxFileSize(), large));
+        factory.setMaxRequestSize(larger(multipart.getMaxRequestSize(), large));
+        return factory.createMultipartConfig();
+    }
+
+    @Bean
+    public FilterRegistrationBean<UploadLimitFilter> uploadLimitFilter(MultipartProperties multipart,
+                                                                       @Value("${barcode.uploads.large-paths:/admin/rules/impact,/api/jobs}") List<String> largePaths) {
+        FilterRegistrationBean<UploadLimitFilter> registration =
+            new FilterRegistrationBean<>(new UploadLimitFilter(multipart.getMaxRequestSize().toBytes(), largePaths));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE); // Before anything reads the body
+        return registration;
+    }
+
+    private static DataSize larger(DataSize a, DataSize b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
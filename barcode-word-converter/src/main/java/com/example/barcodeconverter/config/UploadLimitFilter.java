@@ -0,0 +1,57 @@
+package com.example.barcodeconverter.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Holds multipart requests to the default request size unless they go to one of the large-upload paths. The
+ * check uses Content-Length, so an oversized body is refused with 413 before anything reads it; a multipart
+ * request of unknown length is refused with 411 because the limit could not be enforced until parsing.
+ */
+public class UploadLimitFilter extends OncePerRequestFilter {
+
+    private final long maxRequestBytes;
+    private final Set<String> largeUploadPaths;
+
+    public UploadLimitFilter(long maxRequestBytes, List<String> largeUploadPaths) {
+        this.maxRequestBytes = maxRequestBytes;
+        this.largeUploadPaths = largeUploadPaths.stream().map(String::trim).filter(p -> !p.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return maxRequestBytes < 0 || largeUploadPaths.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            response.sendError(HttpServletResponse.SC_LENGTH_REQUIRED,
+                "Multipart uploads to this endpoint need a Content-Length.");
+            return;
+        }
+        if (length > maxRequestBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                "Upload of " + length + " bytes exceeds the limit of " + maxRequestBytes + " bytes for this endpoint.");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.barcodeconverter.config;
+
+import com.example.barcodeconverter.ratelimit.RateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ConversionMessageConverter conversionMessageConverter;
+
+    @Autowired
+    public WebConfig(RateLimitInterceptor rateLimitInterceptor, ConversionMessageConverter conversionMessageConverter) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.conversionMessageConverter = conversionMessageConverter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, conversionMessageConverter); // Ahead of the Jackson databind converter
+    }
+}
@@ -1,10 +1,20 @@
 package com.example.barcodeconverter.controller;
 
+import com.example.barcodeconverter.dto.ConversionResponse;
+import com.example.barcodeconverter.history.ConversionHistoryLog;
 import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.ChecksumAlgorithm;
 import com.example.barcodeconverter.model.RuleSet;
 import com.example.barcodeconverter.model.SegmentType;
+import com.example.barcodeconverter.ratelimit.RateLimiter;
+import com.example.barcodeconverter.service.ConversionService;
+import com.example.barcodeconverter.service.ImpactAnalysisService;
+import com.example.barcodeconverter.service.RuleSetCatalog;
+import com.example.barcodeconverter.sync.RuleSetSyncService;
 import com.example.barcodeconverter.service.RuleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,14 +22,23 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets; // Added import
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Controller
@@ -27,19 +46,52 @@ import java.util.stream.Collectors;
 public class AdminController {
 
     private final RuleService ruleService;
+    private final ImpactAnalysisService impactAnalysisService;
+    private final ConversionHistoryLog historyLog;
+    private final RateLimiter rateLimiter;
+    private final ConversionService conversionService;
+    private final RuleSetSyncService syncService;
     private static final int MIN_DISPLAY_RULES = 8;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_HISTORY_LIMIT = 1000;
+    private static final int MAX_HISTORY_LIMIT = 10000;
+    private static final Duration DEFAULT_HISTORY_WINDOW = Duration.ofHours(1);
+    private static final Duration DEFAULT_IMPACT_WINDOW = Duration.ofDays(1);
 
 
     @Autowired
-    public AdminController(RuleService ruleService) {
+    public AdminController(RuleService ruleService, ImpactAnalysisService impactAnalysisService,
+                           ConversionHistoryLog historyLog, RateLimiter rateLimiter, ConversionService conversionService,
+                           RuleSetSyncService syncService) {
         this.ruleService = ruleService;
+        this.impactAnalysisService = impactAnalysisService;
+        this.historyLog = historyLog;
+        this.rateLimiter = rateLimiter;
+        this.conversionService = conversionService;
+        this.syncService = syncService;
     }
 
     @GetMapping("/rules")
-    public String listRuleSets(Model model) {
-        List<String> ruleSetNames = ruleService.getAllRuleSetNames();
-        // Fetch full RuleSet objects if needed by the template, or just names
+    public String listRuleSets(@RequestParam(name = "q", required = false) String query,
+                               @RequestParam(name = "page", defaultValue = "0") int page,
+                               @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                               Model model) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Pages past the last name are empty; the bound only keeps pageNumber * pageSize from overflowing
+        int pageNumber = Math.max(0, Math.min(page, Integer.MAX_VALUE / pageSize - 1));
+        // One extra name tells whether there is a next page without counting every match
+        List<String> ruleSetNames = ruleService.searchRuleSetNames(query, pageNumber * pageSize, pageSize + 1);
+        boolean hasNext = ruleSetNames.size() > pageSize;
+        if (hasNext) {
+            ruleSetNames = ruleSetNames.subList(0, pageSize);
+        }
         model.addAttribute("ruleSetNames", ruleSetNames);
+        model.addAttribute("query", query == null ? "" : query.trim());
+        model.addAttribute("page", pageNumber);
+        model.addAttribute("size", pageSize);
+        model.addAttribute("hasNext", hasNext);
+        model.addAttribute("hasPrevious", pageNumber > 0);
         return "admin/rules-list";
     }
 
@@ -90,6 +142,7 @@ public class AdminController {
         model.addAttribute("ruleSetForm", new RuleSetForm(ruleSetToEdit, displayRules));
         model.addAttribute("isNew", isNew); // To conditionally enable/disable name editing
         model.addAttribute("segmentTypes", SegmentType.values());
+        model.addAttribute("checksumAlgorithms", ChecksumAlgorithm.values());
         return "admin/rule-edit-form";
     }
 
@@ -115,6 +168,51 @@ public class AdminController {
     public String saveRuleSet(@ModelAttribute("ruleSetForm") RuleSetForm ruleSetForm,
                               RedirectAttributes redirectAttributes) {
 
+        List<BarcodeSegmentRule> submittedRules;
+        try {
+            submittedRules = toSegmentRules(ruleSetForm);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/admin/rules/edit" + (ruleSetForm.getName() != null && !ruleSetForm.getName().isEmpty() ? "?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8) : "");
+        }
+
+        if (ruleSetForm.getName() == null || ruleSetForm.getName().trim().isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage", "RuleSet name cannot be empty.");
+            return "redirect:/admin/rules/edit" + (ruleSetForm.getName() != null && !ruleSetForm.getName().isEmpty() ? "?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8) : "");
+        }
+        if (submittedRules.isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage", "A RuleSet must contain at least one segment rule.");
+            return "redirect:/admin/rules/edit?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8);
+        }
+
+        RuleSet finalRuleSet;
+        try {
+            finalRuleSet = new RuleSet(ruleSetForm.getName(), submittedRules);
+            finalRuleSet.validateRules(); // This also calculates total length
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Error creating/validating RuleSet: " + e.getMessage());
+            return "redirect:/admin/rules/edit?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8);
+        }
+
+        try {
+            ruleService.saveRuleSet(finalRuleSet);
+            redirectAttributes.addFlashAttribute("successMessage", "RuleSet '" + finalRuleSet.getName() + "' saved successfully.");
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Failed to save RuleSet: " + e.getMessage());
+            e.printStackTrace(); // Log to server console
+        } catch (IllegalArgumentException | IllegalStateException e) { // Catch validation errors from saveRuleSet if any
+            redirectAttributes.addFlashAttribute("errorMessage", "Invalid RuleSet configuration during save: " + e.getMessage());
+            return "redirect:/admin/rules/edit?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8);
+        }
+
+        return "redirect:/admin/rules";
+    }
+
+    /**
+     * Turns the form rows into segment rules, skipping rows without a type or length.
+     * @throws IllegalArgumentException naming the order of the first row a rule cannot be built from
+     */
+    private static List<BarcodeSegmentRule> toSegmentRules(RuleSetForm ruleSetForm) {
         List<BarcodeSegmentRule> submittedRules = new ArrayList<>();
         int order = 0;
         if (ruleSetForm.getDisplayRules() != null) {
@@ -134,8 +232,9 @@ public class AdminController {
                         // If it's a single string from a text field, it needs parsing.
                         // For simplicity, if `getStaticOrValues()` returns a list with a single comma-separated string, parse it.
                         // This is a common way to handle list input from a single text field.
+                        // Spring already splits "E,X,Y" into a list when binding, so rejoin before splitting
                         if (tempRule.getStaticOrValues() != null && !tempRule.getStaticOrValues().isEmpty() && tempRule.getStaticOrValues().get(0) != null && !tempRule.getStaticOrValues().get(0).trim().isEmpty()) {
-                            staticOrValues = Arrays.asList(tempRule.getStaticOrValues().get(0).split("\\s*,\\s*"));
+                            staticOrValues = Arrays.asList(String.join(",", tempRule.getStaticOrValues()).trim().split("\\s*,\\s*"));
                         } else {
                             staticOrValues = new ArrayList<>(); // Ensure it's an empty list not null
                         }
@@ -145,6 +244,9 @@ public class AdminController {
                         BarcodeSegmentRule actualRule;
                         if (tempRule.getType() == SegmentType.STATIC_OR) {
                             actualRule = new BarcodeSegmentRule(order, tempRule.getLength(), tempRule.getType(), staticOrValues, tempRule.isMapsToWord());
+                        } else if (tempRule.getType() == SegmentType.CHECKSUM) {
+                            // Covered orders come from a comma-separated field; blank means all word segments
+                            actualRule = new BarcodeSegmentRule(order, tempRule.getLength(), tempRule.getChecksumAlgorithm(), tempRule.getChecksumOver());
                         } else {
                             actualRule = new BarcodeSegmentRule(order, tempRule.getLength(), tempRule.getType(), staticValue, tempRule.isMapsToWord());
                         }
@@ -152,43 +254,166 @@ public class AdminController {
                         order++;
                     } catch (IllegalArgumentException e) {
                         // This catches validation errors from BarcodeSegmentRule constructor
-                        redirectAttributes.addFlashAttribute("errorMessage", "Error in rule (order " + order + "): " + e.getMessage());
-                        return "redirect:/admin/rules/edit" + (ruleSetForm.getName() != null && !ruleSetForm.getName().isEmpty() ? "?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8) : "");
+                        throw new IllegalArgumentException("Error in rule (order " + order + "): " + e.getMessage(), e);
                     }
                 }
             }
         }
+        return submittedRules;
+    }
 
-        if (ruleSetForm.getName() == null || ruleSetForm.getName().trim().isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "RuleSet name cannot be empty.");
-            return "redirect:/admin/rules/edit" + (ruleSetForm.getName() != null && !ruleSetForm.getName().isEmpty() ? "?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8) : "");
-        }
-        if (submittedRules.isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "A RuleSet must contain at least one segment rule.");
-            return "redirect:/admin/rules/edit?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8);
+    /**
+     * Dry run of a RuleSet edit: the edit form's rules are compared with the saved RuleSet over an
+     * uploaded corpus (one barcode per line, or CSV from bulk generation) without saving anything.
+     * Without an upload the corpus is the RuleSet's conversions in the history stamped in [from, to),
+     * by default the last day.
+     */
+    @PostMapping(value = "/rules/impact", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> analyzeImpact(@ModelAttribute("ruleSetForm") RuleSetForm ruleSetForm,
+                                           @RequestParam(name = "corpus", required = false) MultipartFile corpus,
+                                           @RequestParam(name = "from", required = false) String from,
+                                           @RequestParam(name = "to", required = false) String to) {
+        RuleSet current = ruleSetForm.getName() != null ? ruleService.getRuleSetByName(ruleSetForm.getName().trim()) : null;
+        if (current == null) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("RuleSet '" + ruleSetForm.getName() + "' is not saved yet, so there is nothing to compare with."));
         }
-
-        RuleSet finalRuleSet;
+        RuleSet proposed;
         try {
-            finalRuleSet = new RuleSet(ruleSetForm.getName(), submittedRules);
-            finalRuleSet.validateRules(); // This also calculates total length
+            proposed = new RuleSet(current.getName(), toSegmentRules(ruleSetForm));
+            proposed.validateRules();
         } catch (IllegalArgumentException | IllegalStateException e) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Error creating/validating RuleSet: " + e.getMessage());
-            return "redirect:/admin/rules/edit?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().body(ConversionResponse.error("Error creating/validating RuleSet: " + e.getMessage()));
+        }
+        if (corpus == null || corpus.isEmpty()) {
+            if (!historyLog.isEnabled()) {
+                return ResponseEntity.badRequest().body(ConversionResponse.error("Upload a corpus; conversion history is disabled."));
+            }
+            Instant[] window;
+            try {
+                window = window(from, to, DEFAULT_IMPACT_WINDOW);
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.badRequest().body(ConversionResponse.error("'from' and 'to' must be ISO-8601 instants such as 2024-01-31T12:00:00Z."));
+            }
+            try {
+                return ResponseEntity.ok(impactAnalysisService.analyze(current, proposed, barcodes -> historyLog.forEachBarcode(
+                        current.getName(), window[0].toEpochMilli(), window[1].toEpochMilli(), barcodes)));
+            } catch (IOException e) {
+                return ResponseEntity.badRequest().body(ConversionResponse.error("Could not read the history: " + e.getMessage()));
+            }
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(corpus.getInputStream(), StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(impactAnalysisService.analyze(current, proposed, reader));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("Could not read the corpus: " + e.getMessage()));
         }
+    }
 
+    // [from, to) from optional ISO-8601 instants; to defaults to now and from to defaultLength before to
+    private static Instant[] window(String from, String to, Duration defaultLength) {
+        Instant toInstant = to == null || to.isBlank() ? Instant.now() : Instant.parse(to.trim());
+        Instant fromInstant = from == null || from.isBlank() ? toInstant.minus(defaultLength) : Instant.parse(from.trim());
+        return new Instant[] {fromInstant, toInstant};
+    }
+
+    /**
+     * Audit query over the conversion history: records stamped in [from, to), given as ISO-8601 instants.
+     * Defaults to the last hour. With {@code word}, only successful conversions that used the word, looked up
+     * in the history's word index.
+     */
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> conversionHistory(@RequestParam(name = "from", required = false) String from,
+                                               @RequestParam(name = "to", required = false) String to,
+                                               @RequestParam(name = "word", required = false) String word,
+                                               @RequestParam(name = "limit", defaultValue = "" + DEFAULT_HISTORY_LIMIT) int limit) {
+        if (!historyLog.isEnabled()) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("Conversion history is disabled."));
+        }
+        Instant toInstant;
+        Instant fromInstant;
         try {
-            ruleService.saveRuleSet(finalRuleSet);
-            redirectAttributes.addFlashAttribute("successMessage", "RuleSet '" + finalRuleSet.getName() + "' saved successfully.");
-        } catch (IOException e) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Failed to save RuleSet: " + e.getMessage());
-            e.printStackTrace(); // Log to server console
-        } catch (IllegalArgumentException | IllegalStateException e) { // Catch validation errors from saveRuleSet if any
-            redirectAttributes.addFlashAttribute("errorMessage", "Invalid RuleSet configuration during save: " + e.getMessage());
-            return "redirect:/admin/rules/edit?name=" + java.net.URLEncoder.encode(ruleSetForm.getName(), StandardCharsets.UTF_8);
+            Instant[] window = window(from, to, DEFAULT_HISTORY_WINDOW);
+            fromInstant = window[0];
+            toInstant = window[1];
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("'from' and 'to' must be ISO-8601 instants such as 2024-01-31T12:00:00Z."));
         }
+        int recordLimit = Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+        if (word != null && !word.isBlank()) {
+            return ResponseEntity.ok(historyLog.findByWord(word, fromInstant.toEpochMilli(), toInstant.toEpochMilli(), recordLimit));
+        }
+        return ResponseEntity.ok(historyLog.query(fromInstant.toEpochMilli(), toInstant.toEpochMilli(), recordLimit));
+    }
 
-        return "redirect:/admin/rules";
+    /**
+     * Rate limiter counters: admitted and rejected requests, rejections per endpoint or RuleSet, tracked buckets.
+     */
+    @GetMapping(value = "/rate-limits", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> rateLimitStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", rateLimiter.isEnabled());
+        stats.put("admitted", rateLimiter.getAdmittedCount());
+        stats.put("rejected", rateLimiter.getRejectedCount());
+        stats.put("rejectedByScope", rateLimiter.getRejectedByScope());
+        stats.put("trackedBuckets", rateLimiter.getTrackedBucketCount());
+        return stats;
+    }
+
+    /**
+     * Word list figures, fixed at startup: words, duplicates skipped, estimated heap and load time.
+     */
+    @GetMapping(value = "/stats/dictionary", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> dictionaryStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("words", conversionService.getWordCount());
+        stats.put("duplicatesSkipped", conversionService.getDuplicateWordCount());
+        stats.put("estimatedBytes", conversionService.getDictionaryBytes());
+        stats.put("loadMillis", conversionService.getDictionaryLoadMillis());
+        stats.put("loadedAt", Instant.ofEpochMilli(conversionService.getDictionaryLoadedAt()).toString());
+        return stats;
+    }
+
+    /**
+     * RuleSet figures: last (re)load time and duration, and per RuleSet its version, estimated compiled size
+     * and validation time. In catalog mode the catalog's cache figures replace the per-RuleSet list; with
+     * multi-node sync, its counters are added.
+     */
+    @GetMapping(value = "/stats/rulesets", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> ruleSetStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        List<RuleService.RuleSetStats> ruleSets = ruleService.getRuleSetStats();
+        stats.put("lastReloadAt", Instant.ofEpochMilli(ruleService.getLastReloadAt()).toString());
+        stats.put("reloadCount", ruleService.getReloadCount());
+        stats.put("loadMillis", ruleService.getLoadMillis());
+        stats.put("estimatedBytes", ruleSets.stream().mapToLong(RuleService.RuleSetStats::getEstimatedBytes).sum());
+        RuleSetCatalog catalog = ruleService.getCatalog();
+        if (catalog != null) {
+            Map<String, Object> catalogStats = new LinkedHashMap<>();
+            catalogStats.put("ruleSets", catalog.size());
+            catalogStats.put("cached", catalog.getCachedCount());
+            catalogStats.put("cachedBytes", catalog.getCachedBytes());
+            catalogStats.put("maxBytes", catalog.getMaxBytes());
+            catalogStats.put("hits", catalog.getHitCount());
+            catalogStats.put("misses", catalog.getMissCount());
+            catalogStats.put("parses", catalog.getParseCount());
+            stats.put("catalog", catalogStats);
+        }
+        if (syncService.isEnabled()) {
+            Map<String, Object> syncStats = new LinkedHashMap<>();
+            syncStats.put("node", syncService.getNodeId());
+            syncStats.put("published", syncService.getPublishedCount());
+            syncStats.put("applied", syncService.getAppliedCount());
+            syncStats.put("failed", syncService.getFailedCount());
+            long lastAppliedAt = syncService.getLastAppliedAt();
+            syncStats.put("lastAppliedAt", lastAppliedAt > 0 ? Instant.ofEpochMilli(lastAppliedAt).toString() : null);
+            stats.put("sync", syncStats);
+        }
+        stats.put("ruleSets", ruleSets);
+        return stats;
     }
 
     @PostMapping("/rules/delete")
@@ -1,19 +1,52 @@
 package com.example.barcodeconverter.controller;
 
+import com.example.barcodeconverter.dto.AllocationRequest;
+import com.example.barcodeconverter.dto.AllocationResponse;
+import com.example.barcodeconverter.dto.BatchValidationRequest;
+import com.example.barcodeconverter.dto.BatchValidationResponse;
 import com.example.barcodeconverter.dto.ConversionRequest;
 import com.example.barcodeconverter.dto.ConversionResponse;
+import com.example.barcodeconverter.dto.GenerationRequest;
+import com.example.barcodeconverter.dto.IssuedImportRequest;
+import com.example.barcodeconverter.dto.IssuedImportResponse;
+import com.example.barcodeconverter.dto.ValidationResponse;
+import com.example.barcodeconverter.history.ConversionHistoryLog;
+import com.example.barcodeconverter.history.HistoryRecord;
 import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.ratelimit.RateLimitInterceptor;
+import com.example.barcodeconverter.ratelimit.RateLimiter;
+import com.example.barcodeconverter.render.ImageFormat;
+import com.example.barcodeconverter.render.Symbology;
+import com.example.barcodeconverter.service.BarcodeGenerationService;
+import com.example.barcodeconverter.service.BarcodeImageService;
+import com.example.barcodeconverter.service.ConversionCoalescer;
+import com.example.barcodeconverter.service.ConversionErrorCode;
+import com.example.barcodeconverter.service.ConversionResult;
 import com.example.barcodeconverter.service.ConversionService;
+import com.example.barcodeconverter.service.IssuedBarcodeRegistry;
 import com.example.barcodeconverter.service.RuleService;
+import com.example.barcodeconverter.service.TupleAllocator;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api")
@@ -21,15 +54,58 @@ public class ApiController {
 
     private final ConversionService conversionService;
     private final RuleService ruleService;
+    private final BarcodeGenerationService generationService;
+    private final TupleAllocator tupleAllocator;
+    private final IssuedBarcodeRegistry issuedBarcodeRegistry;
+    private final BarcodeImageService imageService;
+    private final ConversionHistoryLog historyLog;
+    private final RateLimiter rateLimiter;
+    private final ConversionCoalescer coalescer;
+    private static final int MAX_VALIDATION_BATCH_SIZE = 10000;
+    private static final int MAX_ALLOCATION_COUNT = 1000;
+    private static final int MAX_RULE_SET_SUGGESTIONS = 50;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    static final String HISTORY_DROPPED_HEADER = "X-History-Dropped";
 
     @Autowired
-    public ApiController(ConversionService conversionService, RuleService ruleService) {
+    public ApiController(ConversionService conversionService, RuleService ruleService,
+                         BarcodeGenerationService generationService, TupleAllocator tupleAllocator,
+                         IssuedBarcodeRegistry issuedBarcodeRegistry, BarcodeImageService imageService,
+                         ConversionHistoryLog historyLog, RateLimiter rateLimiter, ConversionCoalescer coalescer) {
         this.conversionService = conversionService;
         this.ruleService = ruleService;
+        this.generationService = generationService;
+        this.tupleAllocator = tupleAllocator;
+        this.issuedBarcodeRegistry = issuedBarcodeRegistry;
+        this.imageService = imageService;
+        this.historyLog = historyLog;
+        this.rateLimiter = rateLimiter;
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * What convert() learned about a request that its response does not carry, for the history log.
+     */
+    private static final class ConversionTrace {
+        String ruleSetName;
+        ConversionErrorCode errorCode;
     }
 
     @PostMapping("/convert")
-    public ResponseEntity<ConversionResponse> convert(@RequestBody ConversionRequest request) {
+    public ResponseEntity<ConversionResponse> convert(@RequestBody ConversionRequest request, HttpServletRequest httpRequest) {
+        long timestamp = System.currentTimeMillis();
+        ConversionTrace trace = new ConversionTrace();
+        ResponseEntity<ConversionResponse> response = convert(request, rateLimiter.clientKey(httpRequest), trace);
+        if (!historyLog.record(toHistoryRecord(timestamp, request, trace, response)) && historyLog.isEnabled()) {
+            // The conversion stands, but it is missing from the audit history
+            return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+                    .header(HISTORY_DROPPED_HEADER, "true").body(response.getBody());
+        }
+        return response;
+    }
+
+    private ResponseEntity<ConversionResponse> convert(ConversionRequest request, String client, ConversionTrace trace) {
         if (request == null) {
             return ResponseEntity.badRequest().body(ConversionResponse.error("Request body is missing."));
         }
@@ -52,6 +128,11 @@ public class ApiController {
                 return ResponseEntity.badRequest().body(ConversionResponse.error("RuleSet with name '" + requestedRuleSetName + "' not found."));
             }
         }
+        trace.ruleSetName = ruleSet.getName();
+        ResponseEntity<ConversionResponse> limited = rateLimitedFor(client, ruleSet);
+        if (limited != null) {
+            return limited;
+        }
 
         // RuleSets loaded by RuleService should already be validated.
         // An explicit call to ruleSet.validateRules() here is redundant and potentially problematic
@@ -84,15 +165,25 @@ public class ApiController {
 
             if (request.getBarcode() != null && !request.getBarcode().trim().isEmpty()) {
                 // Barcode to Words
-                List<String> words = conversionService.barcodeToWords(request.getBarcode(), ruleSet);
-                return ResponseEntity.ok(ConversionResponse.successWords(words));
+                ConversionResult result = coalescer.decode(request.getBarcode(), ruleSet);
+                if (!result.isSuccess()) {
+                    trace.errorCode = result.getErrorCode();
+                    return ResponseEntity.badRequest().body(ConversionResponse.error(result.getMessage()));
+                }
+                ConversionResponse response = ConversionResponse.successWords(result.getWords());
+                response.setRuleSetVersion(result.getRuleSetVersion());
+                return ResponseEntity.ok(response);
             } else if (request.getWords() != null && !request.getWords().isEmpty()) {
                 // Words to Barcode
                 if (request.getWords().size() != 4) {
                     return ResponseEntity.badRequest().body(ConversionResponse.error("Exactly 4 words are required for conversion to barcode."));
                 }
-                String barcode = conversionService.wordsToBarcode(request.getWords(), ruleSet);
-                return ResponseEntity.ok(ConversionResponse.successBarcode(barcode));
+                ConversionResult result = coalescer.encode(request.getWords(), ruleSet);
+                if (!result.isSuccess()) {
+                    trace.errorCode = result.getErrorCode();
+                    return ResponseEntity.badRequest().body(ConversionResponse.error(result.getMessage()));
+                }
+                return ResponseEntity.ok(ConversionResponse.successBarcode(result.getBarcode()));
             } else {
                 return ResponseEntity.badRequest().body(ConversionResponse.error("Either 'barcode' or 'words' must be provided in the request."));
             }
@@ -110,4 +201,262 @@ public class ApiController {
                            .body(ConversionResponse.error("An unexpected error occurred. Please check server logs."));
         }
     }
+
+    private static HistoryRecord toHistoryRecord(long timestamp, ConversionRequest request, ConversionTrace trace,
+                                                 ResponseEntity<ConversionResponse> response) {
+        HistoryRecord.Direction direction = HistoryRecord.Direction.UNKNOWN;
+        String input = null;
+        if (request != null && request.getBarcode() != null && !request.getBarcode().trim().isEmpty()) {
+            direction = HistoryRecord.Direction.BARCODE_TO_WORDS;
+            input = request.getBarcode();
+        } else if (request != null && request.getWords() != null && !request.getWords().isEmpty()) {
+            direction = HistoryRecord.Direction.WORDS_TO_BARCODE;
+            input = String.join(" ", request.getWords());
+        }
+        ConversionResponse body = response.getBody();
+        String output = null;
+        if (body != null) {
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                output = body.getMessage();
+            } else if (body.getBarcode() != null) {
+                output = body.getBarcode();
+            } else if (body.getWords() != null) {
+                output = String.join(" ", body.getWords());
+            }
+        }
+        String ruleSetName = trace.ruleSetName != null ? trace.ruleSetName : request != null ? request.getRuleSetName() : null;
+        return new HistoryRecord(timestamp, direction, ruleSetName, input, output, response.getStatusCode().value(),
+                trace.errorCode != null ? trace.errorCode.name() : null);
+    }
+
+    /**
+     * Validate-only check of a single barcode: conformance to the RuleSet, no words returned.
+     */
+    @PostMapping("/validate")
+    public ResponseEntity<?> validate(@RequestBody ConversionRequest request, HttpServletRequest httpRequest) {
+        if (request == null || request.getBarcode() == null || request.getBarcode().trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("'barcode' must be provided in the request."));
+        }
+        RuleSet ruleSet = resolveRuleSet(request.getRuleSetName());
+        if (ruleSet == null) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("RuleSet with name '" + request.getRuleSetName() + "' not found."));
+        }
+        ResponseEntity<ConversionResponse> limited = rateLimitedFor(rateLimiter.clientKey(httpRequest), ruleSet);
+        if (limited != null) {
+            return limited;
+        }
+        return ResponseEntity.ok(toValidationResponse(coalescer.validate(request.getBarcode(), ruleSet)));
+    }
+
+    /**
+     * Validate-only check of many barcodes against one RuleSet; verdicts are returned in request order.
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<?> validateBatch(@RequestBody BatchValidationRequest request, HttpServletRequest httpRequest) {
+        if (request == null || request.getBarcodes() == null || request.getBarcodes().isEmpty()) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("'barcodes' must be a non-empty list."));
+        }
+        if (request.getBarcodes().size() > MAX_VALIDATION_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("At most " + MAX_VALIDATION_BATCH_SIZE + " barcodes can be validated per request."));
+        }
+        RuleSet ruleSet = resolveRuleSet(request.getRuleSetName());
+        if (ruleSet == null) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("RuleSet with name '" + request.getRuleSetName() + "' not found."));
+        }
+        ResponseEntity<ConversionResponse> limited = rateLimitedFor(rateLimiter.clientKey(httpRequest), ruleSet);
+        if (limited != null) {
+            return limited;
+        }
+
+        List<ValidationResponse> results = new ArrayList<>(request.getBarcodes().size());
+        int validCount = 0;
+        for (ConversionResult result : conversionService.validateBatch(request.getBarcodes(), ruleSet)) {
+            ValidationResponse verdict = toValidationResponse(result);
+            if (verdict.isValid()) {
+                validCount++;
+            }
+            results.add(verdict);
+        }
+        return ResponseEntity.ok(new BatchValidationResponse(ruleSet.getName(), validCount, results.size() - validCount, results));
+    }
+
+    /**
+     * Bulk generation for label printing; barcodes are streamed as CSV or NDJSON while they are produced.
+     * The request is fully checked before the response starts, so errors still come back as 400.
+     */
+    @PostMapping("/generate")
+    public ResponseEntity<StreamingResponseBody> generate(@RequestBody GenerationRequest request) {
+        if (request == null) {
+            throw new InvalidGenerationRequestException("Request body is missing.");
+        }
+        BarcodeGenerationService.OutputFormat format;
+        if (request.getFormat() == null || request.getFormat().equalsIgnoreCase("csv")) {
+            format = BarcodeGenerationService.OutputFormat.CSV;
+        } else if (request.getFormat().equalsIgnoreCase("ndjson")) {
+            format = BarcodeGenerationService.OutputFormat.NDJSON;
+        } else {
+            throw new InvalidGenerationRequestException("Unsupported format '" + request.getFormat() + "'. Use 'csv' or 'ndjson'.");
+        }
+        RuleSet ruleSet = resolveRuleSet(request.getRuleSetName());
+        if (ruleSet == null) {
+            throw new InvalidGenerationRequestException("RuleSet with name '" + request.getRuleSetName() + "' not found.");
+        }
+
+        BarcodeGenerationService.Generation generation;
+        try {
+            if (request.getWordTuples() != null && !request.getWordTuples().isEmpty()) {
+                generation = generationService.prepareTuples(ruleSet, request.getWordTuples(), format);
+            } else if (request.getCount() == null) {
+                throw new InvalidGenerationRequestException("Either 'wordTuples' or 'count' must be provided in the request.");
+            } else if (request.getSeed() != null) {
+                generation = generationService.prepareRandom(ruleSet, request.getSeed(), request.getCount(), format);
+            } else {
+                long start = request.getStartIndex() != null ? request.getStartIndex() : 0;
+                generation = generationService.prepareRange(ruleSet, start, request.getCount(), format);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGenerationRequestException(e.getMessage());
+        }
+
+        StreamingResponseBody body = generation::writeTo;
+        String extension = format == BarcodeGenerationService.OutputFormat.CSV ? "csv" : "ndjson";
+        return ResponseEntity.ok()
+                .contentType(format == BarcodeGenerationService.OutputFormat.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"barcodes." + extension + "\"")
+                .body(body);
+    }
+
+    /**
+     * Issues word combinations that have never been issued before for the RuleSet.
+     */
+    @PostMapping("/allocate")
+    public ResponseEntity<?> allocate(@RequestBody(required = false) AllocationRequest request) {
+        if (request == null) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("Request body is missing."));
+        }
+        int count = request.getCount() != null ? request.getCount() : 1;
+        if (count < 1 || count > MAX_ALLOCATION_COUNT) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("'count' must be between 1 and " + MAX_ALLOCATION_COUNT + "."));
+        }
+        String ruleSetName = request.getRuleSetName();
+        RuleSet ruleSet = resolveRuleSet(ruleSetName);
+        if (ruleSet == null) {
+            String message = ruleSetName == null || ruleSetName.trim().isEmpty()
+                ? "No default rule set configured or no rule sets available in the system."
+                : "RuleSet with name '" + ruleSetName + "' not found.";
+            return ResponseEntity.badRequest().body(ConversionResponse.error(message));
+        }
+        try {
+            List<ConversionResponse> allocations = new ArrayList<>(count);
+            for (TupleAllocator.Allocation allocation : tupleAllocator.allocate(ruleSet, count)) {
+                ConversionResponse item = ConversionResponse.successBarcode(allocation.getBarcode());
+                item.setWords(allocation.getWords());
+                allocations.add(item);
+            }
+            return ResponseEntity.ok(new AllocationResponse(ruleSet.getName(), allocations));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ConversionResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Bulk import of issued barcodes into the RuleSet's issued-barcode filter, e.g. from a print run.
+     * The first import for a RuleSet creates its filter and must include every barcode issued so far.
+     */
+    @PostMapping("/issued")
+    public ResponseEntity<?> importIssued(@RequestBody IssuedImportRequest request) {
+        if (request == null || request.getBarcodes() == null || request.getBarcodes().isEmpty()) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("'barcodes' must be a non-empty list."));
+        }
+        RuleSet ruleSet = resolveRuleSet(request.getRuleSetName());
+        if (ruleSet == null) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("RuleSet with name '" + request.getRuleSetName() + "' not found."));
+        }
+        try {
+            long added = issuedBarcodeRegistry.importBarcodes(ruleSet.getName(), request.getBarcodes());
+            long filterCount = issuedBarcodeRegistry.getFilter(ruleSet.getName()).getInsertionCount();
+            return ResponseEntity.ok(new IssuedImportResponse(ruleSet.getName(), request.getBarcodes().size(), added, filterCount));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ConversionResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Renders a barcode string as a PNG or SVG image, e.g. {@code /api/barcodes/1234T5678.png?symbology=qr&size=4}.
+     * Images are deterministic, so clients may cache them; the server keeps recent ones as well.
+     */
+    @GetMapping("/barcodes/{code}.{extension}")
+    public ResponseEntity<?> renderBarcode(@PathVariable String code, @PathVariable String extension,
+                                           @RequestParam(defaultValue = "code128") String symbology,
+                                           @RequestParam(defaultValue = "2") int size) {
+        ImageFormat format;
+        Symbology parsedSymbology;
+        try {
+            format = ImageFormat.valueOf(extension.toUpperCase(Locale.ROOT));
+            parsedSymbology = Symbology.valueOf(symbology.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(ConversionResponse.error("Unsupported image '" + extension + "' or symbology '" + symbology +
+                                                   "'. Use .png or .svg with code128, datamatrix or qr."));
+        }
+        try {
+            byte[] image = imageService.render(code, parsedSymbology, format, size);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(format.getMediaType()))
+                    .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS))
+                    .body(image);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(ConversionResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Typeahead for RuleSet selectors: names starting with {@code q} first, then names containing it.
+     */
+    @GetMapping("/rulesets")
+    public ResponseEntity<List<String>> searchRuleSets(@RequestParam(name = "q", required = false) String query,
+                                                       @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ruleService.searchRuleSetNames(query, 0, Math.max(1, Math.min(limit, MAX_RULE_SET_SUGGESTIONS))));
+    }
+
+    // The streaming endpoint's return type cannot carry a ConversionResponse, so its errors go through this handler
+    @ExceptionHandler(InvalidGenerationRequestException.class)
+    public ResponseEntity<ConversionResponse> handleInvalidGenerationRequest(InvalidGenerationRequestException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(ConversionResponse.error(e.getMessage()));
+    }
+
+    static class InvalidGenerationRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        InvalidGenerationRequestException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Per-RuleSet rate limit; endpoint limits are applied earlier by {@link RateLimitInterceptor}.
+     * @return a 429 response if the client is over the RuleSet's limit, else null.
+     */
+    private ResponseEntity<ConversionResponse> rateLimitedFor(String client, RuleSet ruleSet) {
+        long waitNanos = rateLimiter.acquireRuleSet(client, ruleSet.getName());
+        if (waitNanos == 0) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimitInterceptor.retryAfterSeconds(waitNanos)))
+                .body(ConversionResponse.error("Rate limit exceeded for RuleSet '" + ruleSet.getName() + "'; retry later."));
+    }
+
+    private RuleSet resolveRuleSet(String ruleSetName) {
+        // RuleService's getRuleSetByName handles null/empty by returning a default if available
+        boolean useDefault = ruleSetName == null || ruleSetName.trim().isEmpty();
+        return ruleService.getRuleSetByName(useDefault ? null : ruleSetName);
+    }
+
+    private static ValidationResponse toValidationResponse(ConversionResult result) {
+        if (result.isSuccess()) {
+            return result.getRuleSetVersion() > 0 ? ValidationResponse.valid(result.getRuleSetVersion()) : ValidationResponse.valid();
+        }
+        return ValidationResponse.invalid(result.getErrorCode().name(), result.getSegmentOrder(), result.getPosition());
+    }
 }
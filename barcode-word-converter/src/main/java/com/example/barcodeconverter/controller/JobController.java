@@ -0,0 +1,147 @@
+package com.example.barcodeconverter.controller;
+
+import com.example.barcodeconverter.dto.ConversionResponse;
+import com.example.barcodeconverter.dto.JobStatusResponse;
+import com.example.barcodeconverter.job.ConversionJob;
+import com.example.barcodeconverter.job.ConversionJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Asynchronous bulk conversion: upload a CSV, poll the job, download the converted CSV. Jobs are visible only
+ * to the user who submitted them.
+ * <p>
+ * Input is one row per line: a barcode in the first column for {@code decode} and {@code validate}, the
+ * words in the first four columns for {@code encode}; a header row is skipped.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final ConversionJobService jobService;
+
+    @Autowired
+    public JobController(ConversionJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestParam("file") MultipartFile file,
+                                    @RequestParam(name = "ruleSetName") String ruleSetName,
+                                    @RequestParam(name = "direction", defaultValue = "decode") String direction,
+                                    @RequestParam(name = "priority", required = false) String priority,
+                                    Principal principal) {
+        ConversionJob.Direction jobDirection;
+        try {
+            jobDirection = ConversionJob.Direction.valueOf(direction.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("Unsupported direction '" + direction + "'. Use 'decode', 'encode' or 'validate'."));
+        }
+        if (priority != null && !priority.equalsIgnoreCase("interactive") && !priority.equalsIgnoreCase("bulk")) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("Unsupported priority '" + priority + "'. Use 'interactive' or 'bulk'."));
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error("The uploaded file is empty."));
+        }
+        ConversionJob job;
+        try (InputStream input = file.getInputStream()) {
+            job = jobService.submit(input, principal.getName(), ruleSetName, jobDirection, "bulk".equalsIgnoreCase(priority));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ConversionResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(ConversionResponse.error(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ConversionResponse.error("Could not store the upload: " + e.getMessage()));
+        }
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, "/api/jobs/" + job.getId())
+                .body(toStatusResponse(job));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id, Principal principal) {
+        ConversionJob job = ownJob(id, principal);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ConversionResponse.error("Job '" + id + "' not found."));
+        }
+        return ResponseEntity.ok(toStatusResponse(job));
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> result(@PathVariable String id, Principal principal) {
+        ConversionJob job = ownJob(id, principal);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ConversionResponse.error("Job '" + id + "' not found."));
+        }
+        Path file = jobService.getResultFile(job);
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ConversionResponse.error("Job '" + id + "' is " + job.getStatus().name().toLowerCase(Locale.ROOT) + "; there is no result to download."));
+        }
+        return ResponseEntity.ok()
+                .contentType(CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getId() + ".csv\"")
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable String id, Principal principal) {
+        if (ownJob(id, principal) == null || !jobService.delete(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ConversionResponse.error("Job '" + id + "' not found."));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // Someone else's job is reported as missing rather than forbidden, so job ids can't be probed
+    private ConversionJob ownJob(String id, Principal principal) {
+        ConversionJob job = jobService.get(id);
+        return job != null && principal != null && principal.getName().equals(job.getOwner()) ? job : null;
+    }
+
+    private static JobStatusResponse toStatusResponse(ConversionJob job) {
+        JobStatusResponse response = new JobStatusResponse();
+        response.setId(job.getId());
+        response.setStatus(job.getStatus().name());
+        response.setRuleSetName(job.getRuleSetName());
+        response.setRuleSetVersion(job.getRuleSetVersion());
+        response.setDirection(job.getDirection().name());
+        response.setPriority(job.getPriority().name());
+        response.setRows(job.getRows());
+        response.setErrorRows(job.getErrorRows());
+        response.setBytesProcessed(job.getInputOffset());
+        response.setTotalBytes(job.getInputBytes());
+        response.setPercentComplete(job.getInputBytes() > 0 ? (int) (job.getInputOffset() * 100 / job.getInputBytes()) : 100);
+        response.setCreatedAt(Instant.ofEpochMilli(job.getCreatedAt()).toString());
+        if (job.getFinishedAt() > 0) {
+            response.setFinishedAt(Instant.ofEpochMilli(job.getFinishedAt()).toString());
+        }
+        response.setError(job.getError());
+        if (job.getStatus() == ConversionJob.Status.DONE) {
+            response.setResultUrl("/api/jobs/" + job.getId() + "/result");
+        }
+        return response;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.barcodeconverter.controller;
+
+import com.example.barcodeconverter.history.ConversionHistoryLog;
+import com.example.barcodeconverter.service.WarmupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Readiness probe for load balancers: 200 once the application accepts traffic, which is after the
+ * startup warm-up has finished, and 503 before. The warm-up report is included either way, as is the number of
+ * conversions missing from the audit history because its writer fell behind.
+ */
+@RestController
+public class ReadinessController {
+
+    private final ApplicationAvailability availability;
+    private final WarmupService warmupService;
+    private final ConversionHistoryLog historyLog;
+
+    @Autowired
+    public ReadinessController(ApplicationAvailability availability, WarmupService warmupService, ConversionHistoryLog historyLog) {
+        this.availability = availability;
+        this.warmupService = warmupService;
+        this.historyLog = historyLog;
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        ReadinessState state = availability.getReadinessState();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", state);
+        body.put("warmupEnabled", warmupService.isEnabled());
+        body.put("warmup", warmupService.getReport()); // Null while warm-up is running
+        body.put("historyDroppedRecords", historyLog.getDroppedCount());
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(body);
+    }
+}
@@ -12,6 +12,7 @@ import java.util.List;
 public class WebController {
 
     private final RuleService ruleService;
+    private static final int INITIAL_SUGGESTIONS = 20;
 
     @Autowired
     public WebController(RuleService ruleService) {
@@ -20,7 +21,8 @@ public class WebController {
 
     @GetMapping("/")
     public String index(Model model) {
-        List<String> ruleSetNames = ruleService.getAllRuleSetNames();
+        // Only the first names are rendered; the selector asks /api/rulesets for the rest as the user types
+        List<String> ruleSetNames = ruleService.searchRuleSetNames(null, 0, INITIAL_SUGGESTIONS);
         model.addAttribute("ruleSetNames", ruleSetNames);
         if (!ruleSetNames.isEmpty()) {
             model.addAttribute("defaultRuleSet", ruleSetNames.get(0));
@@ -0,0 +1,31 @@
+package com.example.barcodeconverter.dto;
+
+public class AllocationRequest {
+    private String ruleSetName; // Optional, the default RuleSet is used when missing
+    private Integer count;      // Optional, defaults to 1
+
+    // Getters and Setters
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public void setRuleSetName(String ruleSetName) {
+        this.ruleSetName = ruleSetName;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "AllocationRequest{" +
+               "ruleSetName='" + ruleSetName + '\'' +
+               ", count=" + count +
+               '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.barcodeconverter.dto;
+
+import java.util.List;
+
+public class AllocationResponse {
+    private String ruleSetName;
+    private List<ConversionResponse> allocations; // Each carries both the barcode and its words
+
+    public AllocationResponse() {
+    }
+
+    public AllocationResponse(String ruleSetName, List<ConversionResponse> allocations) {
+        this.ruleSetName = ruleSetName;
+        this.allocations = allocations;
+    }
+
+    // Getters and Setters
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public void setRuleSetName(String ruleSetName) {
+        this.ruleSetName = ruleSetName;
+    }
+
+    public List<ConversionResponse> getAllocations() {
+        return allocations;
+    }
+
+    public void setAllocations(List<ConversionResponse> allocations) {
+        this.allocations = allocations;
+    }
+
+    @Override
+    public String toString() {
+        return "AllocationResponse{" +
+               "ruleSetName='" + ruleSetName + '\'' +
+               ", allocations=" + (allocations != null ? allocations.size() : 0) +
+               '}';
+    }
+}
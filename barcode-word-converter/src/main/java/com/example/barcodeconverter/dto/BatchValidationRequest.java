@@ -0,0 +1,33 @@
+package com.example.barcodeconverter.dto;
+
+import java.util.List;
+
+public class BatchValidationRequest {
+    private String ruleSetName; // Optional, the default RuleSet is used when missing
+    private List<String> barcodes;
+
+    // Getters and Setters
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public void setRuleSetName(String ruleSetName) {
+        this.ruleSetName = ruleSetName;
+    }
+
+    public List<String> getBarcodes() {
+        return barcodes;
+    }
+
+    public void setBarcodes(List<String> barcodes) {
+        this.barcodes = barcodes;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchValidationRequest{" +
+               "ruleSetName='" + ruleSetName + '\'' +
+               ", barcodes=" + (barcodes != null ? barcodes.size() : 0) +
+               '}';
+    }
+}
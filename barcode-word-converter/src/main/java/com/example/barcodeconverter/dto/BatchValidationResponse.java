@@ -0,0 +1,62 @@
+package com.example.barcodeconverter.dto;
+
+import java.util.List;
+
+public class BatchValidationResponse {
+    private String ruleSetName;
+    private int validCount;
+    private int invalidCount;
+    private List<ValidationResponse> results; // Same order as the request's barcodes
+
+    public BatchValidationResponse() {
+    }
+
+    public BatchValidationResponse(String ruleSetName, int validCount, int invalidCount, List<ValidationResponse> results) {
+        this.ruleSetName = ruleSetName;
+        this.validCount = validCount;
+        this.invalidCount = invalidCount;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public void setRuleSetName(String ruleSetName) {
+        this.ruleSetName = ruleSetName;
+    }
+
+    public int getValidCount() {
+        return validCount;
+    }
+
+    public void setValidCount(int validCount) {
+        this.validCount = validCount;
+    }
+
+    public int getInvalidCount() {
+        return invalidCount;
+    }
+
+    public void setInvalidCount(int invalidCount) {
+        this.invalidCount = invalidCount;
+    }
+
+    public List<ValidationResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ValidationResponse> results) {
+        this.results = results;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchValidationResponse{" +
+               "ruleSetName='" + ruleSetName + '\'' +
+               ", validCount=" + validCount +
+               ", invalidCount=" + invalidCount +
+               '}';
+    }
+}
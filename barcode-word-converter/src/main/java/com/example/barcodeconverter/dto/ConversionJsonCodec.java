@@ -0,0 +1,233 @@
+package com.example.barcodeconverter.dto;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON reader for {@link ConversionRequest} and writer for {@link ConversionResponse}, the
+ * two bodies of /api/convert, without databind reflection.
+ * <p>
+ * Requests are read field by field from a Jackson {@link JsonParser}, leniently like databind: unknown
+ * fields are skipped and scalars are accepted as strings. Responses are written byte for byte as
+ * databind writes them (the four string fields, nulls included, then ruleSetVersion when set, in declaration
+ * order), from pre-encoded UTF-8 for the field names, the status strings, the standard success messages and
+ * every dictionary word.
+ */
+public final class ConversionJsonCodec {
+
+    private static final byte[] BARCODE_FIELD = ascii("{\"barcode\":");
+    private static final byte[] WORDS_FIELD = ascii(",\"words\":");
+    private static final byte[] STATUS_FIELD = ascii(",\"status\":");
+    private static final byte[] MESSAGE_FIELD = ascii(",\"message\":");
+    private static final byte[] RULE_SET_VERSION_FIELD = ascii(",\"ruleSetVersion\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+    private static final Map<String, byte[]> CONSTANTS = new HashMap<>();
+
+    static {
+        ConversionResponse barcode = ConversionResponse.successBarcode(null);
+        ConversionResponse words = ConversionResponse.successWords(null);
+        for (String constant : new String[]{barcode.getStatus(), barcode.getMessage(), words.getMessage(), "error"}) {
+            CONSTANTS.put(constant, quote(constant));
+        }
+    }
+
+    private final JsonFactory jsonFactory;
+    private final Map<String, byte[]> encodedWords;
+
+    /**
+     * @param dictionary words to pre-encode, normally the whole word list
+     */
+    public ConversionJsonCodec(JsonFactory jsonFactory, Iterable<String> dictionary) {
+        this.jsonFactory = jsonFactory;
+        this.encodedWords = new HashMap<>();
+        for (String word : dictionary) {
+            encodedWords.put(word, quote(word));
+        }
+    }
+
+    public ConversionRequest readRequest(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            ConversionRequest request = new ConversionRequest();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object for the conversion request but found " + token + ".");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "barcode":
+                        request.setBarcode(readString(parser, value, field));
+                        break;
+                    case "ruleSetName":
+                        request.setRuleSetName(readString(parser, value, field));
+                        break;
+                    case "words":
+                        request.setWords(readStrings(parser, value));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return request;
+        }
+    }
+
+    private static String readString(JsonParser parser, JsonToken value, String field) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            throw new IOException("Field '" + field + "' must be a string.");
+        }
+        return parser.getText();
+    }
+
+    private static List<String> readStrings(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.START_ARRAY) {
+            throw new IOException("Field 'words' must be an array of strings.");
+        }
+        List<String> words = new ArrayList<>(4);
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            words.add(readString(parser, element, "words"));
+        }
+        return words;
+    }
+
+    public void writeResponse(ConversionResponse response, OutputStream out) throws IOException {
+        Buffer buffer = new Buffer();
+        buffer.write(BARCODE_FIELD);
+        writeString(buffer, response.getBarcode());
+        buffer.write(WORDS_FIELD);
+        List<String> words = response.getWords();
+        if (words == null) {
+            buffer.write(NULL);
+        } else {
+            buffer.write('[');
+            for (int i = 0; i < words.size(); i++) {
+                if (i > 0) {
+                    buffer.write(',');
+                }
+                String word = words.get(i);
+                byte[] encoded = word != null ? encodedWords.get(word) : null;
+                if (encoded != null) {
+                    buffer.write(encoded);
+                } else {
+                    writeString(buffer, word);
+                }
+            }
+            buffer.write(']');
+        }
+        buffer.write(STATUS_FIELD);
+        writeString(buffer, response.getStatus());
+        buffer.write(MESSAGE_FIELD);
+        writeString(buffer, response.getMessage());
+        if (response.getRuleSetVersion() != null) {
+            buffer.write(RULE_SET_VERSION_FIELD);
+            buffer.write(ascii(response.getRuleSetVersion().toString()));
+        }
+        buffer.write('}');
+        out.write(buffer.bytes, 0, buffer.length);
+    }
+
+    private static void writeString(Buffer buffer, String value) {
+        if (value == null) {
+            buffer.write(NULL);
+            return;
+        }
+        byte[] constant = CONSTANTS.get(value);
+        if (constant != null) {
+            buffer.write(constant);
+        } else {
+            buffer.write(quote(value));
+        }
+    }
+
+    /**
+     * Quoted, escaped UTF-8 as Jackson writes it: short escapes for quote, backslash and the common control
+     * characters, {@code \}{@code u00XX} for the rest below 0x20, everything else as is.
+     */
+    static byte[] quote(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = null;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c < 0x20) {
+                switch (c) {
+                    case '\n': replacement = "\\n"; break;
+                    case '\r': replacement = "\\r"; break;
+                    case '\t': replacement = "\\t"; break;
+                    case '\b': replacement = "\\b"; break;
+                    case '\f': replacement = "\\f"; break;
+                    default: replacement = "\\u00" + (char) HEX[c >> 4] + (char) HEX[c & 0xF];
+                }
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        byte[] body = (escaped != null ? escaped.toString() : value).getBytes(StandardCharsets.UTF_8);
+        byte[] quoted = new byte[body.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(body, 0, quoted, 1, body.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Collects the response so it reaches the servlet stream in one write
+    private static final class Buffer {
+        byte[] bytes = new byte[256];
+        int length;
+
+        void write(byte[] data) {
+            ensure(data.length);
+            System.arraycopy(data, 0, bytes, length, data.length);
+            length += data.length;
+        }
+
+        void write(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+        }
+
+        private void ensure(int more) {
+            if (length + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+            }
+        }
+    }
+}
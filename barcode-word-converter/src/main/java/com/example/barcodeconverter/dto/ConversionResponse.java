@@ -1,5 +1,7 @@
 package com.example.barcodeconverter.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class ConversionResponse {
@@ -7,6 +9,8 @@ public class ConversionResponse {
     private List<String> words;
     private String status; // e.g., "success", "error"
     private String message; // Optional message, especially for errors
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer ruleSetVersion; // Version a decoded barcode matched; older than current for barcodes issued before an edit
 
     // Constructors
     public ConversionResponse() {
@@ -66,6 +70,14 @@ public class ConversionResponse {
         this.message = message;
     }
 
+    public Integer getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    public void setRuleSetVersion(Integer ruleSetVersion) {
+        this.ruleSetVersion = ruleSetVersion;
+    }
+
     @Override
     public String toString() {
         return "ConversionResponse{" +
@@ -73,6 +85,7 @@ public class ConversionResponse {
                ", words=" + words +
                ", status='" + status + '\'' +
                ", message='" + message + '\'' +
+               ", ruleSetVersion=" + ruleSetVersion +
                '}';
     }
 }
@@ -0,0 +1,78 @@
+package com.example.barcodeconverter.dto;
+
+import java.util.List;
+
+/**
+ * Bulk generation request. Exactly one source is used: {@code wordTuples} if present, otherwise
+ * {@code count} random combinations if {@code seed} is set, otherwise {@code count} combinations
+ * of the index range starting at {@code startIndex}.
+ */
+public class GenerationRequest {
+    private String ruleSetName; // Optional, the default RuleSet is used when missing
+    private String format;      // "csv" (default) or "ndjson"
+    private List<List<String>> wordTuples;
+    private Long startIndex;
+    private Long count;
+    private Long seed;
+
+    // Getters and Setters
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public void setRuleSetName(String ruleSetName) {
+        this.ruleSetName = ruleSetName;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public List<List<String>> getWordTuples() {
+        return wordTuples;
+    }
+
+    public void setWordTuples(List<List<String>> wordTuples) {
+        this.wordTuples = wordTuples;
+    }
+
+    public Long getStartIndex() {
+        return startIndex;
+    }
+
+    public void setStartIndex(Long startIndex) {
+        this.startIndex = startIndex;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationRequest{" +
+               "ruleSetName='" + ruleSetName + '\'' +
+               ", format='" + format + '\'' +
+               ", wordTuples=" + (wordTuples != null ? wordTuples.size() : 0) +
+               ", startIndex=" + startIndex +
+               ", count=" + count +
+               ", seed=" + seed +
+               '}';
+    }
+}
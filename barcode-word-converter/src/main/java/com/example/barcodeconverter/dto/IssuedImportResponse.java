@@ -0,0 +1,61 @@
+package com.example.barcodeconverter.dto;
+
+public class IssuedImportResponse {
+    private String ruleSetName;
+    private int received;         // Barcodes in the request
+    private long added;           // Barcodes that were definitely new to the filter
+    private long filterCount;     // Barcodes in the filter after the import
+
+    public IssuedImportResponse() {
+    }
+
+    public IssuedImportResponse(String ruleSetName, int received, long added, long filterCount) {
+        this.ruleSetName = ruleSetName;
+        this.received = received;
+        this.added = added;
+        this.filterCount = filterCount;
+    }
+
+    // Getters and Setters
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public void setRuleSetName(String ruleSetName) {
+        this.ruleSetName = ruleSetName;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public long getAdded() {
+        return added;
+    }
+
+    public void setAdded(long added) {
+        this.added = added;
+    }
+
+    public long getFilterCount() {
+        return filterCount;
+    }
+
+    public void setFilterCount(long filterCount) {
+        this.filterCount = filterCount;
+    }
+
+    @Override
+    public String toString() {
+        return "IssuedImportResponse{" +
+               "ruleSetName='" + ruleSetName + '\'' +
+               ", received=" + received +
+               ", added=" + added +
+               ", filterCount=" + filterCount +
+               '}';
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.barcodeconverter.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Progress of a bulk conversion job. {@code resultUrl} is set once the job is DONE; {@code error} only when
+ * it FAILED.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobStatusResponse {
+    private String id;
+    private String status;
+    private String ruleSetName;
+    private int ruleSetVersion;
+    private String direction;
+    private String priority;
+    private long rows;
+    private long errorRows;
+    private long bytesProcessed;
+    private long totalBytes;
+    private int percentComplete; // Of the input bytes
+    private String createdAt; // ISO-8601
+    private String finishedAt;
+    private String error;
+    private String resultUrl;
+
+    public JobStatusResponse() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public void setRuleSetName(String ruleSetName) {
+        this.ruleSetName = ruleSetName;
+    }
+
+    public int getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    public void setRuleSetVersion(int ruleSetVersion) {
+        this.ruleSetVersion = ruleSetVersion;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getErrorRows() {
+        return errorRows;
+    }
+
+    public void setErrorRows(long errorRows) {
+        this.errorRows = errorRows;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public int getPercentComplete() {
+        return percentComplete;
+    }
+
+    public void setPercentComplete(int percentComplete) {
+        this.percentComplete = percentComplete;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getResultUrl() {
+        return resultUrl;
+    }
+
+    public void setResultUrl(String resultUrl) {
+        this.resultUrl = resultUrl;
+    }
+}
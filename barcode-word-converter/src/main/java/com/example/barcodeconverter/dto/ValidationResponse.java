@@ -0,0 +1,96 @@
+package com.example.barcodeconverter.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Compact validate-only verdict for one barcode. A conforming barcode serializes as
+ * {@code {"valid":true}}; failures add the error code, segment order and position.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValidationResponse {
+    private boolean valid;
+    private String errorCode;
+    private Integer segmentOrder;
+    private Integer position;
+    private Integer ruleSetVersion; // Version the barcode conforms to
+
+    private static final ValidationResponse VALID = new ValidationResponse(true, null, null, null);
+
+    public ValidationResponse() {
+    }
+
+    public ValidationResponse(boolean valid, String errorCode, Integer segmentOrder, Integer position) {
+        this.valid = valid;
+        this.errorCode = errorCode;
+        this.segmentOrder = segmentOrder;
+        this.position = position;
+    }
+
+    public static ValidationResponse valid() {
+        return VALID;
+    }
+
+    public static ValidationResponse valid(int ruleSetVersion) {
+        ValidationResponse response = new ValidationResponse(true, null, null, null);
+        response.setRuleSetVersion(ruleSetVersion);
+        return response;
+    }
+
+    public static ValidationResponse invalid(String errorCode, int segmentOrder, int position) {
+        // Negative values mean "not applicable" (e.g. a length mismatch has no failing segment)
+        return new ValidationResponse(false, errorCode,
+                                      segmentOrder >= 0 ? segmentOrder : null,
+                                      position >= 0 ? position : null);
+    }
+
+    // Getters and Setters
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public Integer getSegmentOrder() {
+        return segmentOrder;
+    }
+
+    public void setSegmentOrder(Integer segmentOrder) {
+        this.segmentOrder = segmentOrder;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public Integer getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    public void setRuleSetVersion(Integer ruleSetVersion) {
+        this.ruleSetVersion = ruleSetVersion;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResponse{" +
+               "valid=" + valid +
+               ", errorCode='" + errorCode + '\'' +
+               ", segmentOrder=" + segmentOrder +
+               ", position=" + position +
+               '}';
+    }
+}
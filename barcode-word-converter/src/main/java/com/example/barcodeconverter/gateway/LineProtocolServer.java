@@ -0,0 +1,385 @@
+package com.example.barcodeconverter.gateway;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.ConversionResult;
+import com.example.barcodeconverter.service.ConversionService;
+import com.example.barcodeconverter.service.RuleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Optional raw TCP listener for legacy scanner gateways (keyboard-wedge/serial bridges).
+ * <p>
+ * Protocol: one request per line (LF or CRLF terminated). A line is either a bare barcode,
+ * decoded with the default RuleSet, or {@code ruleSetName<TAB>barcode}. Each request gets
+ * exactly one reply line on the same connection, in request order:
+ * {@code OK word1 word2 word3 word4} or {@code ERR message}.
+ * <p>
+ * All connections are served by a single selector thread; lines are framed and decoded
+ * directly from pooled ByteBuffers without going through Spring MVC.
+ * Enabled with {@code barcode.gateway.tcp.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "barcode.gateway.tcp.enabled", havingValue = "true")
+public class LineProtocolServer implements SmartLifecycle {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte TAB = '\t';
+    private static final int MAX_POOLED_BUFFERS = 1024;
+
+    private final ConversionService conversionService;
+    private final RuleService ruleService;
+    private final String bindAddress;
+    private final int port;
+    private final String configuredDefaultRuleSetName;
+    private final ByteBufferPool bufferPool;
+    private final int maxReplyLength;
+
+    private volatile boolean running = false;
+    private volatile String defaultRuleSetName;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+
+    @Autowired
+    public LineProtocolServer(ConversionService conversionService,
+                              RuleService ruleService,
+                              @Value("${barcode.gateway.tcp.bind-address:0.0.0.0}") String bindAddress,
+                              @Value("${barcode.gateway.tcp.port:9100}") int port,
+                              @Value("${barcode.gateway.tcp.default-rule-set:}") String defaultRuleSetName,
+                              @Value("${barcode.gateway.tcp.buffer-size:8192}") int bufferSize) {
+        this.conversionService = conversionService;
+        this.ruleService = ruleService;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.configuredDefaultRuleSetName = defaultRuleSetName;
+        this.bufferPool = new ByteBufferPool(bufferSize, MAX_POOLED_BUFFERS);
+        // Replies are capped at half a buffer so one always fits once the output buffer is half drained
+        this.maxReplyLength = bufferSize / 2 - 1;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(new InetSocketAddress(bindAddress, port));
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            closeQuietly();
+            throw new IllegalStateException("Could not start TCP gateway on " + bindAddress + ":" + port + ": " + e.getMessage(), e);
+        }
+        defaultRuleSetName = resolveDefaultRuleSetName();
+        running = true;
+        selectorThread = new Thread(this::runSelectorLoop, "barcode-tcp-gateway");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        System.out.println("TCP gateway listening on " + bindAddress + ":" + getLocalPort() +
+                           " (default RuleSet: '" + defaultRuleSetName + "').");
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly();
+        System.out.println("TCP gateway stopped.");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the port actually bound, which differs from the configured one when port 0 is used.
+     */
+    public int getLocalPort() {
+        try {
+            InetSocketAddress address = (InetSocketAddress) serverChannel.getLocalAddress();
+            return address.getPort();
+        } catch (IOException | NullPointerException e) {
+            return -1;
+        }
+    }
+
+    private String resolveDefaultRuleSetName() {
+        if (configuredDefaultRuleSetName != null && !configuredDefaultRuleSetName.trim().isEmpty()) {
+            return configuredDefaultRuleSetName.trim();
+        }
+        List<String> names = ruleService.getAllRuleSetNames();
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    private void runSelectorLoop() {
+        while (running) {
+            try {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isWritable()) {
+                                handleWrite(key);
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                handleRead(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        // A broken client connection must not take down the gateway
+                        closeConnection(key);
+                    } catch (RuntimeException e) {
+                        // Neither must a failed conversion or RuleSet lookup; only this client is dropped
+                        System.err.println("TCP gateway dropped a connection after an unexpected error: " + e);
+                        closeConnection(key);
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("TCP gateway selector error: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+        Connection connection = new Connection(channel, bufferPool.acquire(), bufferPool.acquire());
+        channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    private void handleRead(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        int read = connection.channel.read(connection.in);
+        if (read < 0) {
+            closeConnection(key);
+            return;
+        }
+        processLines(connection);
+        updateInterest(key, connection);
+    }
+
+    private void handleWrite(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        if (flush(connection)) {
+            // Output drained: resume any lines that were held back by backpressure
+            processLines(connection);
+        }
+        updateInterest(key, connection);
+    }
+
+    private void updateInterest(SelectionKey key, Connection connection) throws IOException {
+        if (connection.out.position() > 0 && !flush(connection)) {
+            // Stop reading until the client catches up with our replies
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Frames complete lines in the connection's input buffer and appends one reply per line
+     * to its output buffer. Stops early if the output buffer cannot take another reply.
+     */
+    private void processLines(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        byte[] data = in.array();
+        int limit = in.position();
+        int lineStart = 0;
+        int scanned = limit;
+
+        for (int i = connection.scanFrom; i < limit; i++) {
+            if (data[i] != LF) {
+                continue;
+            }
+            if (!hasReplyRoom(connection)) {
+                // Backpressure: keep this and the following lines buffered
+                scanned = i;
+                break;
+            }
+            if (connection.discarding) {
+                // Tail of an over-long line that was already answered with an error
+                connection.discarding = false;
+            } else {
+                int lineEnd = (i > lineStart && data[i - 1] == CR) ? i - 1 : i;
+                if (lineEnd > lineStart) {
+                    handleLine(connection, data, lineStart, lineEnd);
+                }
+            }
+            lineStart = i + 1;
+        }
+
+        if (lineStart > 0) {
+            System.arraycopy(data, lineStart, data, 0, limit - lineStart);
+            in.position(limit - lineStart);
+        }
+        connection.scanFrom = scanned - lineStart;
+
+        if (scanned == limit && !in.hasRemaining()) {
+            // A full buffer without a newline can never be framed; reject it and skip to the next LF
+            if (!connection.discarding) {
+                if (!hasReplyRoom(connection)) {
+                    return; // Retried once the pending output drains
+                }
+                writeReply(connection, "ERR Line exceeds " + bufferPool.getBufferSize() + " bytes.");
+            }
+            connection.discarding = true;
+            in.clear();
+            connection.scanFrom = 0;
+        }
+    }
+
+    private void handleLine(Connection connection, byte[] data, int start, int end) {
+        String ruleSetName = defaultRuleSetName;
+        int barcodeStart = start;
+        for (int i = start; i < end; i++) {
+            if (data[i] == TAB) {
+                ruleSetName = new String(data, start, i - start, StandardCharsets.US_ASCII);
+                barcodeStart = i + 1;
+                break;
+            }
+        }
+        String barcode = new String(data, barcodeStart, end - barcodeStart, StandardCharsets.US_ASCII);
+        writeReply(connection, convert(ruleSetName, barcode));
+    }
+
+    private String convert(String ruleSetName, String barcode) {
+        RuleSet ruleSet = ruleSetName != null ? ruleService.getRuleSetByName(ruleSetName) : null;
+        if (ruleSet == null && ruleSetName != null && ruleSetName.equals(defaultRuleSetName)
+                && configuredDefaultRuleSetName.trim().isEmpty()) {
+            // The implicit default may have been deleted or renamed since startup
+            defaultRuleSetName = resolveDefaultRuleSetName();
+            ruleSet = defaultRuleSetName != null ? ruleService.getRuleSetByName(defaultRuleSetName) : null;
+        }
+        if (ruleSet == null) {
+            return "ERR RuleSet '" + ruleSetName + "' not found.";
+        }
+        try {
+            ConversionResult result = conversionService.decode(barcode, ruleSet);
+            if (!result.isSuccess()) {
+                return "ERR " + result.getMessage();
+            }
+            return "OK " + String.join(" ", result.getWords());
+        } catch (IllegalStateException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private boolean hasReplyRoom(Connection connection) throws IOException {
+        if (connection.out.remaining() > maxReplyLength) {
+            return true;
+        }
+        flush(connection);
+        return connection.out.remaining() > maxReplyLength;
+    }
+
+    private void writeReply(Connection connection, String reply) {
+        byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, maxReplyLength);
+        connection.out.put(bytes, 0, length);
+        connection.out.put(LF);
+    }
+
+    /**
+     * Writes as much pending output as the socket accepts.
+     * @return true if the output buffer is now empty.
+     */
+    private boolean flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        out.flip();
+        connection.channel.write(out);
+        out.compact();
+        return out.position() == 0;
+    }
+
+    private void closeConnection(SelectionKey key) {
+        if (!(key.attachment() instanceof Connection connection)) {
+            return; // Never cancel the listening key because of a failed accept
+        }
+        key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // Nothing useful to do when closing a dead client
+        }
+        bufferPool.release(connection.in);
+        bufferPool.release(connection.out);
+    }
+
+    private void closeQuietly() {
+        try {
+            if (selector != null) {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection) {
+                        closeConnection(key);
+                    }
+                }
+                selector.close();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.err.println("Error closing TCP gateway selector: " + e.getMessage());
+        }
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing TCP gateway server channel: " + e.getMessage());
+        }
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in;
+        final ByteBuffer out;
+        int scanFrom = 0;           // Position in 'in' up to which no LF has been found
+        boolean discarding = false; // True while skipping the rest of an over-long line
+
+        Connection(SocketChannel channel, ByteBuffer in, ByteBuffer out) {
+            this.channel = channel;
+            this.in = in;
+            this.out = out;
+        }
+    }
+}
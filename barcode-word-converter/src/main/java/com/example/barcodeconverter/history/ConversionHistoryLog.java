@@ -0,0 +1,480 @@
+package com.example.barcodeconverter.history;
+
+import com.example.barcodeconverter.service.ConversionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Append-only audit log of API conversions.
+ * <p>
+ * Request threads only offer a {@link HistoryRecord} to a lock-free ring; a single writer thread drains it
+ * into memory-mapped segment files. An idle writer sleeps until a request thread wakes it or the next flush
+ * is due. When the ring is full the request thread waits up to {@code max-offer-wait-millis} for room; only
+ * then is the record dropped, counted and reported to the caller. Segments roll when full or after the roll
+ * interval, are flushed to disk about once a second and on roll, and are deleted once everything in them is
+ * older than the retention period.
+ * Records written but not yet flushed are lost if the machine (not just the JVM) goes down.
+ * <p>
+ * With the word list available, successful conversions are also indexed by word ({@link WordIndex}) on the
+ * writer thread, so {@link #findByWord} reads only the matching records of the segments in its window.
+ */
+@Service
+public class ConversionHistoryLog {
+
+    private static final long AWAIT_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long OFFER_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    static final long DEFAULT_MAX_OFFER_WAIT_MILLIS = 100;
+    private static final long FORCE_INTERVAL_MILLIS = 1000;
+    private static final long RETENTION_CHECK_INTERVAL_MILLIS = 60_000;
+    // Records are stamped on request threads, so neighbouring segments may overlap by a little in time
+    static final long CLOCK_SKEW_MILLIS = 1000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long rollIntervalMillis;
+    private final long retentionMillis;
+    private final long maxOfferWaitNanos;
+    private final LongSupplier clock;
+    private final RecordRing ring;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long processed;                                 // Accepted records the writer is done with
+    private final List<SegmentFile> closedSegments = new ArrayList<>(); // Oldest first; guarded by this
+    private volatile HistorySegment activeSegment;
+    private WordIndex wordIndex;                                     // Null without a word list
+    private long nextSequence;                                       // Writer thread after init
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean writerIdle;                             // Set while the writer sleeps on an empty ring
+
+    /**
+     * A finished segment, known by name only; it is mapped again for each query that needs it.
+     */
+    private static final class SegmentFile {
+        final Path file;
+        final long sequence;
+        final long startMillis;
+
+        SegmentFile(Path file, long sequence, long startMillis) {
+            this.file = file;
+            this.sequence = sequence;
+            this.startMillis = startMillis;
+        }
+    }
+
+    @Autowired
+    public ConversionHistoryLog(@Value("${barcode.history.enabled:true}") boolean enabled,
+                                @Value("${barcode.history.dir:data/history}") String directory,
+                                @Value("${barcode.history.segment-bytes:67108864}") int segmentBytes,
+                                @Value("${barcode.history.roll-interval-minutes:60}") long rollIntervalMinutes,
+                                @Value("${barcode.history.retention-days:90}") long retentionDays,
+                                @Value("${barcode.history.ring-capacity:65536}") int ringCapacity,
+                                @Value("${barcode.history.max-offer-wait-millis:100}") long maxOfferWaitMillis) {
+        this(enabled, Paths.get(directory), segmentBytes, TimeUnit.MINUTES.toMillis(rollIntervalMinutes),
+                TimeUnit.DAYS.toMillis(retentionDays), ringCapacity, maxOfferWaitMillis, System::currentTimeMillis);
+    }
+
+    ConversionHistoryLog(boolean enabled, Path directory, int segmentBytes, long rollIntervalMillis,
+                         long retentionMillis, int ringCapacity, LongSupplier clock) {
+        this(enabled, directory, segmentBytes, rollIntervalMillis, retentionMillis, ringCapacity, DEFAULT_MAX_OFFER_WAIT_MILLIS, clock);
+    }
+
+    ConversionHistoryLog(boolean enabled, Path directory, int segmentBytes, long rollIntervalMillis,
+                         long retentionMillis, int ringCapacity, long maxOfferWaitMillis, LongSupplier clock) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentBytes = Math.max(1, segmentBytes / HistoryRecord.SIZE) * HistoryRecord.SIZE;
+        this.rollIntervalMillis = rollIntervalMillis;
+        this.retentionMillis = retentionMillis;
+        this.maxOfferWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxOfferWaitMillis));
+        this.clock = clock;
+        this.ring = new RecordRing(Integer.highestOneBit(Math.max(2, ringCapacity)));
+    }
+
+    /**
+     * Enables the word index over successful conversions.
+     */
+    @Autowired(required = false)
+    public void setConversionService(ConversionService conversionService) {
+        setWordLookup(conversionService::getWordIndex);
+    }
+
+    void setWordLookup(ToIntFunction<String> wordLookup) {
+        this.wordIndex = new WordIndex(wordLookup);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            System.out.println("Conversion history is disabled.");
+            return;
+        }
+        Files.createDirectories(directory);
+        List<SegmentFile> existing = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.hlog")) {
+            for (Path file : files) {
+                long[] parsed = HistorySegment.parseFileName(file.getFileName().toString());
+                if (parsed != null) {
+                    existing.add(new SegmentFile(file, parsed[0], parsed[1]));
+                }
+            }
+        }
+        existing.sort(Comparator.comparingLong(segment -> segment.sequence));
+        synchronized (this) {
+            closedSegments.addAll(existing);
+        }
+        nextSequence = existing.isEmpty() ? 1 : existing.get(existing.size() - 1).sequence + 1;
+        long now = clock.getAsLong();
+        // A fresh segment per start; the previous one may end in a record torn by a crash
+        activeSegment = HistorySegment.create(directory, nextSequence++, now, segmentBytes);
+        deleteExpiredSegments(now);
+        if (wordIndex != null) {
+            List<SegmentFile> retained;
+            synchronized (this) {
+                retained = new ArrayList<>(closedSegments);
+            }
+            for (SegmentFile segment : retained) {
+                wordIndex.load(segment.file, segment.sequence);
+            }
+        }
+
+        running = true;
+        writer = new Thread(this::writeLoop, "conversion-history-writer");
+        writer.setDaemon(true);
+        writer.start();
+        System.out.println("Conversion history: " + existing.size() + " existing segment(s) in " + directory.toAbsolutePath()
+                + ", writing to " + activeSegment.getFile().getFileName() + ".");
+    }
+
+    /**
+     * Queues a record for writing. Blocks only while the ring is full, for at most {@code max-offer-wait-millis}.
+     * @return false if history is disabled or the record was dropped because the writer stayed behind.
+     */
+    public boolean record(HistoryRecord record) {
+        if (!running) {
+            return false;
+        }
+        if (!ring.offer(record) && !offerWithin(record, maxOfferWaitNanos)) {
+            if (dropped.incrementAndGet() % 10_000 == 1) {
+                System.err.println("Conversion history writer is behind; dropped " + dropped.get() + " record(s) so far.");
+            }
+            return false;
+        }
+        accepted.incrementAndGet();
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    // The ring only fills while the writer is busy, so it is never asleep here; polling keeps offer() lock-free
+    private boolean offerWithin(HistoryRecord record, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (running && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(OFFER_POLL_NANOS);
+            if (ring.offer(record)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns records stamped {@code fromMillis <= timestamp < toMillis}, oldest segment first, at most {@code limit}.
+     * Records still queued in the ring are not visible yet.
+     */
+    public List<HistoryRecord> query(long fromMillis, long toMillis, int limit) {
+        List<HistoryRecord> results = new ArrayList<>();
+        if (!enabled || limit <= 0 || fromMillis >= toMillis) {
+            return results;
+        }
+        HistorySegment active = activeSegment;
+        for (SegmentFile closed : closedSegmentsOverlapping(fromMillis, toMillis)) {
+            try {
+                HistorySegment.openReadOnly(closed.file).scan(fromMillis, toMillis, limit, results);
+            } catch (NoSuchFileException e) {
+                // Deleted by retention since the snapshot was taken
+            } catch (IOException e) {
+                System.err.println("Could not read history segment " + closed.file + ": " + e.getMessage());
+            }
+            if (results.size() >= limit) {
+                return results;
+            }
+        }
+        if (active != null && overlaps(active.getStartMillis(), Long.MAX_VALUE, fromMillis, toMillis)) {
+            active.scan(fromMillis, toMillis, limit, results);
+        }
+        return results;
+    }
+
+    /**
+     * Returns successful conversions stamped {@code fromMillis <= timestamp < toMillis} whose words include
+     * {@code word}, oldest segment first, at most {@code limit}. Empty if the word is not in the word list.
+     */
+    public List<HistoryRecord> findByWord(String word, long fromMillis, long toMillis, int limit) {
+        List<HistoryRecord> results = new ArrayList<>();
+        WordIndex index = wordIndex;
+        if (!enabled || index == null || word == null || limit <= 0 || fromMillis >= toMillis) {
+            return results;
+        }
+        int wordId = index.lookup(word);
+        if (wordId < 0) {
+            return results;
+        }
+        HistorySegment active = activeSegment;
+        for (SegmentFile closed : closedSegmentsOverlapping(fromMillis, toMillis)) {
+            int[] slots = index.slots(closed.sequence, wordId);
+            if (slots.length == 0) {
+                continue;
+            }
+            try {
+                readSlots(HistorySegment.openReadOnly(closed.file), slots, fromMillis, toMillis, limit, results);
+            } catch (NoSuchFileException e) {
+                // Deleted by retention since the snapshot was taken
+            } catch (IOException e) {
+                System.err.println("Could not read history segment " + closed.file + ": " + e.getMessage());
+            }
+            if (results.size() >= limit) {
+                return results;
+            }
+        }
+        if (active != null && overlaps(active.getStartMillis(), Long.MAX_VALUE, fromMillis, toMillis)) {
+            readSlots(active, index.slots(active.getSequence(), wordId), fromMillis, toMillis, limit, results);
+        }
+        return results;
+    }
+
+    /**
+     * Hands over the barcode of every conversion under {@code ruleSetName} stamped {@code fromMillis <= timestamp < toMillis},
+     * oldest segment first: the input of barcode-to-words conversions and the output of successful words-to-barcode ones.
+     * Records with truncated text are skipped. Unlike {@link #query} there is no limit; records are read one at a time.
+     */
+    public void forEachBarcode(String ruleSetName, long fromMillis, long toMillis, Consumer<String> barcodes) {
+        if (!enabled || ruleSetName == null || fromMillis >= toMillis) {
+            return;
+        }
+        ObjIntConsumer<HistoryRecord> visitor = (record, slot) -> {
+            if (record.getTimestamp() < fromMillis || record.getTimestamp() >= toMillis || record.isTruncated()
+                    || !ruleSetName.equals(record.getRuleSetName())) {
+                return;
+            }
+            if (record.getDirection() == HistoryRecord.Direction.BARCODE_TO_WORDS && record.getInput() != null) {
+                barcodes.accept(record.getInput());
+            } else if (record.getDirection() == HistoryRecord.Direction.WORDS_TO_BARCODE && record.isSuccess() && record.getOutput() != null) {
+                barcodes.accept(record.getOutput());
+            }
+        };
+        HistorySegment active = activeSegment;
+        for (SegmentFile closed : closedSegmentsOverlapping(fromMillis, toMillis)) {
+            try {
+                HistorySegment.openReadOnly(closed.file).forEach(visitor);
+            } catch (NoSuchFileException e) {
+                // Deleted by retention since the snapshot was taken
+            } catch (IOException e) {
+                System.err.println("Could not read history segment " + closed.file + ": " + e.getMessage());
+            }
+        }
+        if (active != null && overlaps(active.getStartMillis(), Long.MAX_VALUE, fromMillis, toMillis)) {
+            active.forEach(visitor);
+        }
+    }
+
+    private static void readSlots(HistorySegment segment, int[] slots, long fromMillis, long toMillis, int limit,
+                                  List<HistoryRecord> results) {
+        for (int i = 0; i < slots.length && results.size() < limit; i++) {
+            HistoryRecord record = segment.read(slots[i]);
+            if (record != null && record.getTimestamp() >= fromMillis && record.getTimestamp() < toMillis) {
+                results.add(record);
+            }
+        }
+    }
+
+    private synchronized List<SegmentFile> closedSegmentsOverlapping(long fromMillis, long toMillis) {
+        List<SegmentFile> candidates = new ArrayList<>();
+        for (int i = 0; i < closedSegments.size(); i++) {
+            long end = i + 1 < closedSegments.size() ? closedSegments.get(i + 1).startMillis : activeSegment.getStartMillis();
+            if (overlaps(closedSegments.get(i).startMillis, end, fromMillis, toMillis)) {
+                candidates.add(closedSegments.get(i));
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean overlaps(long segmentStart, long segmentEnd, long fromMillis, long toMillis) {
+        return segmentStart - CLOCK_SKEW_MILLIS < toMillis && (segmentEnd == Long.MAX_VALUE || segmentEnd + CLOCK_SKEW_MILLIS >= fromMillis);
+    }
+
+    /**
+     * Waits until every record accepted before the call has been written to its segment.
+     * @return false if the writer did not catch up in time.
+     */
+    public boolean awaitWritten(long timeoutMillis) {
+        long target = accepted.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (processed < target) {
+            if (System.nanoTime() > deadline || !running) {
+                return processed >= target;
+            }
+            LockSupport.parkNanos(AWAIT_POLL_NANOS);
+        }
+        return true;
+    }
+
+    private void writeLoop() {
+        long lastForce = clock.getAsLong();
+        long lastRetentionCheck = lastForce;
+        while (true) {
+            HistoryRecord record = ring.poll();
+            long now = clock.getAsLong();
+            if (record != null) {
+                try {
+                    append(record, now);
+                } catch (IOException | RuntimeException e) {
+                    dropped.incrementAndGet();
+                    System.err.println("Could not write conversion history record: " + e.getMessage());
+                }
+                processed = processed + 1;
+            } else if (!running && ring.isEmpty()) {
+                break;
+            }
+            if (now - lastForce >= FORCE_INTERVAL_MILLIS) {
+                try {
+                    activeSegment.force();
+                } catch (RuntimeException e) {
+                    System.err.println("Could not flush conversion history: " + e.getMessage());
+                }
+                lastForce = now;
+            }
+            if (now - lastRetentionCheck >= RETENTION_CHECK_INTERVAL_MILLIS) {
+                deleteExpiredSegments(now);
+                lastRetentionCheck = now;
+            }
+            if (record == null) {
+                sleepUntilWoken(Math.min(lastForce + FORCE_INTERVAL_MILLIS, lastRetentionCheck + RETENTION_CHECK_INTERVAL_MILLIS) - now);
+            }
+        }
+        activeSegment.force();
+    }
+
+    // Announces the sleep before checking the ring once more, so a record offered meanwhile is either seen here
+    // or its producer sees writerIdle and unparks; the timeout bounds the delay should a wake-up still be missed
+    private void sleepUntilWoken(long timeoutMillis) {
+        writerIdle = true;
+        if (ring.isEmpty() && running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMillis)));
+        }
+        writerIdle = false;
+    }
+
+    private void append(HistoryRecord record, long now) throws IOException {
+        HistorySegment active = activeSegment;
+        if (active.isFull() || (now - active.getStartMillis() >= rollIntervalMillis && active.getCount() > 0)) {
+            active = roll(active, now);
+        }
+        int slot = active.append(record);
+        if (wordIndex != null) {
+            wordIndex.add(active.getSequence(), slot, record);
+        }
+    }
+
+    private HistorySegment roll(HistorySegment full, long now) throws IOException {
+        HistorySegment next = HistorySegment.create(directory, nextSequence++, now, segmentBytes);
+        full.close();
+        if (wordIndex != null) {
+            wordIndex.seal(full);
+        }
+        synchronized (this) {
+            closedSegments.add(new SegmentFile(full.getFile(), full.getSequence(), full.getStartMillis()));
+            activeSegment = next;
+        }
+        return next;
+    }
+
+    /**
+     * Deletes closed segments whose newest possible record is older than the retention period; a segment
+     * ends where the next one starts.
+     */
+    void deleteExpiredSegments(long now) {
+        List<SegmentFile> expired = new ArrayList<>();
+        synchronized (this) {
+            while (!closedSegments.isEmpty()) {
+                long end = closedSegments.size() > 1 ? closedSegments.get(1).startMillis : activeSegment.getStartMillis();
+                if (end + CLOCK_SKEW_MILLIS >= now - retentionMillis) {
+                    break;
+                }
+                expired.add(closedSegments.remove(0));
+            }
+        }
+        for (SegmentFile segment : expired) {
+            try {
+                Files.deleteIfExists(segment.file);
+                if (wordIndex != null) {
+                    wordIndex.remove(segment.sequence, segment.file);
+                }
+                System.out.println("Deleted expired conversion history segment " + segment.file.getFileName() + ".");
+            } catch (IOException e) {
+                System.err.println("Could not delete expired history segment " + segment.file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            // Closing would unmap the segment under the writer; leave it mapped, the writer forces it when done
+            System.err.println("Conversion history writer did not finish within 10 s; leaving the active segment open.");
+            return;
+        }
+        activeSegment.close();
+        if (wordIndex != null) {
+            wordIndex.seal(activeSegment);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public synchronized int getSegmentCount() {
+        return closedSegments.size() + (activeSegment != null ? 1 : 0);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.barcodeconverter.history;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One audited conversion. Stored as a fixed 256-byte record, so text fields are cut to their slot
+ * (at a character boundary) and flagged as truncated:
+ * <pre>
+ *   0  int   commit marker, written last (0 = free slot)
+ *   4  byte  layout version
+ *   5  byte  direction
+ *   6  short HTTP status
+ *   8  long  timestamp, epoch millis
+ *  16  byte  truncation flags
+ *  17  byte  error code length     24 .. 47  error code name (24 bytes)
+ *  18  byte  RuleSet name length   48 .. 95  RuleSet name (48 bytes)
+ *  19  byte  input length          96 .. 175 input (80 bytes)
+ *  20  byte  output length        176 .. 255 output (80 bytes)
+ * </pre>
+ * The error code is stored by name rather than ordinal so old segments stay readable when codes are added.
+ */
+public final class HistoryRecord {
+
+    public enum Direction {
+        WORDS_TO_BARCODE, BARCODE_TO_WORDS, UNKNOWN
+    }
+
+    static final int SIZE = 256;
+    static final int COMMITTED = 0x48495354; // "HIST"
+    private static final byte LAYOUT_VERSION = 1;
+    private static final int ERROR_CODE_OFFSET = 24, ERROR_CODE_BYTES = 24;
+    private static final int RULE_SET_OFFSET = 48, RULE_SET_BYTES = 48;
+    private static final int INPUT_OFFSET = 96, INPUT_BYTES = 80;
+    private static final int OUTPUT_OFFSET = 176, OUTPUT_BYTES = 80;
+    private static final int TRUNCATED_RULE_SET = 1, TRUNCATED_INPUT = 2, TRUNCATED_OUTPUT = 4;
+
+    private final long timestamp;
+    private final Direction direction;
+    private final String ruleSetName;
+    private final String input;
+    private final String output;
+    private final int httpStatus;
+    private final String errorCode;   // ConversionErrorCode name, or null
+    private final boolean truncated;
+
+    public HistoryRecord(long timestamp, Direction direction, String ruleSetName, String input, String output,
+                         int httpStatus, String errorCode) {
+        this(timestamp, direction, ruleSetName, input, output, httpStatus, errorCode, false);
+    }
+
+    private HistoryRecord(long timestamp, Direction direction, String ruleSetName, String input, String output,
+                          int httpStatus, String errorCode, boolean truncated) {
+        this.timestamp = timestamp;
+        this.direction = direction;
+        this.ruleSetName = ruleSetName;
+        this.input = input;
+        this.output = output;
+        this.httpStatus = httpStatus;
+        this.errorCode = errorCode;
+        this.truncated = truncated;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public boolean isSuccess() {
+        return httpStatus >= 200 && httpStatus < 300;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return whether a text field was cut to fit its slot when this record was stored.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Writes the record body at {@code offset}; the caller publishes it by writing the commit marker last.
+     */
+    void writeBody(ByteBuffer buffer, int offset) {
+        buffer.put(offset + 4, LAYOUT_VERSION);
+        buffer.put(offset + 5, (byte) direction.ordinal());
+        buffer.putShort(offset + 6, (short) httpStatus);
+        buffer.putLong(offset + 8, timestamp);
+        int flags = 0;
+        writeText(buffer, offset, 17, ERROR_CODE_OFFSET, ERROR_CODE_BYTES, errorCode);
+        flags |= writeText(buffer, offset, 18, RULE_SET_OFFSET, RULE_SET_BYTES, ruleSetName) ? TRUNCATED_RULE_SET : 0;
+        flags |= writeText(buffer, offset, 19, INPUT_OFFSET, INPUT_BYTES, input) ? TRUNCATED_INPUT : 0;
+        flags |= writeText(buffer, offset, 20, OUTPUT_OFFSET, OUTPUT_BYTES, output) ? TRUNCATED_OUTPUT : 0;
+        buffer.put(offset + 16, (byte) flags);
+    }
+
+    // Returns whether the text had to be cut; null is stored as length 0xFF
+    private static boolean writeText(ByteBuffer buffer, int offset, int lengthAt, int textAt, int capacity, String text) {
+        if (text == null) {
+            buffer.put(offset + lengthAt, (byte) 0xFF);
+            return false;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, capacity);
+        if (length < bytes.length) {
+            while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                length--; // Don't split a multi-byte character
+            }
+        }
+        buffer.put(offset + lengthAt, (byte) length);
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + textAt + i, bytes[i]);
+        }
+        return length < bytes.length;
+    }
+
+    /**
+     * Reads a committed record; the caller has already checked its commit marker.
+     */
+    static HistoryRecord readBody(ByteBuffer buffer, int offset) {
+        Direction[] directions = Direction.values();
+        int directionOrdinal = buffer.get(offset + 5);
+        Direction direction = directionOrdinal >= 0 && directionOrdinal < directions.length ? directions[directionOrdinal] : Direction.UNKNOWN;
+        int flags = buffer.get(offset + 16);
+        return new HistoryRecord(buffer.getLong(offset + 8), direction,
+                readText(buffer, offset, 18, RULE_SET_OFFSET), readText(buffer, offset, 19, INPUT_OFFSET),
+                readText(buffer, offset, 20, OUTPUT_OFFSET), buffer.getShort(offset + 6) & 0xFFFF,
+                readText(buffer, offset, 17, ERROR_CODE_OFFSET), flags != 0);
+    }
+
+    static long readTimestamp(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + 8);
+    }
+
+    private static String readText(ByteBuffer buffer, int offset, int lengthAt, int textAt) {
+        int length = buffer.get(offset + lengthAt) & 0xFF;
+        if (length == 0xFF) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + textAt + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryRecord{" +
+               "timestamp=" + timestamp +
+               ", direction=" + direction +
+               ", ruleSetName='" + ruleSetName + '\'' +
+               ", input='" + input + '\'' +
+               ", output='" + output + '\'' +
+               ", httpStatus=" + httpStatus +
+               ", errorCode=" + errorCode +
+               (truncated ? ", truncated" : "") +
+               '}';
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.barcodeconverter.history;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One memory-mapped history file of fixed-size {@link HistoryRecord}s, named after its sequence number
+ * and the time it was started, so the files sort in write order and the time range of each is known
+ * without opening it.
+ * <p>
+ * The writer fills a preallocated file through a read-write mapping and publishes each record by writing
+ * its commit marker last, with release semantics; readers scan until the first slot without a marker.
+ * A record torn by a crash therefore never appears in a query.
+ */
+final class HistorySegment {
+
+    private static final Pattern FILE_NAME = Pattern.compile("segment-(\\d{8})-(\\d{13})\\.hlog");
+    private static final VarHandle MARKER = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path file;
+    private final long sequence;
+    private final long startMillis;
+    private final FileChannel channel;      // Null for read-only segments
+    private final MappedByteBuffer buffer;
+    private final int capacity;             // Records
+    private volatile int count;             // Records written by this process; only the writer thread updates it
+    private boolean dirty;                  // Writer thread only
+
+    private HistorySegment(Path file, long sequence, long startMillis, FileChannel channel, MappedByteBuffer buffer) {
+        this.file = file;
+        this.sequence = sequence;
+        this.startMillis = startMillis;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity() / HistoryRecord.SIZE;
+    }
+
+    static String fileName(long sequence, long startMillis) {
+        return String.format("segment-%08d-%013d.hlog", sequence, startMillis);
+    }
+
+    /**
+     * @return {sequence, startMillis}, or null if the name is not a history segment's.
+     */
+    static long[] parseFileName(String name) {
+        Matcher matcher = FILE_NAME.matcher(name);
+        return matcher.matches() ? new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))} : null;
+    }
+
+    static HistorySegment create(Path directory, long sequence, long startMillis, int bytes) throws IOException {
+        Path file = directory.resolve(fileName(sequence, startMillis));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Mapping past the end grows the file; the unused tail reads as zeros, i.e. uncommitted slots
+            return new HistorySegment(file, sequence, startMillis, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static HistorySegment openReadOnly(Path file) throws IOException {
+        long[] parsed = parseFileName(file.getFileName().toString());
+        if (parsed == null) {
+            throw new IOException(file + " is not a history segment.");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size() - channel.size() % HistoryRecord.SIZE;
+            HistorySegment segment = new HistorySegment(file, parsed[0], parsed[1], null, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            segment.count = segment.capacity;  // Bounded by the commit markers instead
+            return segment;
+        }
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    /**
+     * @return the slot the record was written to.
+     */
+    int append(HistoryRecord record) {
+        int slot = count;
+        int offset = slot * HistoryRecord.SIZE;
+        record.writeBody(buffer, offset);
+        MARKER.setRelease(buffer, offset, HistoryRecord.COMMITTED);
+        count = slot + 1;
+        dirty = true;
+        return slot;
+    }
+
+    void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Flushes the segment and trims the unused preallocated tail. Writer thread only; the segment accepts
+     * no more records afterwards, but scans through this instance stay valid.
+     */
+    void close() throws IOException {
+        force();
+        if (channel != null) {
+            try {
+                channel.truncate((long) count * HistoryRecord.SIZE);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Adds records with {@code fromMillis <= timestamp < toMillis} in write order until {@code results} holds
+     * {@code limit} records.
+     */
+    void scan(long fromMillis, long toMillis, int limit, List<HistoryRecord> results) {
+        ByteBuffer view = buffer.duplicate();
+        int end = count;
+        for (int offset = 0; offset < end * HistoryRecord.SIZE && results.size() < limit; offset += HistoryRecord.SIZE) {
+            if ((int) MARKER.getAcquire(view, offset) != HistoryRecord.COMMITTED) {
+                return; // End of the records written before a crash, or not yet published
+            }
+            long timestamp = HistoryRecord.readTimestamp(view, offset);
+            if (timestamp >= fromMillis && timestamp < toMillis) {
+                results.add(HistoryRecord.readBody(view, offset));
+            }
+        }
+    }
+
+    /**
+     * @return the record in the slot, or null if the slot holds no committed record.
+     */
+    HistoryRecord read(int slot) {
+        if (slot < 0 || slot >= count) {
+            return null;
+        }
+        ByteBuffer view = buffer.duplicate();
+        int offset = slot * HistoryRecord.SIZE;
+        return (int) MARKER.getAcquire(view, offset) == HistoryRecord.COMMITTED ? HistoryRecord.readBody(view, offset) : null;
+    }
+
+    /**
+     * Visits every committed record with its slot, in write order.
+     */
+    void forEach(ObjIntConsumer<HistoryRecord> visitor) {
+        ByteBuffer view = buffer.duplicate();
+        int end = count;
+        for (int slot = 0; slot < end; slot++) {
+            int offset = slot * HistoryRecord.SIZE;
+            if ((int) MARKER.getAcquire(view, offset) != HistoryRecord.COMMITTED) {
+                return;
+            }
+            visitor.accept(HistoryRecord.readBody(view, offset), slot);
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    long getStartMillis() {
+        return startMillis;
+    }
+
+    int getCount() {
+        return count;
+    }
+}
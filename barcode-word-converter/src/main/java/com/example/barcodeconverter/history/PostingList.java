@@ -0,0 +1,78 @@
+package com.example.barcodeconverter.history;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable list of ascending record slots, stored as varint-encoded gaps: slots written close together
+ * (the common case, since a word recurs throughout a segment) take one byte each.
+ */
+final class PostingList {
+
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int count;
+    private int last = -1;
+
+    /**
+     * Appends a slot; slots must arrive in ascending order, and a repeat of the last one is ignored
+     * (a word used twice in one conversion).
+     */
+    void add(int slot) {
+        if (slot <= last) {
+            return;
+        }
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        length = writeVarint(bytes, length, slot - last - 1);
+        last = slot;
+        count++;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int byteLength() {
+        return length;
+    }
+
+    void copyTo(ByteBuffer target) {
+        target.put(bytes, 0, length);
+    }
+
+    int[] toArray() {
+        return decode(ByteBuffer.wrap(bytes, 0, length), 0, count);
+    }
+
+    static int writeVarint(byte[] target, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Decodes {@code count} gap-encoded slots starting at an absolute position of the buffer.
+     */
+    static int[] decode(ByteBuffer buffer, int position, int count) {
+        int[] slots = new int[count];
+        int slot = -1;
+        for (int i = 0; i < count; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            slot += gap + 1;
+            slots[i] = slot;
+        }
+        return slots;
+    }
+}
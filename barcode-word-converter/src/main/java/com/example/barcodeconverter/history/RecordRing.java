@@ -0,0 +1,66 @@
+package com.example.barcodeconverter.history;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer.
+ * <p>
+ * Producers claim a sequence number with a CAS on the head and then publish the record into its slot;
+ * the consumer takes slots in sequence order and frees each before advancing the tail. A full ring
+ * rejects the offer instead of waiting, so request threads never block on the history writer.
+ */
+final class RecordRing {
+
+    private final AtomicReferenceArray<HistoryRecord> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Next sequence to claim
+    private volatile long tail;                       // Next sequence to consume; written by the consumer only
+
+    RecordRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two, got " + capacity + ".");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return false, without waiting, if the ring is full.
+     */
+    boolean offer(HistoryRecord record) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail > mask) {
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+        slots.setRelease((int) sequence & mask, record);
+        return true;
+    }
+
+    /**
+     * Consumer side only.
+     * @return the next record, or null if the ring is empty or the next claimed slot is not yet published.
+     */
+    HistoryRecord poll() {
+        long sequence = tail;
+        int index = (int) sequence & mask;
+        HistoryRecord record = slots.getAcquire(index);
+        if (record == null) {
+            return null;
+        }
+        slots.setRelease(index, null);
+        tail = sequence + 1;
+        return record;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.barcodeconverter.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Inverted index from dictionary word index to the history records whose words include it, partitioned
+ * like the history itself: one partition per segment, so a time window only touches the segments it covers
+ * and retention drops a partition together with its segment.
+ * <p>
+ * The active segment's partition is built in memory by the history writer thread as records are appended.
+ * When the segment rolls, the partition is written next to it as a {@code .hidx} file and memory-mapped:
+ * <pre>
+ *   int magic, int record count, int word count
+ *   word count x (int word index, int posting count, int postings offset), sorted by word index
+ *   postings: gap-encoded varint slots ({@link PostingList})
+ * </pre>
+ * A segment without a readable index file (e.g. after a crash) is re-indexed from its records at startup.
+ */
+final class WordIndex {
+
+    private static final int MAGIC = 0x48494458; // "HIDX"
+    private static final int HEADER_BYTES = 12;
+    private static final int ENTRY_BYTES = 12;
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final ToIntFunction<String> wordLookup;
+    private final Map<Long, ByteBuffer> sealed = new ConcurrentHashMap<>();  // Segment sequence -> mapped index file
+    private long activeSequence = -1;                                       // Guarded by this
+    private Map<Integer, PostingList> active = new HashMap<>();             // Guarded by this
+
+    /**
+     * @param wordLookup dictionary index of a word, or -1 if it is not a dictionary word
+     */
+    WordIndex(ToIntFunction<String> wordLookup) {
+        this.wordLookup = wordLookup;
+    }
+
+    static Path indexFileFor(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return segmentFile.resolveSibling(name.substring(0, name.lastIndexOf('.')) + ".hidx");
+    }
+
+    /**
+     * @return the dictionary index of a queried word (exact, then lower case), or -1.
+     */
+    int lookup(String word) {
+        String trimmed = word.trim();
+        int index = wordLookup.applyAsInt(trimmed);
+        return index >= 0 ? index : wordLookup.applyAsInt(trimmed.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Indexes the words of a successful conversion. Writer thread only; slots arrive in ascending order.
+     */
+    void add(long sequence, int slot, HistoryRecord record) {
+        int[] words = wordsOf(record);
+        if (words.length == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (sequence != activeSequence) {
+                active = new HashMap<>();
+                activeSequence = sequence;
+            }
+            for (int word : words) {
+                active.computeIfAbsent(word, k -> new PostingList()).add(slot);
+            }
+        }
+    }
+
+    private int[] wordsOf(HistoryRecord record) {
+        String text;
+        if (!record.isSuccess()) {
+            return NO_SLOTS;
+        } else if (record.getDirection() == HistoryRecord.Direction.BARCODE_TO_WORDS) {
+            text = record.getOutput();
+        } else if (record.getDirection() == HistoryRecord.Direction.WORDS_TO_BARCODE) {
+            text = record.getInput();
+        } else {
+            return NO_SLOTS;
+        }
+        if (text == null || text.isEmpty()) {
+            return NO_SLOTS;
+        }
+        String[] parts = text.split(" ");
+        int[] words = new int[parts.length];
+        int count = 0;
+        for (String part : parts) {
+            int index = wordLookup.applyAsInt(part);
+            if (index >= 0) {
+                words[count++] = index; // A word cut off by truncation is simply not indexed
+            }
+        }
+        return count == words.length ? words : Arrays.copyOf(words, count);
+    }
+
+    /**
+     * Writes the in-memory partition of a closed segment to its index file and serves it from there.
+     */
+    void seal(HistorySegment segment) {
+        Map<Integer, PostingList> postings;
+        synchronized (this) {
+            postings = segment.getSequence() == activeSequence ? active : new HashMap<>();
+        }
+        try {
+            ByteBuffer mapped = write(indexFileFor(segment.getFile()), postings, segment.getCount());
+            synchronized (this) {
+                sealed.put(segment.getSequence(), mapped);
+                if (segment.getSequence() == activeSequence) {
+                    active = new HashMap<>();
+                    activeSequence = -1;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write word index for " + segment.getFile() + ": " + e.getMessage()
+                    + ". It will be rebuilt at the next start.");
+        }
+    }
+
+    /**
+     * Maps the index file of a segment written by an earlier run, or rebuilds it from the segment's records.
+     */
+    void load(Path segmentFile, long sequence) {
+        Path indexFile = indexFileFor(segmentFile);
+        try {
+            ByteBuffer mapped = Files.exists(indexFile) ? map(indexFile) : null;
+            if (mapped == null || mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                HistorySegment segment = HistorySegment.openReadOnly(segmentFile);
+                Map<Integer, PostingList> postings = new HashMap<>();
+                int[] records = new int[1];
+                segment.forEach((record, slot) -> {
+                    for (int word : wordsOf(record)) {
+                        postings.computeIfAbsent(word, k -> new PostingList()).add(slot);
+                    }
+                    records[0] = slot + 1;
+                });
+                mapped = write(indexFile, postings, records[0]);
+                System.out.println("Rebuilt word index for conversion history segment " + segmentFile.getFileName() + ".");
+            }
+            sealed.put(sequence, mapped);
+        } catch (IOException e) {
+            System.err.println("Could not load word index for " + segmentFile + ": " + e.getMessage() + ". Its records cannot be found by word.");
+        }
+    }
+
+    void remove(long sequence, Path segmentFile) throws IOException {
+        sealed.remove(sequence);
+        Files.deleteIfExists(indexFileFor(segmentFile));
+    }
+
+    /**
+     * @return ascending slots of the segment's records that include the word.
+     */
+    int[] slots(long sequence, int word) {
+        synchronized (this) {
+            if (sequence == activeSequence) {
+                PostingList postings = active.get(word);
+                return postings != null ? postings.toArray() : NO_SLOTS;
+            }
+        }
+        ByteBuffer index = sealed.get(sequence);
+        if (index == null) {
+            return NO_SLOTS;
+        }
+        int low = 0;
+        int high = index.getInt(8) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = HEADER_BYTES + mid * ENTRY_BYTES;
+            int midWord = index.getInt(entry);
+            if (midWord < word) {
+                low = mid + 1;
+            } else if (midWord > word) {
+                high = mid - 1;
+            } else {
+                return PostingList.decode(index, index.getInt(entry + 8), index.getInt(entry + 4));
+            }
+        }
+        return NO_SLOTS;
+    }
+
+    private static ByteBuffer write(Path indexFile, Map<Integer, PostingList> postings, int recordCount) throws IOException {
+        List<Integer> words = new ArrayList<>(postings.keySet());
+        words.sort(null);
+        int size = HEADER_BYTES + words.size() * ENTRY_BYTES;
+        for (PostingList list : postings.values()) {
+            size += list.byteLength();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(recordCount).putInt(words.size());
+        int offset = HEADER_BYTES + words.size() * ENTRY_BYTES;
+        for (int word : words) {
+            PostingList list = postings.get(word);
+            buffer.putInt(word).putInt(list.size()).putInt(offset);
+            offset += list.byteLength();
+        }
+        for (int word : words) {
+            postings.get(word).copyTo(buffer);
+        }
+        buffer.flip();
+
+        // Written under a temporary name so a crash never leaves a partial index behind
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return map(indexFile);
+    }
+
+    private static ByteBuffer map(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.barcodeconverter.job;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One bulk conversion job. Its directory holds the uploaded input, the output written so far and
+ * {@code job.json}, which is rewritten after every chunk with the input offset and output length reached,
+ * so a restarted node resumes exactly where the last chunk ended.
+ * <p>
+ * A job is processed by one worker at a time; progress fields are volatile so status requests can read them.
+ */
+public final class ConversionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    public enum Direction {
+        DECODE, ENCODE, VALIDATE
+    }
+
+    /**
+     * Scheduling class: interactive jobs always get the next free worker before bulk jobs.
+     */
+    public enum Priority {
+        INTERACTIVE, BULK
+    }
+
+    static final String STATE_FILE = "job.json";
+    static final String INPUT_FILE = "input.csv";
+    static final String OUTPUT_PART_FILE = "output.csv.part";
+    static final String OUTPUT_FILE = "output.csv";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String id;
+    private final Path directory;
+    private final String owner;
+    private final String ruleSetName;
+    private final int ruleSetVersion;
+    private final Direction direction;
+    private final Priority priority;
+    private final long inputBytes;
+    private final long createdAt;
+    private volatile Status status;
+    private volatile long inputOffset;     // Bytes of input processed
+    private volatile long outputLength;    // Bytes of output written for them
+    private volatile long rows;
+    private volatile long errorRows;
+    private volatile long finishedAt;
+    private volatile String error;
+    private volatile boolean deleted;
+    long scheduleSequence;                 // Round-robin order within a priority class; set by the scheduler
+
+    ConversionJob(String id, Path directory, String owner, String ruleSetName, int ruleSetVersion, Direction direction,
+                  Priority priority, long inputBytes, long createdAt) {
+        this.id = id;
+        this.directory = directory;
+        this.owner = owner;
+        this.ruleSetName = ruleSetName;
+        this.ruleSetVersion = ruleSetVersion;
+        this.direction = direction;
+        this.priority = priority;
+        this.inputBytes = inputBytes;
+        this.createdAt = createdAt;
+        this.status = Status.QUEUED;
+    }
+
+    /**
+     * Writes job.json aside and moves it into place, so a crash leaves the previous checkpoint intact.
+     */
+    synchronized void save() throws IOException {
+        save(status, finishedAt);
+    }
+
+    /**
+     * Checkpoints the job as DONE while it still reports RUNNING, so the finished state is on disk before
+     * the output is moved into place and downloads only start once it is.
+     */
+    synchronized void saveDone(long finishedAt) throws IOException {
+        save(Status.DONE, finishedAt);
+    }
+
+    private void save(Status status, long finishedAt) throws IOException {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("id", id);
+        state.put("owner", owner);
+        state.put("ruleSetName", ruleSetName);
+        state.put("ruleSetVersion", ruleSetVersion);
+        state.put("direction", direction.name());
+        state.put("priority", priority.name());
+        state.put("inputBytes", inputBytes);
+        state.put("createdAt", createdAt);
+        state.put("status", status.name());
+        state.put("inputOffset", inputOffset);
+        state.put("outputLength", outputLength);
+        state.put("rows", rows);
+        state.put("errorRows", errorRows);
+        state.put("finishedAt", finishedAt);
+        state.put("error", error);
+        Path file = directory.resolve(STATE_FILE);
+        Path temp = directory.resolve(STATE_FILE + ".tmp");
+        OBJECT_MAPPER.writeValue(temp.toFile(), state);
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static ConversionJob load(Path directory) throws IOException {
+        Map<String, Object> state = OBJECT_MAPPER.readValue(directory.resolve(STATE_FILE).toFile(), new TypeReference<Map<String, Object>>() {});
+        try {
+            ConversionJob job = new ConversionJob((String) state.get("id"), directory, (String) state.get("owner"),
+                    (String) state.get("ruleSetName"), ((Number) state.get("ruleSetVersion")).intValue(),
+                    Direction.valueOf((String) state.get("direction")), Priority.valueOf((String) state.get("priority")),
+                    ((Number) state.get("inputBytes")).longValue(), ((Number) state.get("createdAt")).longValue());
+            job.status = Status.valueOf((String) state.get("status"));
+            job.inputOffset = ((Number) state.get("inputOffset")).longValue();
+            job.outputLength = ((Number) state.get("outputLength")).longValue();
+            job.rows = ((Number) state.get("rows")).longValue();
+            job.errorRows = ((Number) state.get("errorRows")).longValue();
+            job.finishedAt = ((Number) state.get("finishedAt")).longValue();
+            job.error = (String) state.get("error");
+            if (job.id == null || !job.id.equals(directory.getFileName().toString())) {
+                throw new IOException("Job state in " + directory + " belongs to another job.");
+            }
+            job.completeInterruptedFinish();
+            return job;
+        } catch (ClassCastException | NullPointerException | IllegalArgumentException e) {
+            throw new IOException("Job state in " + directory + " is incomplete: " + e.getMessage(), e);
+        }
+    }
+
+    // A crash between checkpointing DONE and moving the output leaves only the part file; a checkpoint written
+    // before the move was in place (or lost) leaves an unfinished job whose output is complete
+    private void completeInterruptedFinish() throws IOException {
+        boolean partPresent = Files.exists(getOutputPartFile());
+        boolean outputPresent = Files.exists(getOutputFile());
+        if (status == Status.DONE && partPresent && !outputPresent) {
+            Files.move(getOutputPartFile(), getOutputFile(), StandardCopyOption.REPLACE_EXISTING);
+        } else if (!isFinished() && outputPresent && !partPresent) {
+            finish(Status.DONE, null, Files.getLastModifiedTime(getOutputFile()).toMillis());
+            save();
+        }
+    }
+
+    void checkpoint(long inputOffset, long outputLength, long rows, long errorRows) {
+        this.inputOffset = inputOffset;
+        this.outputLength = outputLength;
+        this.rows = rows;
+        this.errorRows = errorRows;
+    }
+
+    void finish(Status status, String error, long finishedAt) {
+        this.error = error;
+        this.finishedAt = finishedAt;
+        this.status = status;
+    }
+
+    void setStatus(Status status) {
+        this.status = status;
+    }
+
+    void markDeleted() {
+        deleted = true;
+    }
+
+    boolean isDeleted() {
+        return deleted;
+    }
+
+    boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    Path getInputFile() {
+        return directory.resolve(INPUT_FILE);
+    }
+
+    Path getOutputPartFile() {
+        return directory.resolve(OUTPUT_PART_FILE);
+    }
+
+    Path getOutputFile() {
+        return directory.resolve(OUTPUT_FILE);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public int getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getInputOffset() {
+        return inputOffset;
+    }
+
+    long getOutputLength() {
+        return outputLength;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getErrorRows() {
+        return errorRows;
+    }
+
+    /**
+     * @return when the job finished, epoch millis, or 0.
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
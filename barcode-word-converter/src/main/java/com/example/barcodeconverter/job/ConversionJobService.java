@@ -0,0 +1,472 @@
+package com.example.barcodeconverter.job;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.ConversionResult;
+import com.example.barcodeconverter.service.ConversionService;
+import com.example.barcodeconverter.service.RuleService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bulk conversion of uploaded CSV files in the background: a client submits a file, polls the job's progress
+ * and downloads the result when it is done, without holding a connection open.
+ * <p>
+ * Jobs run on a small fixed pool of workers, so request threads keep their CPUs however much is queued.
+ * Workers process a job one chunk of rows at a time, streaming the input from the chunk's byte offset and
+ * appending to the job's output file, and then put the job back in the queue. The queue serves
+ * {@link ConversionJob.Priority#INTERACTIVE} jobs first and rotates between jobs of the same class, so a
+ * small upload is never stuck behind a million-row one for longer than one chunk. Uploads above
+ * {@code interactive-max-bytes} are always bulk.
+ * <p>
+ * Every chunk ends with a checkpoint in the job's directory; after a restart, unfinished jobs continue from
+ * their last checkpoint and finished ones can still be downloaded until {@code retention-hours} have passed.
+ * A cleanup thread deletes expired jobs every ten minutes, whether or not new jobs arrive.
+ * Jobs are pinned to the RuleSet version current at submission, which {@link RuleService#getRuleSet} still
+ * finds after the RuleSet is edited as long as the rule history retains it.
+ */
+@Service
+public class ConversionJobService {
+
+    private static final long CLEANUP_INTERVAL_MILLIS = 10 * 60 * 1000L;
+    private static final long WORKER_POLL_MILLIS = 200; // How soon an idle worker notices close()
+
+    private final ConversionService conversionService;
+    private final RuleService ruleService;
+    private final Path directory;
+    private final int workerCount;
+    private final int chunkRows;
+    private final long interactiveMaxBytes;
+    private final int maxPending;
+    private final long retentionMillis;
+    private final long cleanupIntervalMillis;
+
+    private final Map<String, ConversionJob> jobs = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<ConversionJob> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparing(ConversionJob::getPriority).thenComparingLong(job -> job.scheduleSequence));
+    private final AtomicLong scheduleSequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private Thread cleaner;
+    private volatile boolean running;
+
+    @Autowired
+    public ConversionJobService(ConversionService conversionService, RuleService ruleService,
+                                @Value("${barcode.jobs.dir:data/jobs}") String directory,
+                                @Value("${barcode.jobs.workers:0}") int workers,
+                                @Value("${barcode.jobs.chunk-rows:8192}") int chunkRows,
+                                @Value("${barcode.jobs.interactive-max-bytes:1048576}") long interactiveMaxBytes,
+                                @Value("${barcode.jobs.max-pending:100}") int maxPending,
+                                @Value("${barcode.jobs.retention-hours:24}") long retentionHours) {
+        this(conversionService, ruleService, directory, workers, chunkRows, interactiveMaxBytes, maxPending, retentionHours,
+                CLEANUP_INTERVAL_MILLIS);
+    }
+
+    ConversionJobService(ConversionService conversionService, RuleService ruleService, String directory, int workers,
+                         int chunkRows, long interactiveMaxBytes, int maxPending, long retentionHours, long cleanupIntervalMillis) {
+        this.conversionService = conversionService;
+        this.ruleService = ruleService;
+        this.directory = Paths.get(directory);
+        // Half the CPUs by default, so conversions over HTTP keep the other half
+        this.workerCount = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.chunkRows = Math.max(1, chunkRows);
+        this.interactiveMaxBytes = interactiveMaxBytes;
+        this.maxPending = Math.max(1, maxPending);
+        this.retentionMillis = retentionHours * 3600 * 1000;
+        this.cleanupIntervalMillis = cleanupIntervalMillis;
+    }
+
+    /**
+     * Loads the jobs left by the previous run, queues the unfinished ones and starts the workers and the cleanup thread.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path jobDirectory : stream) {
+                ConversionJob job;
+                try {
+                    job = ConversionJob.load(jobDirectory);
+                } catch (IOException e) {
+                    System.err.println("Skipping conversion job in " + jobDirectory + ": " + e.getMessage());
+                    continue;
+                }
+                jobs.put(job.getId(), job);
+                if (!job.isFinished()) {
+                    job.setStatus(ConversionJob.Status.QUEUED);
+                    schedule(job);
+                }
+            }
+        }
+        deleteExpiredJobs(System.currentTimeMillis());
+        if (!jobs.isEmpty()) {
+            System.out.println("Loaded " + jobs.size() + " conversion job(s); " + queue.size() + " resume.");
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::workLoop, "conversion-job-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        cleaner = new Thread(this::cleanupLoop, "conversion-job-cleanup");
+        cleaner.setDaemon(true);
+        cleaner.start();
+    }
+
+    @PreDestroy
+    public void close() {
+        // Workers are not interrupted: an interrupt closes the channel a chunk is writing to. They finish and
+        // checkpoint the chunk in progress and stop at their next poll.
+        running = false;
+        if (cleaner != null) {
+            cleaner.interrupt(); // Only sleeps between cleanups; deleting files is not interruptible
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stores an upload as a new job and queues it.
+     * @param input     the uploaded CSV; copied into the job's directory before this returns
+     * @param bulk      whether the client asks for bulk priority; large uploads are bulk regardless
+     * @throws IllegalArgumentException if the RuleSet is unknown
+     * @throws IllegalStateException    if too many jobs are waiting already
+     */
+    public ConversionJob submit(InputStream input, String owner, String ruleSetName, ConversionJob.Direction direction,
+                                boolean bulk) throws IOException {
+        RuleSet ruleSet = ruleService.getRuleSetByName(ruleSetName);
+        if (ruleSet == null) {
+            throw new IllegalArgumentException("RuleSet with name '" + ruleSetName + "' not found.");
+        }
+        if (direction == ConversionJob.Direction.ENCODE && ruleSet.getLayout().getWordSegments().length != 4) {
+            throw new IllegalArgumentException("RuleSet '" + ruleSet.getName() + "' cannot encode words: it does not have 4 word segments.");
+        }
+        if (queue.size() >= maxPending) {
+            throw new IllegalStateException("Too many conversion jobs are waiting; try again later.");
+        }
+        String id = UUID.randomUUID().toString();
+        Path jobDirectory = directory.resolve(id);
+        Files.createDirectories(jobDirectory);
+        long inputBytes;
+        try {
+            inputBytes = Files.copy(input, jobDirectory.resolve(ConversionJob.INPUT_FILE));
+            ConversionJob.Priority priority = bulk || inputBytes > interactiveMaxBytes
+                    ? ConversionJob.Priority.BULK : ConversionJob.Priority.INTERACTIVE;
+            ConversionJob job = new ConversionJob(id, jobDirectory, owner, ruleSet.getName(), ruleSet.getVersion(), direction,
+                    priority, inputBytes, System.currentTimeMillis());
+            job.save();
+            jobs.put(id, job);
+            schedule(job);
+            return job;
+        } catch (IOException | RuntimeException e) {
+            deleteDirectory(jobDirectory);
+            throw e;
+        }
+    }
+
+    public ConversionJob get(String id) {
+        return id != null ? jobs.get(id) : null;
+    }
+
+    /**
+     * @return the converted file of a DONE job, or null while it is not done.
+     */
+    public Path getResultFile(ConversionJob job) {
+        return job.getStatus() == ConversionJob.Status.DONE && !job.isDeleted() ? job.getOutputFile() : null;
+    }
+
+    /**
+     * Removes a job and its files. A job in the middle of a chunk is removed when the chunk ends.
+     * @return false if there is no such job.
+     */
+    public boolean delete(String id) {
+        ConversionJob job = jobs.remove(id);
+        if (job == null) {
+            return false;
+        }
+        job.markDeleted();
+        if (queue.remove(job) || job.isFinished()) {
+            deleteDirectory(job.getDirectory());
+        }
+        return true;
+    }
+
+    private void schedule(ConversionJob job) {
+        job.scheduleSequence = scheduleSequence.incrementAndGet();
+        queue.add(job);
+    }
+
+    private void workLoop() {
+        while (running) {
+            ConversionJob job;
+            try {
+                job = queue.poll(WORKER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (job == null) {
+                continue;
+            }
+            if (!running) {
+                queue.add(job); // Taken as close() began; it resumes from its checkpoint on the next start
+                return;
+            }
+            run(job);
+        }
+    }
+
+    /**
+     * Runs one chunk of the job at the head of the queue on the calling thread.
+     * @return false if the queue was empty.
+     */
+    boolean runNext() {
+        ConversionJob job = queue.poll();
+        if (job == null) {
+            return false;
+        }
+        run(job);
+        return true;
+    }
+
+    // One chunk of the job; it goes back in the queue if rows remain
+    private void run(ConversionJob job) {
+        if (job.isDeleted()) {
+            deleteDirectory(job.getDirectory());
+            return;
+        }
+        job.setStatus(ConversionJob.Status.RUNNING);
+        boolean more;
+        try {
+            more = runChunk(job);
+            if (!more) {
+                complete(job);
+            }
+        } catch (ClosedByInterruptException e) {
+            // The worker was interrupted mid-chunk; the job is intact as of its last checkpoint
+            System.err.println("Conversion job " + job.getId() + " was interrupted; it resumes from its last checkpoint.");
+            job.setStatus(ConversionJob.Status.QUEUED);
+            schedule(job);
+            return;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Conversion job " + job.getId() + " failed: " + e.getMessage());
+            job.finish(ConversionJob.Status.FAILED, e.getMessage(), System.currentTimeMillis());
+            more = false;
+        }
+        if (job.isDeleted()) {
+            deleteDirectory(job.getDirectory());
+            return;
+        }
+        try {
+            job.save();
+        } catch (IOException e) {
+            System.err.println("Could not checkpoint conversion job " + job.getId() + ": " + e.getMessage());
+        }
+        if (more) {
+            job.setStatus(ConversionJob.Status.QUEUED);
+            schedule(job);
+        }
+    }
+
+    /**
+     * Converts up to chunk-rows rows from the job's input offset and appends them to its output.
+     * @return whether input remains.
+     */
+    boolean runChunk(ConversionJob job) throws IOException {
+        RuleSet ruleSet = ruleService.getRuleSet(job.getRuleSetName(), job.getRuleSetVersion());
+        if (ruleSet == null) {
+            throw new IllegalStateException("RuleSet '" + job.getRuleSetName() + "' version " + job.getRuleSetVersion() + " is no longer available.");
+        }
+        int wordCount = ruleSet.getLayout().getWordSegments().length;
+        List<List<String>> rows = new ArrayList<>(Math.min(chunkRows, 8192));
+        long inputOffset;
+        boolean more;
+        try (FileChannel in = FileChannel.open(job.getInputFile(), StandardOpenOption.READ)) {
+            in.position(job.getInputOffset());
+            JobLineReader reader = new JobLineReader(new BufferedInputStream(Channels.newInputStream(in), 64 * 1024), job.getInputOffset());
+            String line;
+            long lineStart = reader.getPosition();
+            while (rows.size() < chunkRows && (line = reader.readLine()) != null) {
+                boolean header = lineStart == 0 && isHeader(line, job.getDirection());
+                lineStart = reader.getPosition();
+                if (!header && !line.isBlank()) {
+                    rows.add(Csv.parse(line));
+                }
+            }
+            inputOffset = reader.getPosition();
+            more = inputOffset < in.size();
+        }
+
+        StringBuilder text = new StringBuilder(rows.size() * 64);
+        if (job.getOutputLength() == 0) {
+            appendHeader(text, job.getDirection(), wordCount);
+        }
+        long errorRows = job.getErrorRows() + convert(rows, ruleSet, job.getDirection(), wordCount, text);
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        long outputLength;
+        try (FileChannel out = FileChannel.open(job.getOutputPartFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            out.truncate(job.getOutputLength()); // Drops output of a chunk that was written but never checkpointed
+            out.position(job.getOutputLength());
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+            outputLength = out.position();
+        }
+        job.checkpoint(inputOffset, outputLength, job.getRows() + rows.size(), errorRows);
+        return more;
+    }
+
+    // DONE is checkpointed before the output is moved into place; ConversionJob.load finishes the move after a crash
+    private void complete(ConversionJob job) throws IOException {
+        long finishedAt = System.currentTimeMillis();
+        job.saveDone(finishedAt);
+        Files.move(job.getOutputPartFile(), job.getOutputFile(), StandardCopyOption.REPLACE_EXISTING);
+        job.finish(ConversionJob.Status.DONE, null, finishedAt);
+    }
+
+    private static boolean isHeader(String line, ConversionJob.Direction direction) {
+        String first = Csv.parse(line).get(0).toLowerCase(Locale.ROOT);
+        return direction == ConversionJob.Direction.ENCODE ? first.equals("word1") : first.equals("barcode");
+    }
+
+    private static void appendHeader(StringBuilder text, ConversionJob.Direction direction, int wordCount) {
+        if (direction == ConversionJob.Direction.VALIDATE) {
+            text.append("barcode,valid,errorCode,message\n");
+            return;
+        }
+        StringBuilder words = new StringBuilder();
+        for (int w = 1; w <= wordCount; w++) {
+            words.append("word").append(w).append(',');
+        }
+        text.append(direction == ConversionJob.Direction.DECODE ? "barcode," + words : words + "barcode,").append("errorCode,message\n");
+    }
+
+    // Appends one output line per row; returns the number of rows that failed
+    private int convert(List<List<String>> rows, RuleSet ruleSet, ConversionJob.Direction direction, int wordCount, StringBuilder text) {
+        int failed = 0;
+        if (direction == ConversionJob.Direction.ENCODE) {
+            for (List<String> row : rows) {
+                List<String> words = row.size() > wordCount ? row.subList(0, wordCount) : row;
+                ConversionResult result = conversionService.encode(words, ruleSet);
+                for (int w = 0; w < wordCount; w++) {
+                    Csv.append(text, w < words.size() ? words.get(w) : "");
+                    text.append(',');
+                }
+                Csv.append(text, result.isSuccess() ? result.getBarcode() : "");
+                failed += appendError(text, result);
+            }
+            return failed;
+        }
+        List<String> barcodes = new ArrayList<>(rows.size());
+        for (List<String> row : rows) {
+            barcodes.add(row.get(0));
+        }
+        List<ConversionResult> results = direction == ConversionJob.Direction.DECODE
+                ? conversionService.decodeBatch(barcodes, ruleSet) : conversionService.validateBatch(barcodes, ruleSet);
+        for (int r = 0; r < barcodes.size(); r++) {
+            ConversionResult result = results.get(r);
+            Csv.append(text, barcodes.get(r));
+            text.append(',');
+            if (direction == ConversionJob.Direction.VALIDATE) {
+                text.append(result.isSuccess());
+            } else {
+                for (int w = 0; w < wordCount; w++) {
+                    if (w > 0) {
+                        text.append(',');
+                    }
+                    Csv.append(text, result.isSuccess() ? result.getWords().get(w) : "");
+                }
+            }
+            failed += appendError(text, result);
+        }
+        return failed;
+    }
+
+    private static int appendError(StringBuilder text, ConversionResult result) {
+        text.append(',');
+        if (!result.isSuccess()) {
+            Csv.append(text, result.getErrorCode() != null ? result.getErrorCode().name() : "");
+            text.append(',');
+            Csv.append(text, result.getMessage());
+        } else {
+            text.append(',');
+        }
+        text.append('\n');
+        return result.isSuccess() ? 0 : 1;
+    }
+
+    private void cleanupLoop() {
+        while (running) {
+            try {
+                Thread.sleep(cleanupIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                deleteExpiredJobs(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                System.err.println("Conversion job cleanup failed: " + e.getMessage());
+            }
+        }
+    }
+
+    void deleteExpiredJobs(long now) {
+        for (ConversionJob job : jobs.values()) {
+            if (job.isFinished() && job.getFinishedAt() + retentionMillis <= now) {
+                delete(job.getId());
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path jobDirectory) {
+        try (Stream<Path> files = Files.walk(jobDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not delete conversion job files in " + jobDirectory + ": " + e.getMessage());
+        }
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+}
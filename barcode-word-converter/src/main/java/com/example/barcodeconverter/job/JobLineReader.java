@@ -0,0 +1,63 @@
+package com.example.barcodeconverter.job;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines and counts the bytes consumed, so a job can record exactly where in its input the
+ * last processed line ended and resume there. BufferedReader reads ahead and cannot tell.
+ */
+final class JobLineReader {
+
+    private final InputStream in;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+    private long position;
+
+    /**
+     * @param in       input positioned at {@code position}; the caller buffers it
+     * @param position byte offset of {@code in} within the file, 0 for a new job
+     */
+    JobLineReader(InputStream in, long position) {
+        this.in = in;
+        this.position = position;
+    }
+
+    /**
+     * @return the next line without its terminator (LF or CRLF), or null at the end of the input.
+     */
+    String readLine() throws IOException {
+        line.reset();
+        long lineStart = position;
+        int b;
+        boolean any = false;
+        while ((b = in.read()) >= 0) {
+            position++;
+            any = true;
+            if (b == '\n') {
+                break;
+            }
+            line.write(b);
+        }
+        if (!any) {
+            return null;
+        }
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        int start = lineStart == 0 && startsWithBom(bytes) ? 3 : 0;
+        return new String(bytes, start, Math.max(0, length - start), StandardCharsets.UTF_8);
+    }
+
+    // Spreadsheet exports often start with a byte order mark
+    private static boolean startsWithBom(byte[] bytes) {
+        return bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF;
+    }
+
+    /**
+     * @return byte offset just past the last line returned.
+     */
+    long getPosition() {
+        return position;
+    }
+}
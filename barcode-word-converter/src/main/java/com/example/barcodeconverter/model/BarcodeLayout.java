@@ -0,0 +1,733 @@
+package com.example.barcodeconverter.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flattened, table-driven form of a RuleSet, compiled once when the RuleSet is validated.
+ * <p>
+ * Every barcode position carries a 128-bit bitmap of the ASCII characters allowed there
+ * (the digit class for NUMERIC, the alphabet plus padding for BASE64, the exact character
+ * for STATIC and the union of alternatives for STATIC_OR). A barcode is checked in a single
+ * left-to-right pass without allocating; multi-character STATIC_OR segments are then confirmed
+ * against an open-addressed hash table of their alternatives.
+ * <p>
+ * CHECKSUM segments are compiled to per-position term tables: both supported algorithms are a
+ * weighted digit sum (Luhn's doubling and MOD 97-10's powers of ten depend only on a digit's
+ * position in the payload), so a checksum is accumulated position by position in whatever order
+ * digits are written or read, and verified as {@code sum % modulus == residue}.
+ * <p>
+ * A VERSION segment holds the RuleSet version the layout was compiled for (modulo its width) and
+ * is checked like a STATIC segment, so a barcode printed under another version never conforms.
+ */
+public final class BarcodeLayout {
+
+    public static final int NO_FAILURE = -1;
+
+    private static final long[] BASE64_ALPHABET = new long[2]; // 128-entry table as two 64-bit words
+    private static final long[] DIGITS = new long[2];
+    private static final char BASE64_PAD = '=';
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) setBit(BASE64_ALPHABET, c);
+        for (char c = 'a'; c <= 'z'; c++) setBit(BASE64_ALPHABET, c);
+        for (char c = '0'; c <= '9'; c++) setBit(BASE64_ALPHABET, c);
+        setBit(BASE64_ALPHABET, '+');
+        setBit(BASE64_ALPHABET, '/');
+        for (char c = '0'; c <= '9'; c++) setBit(DIGITS, c);
+    }
+
+    private final List<BarcodeSegmentRule> rules;
+    private final int totalLength;
+    private final long[] allowedLow;      // Per position: allowed characters 0-63
+    private final long[] allowedHigh;     // Per position: allowed characters 64-127
+    private final int[] segmentOfPosition;
+    private final int[] segmentStart;
+    private final int[] wordSegments;     // Segment indexes that map to words, in barcode order
+    private final int[] base64Segments;   // Segment indexes needing a padding structure check
+    private final String[][] staticOrTables; // Per segment: open-addressed alternatives (multi-char STATIC_OR only)
+    private final char[] template;        // Non-word segments filled like wordsToBarcode fills them
+    private final int[] checksumSegments;    // Segment indexes of CHECKSUM segments
+    private final int[][] checksumPositions; // Per checksum: covered payload positions, then its own check positions
+    private final int[][] checksumTerms;     // Per checksum: [position * 10 + digit] -> term of the weighted sum
+    private final int sequenceSegment;       // Segment index of the SEQUENCE segment, or -1
+    private final long sequenceCapacity;     // 10^length of the SEQUENCE segment, or 0 without one
+    private final int versionSegment;        // Segment index of the VERSION segment, or -1
+    private final int version;               // RuleSet version written into the VERSION segment
+
+    private BarcodeLayout(List<BarcodeSegmentRule> rules, int version) {
+        this.rules = rules;
+        this.version = version;
+        int length = 0;
+        for (BarcodeSegmentRule rule : rules) {
+            length += rule.getLength();
+        }
+        this.totalLength = length;
+        this.allowedLow = new long[length];
+        this.allowedHigh = new long[length];
+        this.segmentOfPosition = new int[length];
+        this.segmentStart = new int[rules.size()];
+        this.staticOrTables = new String[rules.size()][];
+        this.template = new char[length];
+
+        List<Integer> words = new ArrayList<>();
+        List<Integer> base64 = new ArrayList<>();
+        List<Integer> checksums = new ArrayList<>();
+        int sequence = -1;
+        int versionIndex = -1;
+        int position = 0;
+        for (int s = 0; s < rules.size(); s++) {
+            BarcodeSegmentRule rule = rules.get(s);
+            segmentStart[s] = position;
+            String versionDigits = rule.getType() == SegmentType.VERSION ? versionDigits(version, rule.getLength()) : null;
+            for (int i = 0; i < rule.getLength(); i++) {
+                int p = position + i;
+                segmentOfPosition[p] = s;
+                long[] allowed;
+                if (versionDigits != null) {
+                    allowed = new long[2];
+                    setBit(allowed, versionDigits.charAt(i));
+                    template[p] = versionDigits.charAt(i);
+                } else {
+                    allowed = allowedAt(rule, i);
+                    template[p] = templateCharAt(rule, i);
+                }
+                allowedLow[p] = allowed[0];
+                allowedHigh[p] = allowed[1];
+            }
+            if (rule.isMapsToWord()) {
+                words.add(s);
+            }
+            if (rule.getType() == SegmentType.BASE64) {
+                base64.add(s);
+            }
+            if (rule.getType() == SegmentType.STATIC_OR && rule.getLength() > 1) {
+                staticOrTables[s] = buildHashTable(rule.getStaticOrValues());
+            }
+            if (rule.getType() == SegmentType.CHECKSUM) {
+                checksums.add(s);
+            }
+            if (rule.getType() == SegmentType.SEQUENCE && sequence < 0) {
+                sequence = s;
+            }
+            if (rule.getType() == SegmentType.VERSION && versionIndex < 0) {
+                versionIndex = s;
+            }
+            position += rule.getLength();
+        }
+        this.wordSegments = words.stream().mapToInt(Integer::intValue).toArray();
+        this.base64Segments = base64.stream().mapToInt(Integer::intValue).toArray();
+        this.sequenceSegment = sequence;
+        long capacity = 0;
+        if (sequence >= 0) {
+            capacity = 1;
+            for (int i = 0; i < rules.get(sequence).getLength(); i++) {
+                capacity *= 10;
+            }
+        }
+        this.sequenceCapacity = capacity;
+        this.versionSegment = versionIndex;
+        this.checksumSegments = checksums.stream().mapToInt(Integer::intValue).toArray();
+        this.checksumPositions = new int[checksumSegments.length][];
+        this.checksumTerms = new int[checksumSegments.length][];
+        for (int c = 0; c < checksumSegments.length; c++) {
+            compileChecksum(c);
+        }
+    }
+
+    private void compileChecksum(int c) {
+        int segment = checksumSegments[c];
+        BarcodeSegmentRule rule = rules.get(segment);
+        ChecksumAlgorithm algorithm = rule.getChecksumAlgorithm();
+        if (algorithm == null) {
+            throw new IllegalStateException("CHECKSUM segment at order " + rule.getOrder() + " has no checksumAlgorithm.");
+        }
+        List<Integer> payload = new ArrayList<>();
+        for (int s = 0; s < rules.size(); s++) {
+            BarcodeSegmentRule covered = rules.get(s);
+            boolean included = rule.getChecksumOver() == null || rule.getChecksumOver().isEmpty()
+                    ? covered.isMapsToWord() : rule.getChecksumOver().contains(covered.getOrder());
+            if (included && (covered.getType() == SegmentType.NUMERIC || covered.getType() == SegmentType.SEQUENCE)) {
+                for (int i = 0; i < covered.getLength(); i++) {
+                    payload.add(segmentStart[s] + i);
+                }
+            }
+        }
+
+        int k = payload.size();
+        int[] positions = new int[k + rule.getLength()];
+        int[] terms = new int[totalLength * 10];
+        for (int i = 0; i < k; i++) {
+            int p = payload.get(i);
+            positions[i] = p;
+            for (int d = 0; d < 10; d++) {
+                terms[p * 10 + d] += payloadTerm(algorithm, k, i, d);
+            }
+        }
+        for (int i = 0; i < rule.getLength(); i++) {
+            int p = segmentStart[segment] + i;
+            positions[k + i] = p;
+            int weight = algorithm == ChecksumAlgorithm.MOD97 && i == 0 ? 10 : 1;
+            for (int d = 0; d < 10; d++) {
+                terms[p * 10 + d] = weight * d;
+            }
+        }
+        checksumPositions[c] = positions;
+        checksumTerms[c] = terms;
+    }
+
+    // Term of payload digit i (of k, left to right) as if the check digits followed the payload
+    private static int payloadTerm(ChecksumAlgorithm algorithm, int k, int i, int digit) {
+        switch (algorithm) {
+            case LUHN:
+                if ((k - 1 - i) % 2 == 0) { // Every second digit, starting next to the check digit, is doubled
+                    int doubled = digit * 2;
+                    return doubled > 9 ? doubled - 9 : doubled;
+                }
+                return digit;
+            case MOD97: {
+                int weight = 1; // 10^(k + 1 - i) mod 97: the payload is shifted left by the two check digits
+                for (int e = 0; e < k + 1 - i; e++) {
+                    weight = weight * 10 % 97;
+                }
+                return digit * weight % 97;
+            }
+            default:
+                throw new IllegalStateException("Unhandled checksum algorithm: " + algorithm);
+        }
+    }
+
+    private static int modulusOf(ChecksumAlgorithm algorithm) {
+        return algorithm == ChecksumAlgorithm.MOD97 ? 97 : 10;
+    }
+
+    private static int residueOf(ChecksumAlgorithm algorithm) {
+        return algorithm == ChecksumAlgorithm.MOD97 ? 1 : 0;
+    }
+
+    /**
+     * Compiles the lookup tables for the given (sorted) rules of version 1 of a RuleSet.
+     */
+    public static BarcodeLayout compile(List<BarcodeSegmentRule> rules) {
+        return compile(rules, 1);
+    }
+
+    /**
+     * Compiles the lookup tables for the given (sorted) rules; {@code version} fills a VERSION segment.
+     */
+    public static BarcodeLayout compile(List<BarcodeSegmentRule> rules, int version) {
+        for (BarcodeSegmentRule rule : rules) {
+            checkSegmentValues(rule);
+        }
+        return new BarcodeLayout(new ArrayList<>(rules), version);
+    }
+
+    // Rules read from JSON are filled through setters and skip the constructor's checks
+    private static void checkSegmentValues(BarcodeSegmentRule rule) {
+        if (rule.getType() == null) {
+            throw new IllegalStateException("Rule at order " + rule.getOrder() + " has no segment type.");
+        }
+        if (rule.getLength() < 1) {
+            throw new IllegalStateException("Rule at order " + rule.getOrder() + " must have a positive length.");
+        }
+        if (rule.getType() == SegmentType.STATIC) {
+            String value = rule.getStaticValue();
+            if (value == null || value.length() != rule.getLength()) {
+                throw new IllegalStateException("STATIC segment at order " + rule.getOrder() + " needs a staticValue of length " + rule.getLength() + ".");
+            }
+        } else if (rule.getType() == SegmentType.STATIC_OR) {
+            List<String> values = rule.getStaticOrValues();
+            if (values == null || values.isEmpty()) {
+                throw new IllegalStateException("STATIC_OR segment at order " + rule.getOrder() + " has no staticOrValues.");
+            }
+            for (String value : values) {
+                if (value == null || value.length() != rule.getLength()) {
+                    throw new IllegalStateException("Every staticOrValues entry of the STATIC_OR segment at order " + rule.getOrder() +
+                                                    " must have length " + rule.getLength() + ".");
+                }
+            }
+        }
+    }
+
+    // The version modulo the segment width, zero-padded
+    private static String versionDigits(int version, int length) {
+        char[] digits = new char[length];
+        int value = version;
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(digits);
+    }
+
+    private static long[] allowedAt(BarcodeSegmentRule rule, int offset) {
+        long[] allowed = new long[2];
+        switch (rule.getType()) {
+            case NUMERIC:
+                allowed[0] = DIGITS[0];
+                allowed[1] = DIGITS[1];
+                break;
+            case BASE64:
+                allowed[0] = BASE64_ALPHABET[0];
+                allowed[1] = BASE64_ALPHABET[1];
+                setBit(allowed, BASE64_PAD); // Position of padding is checked per segment
+                break;
+            case STATIC:
+                setBit(allowed, rule.getStaticValue().charAt(offset));
+                break;
+            case CHECKSUM:
+            case SEQUENCE:
+                allowed[0] = DIGITS[0];
+                allowed[1] = DIGITS[1];
+                break;
+            case STATIC_OR:
+                for (String value : rule.getStaticOrValues()) {
+                    setBit(allowed, value.charAt(offset));
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unhandled segment type for layout: " + rule.getType() + " at order " + rule.getOrder());
+        }
+        return allowed;
+    }
+
+    private static char templateCharAt(BarcodeSegmentRule rule, int offset) {
+        switch (rule.getType()) {
+            case STATIC:
+                return rule.getStaticValue().charAt(offset);
+            case STATIC_OR:
+                return rule.getStaticOrValues().get(0).charAt(offset); // First alternative, as wordsToBarcode does
+            case BASE64:
+                return 'A';
+            default:
+                return '0';
+        }
+    }
+
+    private static void setBit(long[] bitmap, char c) {
+        if (c < 128) {
+            bitmap[c >>> 6] |= 1L << (c & 63);
+        }
+        // Non-ASCII characters can never be matched; such rules simply reject every barcode
+    }
+
+    private static String[] buildHashTable(List<String> values) {
+        int size = Integer.highestOneBit(Math.max(values.size(), 1) * 4 - 1) << 1;
+        String[] table = new String[size];
+        for (String value : values) {
+            int slot = value.hashCode() & (size - 1);
+            while (table[slot] != null && !table[slot].equals(value)) {
+                slot = (slot + 1) & (size - 1);
+            }
+            table[slot] = value;
+        }
+        return table;
+    }
+
+    /**
+     * Validates the barcode's characters against every segment in one pass.
+     * The barcode must already have the layout's total length.
+     * @return the first invalid position, or {@link #NO_FAILURE} if all segments conform.
+     */
+    public int findFirstInvalidPosition(String barcode) {
+        for (int p = 0; p < totalLength; p++) {
+            char c = barcode.charAt(p);
+            if (c >= 128) {
+                return p;
+            }
+            long bits = c < 64 ? allowedLow[p] : allowedHigh[p];
+            if ((bits & (1L << (c & 63))) == 0) {
+                return p;
+            }
+        }
+        for (int s : base64Segments) {
+            int failure = checkBase64Padding(barcode, s);
+            if (failure != NO_FAILURE) {
+                return failure;
+            }
+        }
+        for (int s = 0; s < staticOrTables.length; s++) {
+            if (staticOrTables[s] != null && !containsAlternative(barcode, s)) {
+                return segmentStart[s];
+            }
+        }
+        for (int c = 0; c < checksumSegments.length; c++) {
+            if (!isChecksumValid(barcode, c)) {
+                return segmentStart[checksumSegments[c]];
+            }
+        }
+        return NO_FAILURE;
+    }
+
+    // Covered and check positions are known to hold digits at this point
+    private boolean isChecksumValid(String barcode, int c) {
+        int[] positions = checksumPositions[c];
+        int[] terms = checksumTerms[c];
+        int sum = 0;
+        for (int p : positions) {
+            sum += terms[p * 10 + barcode.charAt(p) - '0'];
+        }
+        ChecksumAlgorithm algorithm = rules.get(checksumSegments[c]).getChecksumAlgorithm();
+        return sum % modulusOf(algorithm) == residueOf(algorithm);
+    }
+
+    private String expectedCheckDigits(String barcode, int c) {
+        int segment = checksumSegments[c];
+        int length = rules.get(segment).getLength();
+        int[] positions = checksumPositions[c];
+        int sum = 0;
+        for (int i = 0; i < positions.length - length; i++) {
+            sum += checksumTerms[c][positions[i] * 10 + barcode.charAt(positions[i]) - '0'];
+        }
+        char[] out = new char[totalLength];
+        writeCheckDigits(c, sum, out);
+        return new String(out, segmentStart[segment], length);
+    }
+
+    private void writeCheckDigits(int c, int payloadSum, char[] out) {
+        int segment = checksumSegments[c];
+        int start = segmentStart[segment];
+        switch (rules.get(segment).getChecksumAlgorithm()) {
+            case LUHN:
+                out[start] = (char) ('0' + (10 - payloadSum % 10) % 10);
+                break;
+            case MOD97: {
+                int check = 98 - payloadSum % 97;
+                out[start] = (char) ('0' + check / 10);
+                out[start + 1] = (char) ('0' + check % 10);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unhandled checksum algorithm at order " + rules.get(segment).getOrder());
+        }
+    }
+
+    private int checkBase64Padding(String barcode, int segment) {
+        int start = segmentStart[segment];
+        int length = rules.get(segment).getLength();
+        int end = start + length;
+        int padStart = end;
+        while (padStart > start && barcode.charAt(padStart - 1) == BASE64_PAD) {
+            padStart--;
+        }
+        for (int p = start; p < padStart; p++) {
+            if (barcode.charAt(p) == BASE64_PAD) {
+                return p; // Padding in the middle of the data
+            }
+        }
+        int padding = end - padStart;
+        if (padding > 2 || (padding > 0 && length % 4 != 0)) {
+            return padStart;
+        }
+        if (padding == 0 && length % 4 == 1) {
+            return end - 1; // A single dangling character cannot encode a byte
+        }
+        return NO_FAILURE;
+    }
+
+    private boolean containsAlternative(String barcode, int segment) {
+        int start = segmentStart[segment];
+        int length = rules.get(segment).getLength();
+        int hash = 0;
+        for (int p = start; p < start + length; p++) {
+            hash = 31 * hash + barcode.charAt(p); // Same function as String.hashCode()
+        }
+        String[] table = staticOrTables[segment];
+        int slot = hash & (table.length - 1);
+        while (table[slot] != null) {
+            if (barcode.regionMatches(start, table[slot], 0, length)) {
+                return true;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return false;
+    }
+
+    /**
+     * Parses the digits of a (validated) NUMERIC segment without allocating.
+     * Values beyond Integer.MAX_VALUE are clamped to it.
+     */
+    public int parseNumber(String barcode, int segment) {
+        int start = segmentStart[segment];
+        int end = start + rules.get(segment).getLength();
+        long value = 0;
+        for (int p = start; p < end; p++) {
+            value = value * 10 + (barcode.charAt(p) - '0');
+            if (value > Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * Builds the human-readable error for a failure position returned by {@link #findFirstInvalidPosition}.
+     */
+    public String describeFailure(String barcode, int position) {
+        int segment = segmentOfPosition[position];
+        BarcodeSegmentRule rule = rules.get(segment);
+        String segmentValue = getSegmentValue(barcode, segment);
+        switch (rule.getType()) {
+            case STATIC:
+                return "Static segment mismatch for rule (order " + rule.getOrder() + "). Expected '" +
+                       rule.getStaticValue() + "' but got '" + segmentValue + "' (position " + position + ").";
+            case STATIC_OR:
+                return "Segment value '" + segmentValue + "' for STATIC_OR rule (order " + rule.getOrder() +
+                       ") does not match any of the allowed values: " + rule.getStaticOrValues() + " (position " + position + ").";
+            case CHECKSUM:
+                if (!segmentValue.chars().allMatch(ch -> ch >= '0' && ch <= '9')) {
+                    return "Checksum segment (order " + rule.getOrder() + ") contains non-numeric characters: '" +
+                           segmentValue + "' (position " + position + ").";
+                }
+                // Digits here mean the character pass succeeded and only the checksum comparison failed
+                return "Checksum segment (order " + rule.getOrder() + ") does not match: expected '" +
+                       expectedCheckDigits(barcode, checksumIndexOf(segment)) +
+                       "' but got '" + segmentValue + "' (position " + position + ").";
+            case VERSION:
+                return "Version segment (order " + rule.getOrder() + ") is '" + segmentValue + "' but this layout is version " +
+                       version + " ('" + versionDigits(version, rule.getLength()) + "') of the RuleSet (position " + position + ").";
+            case SEQUENCE:
+                return "Sequence segment (order " + rule.getOrder() + ") contains non-numeric characters: '" +
+                       segmentValue + "' (position " + position + ").";
+            case BASE64:
+                return "Base64 segment (order " + rule.getOrder() + ") contains invalid Base64 characters: '" +
+                       segmentValue + "' (position " + position + ").";
+            case NUMERIC:
+                if (rule.isMapsToWord()) {
+                    return "Segment (order " + rule.getOrder() + ") marked for word mapping does not contain a valid number: " +
+                           segmentValue + " (position " + position + ").";
+                }
+                return "Numeric segment (order " + rule.getOrder() + ") contains non-numeric characters: '" +
+                       segmentValue + "' (position " + position + ").";
+            default:
+                return "Invalid character at position " + position + " for rule (order " + rule.getOrder() + ").";
+        }
+    }
+
+    /**
+     * @return true if character {@code c} passes the per-position table at {@code position}.
+     * Segment-level checks (BASE64 padding, multi-character STATIC_OR alternatives) are not included.
+     */
+    public boolean isAllowed(int position, int c) {
+        if (c < 0 || c >= 128) {
+            return false;
+        }
+        long bits = c < 64 ? allowedLow[position] : allowedHigh[position];
+        return (bits & (1L << (c & 63))) != 0;
+    }
+
+    private int checksumIndexOf(int segment) {
+        for (int c = 0; c < checksumSegments.length; c++) {
+            if (checksumSegments[c] == segment) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Segment " + segment + " is not a CHECKSUM segment.");
+    }
+
+    /**
+     * Writes a barcode for the given word indexes (one per word segment, in barcode order) into
+     * {@code out}, zero-padding each index to its segment length. Indexes must be non-negative and
+     * fit their segment; see {@link #getWordSegmentCapacity(int)}. A SEQUENCE segment, if any, is
+     * left at zero.
+     */
+    public void writeBarcode(int[] wordIndices, int indicesOffset, char[] out) {
+        writeBarcode(wordIndices, indicesOffset, 0, out);
+    }
+
+    /**
+     * As {@link #writeBarcode(int[], int, char[])}, also writing {@code sequenceValue} into the SEQUENCE
+     * segment. Check digits are accumulated while the word and sequence digits are written.
+     * @throws IllegalArgumentException if a non-zero {@code sequenceValue} is negative or does not fit the
+     *                                  SEQUENCE segment, which would otherwise overwrite the segment before it.
+     */
+    public void writeBarcode(int[] wordIndices, int indicesOffset, long sequenceValue, char[] out) {
+        if (sequenceValue != 0 && (sequenceValue < 0 || sequenceValue >= sequenceCapacity)) {
+            throw new IllegalArgumentException("Sequence value " + sequenceValue + " does not fit the " +
+                                               (sequenceSegment >= 0 ? rules.get(sequenceSegment).getLength() + "-digit SEQUENCE segment." : "layout: it has no SEQUENCE segment."));
+        }
+        System.arraycopy(template, 0, out, 0, totalLength);
+        // Zeros add nothing to either checksum, so only the digits written below contribute
+        int[] sums = checksumSegments.length == 0 ? null : new int[checksumSegments.length];
+        for (int w = 0; w < wordSegments.length; w++) {
+            int segment = wordSegments[w];
+            int p = segmentStart[segment] + rules.get(segment).getLength();
+            int value = wordIndices[indicesOffset + w];
+            while (value != 0) { // Leading zeros are already in the template
+                int digit = value % 10;
+                out[--p] = (char) ('0' + digit);
+                for (int c = 0; sums != null && c < sums.length; c++) {
+                    sums[c] += checksumTerms[c][p * 10 + digit];
+                }
+                value /= 10;
+            }
+        }
+        if (sequenceSegment >= 0) {
+            int p = segmentStart[sequenceSegment] + rules.get(sequenceSegment).getLength();
+            long value = sequenceValue;
+            while (value != 0) {
+                int digit = (int) (value % 10);
+                out[--p] = (char) ('0' + digit);
+                for (int c = 0; sums != null && c < sums.length; c++) {
+                    sums[c] += checksumTerms[c][p * 10 + digit];
+                }
+                value /= 10;
+            }
+        }
+        for (int c = 0; sums != null && c < sums.length; c++) {
+            writeCheckDigits(c, sums[c], out);
+        }
+    }
+
+    /**
+     * @return true if the layout has a SEQUENCE segment.
+     */
+    public boolean hasSequence() {
+        return sequenceSegment >= 0;
+    }
+
+    /**
+     * @return how many distinct values the SEQUENCE segment can hold (10^length), or 0 without one.
+     */
+    public long getSequenceCapacity() {
+        return sequenceCapacity;
+    }
+
+    /**
+     * @return true if the layout has a VERSION segment.
+     */
+    public boolean hasVersionSegment() {
+        return versionSegment >= 0;
+    }
+
+    /**
+     * @return the RuleSet version the layout was compiled for.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return how many distinct versions the VERSION segment can tell apart (10^length), or 0 without one.
+     */
+    public int getVersionModulus() {
+        if (versionSegment < 0) {
+            return 0;
+        }
+        int modulus = 1;
+        for (int i = 0; i < rules.get(versionSegment).getLength(); i++) {
+            modulus *= 10;
+        }
+        return modulus;
+    }
+
+    /**
+     * Reads the VERSION segment of a barcode of this layout's length, whatever version it was printed under.
+     * @return the digits' value, or -1 if the layout has no VERSION segment or the segment is not all digits.
+     */
+    public int parseVersion(String barcode) {
+        if (versionSegment < 0 || barcode.length() != totalLength) {
+            return -1;
+        }
+        int start = segmentStart[versionSegment];
+        int value = 0;
+        for (int p = start; p < start + rules.get(versionSegment).getLength(); p++) {
+            char c = barcode.charAt(p);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parses the serial number of a (validated) barcode's SEQUENCE segment.
+     * @return the value, or -1 if the layout has no SEQUENCE segment.
+     */
+    public long parseSequence(String barcode) {
+        if (sequenceSegment < 0) {
+            return -1;
+        }
+        int start = segmentStart[sequenceSegment];
+        long value = 0;
+        for (int p = start; p < start + rules.get(sequenceSegment).getLength(); p++) {
+            value = value * 10 + (barcode.charAt(p) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return how many distinct indexes the w-th word segment can hold (10^length, capped at Integer.MAX_VALUE).
+     */
+    public int getWordSegmentCapacity(int w) {
+        int length = rules.get(wordSegments[w]).getLength();
+        long capacity = 1;
+        for (int i = 0; i < length && capacity <= Integer.MAX_VALUE; i++) {
+            capacity *= 10;
+        }
+        return (int) Math.min(capacity, Integer.MAX_VALUE);
+    }
+
+    public String getSegmentValue(String barcode, int segment) {
+        int start = segmentStart[segment];
+        return barcode.substring(start, start + rules.get(segment).getLength());
+    }
+
+    public int getTotalLength() {
+        return totalLength;
+    }
+
+    public int getSegmentCount() {
+        return rules.size();
+    }
+
+    public BarcodeSegmentRule getRule(int segment) {
+        return rules.get(segment);
+    }
+
+    public int getSegmentStart(int segment) {
+        return segmentStart[segment];
+    }
+
+    public int getSegmentOfPosition(int position) {
+        return segmentOfPosition[position];
+    }
+
+    public int getChecksumCount() {
+        return checksumSegments.length;
+    }
+
+    /**
+     * @return the c-th checksum's covered payload positions followed by its check positions.
+     * Callers must not modify the array.
+     */
+    public int[] getChecksumPositions(int c) {
+        return checksumPositions[c];
+    }
+
+    /**
+     * @return the term digit {@code digit} at {@code position} adds to the c-th checksum's weighted sum.
+     */
+    public int getChecksumTerm(int c, int position, int digit) {
+        return checksumTerms[c][position * 10 + digit];
+    }
+
+    public int getChecksumModulus(int c) {
+        return modulusOf(rules.get(checksumSegments[c]).getChecksumAlgorithm());
+    }
+
+    /**
+     * @return the value {@code sum % modulus} must have for a valid c-th checksum.
+     */
+    public int getChecksumResidue(int c) {
+        return residueOf(rules.get(checksumSegments[c]).getChecksumAlgorithm());
+    }
+
+    /**
+     * @return segment indexes that map to words, in barcode order. Callers must not modify the array.
+     */
+    public int[] getWordSegments() {
+        return wordSegments;
+    }
+}
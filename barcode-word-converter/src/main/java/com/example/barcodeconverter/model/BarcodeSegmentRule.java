@@ -8,10 +8,12 @@ import java.util.ArrayList;
 public class BarcodeSegmentRule {
     private int order;             // The order of the segment in the barcode sequence
     private int length;            // The character length of this segment in the barcode
-    private SegmentType type;      // The type of data this segment represents (NUMERIC, BASE64, STATIC, STATIC_OR)
+    private SegmentType type;      // The type of data this segment represents (NUMERIC, BASE64, STATIC, STATIC_OR, CHECKSUM, SEQUENCE)
     private String staticValue;    // The actual static value if the type is STATIC (null otherwise)
     private List<String> staticOrValues; // Possible static values if type is STATIC_OR
     private boolean mapsToWord;    // If true and type is NUMERIC, this segment's value is an index into the word list
+    private ChecksumAlgorithm checksumAlgorithm; // Check-digit algorithm if type is CHECKSUM
+    private List<Integer> checksumOver;          // Orders of the NUMERIC/SEQUENCE segments covered by a CHECKSUM; empty means all word segments
 
     // Constructors
     public BarcodeSegmentRule() {
@@ -29,6 +31,32 @@ public class BarcodeSegmentRule {
         this(order, length, type, null, staticOrValues, mapsToWord);
     }
 
+    // Constructor for CHECKSUM type
+    public BarcodeSegmentRule(int order, int length, ChecksumAlgorithm checksumAlgorithm, List<Integer> checksumOver) {
+        this(order, length, SegmentType.CHECKSUM, null, null, false);
+        if (checksumAlgorithm == null) {
+            throw new IllegalArgumentException("checksumAlgorithm cannot be null for CHECKSUM segment type. Rule order: " + order);
+        }
+        if (length != checksumAlgorithm.getDigits()) {
+            throw new IllegalArgumentException("Segment length (" + length + ") must be " + checksumAlgorithm.getDigits() +
+                    " for a " + checksumAlgorithm + " checksum. Rule order: " + order);
+        }
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.checksumOver = (checksumOver != null) ? new ArrayList<>(checksumOver) : new ArrayList<>();
+    }
+
+    // Copy constructor; RuleSets copy their rules so a caller's later edits cannot reach a published RuleSet
+    public BarcodeSegmentRule(BarcodeSegmentRule other) {
+        this.order = other.order;
+        this.length = other.length;
+        this.type = other.type;
+        this.staticValue = other.staticValue;
+        this.staticOrValues = other.staticOrValues != null ? new ArrayList<>(other.staticOrValues) : null;
+        this.mapsToWord = other.mapsToWord;
+        this.checksumAlgorithm = other.checksumAlgorithm;
+        this.checksumOver = other.checksumOver != null ? new ArrayList<>(other.checksumOver) : null;
+    }
+
     // Master constructor
     public BarcodeSegmentRule(int order, int length, SegmentType type, String staticValue, List<String> staticOrValues, boolean mapsToWord) {
         this.order = order;
@@ -98,6 +126,14 @@ public class BarcodeSegmentRule {
         return mapsToWord;
     }
 
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    public List<Integer> getChecksumOver() {
+        return checksumOver;
+    }
+
     // Setters
     public void setOrder(int order) {
         this.order = order;
@@ -126,6 +162,14 @@ public class BarcodeSegmentRule {
         this.mapsToWord = mapsToWord;
     }
 
+    public void setChecksumAlgorithm(ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+    }
+
+    public void setChecksumOver(List<Integer> checksumOver) {
+        this.checksumOver = (checksumOver != null) ? new ArrayList<>(checksumOver) : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -136,12 +180,14 @@ public class BarcodeSegmentRule {
                mapsToWord == that.mapsToWord &&
                type == that.type &&
                Objects.equals(staticValue, that.staticValue) &&
-               Objects.equals(staticOrValues, that.staticOrValues);
+               Objects.equals(staticOrValues, that.staticOrValues) &&
+               checksumAlgorithm == that.checksumAlgorithm &&
+               Objects.equals(checksumOver, that.checksumOver);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(order, length, type, staticValue, staticOrValues, mapsToWord);
+        return Objects.hash(order, length, type, staticValue, staticOrValues, mapsToWord, checksumAlgorithm, checksumOver);
     }
 
     @Override
@@ -156,6 +202,10 @@ public class BarcodeSegmentRule {
         if (staticOrValues != null && !staticOrValues.isEmpty()) {
             sb.append(", staticOrValues=").append(staticOrValues);
         }
+        if (checksumAlgorithm != null) {
+            sb.append(", checksumAlgorithm=").append(checksumAlgorithm);
+            sb.append(", checksumOver=").append(checksumOver);
+        }
         sb.append(", mapsToWord=").append(mapsToWord);
         sb.append('}');
         return sb.toString();
@@ -0,0 +1,23 @@
+package com.example.barcodeconverter.model;
+
+/**
+ * Check-digit algorithms for CHECKSUM segments. The payload is the concatenated digits of the
+ * covered segments in barcode order; the check digits make the payload followed by them valid.
+ */
+public enum ChecksumAlgorithm {
+    LUHN(1),   // Luhn mod 10: catches every single-digit error and most adjacent transpositions
+    MOD97(2);  // ISO 7064 MOD 97-10 (as in IBAN): also catches nearly all double errors
+
+    private final int digits;
+
+    ChecksumAlgorithm(int digits) {
+        this.digits = digits;
+    }
+
+    /**
+     * @return number of check digits, i.e. the required CHECKSUM segment length.
+     */
+    public int getDigits() {
+        return digits;
+    }
+}
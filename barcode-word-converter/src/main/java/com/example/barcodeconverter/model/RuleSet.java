@@ -1,5 +1,7 @@
 package com.example.barcodeconverter.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -10,11 +12,26 @@ import java.util.stream.Collectors;
 public class RuleSet {
     private final String name;
     private final List<BarcodeSegmentRule> rules;
+    private final int version;     // Increases each time the RuleSet is saved with different rules
     private boolean validated = false;
     private int totalBarcodeLength = 0;
+    private BarcodeLayout layout; // Compiled lookup tables, built by validateRules()
     private static final int EXPECTED_WORD_MAPPED_RULES = 4;
+    private static final int MAX_SEQUENCE_DIGITS = 18; // Sequence values are longs
+    private static final int MAX_VERSION_DIGITS = 9;   // Versions are ints
 
     public RuleSet(String name, List<BarcodeSegmentRule> rules) {
+        this(name, rules, 1);
+    }
+
+    /**
+     * Creates a specific version of a RuleSet. Versions are immutable once saved; RuleService
+     * assigns the next version number when edited rules are saved under an existing name.
+     */
+    public RuleSet(String name, List<BarcodeSegmentRule> rules, int version) {
+        if (version < 1) {
+            throw new IllegalArgumentException("RuleSet version must be positive.");
+        }
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("RuleSet name cannot be null or empty.");
         }
@@ -22,13 +39,14 @@ public class RuleSet {
             throw new IllegalArgumentException("RuleSet must contain at least one rule.");
         }
         this.name = name;
-        // Create a mutable copy and check for null rules before sorting
+        this.version = version;
+        // Copy the list and the rules themselves (their setters are public) and check for null rules before sorting
         this.rules = new ArrayList<>(rules.size());
         for (BarcodeSegmentRule rule : rules) {
             if (rule == null) {
                 throw new IllegalArgumentException("Rule list cannot contain null BarcodeSegmentRule objects.");
             }
-            this.rules.add(rule);
+            this.rules.add(new BarcodeSegmentRule(rule));
         }
         // Sort rules by order to simplify validation and processing
         this.rules.sort(Comparator.comparingInt(BarcodeSegmentRule::getOrder));
@@ -38,10 +56,18 @@ public class RuleSet {
         return name;
     }
 
+    /**
+     * @return the RuleSet's own rules, sorted by order. Published RuleSets are shared between request
+     *         threads and their layout is compiled from these rules, so they must not be modified.
+     */
     public List<BarcodeSegmentRule> getRules() {
         return rules;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     public boolean isValidated() {
         return validated;
     }
@@ -55,6 +81,16 @@ public class RuleSet {
         return totalBarcodeLength;
     }
 
+    /**
+     * Returns the compiled per-position lookup tables used to validate barcodes.
+     * For an unvalidated RuleSet the tables are compiled on every call.
+     */
+    @JsonIgnore
+    public BarcodeLayout getLayout() {
+        BarcodeLayout compiled = layout;
+        return compiled != null ? compiled : BarcodeLayout.compile(rules, version);
+    }
+
     private void calculateTotalLength() {
         this.totalBarcodeLength = rules.stream().mapToInt(BarcodeSegmentRule::getLength).sum();
     }
@@ -93,6 +129,32 @@ public class RuleSet {
             }
         }
 
+        int sequenceRulesCount = 0;
+        int versionRulesCount = 0;
+        for (BarcodeSegmentRule rule : rules) {
+            if (rule.getType() == SegmentType.CHECKSUM) {
+                validateChecksumRule(rule);
+            }
+            if (rule.getType() == SegmentType.SEQUENCE) {
+                if (++sequenceRulesCount > 1) {
+                    throw new IllegalStateException("RuleSet '" + name + "' can have at most one SEQUENCE rule.");
+                }
+                if (rule.getLength() > MAX_SEQUENCE_DIGITS) {
+                    throw new IllegalStateException("SEQUENCE rule (order " + rule.getOrder() + ") can be at most " + MAX_SEQUENCE_DIGITS +
+                                                    " digits long in RuleSet '" + name + "'.");
+                }
+            }
+            if (rule.getType() == SegmentType.VERSION) {
+                if (++versionRulesCount > 1) {
+                    throw new IllegalStateException("RuleSet '" + name + "' can have at most one VERSION rule.");
+                }
+                if (rule.getLength() > MAX_VERSION_DIGITS) {
+                    throw new IllegalStateException("VERSION rule (order " + rule.getOrder() + ") can be at most " + MAX_VERSION_DIGITS +
+                                                    " digits long in RuleSet '" + name + "'.");
+                }
+            }
+        }
+
         // Check if the number of word-mapped rules is exactly EXPECTED_WORD_MAPPED_RULES
         if (wordMappedRulesCount != EXPECTED_WORD_MAPPED_RULES) {
             throw new IllegalStateException("RuleSet '" + name + "' must have exactly " + EXPECTED_WORD_MAPPED_RULES +
@@ -105,9 +167,31 @@ public class RuleSet {
              throw new IllegalStateException("Total barcode length must be positive for RuleSet '" + name + "'.");
         }
 
+        this.layout = BarcodeLayout.compile(rules, version);
         this.validated = true;
     }
 
+    private void validateChecksumRule(BarcodeSegmentRule rule) {
+        ChecksumAlgorithm algorithm = rule.getChecksumAlgorithm();
+        if (algorithm == null) {
+            throw new IllegalStateException("CHECKSUM rule (order " + rule.getOrder() + ") has no checksumAlgorithm in RuleSet '" + name + "'.");
+        }
+        if (rule.getLength() != algorithm.getDigits()) {
+            throw new IllegalStateException("CHECKSUM rule (order " + rule.getOrder() + ") must have length " + algorithm.getDigits() +
+                                            " for " + algorithm + " in RuleSet '" + name + "'.");
+        }
+        if (rule.getChecksumOver() == null) {
+            return; // Covers all word-mapped segments
+        }
+        for (Integer covered : rule.getChecksumOver()) {
+            BarcodeSegmentRule coveredRule = rules.stream().filter(r -> covered != null && r.getOrder() == covered).findFirst().orElse(null);
+            if (coveredRule == null || (coveredRule.getType() != SegmentType.NUMERIC && coveredRule.getType() != SegmentType.SEQUENCE)) {
+                throw new IllegalStateException("CHECKSUM rule (order " + rule.getOrder() + ") covers order " + covered +
+                                                ", which is not a NUMERIC or SEQUENCE segment in RuleSet '" + name + "'.");
+            }
+        }
+    }
+
     // Optional: If rules can be added dynamically after construction (not typical for this setup)
     // public void addRule(BarcodeSegmentRule rule) {
     //     if (rule == null) {
@@ -123,6 +207,7 @@ public class RuleSet {
     public String toString() {
         return "RuleSet{" +
                "name='" + name + '\'' +
+               ", version=" + version +
                ", rules=" + rules.size() + " rules" +
                ", validated=" + validated +
                ", totalBarcodeLength=" + totalBarcodeLength +
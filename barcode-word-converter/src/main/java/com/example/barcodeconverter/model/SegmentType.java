@@ -4,5 +4,8 @@ public enum SegmentType {
     NUMERIC,    // Represents a numeric segment
     BASE64,     // Represents a Base64 encoded segment
     STATIC,     // Represents a fixed, static string segment
-    STATIC_OR   // Represents a segment that can match one of several static values
+    STATIC_OR,  // Represents a segment that can match one of several static values
+    CHECKSUM,   // Represents check digits computed over other NUMERIC or SEQUENCE segments
+    SEQUENCE,   // Represents a per-RuleSet serial number assigned when a barcode is issued
+    VERSION     // Represents the RuleSet version the barcode was issued under (modulo its width)
 }
@@ -0,0 +1,261 @@
+package com.example.barcodeconverter.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Per-client token buckets for the public API, keyed by a configured API key (X-API-Key header) or else client IP.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time of the next request
+ * (the generic cell rate algorithm, equivalent to a token bucket with the configured rate and burst), updated
+ * by compare-and-set, so admitting a request takes no lock and an active client costs one map entry.
+ * A bucket whose arrival time has passed is full and carries no state, so such buckets are swept out a few
+ * at a time by each request, and no request pays for a whole pass. The number of tracked clients is capped;
+ * while every tracked bucket is still refilling, requests from further clients are rejected rather than
+ * sharing a bucket with unrelated clients.
+ * <p>
+ * Limits are configured per endpoint path and per RuleSet as {@code rate:burst} (requests per second and the
+ * largest burst); a request must pass both its endpoint's and its RuleSet's bucket. The limiter is off unless
+ * {@code barcode.ratelimit.enabled} is set, since clients sharing an address would otherwise share a bucket.
+ */
+@Service
+public class RateLimiter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    private static final long DEAD = Long.MIN_VALUE;     // Bucket removed by the sweep; callers must look up again
+    private static final int SWEEP_STEP = 4;              // Buckets each request examines
+    private static final int FULL_TABLE_SWEEP_STEP = 64;  // Buckets a new client examines to make room
+
+    private final boolean enabled;
+    private final Limit defaultEndpointLimit;               // Null: endpoints without their own limit are unlimited
+    private final Map<String, Limit> endpointLimits;
+    private final Map<String, Limit> ruleSetLimits;
+    private final Set<String> apiKeys;
+    private final int maxTrackedClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private Iterator<Map.Entry<String, AtomicLong>> sweepCursor;  // Guarded by sweepLock
+    private final LongAdder admitted = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> rejectedByScope = new ConcurrentHashMap<>();
+
+    /**
+     * Rate and burst of one bucket, as GCRA parameters.
+     */
+    static final class Limit {
+        final long emissionIntervalNanos;   // Time one token takes to refill
+        final long toleranceNanos;          // How far ahead of now the arrival time may run: the burst
+
+        Limit(double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate limits need a positive rate and a burst of at least 1.");
+            }
+            this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+            this.toleranceNanos = emissionIntervalNanos * burst;
+        }
+
+        /**
+         * Parses {@code rate:burst}, e.g. {@code 50:100}; a bare rate allows a burst of one second's worth.
+         */
+        static Limit parse(String spec) {
+            String[] parts = spec.trim().split(":");
+            double rate = Double.parseDouble(parts[0].trim());
+            int burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : (int) Math.max(1, Math.ceil(rate));
+            return new Limit(rate, burst);
+        }
+    }
+
+    @Autowired
+    public RateLimiter(@Value("${barcode.ratelimit.enabled:false}") boolean enabled,
+                       @Value("${barcode.ratelimit.default:}") String defaultEndpointLimit,
+                       @Value("${barcode.ratelimit.endpoints:}") String endpointLimits,
+                       @Value("${barcode.ratelimit.rulesets:}") String ruleSetLimits,
+                       @Value("${barcode.ratelimit.api-keys:}") String apiKeys,
+                       @Value("${barcode.ratelimit.max-tracked-clients:100000}") int maxTrackedClients) {
+        this(enabled, defaultEndpointLimit, endpointLimits, ruleSetLimits, apiKeys, maxTrackedClients, System::nanoTime);
+    }
+
+    RateLimiter(boolean enabled, String defaultEndpointLimit, String endpointLimits, String ruleSetLimits,
+                String apiKeys, int maxTrackedClients, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.defaultEndpointLimit = defaultEndpointLimit == null || defaultEndpointLimit.isBlank() ? null : Limit.parse(defaultEndpointLimit);
+        this.endpointLimits = parseLimits(endpointLimits);
+        this.ruleSetLimits = parseLimits(ruleSetLimits);
+        this.apiKeys = apiKeys == null || apiKeys.isBlank() ? Set.of()
+                : Arrays.stream(apiKeys.split(",")).map(String::trim).filter(key -> !key.isEmpty()).collect(Collectors.toUnmodifiableSet());
+        this.maxTrackedClients = Math.max(1, maxTrackedClients);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Parses {@code name=rate:burst} pairs separated by commas.
+     */
+    private static Map<String, Limit> parseLimits(String specs) {
+        Map<String, Limit> limits = new HashMap<>();
+        if (specs == null || specs.isBlank()) {
+            return limits;
+        }
+        for (String entry : specs.split(",")) {
+            int equals = entry.lastIndexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Rate limit '" + entry.trim() + "' must look like name=rate:burst.");
+            }
+            limits.put(entry.substring(0, equals).trim(), Limit.parse(entry.substring(equals + 1)));
+        }
+        return limits;
+    }
+
+    /**
+     * @return the API key if it is one of the configured keys, else the remote address, prefixed so the two
+     *         cannot collide. Other keys are ignored, so a client cannot get a fresh bucket per made-up key.
+     */
+    public String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey.trim())) {
+            return "key:" + apiKey.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Takes a token from the client's bucket for an endpoint.
+     * @return 0 if the request is admitted, else the nanoseconds until it would be.
+     */
+    public long acquireEndpoint(String client, String path) {
+        Limit limit = endpointLimits.getOrDefault(path, defaultEndpointLimit);
+        return limit == null ? 0 : acquire("endpoint " + path, client, limit);
+    }
+
+    /**
+     * Takes a token from the client's bucket for a RuleSet.
+     * @return 0 if the request is admitted, else the nanoseconds until it would be.
+     */
+    public long acquireRuleSet(String client, String ruleSetName) {
+        Limit limit = ruleSetName != null ? ruleSetLimits.get(ruleSetName) : null;
+        return limit == null ? 0 : acquire("ruleset " + ruleSetName, client, limit);
+    }
+
+    long acquire(String scope, String client, Limit limit) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        sweepStep(now, SWEEP_STEP);
+        while (true) {
+            AtomicLong bucket = bucket(scope, client, now);
+            if (bucket == null) {
+                // Every tracked client is still refilling; admitting more would let memory grow without bound
+                rejectedByScope.computeIfAbsent(scope, s -> new LongAdder()).increment();
+                return limit.emissionIntervalNanos;
+            }
+            long arrival = bucket.get();
+            if (arrival == DEAD) {
+                buckets.remove(scope + '\u0000' + client, bucket);
+                continue;
+            }
+            long next = Math.max(arrival, now) + limit.emissionIntervalNanos;
+            long wait = next - now - limit.toleranceNanos;
+            if (wait > 0) {
+                rejectedByScope.computeIfAbsent(scope, s -> new LongAdder()).increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                admitted.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the client's bucket, created if there is room, else null.
+     */
+    private AtomicLong bucket(String scope, String client, long now) {
+        String key = scope + '\u0000' + client;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxTrackedClients) {
+            sweepStep(now, FULL_TABLE_SWEEP_STEP);
+            if (buckets.size() >= maxTrackedClients) {
+                return null;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    /**
+     * Examines the next {@code count} buckets of a sweep that continues across requests and drops those that
+     * have refilled completely; they hold nothing a fresh bucket would not. A request that finds another one
+     * sweeping skips its step.
+     */
+    private void sweepStep(long now, int count) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < count; i++) {
+                if (sweepCursor == null || !sweepCursor.hasNext()) {
+                    sweepCursor = buckets.entrySet().iterator(); // Weakly consistent; sees buckets added since
+                    if (!sweepCursor.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, AtomicLong> entry = sweepCursor.next();
+                AtomicLong bucket = entry.getValue();
+                long arrival = bucket.get();
+                if (arrival != DEAD && arrival <= now && bucket.compareAndSet(arrival, DEAD)) {
+                    buckets.remove(entry.getKey(), bucket);
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getTrackedBucketCount() {
+        return buckets.size();
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getRejectedCount() {
+        long total = 0;
+        for (LongAdder count : rejectedByScope.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return rejections so far by scope ("endpoint /api/convert", "ruleset default-20char"), sorted.
+     */
+    public Map<String, Long> getRejectedByScope() {
+        Map<String, Long> counts = new TreeMap<>();
+        rejectedByScope.forEach((scope, count) -> counts.put(scope, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.barcodeconverter.render;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Code 128 encoder for ASCII text. Code set C packs runs of digits two to a symbol; letters use
+ * code set B, and control characters code set A. The mod-103 check symbol is weighted by symbol
+ * position, with the start symbol counted at weight one.
+ */
+public final class Code128Encoder {
+
+    // Bar/space widths of symbol values 0-105; every symbol is 11 modules wide
+    private static final String[] PATTERNS = {
+        "212222", "222122", "222221", "121223", "121322", "131222", "122213", "122312", "132212", "221213",
+        "221312", "231212", "112232", "122132", "122231", "113222", "123122", "123221", "223211", "221132",
+        "221231", "213212", "223112", "312131", "311222", "321122", "321221", "312212", "322112", "322211",
+        "212123", "212321", "232121", "111323", "131123", "131321", "112313", "132113", "132311", "211313",
+        "231113", "231311", "112133", "112331", "132131", "113123", "113321", "133121", "313121", "211331",
+        "231131", "213113", "213311", "213131", "311123", "311321", "331121", "312113", "312311", "332111",
+        "314111", "221411", "431111", "111224", "111422", "121124", "121421", "141122", "141221", "112214",
+        "112412", "122114", "122411", "142112", "142211", "241211", "221114", "413111", "241112", "134111",
+        "111242", "121142", "121241", "114212", "124112", "124211", "411212", "421112", "421211", "212141",
+        "214121", "412121", "111143", "111341", "131141", "114113", "114311", "411113", "411311", "113141",
+        "114131", "311141", "411131", "211412", "211214", "211232"
+    };
+    private static final String STOP_PATTERN = "2331112"; // 13 modules, ends with the termination bar
+
+    static final int CODE_C = 99;
+    static final int CODE_B = 100;
+    static final int CODE_A = 101;
+    static final int START_A = 103;
+    static final int START_B = 104;
+    static final int START_C = 105;
+    private static final int SET_A = 0;
+    private static final int SET_B = 1;
+    private static final int SET_C = 2;
+    public static final int MAX_LENGTH = 80;
+
+    private Code128Encoder() {
+    }
+
+    /**
+     * @return the encoded symbol as a one-module-tall matrix.
+     * @throws IllegalArgumentException if the text is empty, too long or not ASCII.
+     */
+    public static ModuleMatrix encode(String text) {
+        int[] symbols = symbols(text);
+        ModuleMatrix matrix = new ModuleMatrix(symbols.length * 11 + 13, 1);
+        int x = 0;
+        for (int symbol : symbols) {
+            x = drawPattern(matrix, x, PATTERNS[symbol]);
+        }
+        drawPattern(matrix, x, STOP_PATTERN);
+        return matrix;
+    }
+
+    private static int drawPattern(ModuleMatrix matrix, int x, String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            int moduleWidth = pattern.charAt(i) - '0';
+            boolean bar = i % 2 == 0;
+            for (int m = 0; m < moduleWidth; m++) {
+                matrix.set(x++, 0, bar);
+            }
+        }
+        return x;
+    }
+
+    /**
+     * @return the symbol values: start symbol, data and code-set switches, and the check symbol (no stop).
+     */
+    static int[] symbols(String text) {
+        if (text == null || text.isEmpty() || text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Code 128 text must be 1 to " + MAX_LENGTH + " characters long.");
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                throw new IllegalArgumentException("Code 128 can only encode ASCII characters; found '" + text.charAt(i) + "'.");
+            }
+        }
+
+        List<Integer> symbols = new ArrayList<>();
+        int leadingDigits = digitRun(text, 0);
+        int set;
+        if (leadingDigits >= 4 || (leadingDigits == text.length() && leadingDigits % 2 == 0)) {
+            set = SET_C;
+            symbols.add(START_C);
+        } else if (needsSetA(text, 0)) {
+            set = SET_A;
+            symbols.add(START_A);
+        } else {
+            set = SET_B;
+            symbols.add(START_B);
+        }
+
+        int i = 0;
+        while (i < text.length()) {
+            if (set == SET_C) {
+                if (digitRun(text, i) >= 2) {
+                    symbols.add((text.charAt(i) - '0') * 10 + (text.charAt(i + 1) - '0'));
+                    i += 2;
+                    continue;
+                }
+                set = needsSetA(text, i) ? SET_A : SET_B;
+                symbols.add(set == SET_A ? CODE_A : CODE_B);
+                continue;
+            }
+            int digits = digitRun(text, i);
+            // Switching to C pays off for four digits at the end, or six in the middle
+            if (digits >= 4 && (i + digits == text.length() || digits >= 6)) {
+                if (digits % 2 == 1) {
+                    symbols.add(valueIn(set, text.charAt(i++)));
+                }
+                set = SET_C;
+                symbols.add(CODE_C);
+                continue;
+            }
+            char c = text.charAt(i);
+            if (set == SET_B && c < 32) {
+                set = SET_A;
+                symbols.add(CODE_A);
+            } else if (set == SET_A && c >= 96) {
+                set = SET_B;
+                symbols.add(CODE_B);
+            }
+            symbols.add(valueIn(set, c));
+            i++;
+        }
+
+        int checksum = symbols.get(0);
+        for (int p = 1; p < symbols.size(); p++) {
+            checksum += symbols.get(p) * p;
+        }
+        symbols.add(checksum % 103);
+        return symbols.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int valueIn(int set, char c) {
+        if (set == SET_A) {
+            return c < 32 ? c + 64 : c - 32;
+        }
+        return c - 32;
+    }
+
+    private static int digitRun(String text, int from) {
+        int end = from;
+        while (end < text.length() && text.charAt(end) >= '0' && text.charAt(end) <= '9') {
+            end++;
+        }
+        return end - from;
+    }
+
+    // Set A is only worth it when a control character comes before any lowercase letter
+    private static boolean needsSetA(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 32) {
+                return true;
+            }
+            if (c >= 96) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.barcodeconverter.render;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Data Matrix ECC 200 encoder using ASCII encodation (digit pairs packed into one codeword) and
+ * the smallest fitting square symbol with a single data region, 10x10 to 26x26 (up to 44 data
+ * codewords, e.g. 88 digits or 43 letters).
+ */
+public final class DataMatrixEncoder {
+
+    private static final int[] SYMBOL_SIZES = {10, 12, 14, 16, 18, 20, 22, 24, 26};
+    private static final int[] DATA_CODEWORDS = {3, 5, 8, 12, 18, 22, 30, 36, 44};
+    private static final int[] ECC_CODEWORDS = {5, 7, 10, 12, 14, 18, 20, 24, 28};
+    private static final int PAD = 129;
+    private static final int UPPER_SHIFT = 235;
+
+    private final int rows;
+    private final int columns;
+    private final int[] placement;
+
+    private DataMatrixEncoder(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.placement = new int[rows * columns];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is empty or too long for a 26x26 symbol.
+     */
+    public static ModuleMatrix encode(String text) {
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException("Data Matrix text must not be empty.");
+        }
+        int[] encoded = asciiEncode(text.getBytes(StandardCharsets.UTF_8));
+        int sizeIndex = 0;
+        while (sizeIndex < SYMBOL_SIZES.length && DATA_CODEWORDS[sizeIndex] < encoded.length) {
+            sizeIndex++;
+        }
+        if (sizeIndex == SYMBOL_SIZES.length) {
+            throw new IllegalArgumentException("Text needs " + encoded.length + " codewords; a 26x26 Data Matrix holds " +
+                                               DATA_CODEWORDS[DATA_CODEWORDS.length - 1] + ".");
+        }
+        int[] codewords = codewords(encoded, DATA_CODEWORDS[sizeIndex], ECC_CODEWORDS[sizeIndex]);
+
+        int size = SYMBOL_SIZES[sizeIndex];
+        int[] placement = placement(size - 2, size - 2);
+        ModuleMatrix matrix = new ModuleMatrix(size, size);
+        for (int i = 0; i < size; i++) {
+            matrix.set(0, i, true);              // Solid left edge
+            matrix.set(i, size - 1, true);       // Solid bottom edge
+            matrix.set(i, 0, i % 2 == 0);        // Alternating top edge
+            matrix.set(size - 1, i, i % 2 == 1); // Alternating right edge
+        }
+        for (int row = 0; row < size - 2; row++) {
+            for (int column = 0; column < size - 2; column++) {
+                int value = placement[row * (size - 2) + column];
+                boolean dark = value == 1
+                        || value >= 10 && ((codewords[value / 10 - 1] >>> (8 - value % 10)) & 1) != 0;
+                matrix.set(column + 1, row + 1, dark);
+            }
+        }
+        return matrix;
+    }
+
+    static int[] asciiEncode(byte[] data) {
+        int[] encoded = new int[data.length * 2];
+        int count = 0;
+        for (int i = 0; i < data.length; i++) {
+            int c = data[i] & 0xFF;
+            if (isDigit(c) && i + 1 < data.length && isDigit(data[i + 1] & 0xFF)) {
+                encoded[count++] = 130 + (c - '0') * 10 + ((data[++i] & 0xFF) - '0');
+            } else if (c < 128) {
+                encoded[count++] = c + 1;
+            } else {
+                encoded[count++] = UPPER_SHIFT;
+                encoded[count++] = c - 128 + 1;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(encoded, 0, result, 0, count);
+        return result;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return the data codewords padded to capacity, followed by their error correction codewords.
+     */
+    static int[] codewords(int[] encoded, int dataCapacity, int eccLength) {
+        int[] codewords = new int[dataCapacity + eccLength];
+        System.arraycopy(encoded, 0, codewords, 0, encoded.length);
+        for (int i = encoded.length; i < dataCapacity; i++) {
+            if (i == encoded.length) {
+                codewords[i] = PAD;
+            } else {
+                // Later pads are scrambled by their 1-based position (253-state randomizing)
+                int pad = PAD + (149 * (i + 1)) % 253 + 1;
+                codewords[i] = pad <= 254 ? pad : pad - 254;
+            }
+        }
+        int[] ecc = ReedSolomon.DATA_MATRIX.remainder(codewords, 0, dataCapacity, ReedSolomon.DATA_MATRIX.generator(eccLength));
+        System.arraycopy(ecc, 0, codewords, dataCapacity, eccLength);
+        return codewords;
+    }
+
+    /**
+     * @return per module of a data region, 10 * codeword number + bit (1 = MSB), 1 for a fixed dark
+     *         module or 0 for a fixed light one.
+     */
+    static int[] placement(int rows, int columns) {
+        DataMatrixEncoder layout = new DataMatrixEncoder(rows, columns);
+        layout.place();
+        return layout.placement;
+    }
+
+    // Codeword placement of ISO/IEC 16022 Annex F: diagonal sweeps of "utah"-shaped codewords plus four corner cases
+    private void place() {
+        int codeword = 1;
+        int row = 4;
+        int column = 0;
+        do {
+            if (row == rows && column == 0) {
+                corner1(codeword++);
+            }
+            if (row == rows - 2 && column == 0 && columns % 4 != 0) {
+                corner2(codeword++);
+            }
+            if (row == rows - 2 && column == 0 && columns % 8 == 4) {
+                corner3(codeword++);
+            }
+            if (row == rows + 4 && column == 2 && columns % 8 == 0) {
+                corner4(codeword++);
+            }
+            do {
+                if (row < rows && column >= 0 && placement[row * columns + column] == 0) {
+                    utah(row, column, codeword++);
+                }
+                row -= 2;
+                column += 2;
+            } while (row >= 0 && column < columns);
+            row += 1;
+            column += 3;
+            do {
+                if (row >= 0 && column < columns && placement[row * columns + column] == 0) {
+                    utah(row, column, codeword++);
+                }
+                row += 2;
+                column -= 2;
+            } while (row < rows && column >= 0);
+            row += 3;
+            column += 1;
+        } while (row < rows || column < columns);
+        if (placement[rows * columns - 1] == 0) {
+            // Unused bottom-right corner gets a fixed checkerboard
+            placement[rows * columns - 1] = 1;
+            placement[rows * columns - columns - 2] = 1;
+        }
+    }
+
+    private void module(int row, int column, int codeword, int bit) {
+        if (row < 0) {
+            row += rows;
+            column += 4 - ((rows + 4) % 8);
+        }
+        if (column < 0) {
+            column += columns;
+            row += 4 - ((columns + 4) % 8);
+        }
+        placement[row * columns + column] = 10 * codeword + bit;
+    }
+
+    private void utah(int row, int column, int codeword) {
+        module(row - 2, column - 2, codeword, 1);
+        module(row - 2, column - 1, codeword, 2);
+        module(row - 1, column - 2, codeword, 3);
+        module(row - 1, column - 1, codeword, 4);
+        module(row - 1, column, codeword, 5);
+        module(row, column - 2, codeword, 6);
+        module(row, column - 1, codeword, 7);
+        module(row, column, codeword, 8);
+    }
+
+    private void corner1(int codeword) {
+        module(rows - 1, 0, codeword, 1);
+        module(rows - 1, 1, codeword, 2);
+        module(rows - 1, 2, codeword, 3);
+        module(0, columns - 2, codeword, 4);
+        module(0, columns - 1, codeword, 5);
+        module(1, columns - 1, codeword, 6);
+        module(2, columns - 1, codeword, 7);
+        module(3, columns - 1, codeword, 8);
+    }
+
+    private void corner2(int codeword) {
+        module(rows - 3, 0, codeword, 1);
+        module(rows - 2, 0, codeword, 2);
+        module(rows - 1, 0, codeword, 3);
+        module(0, columns - 4, codeword, 4);
+        module(0, columns - 3, codeword, 5);
+        module(0, columns - 2, codeword, 6);
+        module(0, columns - 1, codeword, 7);
+        module(1, columns - 1, codeword, 8);
+    }
+
+    private void corner3(int codeword) {
+        module(rows - 3, 0, codeword, 1);
+        module(rows - 2, 0, codeword, 2);
+        module(rows - 1, 0, codeword, 3);
+        module(0, columns - 2, codeword, 4);
+        module(0, columns - 1, codeword, 5);
+        module(1, columns - 1, codeword, 6);
+        module(2, columns - 1, codeword, 7);
+        module(3, columns - 1, codeword, 8);
+    }
+
+    private void corner4(int codeword) {
+        module(rows - 1, 0, codeword, 1);
+        module(rows - 1, columns - 1, codeword, 2);
+        module(0, columns - 3, codeword, 3);
+        module(0, columns - 2, codeword, 4);
+        module(0, columns - 1, codeword, 5);
+        module(1, columns - 3, codeword, 6);
+        module(1, columns - 2, codeword, 7);
+        module(1, columns - 1, codeword, 8);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.barcodeconverter.render;
+
+/**
+ * Output formats for rendered barcodes.
+ */
+public enum ImageFormat {
+    PNG("image/png"),
+    SVG("image/svg+xml");
+
+    private final String mediaType;
+
+    ImageFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
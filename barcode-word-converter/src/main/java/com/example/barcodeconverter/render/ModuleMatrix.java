@@ -0,0 +1,45 @@
+package com.example.barcodeconverter.render;
+
+/**
+ * Dark/light modules of an encoded symbol, without quiet zone. Linear symbols are one module tall
+ * and are stretched to bar height when rendered.
+ */
+public final class ModuleMatrix {
+
+    private final int width;
+    private final int height;
+    private final boolean[] dark;
+
+    public ModuleMatrix(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Matrix dimensions must be positive.");
+        }
+        this.width = width;
+        this.height = height;
+        this.dark = new boolean[width * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isDark(int x, int y) {
+        return dark[y * width + x];
+    }
+
+    public void set(int x, int y, boolean isDark) {
+        dark[y * width + x] = isDark;
+    }
+
+    public void flip(int x, int y) {
+        dark[y * width + x] = !dark[y * width + x];
+    }
+
+    public boolean isLinear() {
+        return height == 1;
+    }
+}
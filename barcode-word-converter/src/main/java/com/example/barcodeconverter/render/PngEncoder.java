@@ -0,0 +1,113 @@
+package com.example.barcodeconverter.render;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a symbol as a 1-bit grayscale PNG. An encoder keeps its deflater and scanline buffers
+ * between images, so instances are meant to be pooled; a single instance is not thread-safe.
+ */
+public final class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+    private final byte[] deflated = new byte[8192];
+    private byte[] scanlines = new byte[0];
+
+    /**
+     * @param moduleSize pixels per module
+     * @param quietZone blank modules around the symbol
+     * @param barHeight height in modules of a linear symbol's bars; ignored for 2D symbols
+     */
+    public byte[] encode(ModuleMatrix matrix, int moduleSize, int quietZone, int barHeight) {
+        int symbolHeight = matrix.isLinear() ? barHeight : matrix.getHeight();
+        int width = (matrix.getWidth() + 2 * quietZone) * moduleSize;
+        int height = (symbolHeight + 2 * quietZone) * moduleSize;
+        int rowBytes = (width + 7) / 8 + 1; // Leading filter byte (0 = none) on every scanline
+        long rawLength = (long) rowBytes * height;
+        if (rawLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Image of " + width + "x" + height + " pixels is too large.");
+        }
+        if (scanlines.length < rawLength) {
+            scanlines = new byte[(int) rawLength];
+        }
+
+        // Build each distinct module row once and copy it for every pixel row it covers
+        for (int moduleRow = 0; moduleRow < symbolHeight + 2 * quietZone; moduleRow++) {
+            int first = moduleRow * moduleSize * rowBytes;
+            scanlines[first] = 0;
+            Arrays.fill(scanlines, first + 1, first + rowBytes, (byte) 0xFF); // Light background
+            int y = moduleRow - quietZone;
+            if (y >= 0 && y < symbolHeight) {
+                int matrixRow = matrix.isLinear() ? 0 : y;
+                for (int x = 0; x < matrix.getWidth(); x++) {
+                    if (matrix.isDark(x, matrixRow)) {
+                        int pixel = (x + quietZone) * moduleSize;
+                        for (int p = pixel; p < pixel + moduleSize; p++) {
+                            scanlines[first + 1 + (p >>> 3)] &= (byte) ~(0x80 >>> (p & 7));
+                        }
+                    }
+                }
+            }
+            for (int r = 1; r < moduleSize; r++) {
+                System.arraycopy(scanlines, first, scanlines, first + r * rowBytes, rowBytes);
+            }
+        }
+
+        out.reset();
+        out.write(SIGNATURE, 0, SIGNATURE.length);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 1;  // Bit depth
+        header[9] = 0;  // Grayscale
+        writeChunk("IHDR", header, header.length);
+
+        deflater.reset();
+        deflater.setInput(scanlines, 0, (int) rawLength);
+        deflater.finish();
+        ByteArrayOutputStream idat = new ByteArrayOutputStream((int) Math.min(rawLength / 8 + 64, 1 << 20));
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflated);
+            idat.write(deflated, 0, n);
+        }
+        writeChunk("IDAT", idat.toByteArray(), idat.size());
+        writeChunk("IEND", new byte[0], 0);
+        return out.toByteArray();
+    }
+
+    private void writeChunk(String type, byte[] data, int length) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] lengthBytes = new byte[4];
+        putInt(lengthBytes, 0, length);
+        out.write(lengthBytes, 0, 4);
+        out.write(typeBytes, 0, 4);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        putInt(crcBytes, 0, (int) crc.getValue());
+        out.write(crcBytes, 0, 4);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Releases the native deflater; the encoder cannot be used afterwards.
+     */
+    public void close() {
+        deflater.end();
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.barcodeconverter.render;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * QR Code encoder: byte mode, error correction level M, smallest fitting version from 1 to 10
+ * (up to 213 bytes), with the mask chosen by the standard penalty rules.
+ */
+public final class QrCodeEncoder {
+
+    static final int MAX_VERSION = 10;
+    // Level M, indexed by version
+    private static final int[] ECC_CODEWORDS_PER_BLOCK = {-1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26};
+    private static final int[] ERROR_CORRECTION_BLOCKS = {-1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5};
+    private static final int ECC_LEVEL_M_FORMAT_BITS = 0;
+    private static final int PENALTY_RUN = 3;
+    private static final int PENALTY_BLOCK = 3;
+    private static final int PENALTY_FINDER_LIKE = 40;
+    private static final int PENALTY_BALANCE = 10;
+
+    private final int version;
+    private final int size;
+    private final ModuleMatrix modules;
+    private final boolean[] isFunction;
+
+    private QrCodeEncoder(int version) {
+        this.version = version;
+        this.size = version * 4 + 17;
+        this.modules = new ModuleMatrix(size, size);
+        this.isFunction = new boolean[size * size];
+    }
+
+    /**
+     * @return the encoded symbol (UTF-8 bytes; identical to ISO 8859-1 for ASCII barcodes).
+     * @throws IllegalArgumentException if the text is empty or does not fit version 10.
+     */
+    public static ModuleMatrix encode(String text) {
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException("QR Code text must not be empty.");
+        }
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        int version = chooseVersion(data.length);
+        QrCodeEncoder symbol = new QrCodeEncoder(version);
+        symbol.drawFunctionPatterns();
+        symbol.drawCodewords(addEccAndInterleave(dataCodewords(data, version), version));
+
+        int bestMask = 0;
+        int bestPenalty = Integer.MAX_VALUE;
+        for (int mask = 0; mask < 8; mask++) {
+            symbol.applyMask(mask);
+            symbol.drawFormatBits(mask);
+            int penalty = symbol.penalty();
+            if (penalty < bestPenalty) {
+                bestMask = mask;
+                bestPenalty = penalty;
+            }
+            symbol.applyMask(mask); // Masks are XORs, so applying again undoes it
+        }
+        symbol.applyMask(bestMask);
+        symbol.drawFormatBits(bestMask);
+        return symbol.modules;
+    }
+
+    private static int chooseVersion(int byteCount) {
+        for (int version = 1; version <= MAX_VERSION; version++) {
+            int neededBits = 4 + characterCountBits(version) + byteCount * 8;
+            if (neededBits <= dataCodewordCount(version) * 8) {
+                return version;
+            }
+        }
+        throw new IllegalArgumentException("Text of " + byteCount + " bytes is too long for a version " + MAX_VERSION + " QR Code.");
+    }
+
+    private static int characterCountBits(int version) {
+        return version <= 9 ? 8 : 16;
+    }
+
+    // Modules left for codewords once function patterns and format/version information are placed
+    static int rawDataModules(int version) {
+        int result = (16 * version + 128) * version + 64;
+        if (version >= 2) {
+            int alignmentCount = version / 7 + 2;
+            result -= (25 * alignmentCount - 10) * alignmentCount - 55;
+            if (version >= 7) {
+                result -= 36;
+            }
+        }
+        return result;
+    }
+
+    static int dataCodewordCount(int version) {
+        return rawDataModules(version) / 8 - ECC_CODEWORDS_PER_BLOCK[version] * ERROR_CORRECTION_BLOCKS[version];
+    }
+
+    static int[] dataCodewords(byte[] data, int version) {
+        int capacity = dataCodewordCount(version);
+        int[] codewords = new int[capacity];
+        BitWriter bits = new BitWriter(codewords);
+        bits.append(0x4, 4); // Byte mode
+        bits.append(data.length, characterCountBits(version));
+        for (byte b : data) {
+            bits.append(b & 0xFF, 8);
+        }
+        bits.append(0, Math.min(4, capacity * 8 - bits.length)); // Terminator
+        bits.append(0, (8 - bits.length % 8) % 8);
+        for (int pad = 0xEC; bits.length < capacity * 8; pad ^= 0xEC ^ 0x11) {
+            bits.append(pad, 8);
+        }
+        return codewords;
+    }
+
+    private static final class BitWriter {
+        final int[] bytes;
+        int length;
+
+        BitWriter(int[] bytes) {
+            this.bytes = bytes;
+        }
+
+        void append(int value, int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                bytes[length >>> 3] |= ((value >>> i) & 1) << (7 - (length & 7));
+                length++;
+            }
+        }
+    }
+
+    static int[] addEccAndInterleave(int[] data, int version) {
+        int blockCount = ERROR_CORRECTION_BLOCKS[version];
+        int eccLength = ECC_CODEWORDS_PER_BLOCK[version];
+        int rawCodewords = rawDataModules(version) / 8;
+        int shortBlockCount = blockCount - rawCodewords % blockCount;
+        int shortBlockLength = rawCodewords / blockCount;
+        int[] generator = ReedSolomon.QR.generator(eccLength);
+
+        // Long blocks carry one more data codeword; short blocks get a placeholder to keep columns aligned
+        int[][] blocks = new int[blockCount][shortBlockLength + 1];
+        for (int b = 0, offset = 0; b < blockCount; b++) {
+            int dataLength = shortBlockLength - eccLength + (b < shortBlockCount ? 0 : 1);
+            int[] ecc = ReedSolomon.QR.remainder(data, offset, dataLength, generator);
+            int column = 0;
+            for (int i = 0; i < dataLength; i++) {
+                blocks[b][column++] = data[offset + i];
+            }
+            if (b < shortBlockCount) {
+                column++;
+            }
+            System.arraycopy(ecc, 0, blocks[b], column, eccLength);
+            offset += dataLength;
+        }
+
+        int[] result = new int[rawCodewords];
+        int k = 0;
+        for (int column = 0; column <= shortBlockLength; column++) {
+            for (int b = 0; b < blockCount; b++) {
+                if (column != shortBlockLength - eccLength || b >= shortBlockCount) {
+                    result[k++] = blocks[b][column];
+                }
+            }
+        }
+        return result;
+    }
+
+    private void setFunction(int x, int y, boolean dark) {
+        modules.set(x, y, dark);
+        isFunction[y * size + x] = true;
+    }
+
+    private void drawFunctionPatterns() {
+        for (int i = 0; i < size; i++) {
+            setFunction(6, i, i % 2 == 0);
+            setFunction(i, 6, i % 2 == 0);
+        }
+        drawFinder(3, 3);
+        drawFinder(size - 4, 3);
+        drawFinder(3, size - 4);
+
+        int[] alignment = alignmentPositions();
+        int last = alignment.length - 1;
+        for (int i = 0; i < alignment.length; i++) {
+            for (int j = 0; j < alignment.length; j++) {
+                if (!(i == 0 && j == 0 || i == 0 && j == last || i == last && j == 0)) { // Corners hold finders
+                    drawAlignment(alignment[i], alignment[j]);
+                }
+            }
+        }
+        drawFormatBits(0); // Reserve the area; redrawn once the mask is chosen
+        drawVersion();
+    }
+
+    private void drawFinder(int cx, int cy) {
+        for (int dy = -4; dy <= 4; dy++) {
+            for (int dx = -4; dx <= 4; dx++) {
+                int distance = Math.max(Math.abs(dx), Math.abs(dy));
+                int x = cx + dx;
+                int y = cy + dy;
+                if (x >= 0 && x < size && y >= 0 && y < size) {
+                    setFunction(x, y, distance != 2 && distance != 4);
+                }
+            }
+        }
+    }
+
+    private void drawAlignment(int cx, int cy) {
+        for (int dy = -2; dy <= 2; dy++) {
+            for (int dx = -2; dx <= 2; dx++) {
+                setFunction(cx + dx, cy + dy, Math.max(Math.abs(dx), Math.abs(dy)) != 1);
+            }
+        }
+    }
+
+    private int[] alignmentPositions() {
+        if (version == 1) {
+            return new int[0];
+        }
+        int count = version / 7 + 2;
+        int step = (version * 8 + count * 3 + 5) / (count * 4 - 4) * 2;
+        int[] result = new int[count];
+        result[0] = 6;
+        for (int i = count - 1, position = size - 7; i >= 1; i--, position -= step) {
+            result[i] = position;
+        }
+        return result;
+    }
+
+    // 15-bit BCH(15,5) code of the error correction level and mask, XORed with the fixed pattern
+    static int formatBits(int mask) {
+        int data = ECC_LEVEL_M_FORMAT_BITS << 3 | mask;
+        int remainder = data;
+        for (int i = 0; i < 10; i++) {
+            remainder = (remainder << 1) ^ ((remainder >>> 9) * 0x537);
+        }
+        return (data << 10 | remainder) ^ 0x5412;
+    }
+
+    private void drawFormatBits(int mask) {
+        int bits = formatBits(mask);
+        for (int i = 0; i <= 5; i++) {
+            setFunction(8, i, bit(bits, i));
+        }
+        setFunction(8, 7, bit(bits, 6));
+        setFunction(8, 8, bit(bits, 7));
+        setFunction(7, 8, bit(bits, 8));
+        for (int i = 9; i < 15; i++) {
+            setFunction(14 - i, 8, bit(bits, i));
+        }
+        for (int i = 0; i < 8; i++) {
+            setFunction(size - 1 - i, 8, bit(bits, i));
+        }
+        for (int i = 8; i < 15; i++) {
+            setFunction(8, size - 15 + i, bit(bits, i));
+        }
+        setFunction(8, size - 8, true); // Always-dark module
+    }
+
+    // 18-bit BCH(18,6) code of the version, for versions 7 and up
+    static int versionBits(int version) {
+        int remainder = version;
+        for (int i = 0; i < 12; i++) {
+            remainder = (remainder << 1) ^ ((remainder >>> 11) * 0x1F25);
+        }
+        return version << 12 | remainder;
+    }
+
+    private void drawVersion() {
+        if (version < 7) {
+            return;
+        }
+        int bits = versionBits(version);
+        for (int i = 0; i < 18; i++) {
+            boolean dark = bit(bits, i);
+            int a = size - 11 + i % 3;
+            int b = i / 3;
+            setFunction(a, b, dark);
+            setFunction(b, a, dark);
+        }
+    }
+
+    // Zigzag through two-module columns from the bottom right, skipping the vertical timing pattern
+    private void drawCodewords(int[] codewords) {
+        int i = 0;
+        for (int right = size - 1; right >= 1; right -= 2) {
+            if (right == 6) {
+                right = 5;
+            }
+            boolean upward = ((right + 1) & 2) == 0;
+            for (int vertical = 0; vertical < size; vertical++) {
+                int y = upward ? size - 1 - vertical : vertical;
+                for (int j = 0; j < 2; j++) {
+                    int x = right - j;
+                    if (!isFunction[y * size + x] && i < codewords.length * 8) {
+                        modules.set(x, y, bit(codewords[i >>> 3], 7 - (i & 7)));
+                        i++;
+                    }
+                    // Remainder bits stay light
+                }
+            }
+        }
+    }
+
+    private void applyMask(int mask) {
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (!isFunction[y * size + x] && maskCondition(mask, x, y)) {
+                    modules.flip(x, y);
+                }
+            }
+        }
+    }
+
+    private static boolean maskCondition(int mask, int x, int y) {
+        switch (mask) {
+            case 0: return (x + y) % 2 == 0;
+            case 1: return y % 2 == 0;
+            case 2: return x % 3 == 0;
+            case 3: return (x + y) % 3 == 0;
+            case 4: return (x / 3 + y / 2) % 2 == 0;
+            case 5: return x * y % 2 + x * y % 3 == 0;
+            case 6: return (x * y % 2 + x * y % 3) % 2 == 0;
+            case 7: return ((x + y) % 2 + x * y % 3) % 2 == 0;
+            default: throw new IllegalArgumentException("Mask must be 0 to 7.");
+        }
+    }
+
+    private int penalty() {
+        int result = 0;
+        for (int line = 0; line < size; line++) {
+            result += linePenalty(line, true) + linePenalty(line, false);
+        }
+        int dark = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean color = modules.isDark(x, y);
+                if (color) {
+                    dark++;
+                }
+                if (x < size - 1 && y < size - 1 && color == modules.isDark(x + 1, y)
+                        && color == modules.isDark(x, y + 1) && color == modules.isDark(x + 1, y + 1)) {
+                    result += PENALTY_BLOCK;
+                }
+            }
+        }
+        int total = size * size;
+        int deviation = (Math.abs(dark * 20 - total * 10) + total - 1) / total - 1; // Steps of 5% away from half dark
+        return result + deviation * PENALTY_BALANCE;
+    }
+
+    // Runs of five or more same-colored modules, and finder-like 1:1:3:1:1 patterns beside four light modules
+    private int linePenalty(int line, boolean horizontal) {
+        int result = 0;
+        int run = 0;
+        boolean runColor = false;
+        for (int i = 0; i < size; i++) {
+            boolean color = horizontal ? modules.isDark(i, line) : modules.isDark(line, i);
+            if (i > 0 && color == runColor) {
+                run++;
+            } else {
+                if (run >= 5) {
+                    result += PENALTY_RUN + run - 5;
+                }
+                runColor = color;
+                run = 1;
+            }
+            if (i >= 10 && (matches(line, i - 10, horizontal, 0b10111010000) || matches(line, i - 10, horizontal, 0b00001011101))) {
+                result += PENALTY_FINDER_LIKE;
+            }
+        }
+        if (run >= 5) {
+            result += PENALTY_RUN + run - 5;
+        }
+        return result;
+    }
+
+    private boolean matches(int line, int from, boolean horizontal, int pattern) {
+        for (int k = 0; k < 11; k++) {
+            boolean expected = ((pattern >>> (10 - k)) & 1) != 0;
+            boolean color = horizontal ? modules.isDark(from + k, line) : modules.isDark(line, from + k);
+            if (color != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean bit(int value, int index) {
+        return ((value >>> index) & 1) != 0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.barcodeconverter.render;
+
+/**
+ * Reed-Solomon error correction codewords over GF(256), as used by QR Code (field polynomial
+ * 0x11D, generator roots from alpha^0) and Data Matrix ECC 200 (0x12D, roots from alpha^1).
+ */
+final class ReedSolomon {
+
+    static final ReedSolomon QR = new ReedSolomon(0x11D, 0);
+    static final ReedSolomon DATA_MATRIX = new ReedSolomon(0x12D, 1);
+
+    private final int[] exp = new int[512];
+    private final int[] log = new int[256];
+    private final int firstRoot;
+
+    private ReedSolomon(int fieldPolynomial, int firstRoot) {
+        this.firstRoot = firstRoot;
+        int x = 1;
+        for (int i = 0; i < 255; i++) {
+            exp[i] = x;
+            log[x] = i;
+            x <<= 1;
+            if (x >= 256) {
+                x ^= fieldPolynomial;
+            }
+        }
+        for (int i = 255; i < 512; i++) {
+            exp[i] = exp[i - 255];
+        }
+    }
+
+    int multiply(int a, int b) {
+        return a == 0 || b == 0 ? 0 : exp[log[a] + log[b]];
+    }
+
+    /**
+     * @return the coefficients of the generator polynomial of the given degree, highest power first,
+     *         without the leading 1.
+     */
+    int[] generator(int degree) {
+        int[] result = new int[degree];
+        result[degree - 1] = 1;
+        int root = exp[firstRoot];
+        for (int i = 0; i < degree; i++) {
+            // Multiply the current product by (x - root)
+            for (int j = 0; j < degree; j++) {
+                result[j] = multiply(result[j], root);
+                if (j + 1 < degree) {
+                    result[j] ^= result[j + 1];
+                }
+            }
+            root = multiply(root, 2);
+        }
+        return result;
+    }
+
+    /**
+     * @return the {@code generator.length} error correction codewords for {@code data[offset, offset + length)}.
+     */
+    int[] remainder(int[] data, int offset, int length, int[] generator) {
+        int[] result = new int[generator.length];
+        for (int i = offset; i < offset + length; i++) {
+            int factor = data[i] ^ result[0];
+            System.arraycopy(result, 1, result, 0, result.length - 1);
+            result[result.length - 1] = 0;
+            for (int j = 0; j < result.length; j++) {
+                result[j] ^= multiply(generator[j], factor);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.barcodeconverter.render;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Least-recently-used cache of rendered images, bounded by the total size of the cached bytes.
+ * Labels are reprinted far more often than new ones are created, so a hit serves the stored bytes
+ * without encoding or rasterizing again.
+ */
+public final class RenderCache {
+
+    private static final int ENTRY_OVERHEAD = 96; // Rough bytes per entry for the key, map node and array headers
+
+    public static final class Key {
+        private final Symbology symbology;
+        private final ImageFormat format;
+        private final String code;
+        private final int moduleSize;
+
+        public Key(Symbology symbology, ImageFormat format, String code, int moduleSize) {
+            this.symbology = symbology;
+            this.format = format;
+            this.code = code;
+            this.moduleSize = moduleSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return moduleSize == key.moduleSize && symbology == key.symbology && format == key.format && code.equals(key.code);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(symbology, format, code, moduleSize);
+        }
+
+        @Override
+        public String toString() {
+            return symbology + "/" + format + "/" + moduleSize + "/" + code;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true); // Access order
+    private long totalBytes;  // Guarded by this
+    private long hitCount;    // Guarded by this
+    private long missCount;   // Guarded by this
+
+    public RenderCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the cached image, or null; callers must not modify the returned array.
+     */
+    public synchronized byte[] get(Key key) {
+        byte[] image = entries.get(key);
+        if (image != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return image;
+    }
+
+    public synchronized void put(Key key, byte[] image) {
+        long cost = cost(key, image);
+        if (cost > maxBytes) {
+            return; // Would evict everything else for one entry
+        }
+        byte[] previous = entries.put(key, image);
+        if (previous != null) {
+            totalBytes -= cost(key, previous);
+        }
+        totalBytes += cost;
+        Iterator<Map.Entry<Key, byte[]>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Key, byte[]> entry = eldest.next();
+            totalBytes -= cost(entry.getKey(), entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    private static long cost(Key key, byte[] image) {
+        return image.length + 2L * key.code.length() + ENTRY_OVERHEAD;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.barcodeconverter.render;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a symbol as SVG in module units (the viewBox), scaled to pixels by the width and height
+ * attributes. Dark modules are merged into one horizontal run per row, all in a single path.
+ */
+public final class SvgWriter {
+
+    private SvgWriter() {
+    }
+
+    public static byte[] write(ModuleMatrix matrix, int moduleSize, int quietZone, int barHeight) {
+        int symbolHeight = matrix.isLinear() ? barHeight : matrix.getHeight();
+        int width = matrix.getWidth() + 2 * quietZone;
+        int height = symbolHeight + 2 * quietZone;
+        int runHeight = matrix.isLinear() ? barHeight : 1;
+        StringBuilder svg = new StringBuilder(256 + matrix.getWidth() * matrix.getHeight() * 2);
+        svg.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+           .append("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"").append(width * moduleSize)
+           .append("\" height=\"").append(height * moduleSize)
+           .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+           .append("\" shape-rendering=\"crispEdges\">\n")
+           .append("<rect width=\"100%\" height=\"100%\" fill=\"#FFFFFF\"/>\n")
+           .append("<path fill=\"#000000\" d=\"");
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            int x = 0;
+            while (x < matrix.getWidth()) {
+                if (!matrix.isDark(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < matrix.getWidth() && matrix.isDark(x, y)) {
+                    x++;
+                }
+                svg.append('M').append(start + quietZone).append(',').append(y + quietZone)
+                   .append('h').append(x - start).append('v').append(runHeight)
+                   .append('h').append(start - x).append('z');
+            }
+        }
+        svg.append("\"/>\n</svg>\n");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
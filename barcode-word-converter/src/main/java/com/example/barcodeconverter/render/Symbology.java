@@ -0,0 +1,23 @@
+package com.example.barcodeconverter.render;
+
+/**
+ * Barcode symbologies that can be rendered in-process.
+ */
+public enum Symbology {
+    CODE128(10),    // Linear; quiet zone of ten modules
+    DATAMATRIX(1),  // ECC 200, square symbols up to 26x26
+    QR(4);          // Byte mode, error correction level M, versions 1 to 10
+
+    private final int quietZone;
+
+    Symbology(int quietZone) {
+        this.quietZone = quietZone;
+    }
+
+    /**
+     * @return the blank margin, in modules, required around the symbol.
+     */
+    public int getQuietZone() {
+        return quietZone;
+    }
+}
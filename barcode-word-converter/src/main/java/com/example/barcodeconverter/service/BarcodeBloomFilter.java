@@ -0,0 +1,220 @@
+package com.example.barcodeconverter.service;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped Bloom filter of issued barcodes for one RuleSet.
+ * <p>
+ * The filter is cache-line blocked: a barcode's hash picks one 512-bit block and all of its probe
+ * bits are set within that block, so a lookup touches a single cache line. Bits are set with an
+ * atomic OR through a VarHandle view of the mapping, so concurrent inserts never lose each other's
+ * bits and readers need no lock. Blocking raises the false-positive rate slightly above the
+ * textbook figure; {@link #create} sizes for it.
+ * <p>
+ * File layout (little endian): a 256-byte header holding the magic, version, bit count, probe
+ * count, insertion count and RuleSet name, followed by the bit array.
+ */
+public final class BarcodeBloomFilter implements AutoCloseable {
+
+    private static final int MAGIC = 0x42424C4D; // "BBLM"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 256;
+    private static final int OFFSET_BITS = 8;
+    private static final int OFFSET_PROBES = 16;
+    private static final int OFFSET_COUNT = 24;
+    private static final int OFFSET_NAME_LENGTH = 32;
+    private static final int OFFSET_NAME = 36;
+    private static final int MAX_NAME_BYTES = HEADER_BYTES - OFFSET_NAME;
+    private static final int BLOCK_BITS = 512;
+    private static final int LONGS_PER_BLOCK = BLOCK_BITS / 64;
+    private static final double BLOCKING_OVERHEAD = 1.15; // Extra bits to offset blocking's higher false-positive rate
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final String ruleSetName;
+    private final long blockCount;
+    private final int probes;
+
+    private BarcodeBloomFilter(Path file, FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a barcode Bloom filter (or unsupported version): " + file);
+        }
+        long bits = buffer.getLong(OFFSET_BITS);
+        this.blockCount = bits / BLOCK_BITS;
+        this.probes = buffer.getInt(OFFSET_PROBES);
+        int nameLength = buffer.getInt(OFFSET_NAME_LENGTH);
+        byte[] name = new byte[nameLength];
+        buffer.get(OFFSET_NAME, name);
+        this.ruleSetName = new String(name, StandardCharsets.UTF_8);
+        if (blockCount <= 0 || probes <= 0 || HEADER_BYTES + bits / 8 != buffer.capacity()) {
+            throw new IOException("Corrupt barcode Bloom filter header: " + file);
+        }
+    }
+
+    /**
+     * Creates an empty filter sized for {@code expectedInsertions} barcodes at the given
+     * false-positive probability. The file is written under a temporary name and renamed into
+     * place, so a reader never maps a half-written filter.
+     */
+    public static BarcodeBloomFilter create(Path file, String ruleSetName, long expectedInsertions, double falsePositiveRate) throws IOException {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the false-positive rate within (0, 1).");
+        }
+        byte[] name = ruleSetName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("RuleSet name is too long for the filter header.");
+        }
+        double optimalBits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long blocks = Math.max(1, (long) Math.ceil(optimalBits * BLOCKING_OVERHEAD / BLOCK_BITS));
+        long bits = blocks * BLOCK_BITS;
+        int probes = (int) Math.max(1, Math.min(16, Math.round((double) bits / expectedInsertions * Math.log(2))));
+        if (HEADER_BYTES + bits / 8 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter of " + bits + " bits exceeds the 2 GB mapping limit.");
+        }
+
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = out.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + bits / 8);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(OFFSET_BITS, bits);
+            header.putInt(OFFSET_PROBES, probes);
+            header.putLong(OFFSET_COUNT, 0);
+            header.putInt(OFFSET_NAME_LENGTH, name.length);
+            header.put(OFFSET_NAME, name);
+            header.force();
+        }
+        Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(absolute);
+    }
+
+    /**
+     * Maps an existing filter file read-write; later inserts go straight to the mapping.
+     */
+    public static BarcodeBloomFilter open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            return new BarcodeBloomFilter(file, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a barcode. Safe to call concurrently with other inserts and lookups.
+     * @return true if at least one bit changed, i.e. the barcode was definitely not present before.
+     */
+    public boolean put(String barcode) {
+        long hash = hash(barcode);
+        int base = blockOffset(hash);
+        int position = (int) (hash >>> 32) & (BLOCK_BITS - 1);
+        int step = (int) (hash >>> 41) | 1;
+        boolean changed = false;
+        for (int i = 0; i < probes; i++) {
+            int index = base + ((position >>> 6) << 3);
+            long mask = 1L << (position & 63);
+            if (((long) LONGS.getOpaque(buffer, index) & mask) == 0) {
+                long previous = (long) LONGS.getAndBitwiseOr(buffer, index, mask);
+                changed |= (previous & mask) == 0;
+            }
+            position = (position + step) & (BLOCK_BITS - 1);
+        }
+        if (changed) {
+            LONGS.getAndAdd(buffer, OFFSET_COUNT, 1L);
+        }
+        return changed;
+    }
+
+    /**
+     * @return false if the barcode was definitely never added; true if it probably was.
+     */
+    public boolean mightContain(String barcode) {
+        long hash = hash(barcode);
+        int base = blockOffset(hash);
+        int position = (int) (hash >>> 32) & (BLOCK_BITS - 1);
+        int step = (int) (hash >>> 41) | 1;
+        for (int i = 0; i < probes; i++) {
+            long word = (long) LONGS.getOpaque(buffer, base + ((position >>> 6) << 3));
+            if ((word & (1L << (position & 63))) == 0) {
+                return false;
+            }
+            position = (position + step) & (BLOCK_BITS - 1);
+        }
+        return true;
+    }
+
+    private int blockOffset(long hash) {
+        long block = Math.floorMod(hash, blockCount);
+        return HEADER_BYTES + (int) block * (LONGS_PER_BLOCK * 8);
+    }
+
+    // FNV-1a over the characters, finished with the SplitMix64 mixer
+    private static long hash(String barcode) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < barcode.length(); i++) {
+            h = (h ^ barcode.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    /**
+     * @return number of inserts that set at least one new bit (a close lower bound of distinct barcodes).
+     */
+    public long getInsertionCount() {
+        return (long) LONGS.getOpaque(buffer, OFFSET_COUNT);
+    }
+
+    public long getBitCount() {
+        return blockCount * BLOCK_BITS;
+    }
+
+    public int getProbeCount() {
+        return probes;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Flushes inserted bits to disk.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close(); // The mapping itself is released when the buffer is collected
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeLayout;
+import com.example.barcodeconverter.model.RuleSet;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Bulk barcode generation for label printing.
+ * <p>
+ * Requests are checked up front by the {@code prepare*} methods, which return a {@link Generation}
+ * that is written later, e.g. from a streaming HTTP response once the status is already committed.
+ * Output is split into fixed-size chunks that are formatted in parallel on a dedicated fork-join
+ * pool. At most a small window of chunks is in flight at once and chunks are written strictly in
+ * order as they complete, so output is deterministic and memory use does not grow with the count.
+ */
+@Service
+public class BarcodeGenerationService {
+
+    public enum OutputFormat {
+        CSV, NDJSON
+    }
+
+    static final int CHUNK_ROWS = 2048;
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+    private static final long RANDOM_CHUNK_GAMMA = 0x9E3779B97F4A7C15L; // Spreads per-chunk seeds
+
+    private final ConversionService conversionService;
+    private final ForkJoinPool pool;
+    private final int maxChunksInFlight;
+    private final long maxCount;
+
+    /**
+     * A checked generation request, ready to be written.
+     */
+    public final class Generation {
+        private final RuleSet ruleSet;
+        private final long count;
+        private final IndexSource source;
+        private final OutputFormat format;
+
+        private Generation(RuleSet ruleSet, long count, IndexSource source, OutputFormat format) {
+            this.ruleSet = ruleSet;
+            this.count = count;
+            this.source = source;
+            this.format = format;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public OutputFormat getFormat() {
+            return format;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            generate(ruleSet, count, source, format, out);
+        }
+    }
+
+    /**
+     * Supplies the word indexes of {@code rows} consecutive output rows starting at {@code firstRow}.
+     */
+    interface IndexSource {
+        void fill(long firstRow, int rows, int[] indices);
+    }
+
+    @Autowired
+    public BarcodeGenerationService(ConversionService conversionService,
+                                    @Value("${barcode.generator.parallelism:0}") int parallelism,
+                                    @Value("${barcode.generator.max-count:10000000}") long maxCount) {
+        this.conversionService = conversionService;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("barcode-generator-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.maxChunksInFlight = threads * CHUNKS_IN_FLIGHT_PER_THREAD;
+        this.maxCount = maxCount;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return how many distinct word combinations the RuleSet can encode with the current word list
+     *         (saturating at Long.MAX_VALUE).
+     */
+    public long getCombinationCount(RuleSet ruleSet) {
+        int[] radices = radices(ruleSet.getLayout());
+        long total = 1;
+        for (int radix : radices) {
+            if (total > Long.MAX_VALUE / radix) {
+                return Long.MAX_VALUE;
+            }
+            total *= radix;
+        }
+        return total;
+    }
+
+    /**
+     * Generates one barcode per word tuple, in the given order. All tuples are resolved before
+     * anything is written, so an unknown word fails the request with an IllegalArgumentException.
+     */
+    public Generation prepareTuples(RuleSet ruleSet, List<List<String>> tuples, OutputFormat format) {
+        checkCount(tuples.size());
+        BarcodeLayout layout = ruleSet.getLayout();
+        int wordCount = layout.getWordSegments().length;
+        int[] resolved = new int[Math.multiplyExact(tuples.size(), wordCount)];
+        for (int t = 0; t < tuples.size(); t++) {
+            List<String> tuple = tuples.get(t);
+            if (tuple == null || tuple.size() != wordCount) {
+                throw new IllegalArgumentException("Tuple " + t + " must contain exactly " + wordCount + " words.");
+            }
+            for (int w = 0; w < wordCount; w++) {
+                int index = conversionService.getWordIndex(tuple.get(w));
+                if (index < 0) {
+                    throw new IllegalArgumentException("Tuple " + t + ": word not found in dictionary: " + tuple.get(w));
+                }
+                if (index >= layout.getWordSegmentCapacity(w)) {
+                    throw new IllegalArgumentException("Tuple " + t + ": word index " + index + " for word '" + tuple.get(w) +
+                                                       "' is too long for segment (order " + layout.getRule(layout.getWordSegments()[w]).getOrder() + ").");
+                }
+                resolved[t * wordCount + w] = index;
+            }
+        }
+        return new Generation(ruleSet, tuples.size(), (firstRow, rows, indices) ->
+                System.arraycopy(resolved, (int) firstRow * wordCount, indices, 0, rows * wordCount), format);
+    }
+
+    /**
+     * Generates the combinations {@code start .. start + count - 1} of the RuleSet's combination
+     * space in mixed-radix order (the last word varies fastest).
+     */
+    public Generation prepareRange(RuleSet ruleSet, long start, long count, OutputFormat format) {
+        checkCount(count);
+        long space = getCombinationCount(ruleSet);
+        if (start < 0 || start > space - count) {
+            throw new IllegalArgumentException("Range " + start + "+" + count + " exceeds the " + space + " available combinations.");
+        }
+        int[] radices = radices(ruleSet.getLayout());
+        return new Generation(ruleSet, count, (firstRow, rows, indices) -> {
+            for (int r = 0; r < rows; r++) {
+                long value = start + firstRow + r;
+                for (int w = radices.length - 1; w >= 0; w--) {
+                    indices[r * radices.length + w] = (int) (value % radices[w]);
+                    value /= radices[w];
+                }
+            }
+        }, format);
+    }
+
+    /**
+     * Generates {@code count} uniformly random combinations. Each chunk draws from its own generator
+     * seeded from {@code seed} and the chunk number, so the output depends only on the seed.
+     */
+    public Generation prepareRandom(RuleSet ruleSet, long seed, long count, OutputFormat format) {
+        checkCount(count);
+        int[] radices = radices(ruleSet.getLayout());
+        return new Generation(ruleSet, count, (firstRow, rows, indices) -> {
+            SplittableRandom random = new SplittableRandom(seed + (firstRow / CHUNK_ROWS) * RANDOM_CHUNK_GAMMA);
+            for (int r = 0; r < rows; r++) {
+                for (int w = 0; w < radices.length; w++) {
+                    indices[r * radices.length + w] = random.nextInt(radices[w]);
+                }
+            }
+        }, format);
+    }
+
+    private void checkCount(long count) {
+        if (count < 0 || count > maxCount) {
+            throw new IllegalArgumentException("Count must be between 0 and " + maxCount + ".");
+        }
+    }
+
+    private int[] radices(BarcodeLayout layout) {
+        int[] radices = new int[layout.getWordSegments().length];
+        for (int w = 0; w < radices.length; w++) {
+            radices[w] = Math.min(conversionService.getWordCount(), layout.getWordSegmentCapacity(w));
+        }
+        return radices;
+    }
+
+    private void generate(RuleSet ruleSet, long count, IndexSource source, OutputFormat format, OutputStream out) throws IOException {
+        BarcodeLayout layout = ruleSet.getLayout();
+        if (format == OutputFormat.CSV) {
+            out.write(csvHeader(layout.getWordSegments().length).getBytes(StandardCharsets.UTF_8));
+        }
+        long chunkCount = (count + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        ArrayDeque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+        try {
+            for (long chunk = 0; chunk < chunkCount; chunk++) {
+                if (inFlight.size() >= maxChunksInFlight) {
+                    out.write(inFlight.poll().join());
+                }
+                long firstRow = chunk * CHUNK_ROWS;
+                int rows = (int) Math.min(CHUNK_ROWS, count - firstRow);
+                inFlight.add(pool.submit(() -> formatChunk(ruleSet, source, firstRow, rows, format)));
+            }
+            while (!inFlight.isEmpty()) {
+                out.write(inFlight.poll().join());
+            }
+            out.flush();
+        } finally {
+            // The client may have gone away mid-stream; don't leave work queued behind it
+            for (ForkJoinTask<byte[]> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private byte[] formatChunk(RuleSet ruleSet, IndexSource source, long firstRow, int rows, OutputFormat format) {
+        BarcodeLayout layout = ruleSet.getLayout();
+        boolean sequenced = layout.hasSequence();
+        int wordCount = layout.getWordSegments().length;
+        int[] indices = new int[rows * wordCount];
+        source.fill(firstRow, rows, indices);
+        char[] barcode = new char[layout.getTotalLength()];
+        StringBuilder text = new StringBuilder(rows * (barcode.length + wordCount * 12 + 32));
+        for (int r = 0; r < rows; r++) {
+            // Serial numbers are drawn as rows are formatted, so they rise within a chunk but interleave across chunks
+            long sequence = sequenced ? conversionService.nextSequenceValue(ruleSet) : 0;
+            layout.writeBarcode(indices, r * wordCount, sequence, barcode);
+            String issued = new String(barcode);
+            conversionService.recordIssued(ruleSet.getName(), issued);
+            if (format == OutputFormat.CSV) {
+                appendCsvField(text, issued);
+                for (int w = 0; w < wordCount; w++) {
+                    text.append(',');
+                    appendCsvField(text, conversionService.getWord(indices[r * wordCount + w]));
+                }
+            } else {
+                text.append("{\"barcode\":");
+                appendJsonString(text, issued);
+                text.append(",\"words\":[");
+                for (int w = 0; w < wordCount; w++) {
+                    if (w > 0) {
+                        text.append(',');
+                    }
+                    appendJsonString(text, conversionService.getWord(indices[r * wordCount + w]));
+                }
+                text.append("]}");
+            }
+            text.append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String csvHeader(int wordCount) {
+        StringBuilder header = new StringBuilder("barcode");
+        for (int w = 1; w <= wordCount; w++) {
+            header.append(",word").append(w);
+        }
+        return header.append('\n').toString();
+    }
+
+    private static void appendCsvField(StringBuilder text, String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            text.append(value);
+            return;
+        }
+        text.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void appendJsonString(StringBuilder text, String value) {
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\').append(c);
+            } else if (c < 0x20) {
+                text.append(String.format("\\u%04x", (int) c));
+            } else {
+                text.append(c);
+            }
+        }
+        text.append('"');
+    }
+}
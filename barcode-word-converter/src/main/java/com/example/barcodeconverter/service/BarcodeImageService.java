@@ -0,0 +1,116 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.render.Code128Encoder;
+import com.example.barcodeconverter.render.DataMatrixEncoder;
+import com.example.barcodeconverter.render.ImageFormat;
+import com.example.barcodeconverter.render.ModuleMatrix;
+import com.example.barcodeconverter.render.PngEncoder;
+import com.example.barcodeconverter.render.QrCodeEncoder;
+import com.example.barcodeconverter.render.RenderCache;
+import com.example.barcodeconverter.render.SvgWriter;
+import com.example.barcodeconverter.render.Symbology;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders barcode strings as PNG or SVG images, serving repeats from a size-bounded LRU cache.
+ * PNG encoders (deflater and scanline buffers) are pooled across requests.
+ */
+@Service
+public class BarcodeImageService {
+
+    public static final int BAR_HEIGHT_MODULES = 50; // Height of linear symbols, in modules
+
+    private final RenderCache cache;
+    private final int maxModuleSize;
+    private final int maxPooledEncoders;
+    private final ConcurrentLinkedQueue<PngEncoder> pngEncoders = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    @Autowired
+    public BarcodeImageService(@Value("${barcode.render.cache-max-bytes:33554432}") long cacheMaxBytes,
+                               @Value("${barcode.render.max-module-size:20}") int maxModuleSize,
+                               @Value("${barcode.render.pooled-encoders:0}") int pooledEncoders) {
+        this.cache = new RenderCache(cacheMaxBytes);
+        this.maxModuleSize = maxModuleSize;
+        this.maxPooledEncoders = pooledEncoders > 0 ? pooledEncoders : Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * @param moduleSize pixels per module (bar width unit), 1 to the configured maximum
+     * @throws IllegalArgumentException if the size is out of range or the symbology cannot encode the code.
+     */
+    public byte[] render(String code, Symbology symbology, ImageFormat format, int moduleSize) {
+        if (moduleSize < 1 || moduleSize > maxModuleSize) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxModuleSize + " pixels per module.");
+        }
+        RenderCache.Key key = new RenderCache.Key(symbology, format, code, moduleSize);
+        byte[] image = cache.get(key);
+        if (image != null) {
+            return image;
+        }
+
+        ModuleMatrix matrix = encode(code, symbology);
+        if (format == ImageFormat.SVG) {
+            image = SvgWriter.write(matrix, moduleSize, symbology.getQuietZone(), BAR_HEIGHT_MODULES);
+        } else {
+            PngEncoder encoder = acquireEncoder();
+            try {
+                image = encoder.encode(matrix, moduleSize, symbology.getQuietZone(), BAR_HEIGHT_MODULES);
+            } finally {
+                releaseEncoder(encoder);
+            }
+        }
+        cache.put(key, image);
+        return image;
+    }
+
+    private static ModuleMatrix encode(String code, Symbology symbology) {
+        switch (symbology) {
+            case CODE128:
+                return Code128Encoder.encode(code);
+            case DATAMATRIX:
+                return DataMatrixEncoder.encode(code);
+            case QR:
+                return QrCodeEncoder.encode(code);
+            default:
+                throw new IllegalStateException("Unhandled symbology: " + symbology);
+        }
+    }
+
+    private PngEncoder acquireEncoder() {
+        PngEncoder encoder = pngEncoders.poll();
+        if (encoder == null) {
+            return new PngEncoder();
+        }
+        pooledCount.decrementAndGet();
+        return encoder;
+    }
+
+    private void releaseEncoder(PngEncoder encoder) {
+        // Drop the encoder instead of growing the pool beyond its bound
+        if (pooledCount.incrementAndGet() > maxPooledEncoders) {
+            pooledCount.decrementAndGet();
+            encoder.close();
+            return;
+        }
+        pngEncoders.offer(encoder);
+    }
+
+    public RenderCache getCache() {
+        return cache;
+    }
+
+    @PreDestroy
+    public void close() {
+        PngEncoder encoder;
+        while ((encoder = pngEncoders.poll()) != null) {
+            encoder.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.barcodeconverter.service;
+
+import java.util.List;
+
+/**
+ * A batch of fixed-length barcodes packed as a dense byte matrix for {@link BatchValidationKernel}.
+ * <p>
+ * Storage is column-major, one array per barcode position ({@code columns[position][row]}), so
+ * every check is a loop over a whole array starting at index zero; C2 only auto-vectorizes loops
+ * whose arrays it can align together, which a shared array at varying offsets defeats. Rows whose
+ * length does not match the RuleSet cannot be packed and are only flagged.
+ */
+public final class BarcodeMatrix {
+
+    private static final byte NON_ASCII = (byte) 0xFF; // Rejected by every position table
+
+    private final int width;
+    private int rows;
+    private final byte[][] columns;
+    private final boolean[] lengthMismatch;
+
+    public BarcodeMatrix(int width, int capacity) {
+        if (width <= 0 || capacity < 0) {
+            throw new IllegalArgumentException("Matrix width must be positive and capacity non-negative.");
+        }
+        this.width = width;
+        this.rows = capacity;
+        this.columns = new byte[width][capacity];
+        this.lengthMismatch = new boolean[capacity];
+    }
+
+    /**
+     * Packs the given barcodes; null or wrong-length entries are flagged as length mismatches.
+     */
+    public static BarcodeMatrix pack(List<String> barcodes, int width) {
+        BarcodeMatrix matrix = new BarcodeMatrix(width, barcodes.size());
+        for (int r = 0; r < barcodes.size(); r++) {
+            matrix.setRow(r, barcodes.get(r));
+        }
+        return matrix;
+    }
+
+    public void setRow(int row, String barcode) {
+        if (barcode == null || barcode.length() != width) {
+            lengthMismatch[row] = true;
+            return;
+        }
+        lengthMismatch[row] = false;
+        for (int p = 0; p < width; p++) {
+            char c = barcode.charAt(p);
+            columns[p][row] = c < 128 ? (byte) c : NON_ASCII;
+        }
+    }
+
+    /**
+     * Copies one barcode of exactly {@link #getWidth()} ASCII bytes, e.g. straight from a file buffer.
+     */
+    public void setRow(int row, byte[] source, int offset) {
+        lengthMismatch[row] = false;
+        for (int p = 0; p < width; p++) {
+            byte b = source[offset + p];
+            columns[p][row] = b >= 0 ? b : NON_ASCII;
+        }
+    }
+
+    public void markLengthMismatch(int row) {
+        lengthMismatch[row] = true;
+    }
+
+    public boolean isLengthMismatch(int row) {
+        return lengthMismatch[row];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Restricts the matrix to its first {@code rows} rows, so one matrix can be refilled block by block.
+     */
+    public void setRows(int rows) {
+        if (rows < 0 || rows > lengthMismatch.length) {
+            throw new IllegalArgumentException("Rows must be between 0 and the capacity " + lengthMismatch.length + ".");
+        }
+        this.rows = rows;
+    }
+
+    public int getCapacity() {
+        return lengthMismatch.length;
+    }
+
+    /**
+     * @return the bytes at one barcode position for every row. Callers must not modify the array.
+     */
+    byte[] getColumn(int position) {
+        return columns[position];
+    }
+}
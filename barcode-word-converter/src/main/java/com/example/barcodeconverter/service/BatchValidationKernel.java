@@ -0,0 +1,299 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeLayout;
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.SegmentType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column-at-a-time validation and word-index extraction over a {@link BarcodeMatrix}.
+ * <p>
+ * Every check is a branch-free loop over one contiguous column of bytes (one barcode position
+ * across the whole batch): byte compares for STATIC positions, a range check for digits, a
+ * 256-entry lookup for everything else, digit accumulation into ints for word slots and
+ * weighted-sum accumulation for check digits.
+ * The STATIC and digit loops are simple enough for HotSpot's C2 to auto-vectorize, so no
+ * incubator module is needed. The kernel only answers "conforms or not"; callers re-run the scalar path on
+ * rejected rows to get the exact error code and position.
+ */
+public final class BatchValidationKernel {
+
+    private static final byte KIND_STATIC = 0;
+    private static final byte KIND_DIGIT = 1;
+    private static final byte KIND_TABLE = 2;
+    private static final int MAX_WORD_SEGMENT_DIGITS = 9;     // Must fit an int accumulator
+    private static final int MAX_STATIC_OR_ALTERNATIVES = 64; // One bit per alternative in a long
+    private static final byte PAD = '=';
+
+    private final int width;
+    private final int[] wordStarts;
+    private final int[] wordLengths;
+    private final byte[] kinds;
+    private final byte[] staticBytes;
+    private final byte[][] rejectTables;         // Per position: 256 entries, non-zero = rejected
+    private final int[] base64PairPositions;     // Pos L-2 of each length%4==0 BASE64 segment
+    private final boolean alwaysRejected;        // A BASE64 segment of length%4==1 can never decode
+    private final int[] staticOrStarts;
+    private final long[][][] staticOrMasks;      // [segment][offset][byte] -> bitmask of alternatives
+    private final int[][] checksumPositions;     // Per checksum: payload and check positions
+    private final int[][][] checksumTerms;       // [checksum][i][byte] -> term of the weighted sum (0 for non-digits)
+    private final int[] checksumModuli;
+    private final int[] checksumResidues;
+
+    private BatchValidationKernel(BarcodeLayout layout) {
+        this.width = layout.getTotalLength();
+        this.kinds = new byte[width];
+        this.staticBytes = new byte[width];
+        this.rejectTables = new byte[width][];
+
+        for (int p = 0; p < width; p++) {
+            byte[] table = new byte[256];
+            int allowedCount = 0;
+            int lastAllowed = -1;
+            for (int c = 0; c < 256; c++) {
+                if (layout.isAllowed(p, c)) {
+                    allowedCount++;
+                    lastAllowed = c;
+                } else {
+                    table[c] = 1;
+                }
+            }
+            rejectTables[p] = table;
+            if (allowedCount == 1) {
+                kinds[p] = KIND_STATIC;
+                staticBytes[p] = (byte) lastAllowed;
+            } else if (isDigitTable(table)) {
+                kinds[p] = KIND_DIGIT;
+            } else {
+                kinds[p] = KIND_TABLE;
+            }
+        }
+
+        int[] wordSegments = layout.getWordSegments();
+        this.wordStarts = new int[wordSegments.length];
+        this.wordLengths = new int[wordSegments.length];
+        for (int w = 0; w < wordSegments.length; w++) {
+            wordStarts[w] = layout.getSegmentStart(wordSegments[w]);
+            wordLengths[w] = layout.getRule(wordSegments[w]).getLength();
+        }
+
+        List<Integer> pairs = new ArrayList<>();
+        List<Integer> orStarts = new ArrayList<>();
+        List<long[][]> orMasks = new ArrayList<>();
+        boolean rejectAll = false;
+        for (int s = 0; s < layout.getSegmentCount(); s++) {
+            BarcodeSegmentRule rule = layout.getRule(s);
+            int start = layout.getSegmentStart(s);
+            int length = rule.getLength();
+            if (rule.getType() == SegmentType.BASE64) {
+                // Padding is only legal in the last two positions of a length%4==0 segment
+                for (int i = 0; i < length; i++) {
+                    if (length % 4 != 0 || i < length - 2) {
+                        kinds[start + i] = KIND_TABLE;
+                        rejectTables[start + i][PAD] = 1;
+                    }
+                }
+                if (length % 4 == 0 && length >= 2) {
+                    pairs.add(start + length - 2);
+                }
+                if (length % 4 == 1) {
+                    rejectAll = true;
+                }
+            } else if (rule.getType() == SegmentType.STATIC_OR && length > 1) {
+                List<String> values = rule.getStaticOrValues();
+                long[][] masks = new long[length][256];
+                for (int v = 0; v < values.size(); v++) {
+                    String value = values.get(v);
+                    for (int i = 0; i < length; i++) {
+                        char c = value.charAt(i);
+                        if (c < 128) {
+                            masks[i][c] |= 1L << v;
+                        }
+                    }
+                }
+                orStarts.add(start);
+                orMasks.add(masks);
+            }
+        }
+        this.base64PairPositions = pairs.stream().mapToInt(Integer::intValue).toArray();
+        this.alwaysRejected = rejectAll;
+        this.staticOrStarts = orStarts.stream().mapToInt(Integer::intValue).toArray();
+        this.staticOrMasks = orMasks.toArray(new long[0][][]);
+
+        int checksums = layout.getChecksumCount();
+        this.checksumPositions = new int[checksums][];
+        this.checksumTerms = new int[checksums][][];
+        this.checksumModuli = new int[checksums];
+        this.checksumResidues = new int[checksums];
+        for (int c = 0; c < checksums; c++) {
+            int[] positions = layout.getChecksumPositions(c);
+            checksumPositions[c] = positions;
+            checksumTerms[c] = new int[positions.length][256];
+            for (int i = 0; i < positions.length; i++) {
+                for (int d = 0; d < 10; d++) {
+                    checksumTerms[c][i]['0' + d] = layout.getChecksumTerm(c, positions[i], d);
+                }
+            }
+            checksumModuli[c] = layout.getChecksumModulus(c);
+            checksumResidues[c] = layout.getChecksumResidue(c);
+        }
+    }
+
+    /**
+     * Compiles a kernel for the layout.
+     * @return the kernel, or null if the layout is outside what the kernel supports
+     *         (word segments over 9 digits, or STATIC_OR segments with more than 64 alternatives);
+     *         callers then stay on the scalar path.
+     */
+    public static BatchValidationKernel compile(BarcodeLayout layout) {
+        if (layout.getWordSegments().length == 0) {
+            return null; // The scalar path reports this misconfiguration
+        }
+        for (int segment : layout.getWordSegments()) {
+            if (layout.getRule(segment).getLength() > MAX_WORD_SEGMENT_DIGITS) {
+                return null;
+            }
+        }
+        for (int s = 0; s < layout.getSegmentCount(); s++) {
+            BarcodeSegmentRule rule = layout.getRule(s);
+            if (rule.getType() == SegmentType.STATIC_OR && rule.getLength() > 1
+                    && rule.getStaticOrValues().size() > MAX_STATIC_OR_ALTERNATIVES) {
+                return null;
+            }
+        }
+        return new BatchValidationKernel(layout);
+    }
+
+    private static boolean isDigitTable(byte[] table) {
+        for (int c = 0; c < 256; c++) {
+            boolean digit = c >= '0' && c <= '9';
+            if ((table[c] == 0) != digit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getWordCount() {
+        return wordStarts.length;
+    }
+
+    /**
+     * Checks every row of the matrix.
+     * @param matrix      barcodes of this kernel's width
+     * @param wordLimit   number of words in the dictionary; indexes at or above it are rejected
+     * @param rejected    out, one per row: zero if the row conforms, non-zero otherwise
+     * @param wordIndices out, {@code getWordCount() * rows} entries, column-major
+     *                    ({@code wordIndices[w * rows + row]}); only meaningful for conforming rows
+     * @return number of conforming rows
+     */
+    public int run(BarcodeMatrix matrix, int wordLimit, byte[] rejected, int[] wordIndices) {
+        if (matrix.getWidth() != width) {
+            throw new IllegalArgumentException("Matrix width " + matrix.getWidth() + " does not match kernel width " + width + ".");
+        }
+        int rows = matrix.getRows();
+        Arrays.fill(rejected, 0, rows, alwaysRejected ? (byte) 1 : (byte) 0);
+
+        // Loop bodies avoid explicit (byte) casts and shifts: either stops JDK 17's C2 from vectorizing them
+        for (int p = 0; p < width; p++) {
+            byte[] column = matrix.getColumn(p);
+            switch (kinds[p]) {
+                case KIND_STATIC: {
+                    byte expected = staticBytes[p];
+                    for (int r = 0; r < rows; r++) {
+                        rejected[r] |= column[r] ^ expected;
+                    }
+                    break;
+                }
+                case KIND_DIGIT: {
+                    // Zero iff (c - '0') is within 0..15 and (c - '0' + 6) is too, i.e. c is '0'..'9'
+                    for (int r = 0; r < rows; r++) {
+                        rejected[r] |= ((column[r] - '0') & 0xF0) | ((column[r] - ('0' - 6)) & 0xF0);
+                    }
+                    break;
+                }
+                default: {
+                    byte[] table = rejectTables[p]; // Gathers stay scalar, but are still branch-free
+                    for (int r = 0; r < rows; r++) {
+                        rejected[r] |= table[column[r] & 0xFF];
+                    }
+                    break;
+                }
+            }
+        }
+
+        for (int pairStart : base64PairPositions) {
+            byte[] first = matrix.getColumn(pairStart);
+            byte[] second = matrix.getColumn(pairStart + 1);
+            for (int r = 0; r < rows; r++) {
+                int a = (first[r] ^ PAD) & 0xFF;  // Zero iff padding
+                int b = (second[r] ^ PAD) & 0xFF;
+                rejected[r] |= ((a - 1) & ~(b - 1)) >>> 31; // '=' followed by data
+            }
+        }
+
+        if (staticOrStarts.length > 0) {
+            long[] candidates = new long[rows];
+            for (int s = 0; s < staticOrStarts.length; s++) {
+                Arrays.fill(candidates, -1L);
+                long[][] masks = staticOrMasks[s];
+                for (int i = 0; i < masks.length; i++) {
+                    byte[] column = matrix.getColumn(staticOrStarts[s] + i);
+                    long[] mask = masks[i];
+                    for (int r = 0; r < rows; r++) {
+                        candidates[r] &= mask[column[r] & 0xFF];
+                    }
+                }
+                for (int r = 0; r < rows; r++) {
+                    rejected[r] |= (int) ((candidates[r] | -candidates[r]) >>> 63) ^ 1; // No alternative left
+                }
+            }
+        }
+
+        if (checksumPositions.length > 0) {
+            int[] sums = new int[rows];
+            for (int c = 0; c < checksumPositions.length; c++) {
+                Arrays.fill(sums, 0, rows, 0);
+                for (int i = 0; i < checksumPositions[c].length; i++) {
+                    byte[] column = matrix.getColumn(checksumPositions[c][i]);
+                    int[] terms = checksumTerms[c][i];
+                    for (int r = 0; r < rows; r++) {
+                        sums[r] += terms[column[r] & 0xFF];
+                    }
+                }
+                int modulus = checksumModuli[c];
+                int residue = checksumResidues[c];
+                for (int r = 0; r < rows; r++) {
+                    int mismatch = sums[r] % modulus ^ residue;
+                    rejected[r] |= (mismatch | -mismatch) >>> 31;
+                }
+            }
+        }
+
+        for (int w = 0; w < wordStarts.length; w++) {
+            int out = w * rows;
+            Arrays.fill(wordIndices, out, out + rows, 0);
+            for (int i = 0; i < wordLengths[w]; i++) {
+                byte[] column = matrix.getColumn(wordStarts[w] + i);
+                for (int r = 0; r < rows; r++) {
+                    wordIndices[out + r] = wordIndices[out + r] * 10 + column[r] - '0';
+                }
+            }
+            for (int r = 0; r < rows; r++) {
+                rejected[r] |= (wordLimit - 1 - wordIndices[out + r]) >>> 31; // Index >= wordLimit
+            }
+        }
+
+        int conforming = 0;
+        for (int r = 0; r < rows; r++) {
+            if (matrix.isLengthMismatch(r)) {
+                rejected[r] = 1;
+            }
+            conforming += rejected[r] == 0 ? 1 : 0;
+        }
+        return conforming;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.RuleSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Front of {@link ConversionService} for request threads: identical conversions that are in flight at the
+ * same time (several scan-tunnel readers decoding one label) are computed once and the result handed to
+ * every caller, via {@link SingleFlight}.
+ * <p>
+ * Requests are identical when they use the same RuleSet instance, so an edit (which replaces the instance)
+ * never shares a result computed under the old rules. Encoding is only coalesced for RuleSets without a
+ * SEQUENCE segment; with one, every call must draw its own serial number.
+ */
+@Service
+public class ConversionCoalescer {
+
+    private enum Operation { DECODE, VALIDATE, ENCODE }
+
+    private final ConversionService conversionService;
+    private final boolean enabled;
+    private final SingleFlight<Key, ConversionResult> flights = new SingleFlight<>();
+
+    private static final class Key {
+        private final Operation operation;
+        private final RuleSet ruleSet;
+        private final Object input;   // Barcode string or word list
+        private final int hash;
+
+        Key(Operation operation, RuleSet ruleSet, Object input) {
+            this.operation = operation;
+            this.ruleSet = ruleSet;
+            this.input = input;
+            this.hash = Objects.hash(operation, System.identityHashCode(ruleSet), input);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return operation == other.operation && ruleSet == other.ruleSet && input.equals(other.input);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Autowired
+    public ConversionCoalescer(ConversionService conversionService,
+                               @Value("${barcode.coalescing.enabled:true}") boolean enabled) {
+        this.conversionService = conversionService;
+        this.enabled = enabled;
+    }
+
+    public ConversionResult decode(String barcode, RuleSet ruleSet) {
+        if (!enabled || barcode == null) {
+            return conversionService.decode(barcode, ruleSet);
+        }
+        return flights.execute(new Key(Operation.DECODE, ruleSet, barcode), () -> conversionService.decode(barcode, ruleSet));
+    }
+
+    public ConversionResult validate(String barcode, RuleSet ruleSet) {
+        if (!enabled || barcode == null) {
+            return conversionService.validate(barcode, ruleSet);
+        }
+        return flights.execute(new Key(Operation.VALIDATE, ruleSet, barcode), () -> conversionService.validate(barcode, ruleSet));
+    }
+
+    public ConversionResult encode(List<String> words, RuleSet ruleSet) {
+        if (!enabled || words == null || words.contains(null) || ruleSet.getLayout().hasSequence()) {
+            return conversionService.encode(words, ruleSet);
+        }
+        List<String> key = List.copyOf(words);
+        return flights.execute(new Key(Operation.ENCODE, ruleSet, key), () -> conversionService.encode(key, ruleSet));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getComputedCount() {
+        return flights.getComputedCount();
+    }
+
+    public long getSharedCount() {
+        return flights.getSharedCount();
+    }
+}
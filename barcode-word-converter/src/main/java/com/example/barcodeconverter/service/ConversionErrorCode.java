@@ -0,0 +1,22 @@
+package com.example.barcodeconverter.service;
+
+/**
+ * Reasons a conversion can be rejected because of its input. Misconfigured RuleSets are not
+ * represented here; those are still signalled with IllegalStateException.
+ */
+public enum ConversionErrorCode {
+    EMPTY_BARCODE,           // Barcode was null or empty
+    RULE_SET_MISSING,        // No RuleSet was supplied
+    LENGTH_MISMATCH,         // Barcode length differs from the RuleSet's total length
+    STATIC_MISMATCH,         // STATIC segment does not hold its fixed value
+    STATIC_OR_MISMATCH,      // STATIC_OR segment does not hold any allowed value
+    NON_NUMERIC,             // NUMERIC segment contains a non-digit
+    INVALID_BASE64,          // BASE64 segment has a bad character or padding
+    CHECKSUM_MISMATCH,       // CHECKSUM segment is not numeric or does not match the covered digits
+    VERSION_MISMATCH,        // VERSION segment names a RuleSet version that is neither current nor retained
+    WORD_INDEX_OUT_OF_RANGE, // Word-mapped segment points past the end of the word list
+    WRONG_WORD_COUNT,        // wordsToBarcode was not given exactly four words
+    WORD_NOT_FOUND,          // A word is not in the dictionary
+    WORD_INDEX_TOO_LONG,     // A word's index has more digits than its segment
+    NOT_ISSUED               // Barcode is not in the RuleSet's issued-barcode filter
+}
@@ -0,0 +1,225 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+
+import java.util.List;
+
+/**
+ * Outcome of a single conversion: either the produced words/barcode, or an error code with the
+ * offending segment order and barcode position.
+ * <p>
+ * Failures carry only the raw context (input, RuleSet, numbers). The human-readable message is
+ * built the first time {@link #getMessage()} is called, so rejected scans that are merely counted
+ * or dropped never pay for string building or stack traces.
+ */
+public final class ConversionResult {
+
+    public static final int NOT_APPLICABLE = -1;
+
+    private static final ConversionResult VALID =
+            new ConversionResult(null, null, null, null, null, NOT_APPLICABLE, NOT_APPLICABLE, 0, 0, 0);
+    private static final ConversionResult[] VALID_BY_VERSION = new ConversionResult[64]; // Shared like VALID
+
+    static {
+        for (int version = 1; version < VALID_BY_VERSION.length; version++) {
+            VALID_BY_VERSION[version] = new ConversionResult(null, null, null, null, null, NOT_APPLICABLE, NOT_APPLICABLE, 0, 0, version);
+        }
+    }
+
+    private final List<String> words;
+    private final String barcode;
+    private final ConversionErrorCode errorCode;
+    private final String input;        // Barcode or offending word, for the message
+    private final RuleSet ruleSet;
+    private final int segmentOrder;
+    private final int position;
+    private final int value;           // Code specific: word index, expected word count...
+    private final int bound;           // Code specific: word list size
+    private final int ruleSetVersion;  // RuleSet version a decoded or validated barcode matched, or 0
+    private String message;            // Built lazily
+
+    private ConversionResult(List<String> words, String barcode, ConversionErrorCode errorCode, String input,
+                             RuleSet ruleSet, int segmentOrder, int position, int value, int bound, int ruleSetVersion) {
+        this.words = words;
+        this.barcode = barcode;
+        this.errorCode = errorCode;
+        this.input = input;
+        this.ruleSet = ruleSet;
+        this.segmentOrder = segmentOrder;
+        this.position = position;
+        this.value = value;
+        this.bound = bound;
+        this.ruleSetVersion = ruleSetVersion;
+    }
+
+    public static ConversionResult ofWords(List<String> words) {
+        return ofWords(words, 0);
+    }
+
+    /**
+     * @param ruleSetVersion the RuleSet version the barcode was decoded with
+     */
+    public static ConversionResult ofWords(List<String> words, int ruleSetVersion) {
+        return new ConversionResult(words, null, null, null, null, NOT_APPLICABLE, NOT_APPLICABLE, 0, 0, ruleSetVersion);
+    }
+
+    public static ConversionResult ofBarcode(String barcode) {
+        return new ConversionResult(null, barcode, null, null, null, NOT_APPLICABLE, NOT_APPLICABLE, 0, 0, 0);
+    }
+
+    /**
+     * Shared success result of a validate-only check, which carries neither words nor a barcode.
+     */
+    public static ConversionResult valid() {
+        return VALID;
+    }
+
+    /**
+     * Success result of a validate-only check that names the RuleSet version the barcode conforms to.
+     */
+    public static ConversionResult valid(int ruleSetVersion) {
+        if (ruleSetVersion > 0 && ruleSetVersion < VALID_BY_VERSION.length) {
+            return VALID_BY_VERSION[ruleSetVersion];
+        }
+        return new ConversionResult(null, null, null, null, null, NOT_APPLICABLE, NOT_APPLICABLE, 0, 0, ruleSetVersion);
+    }
+
+    static ConversionResult failure(ConversionErrorCode errorCode) {
+        return failure(errorCode, null, null, NOT_APPLICABLE, NOT_APPLICABLE, 0, 0);
+    }
+
+    static ConversionResult failure(ConversionErrorCode errorCode, String input, RuleSet ruleSet,
+                                    int segmentOrder, int position, int value, int bound) {
+        return new ConversionResult(null, null, errorCode, input, ruleSet, segmentOrder, position, value, bound, 0);
+    }
+
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    /**
+     * @return the error code, or null for a successful conversion.
+     */
+    public ConversionErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return for a decoded or validated barcode, the version of the RuleSet it matched, which is older than
+     *         the current one for barcodes issued before an edit; 0 otherwise.
+     */
+    public int getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    /**
+     * @return order of the failing segment, or {@link #NOT_APPLICABLE}.
+     */
+    public int getSegmentOrder() {
+        return segmentOrder;
+    }
+
+    /**
+     * @return zero-based barcode position of the first invalid character, or {@link #NOT_APPLICABLE}.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the words of a successful barcode-to-words conversion, or throws the
+     * IllegalArgumentException that the exception-based API has always thrown.
+     */
+    public List<String> getWordsOrThrow() {
+        if (errorCode != null) {
+            throw new IllegalArgumentException(getMessage());
+        }
+        return words;
+    }
+
+    public String getBarcodeOrThrow() {
+        if (errorCode != null) {
+            throw new IllegalArgumentException(getMessage());
+        }
+        return barcode;
+    }
+
+    /**
+     * @return the human-readable error message, or null for a successful conversion.
+     */
+    public String getMessage() {
+        if (errorCode == null) {
+            return null;
+        }
+        String built = message;
+        if (built == null) {
+            built = buildMessage();
+            message = built;
+        }
+        return built;
+    }
+
+    private String buildMessage() {
+        switch (errorCode) {
+            case EMPTY_BARCODE:
+                return "Barcode cannot be null or empty.";
+            case RULE_SET_MISSING:
+                return "RuleSet cannot be null.";
+            case LENGTH_MISMATCH:
+                return "Barcode length (" + input.length() +
+                       ") does not match expected length from RuleSet (" + ruleSet.getTotalBarcodeLength() + ").";
+            case STATIC_MISMATCH:
+            case STATIC_OR_MISMATCH:
+            case NON_NUMERIC:
+            case INVALID_BASE64:
+            case CHECKSUM_MISMATCH:
+            case VERSION_MISMATCH:
+                return ruleSet.getLayout().describeFailure(input, position);
+            case WORD_INDEX_OUT_OF_RANGE:
+                return "Invalid word index " + value + " extracted from segment (order " + segmentOrder +
+                       "). Out of bounds for word list size " + bound;
+            case WRONG_WORD_COUNT:
+                return "Exactly " + value + " words are required.";
+            case WORD_NOT_FOUND:
+                return "Word not found in dictionary: " + input;
+            case WORD_INDEX_TOO_LONG:
+                return "Word index " + value + " for word '" + input + "' is too long for segment rule: " + findRule(segmentOrder);
+            case NOT_ISSUED:
+                return "Barcode " + input + " has not been issued for RuleSet '" + ruleSet.getName() + "'.";
+            default:
+                return "Conversion failed: " + errorCode;
+        }
+    }
+
+    private BarcodeSegmentRule findRule(int order) {
+        for (BarcodeSegmentRule rule : ruleSet.getRules()) {
+            if (rule.getOrder() == order) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        if (isSuccess()) {
+            if (words != null) {
+                return "ConversionResult{success, words=" + words + '}';
+            }
+            return barcode != null ? "ConversionResult{success, barcode='" + barcode + "'}" : "ConversionResult{valid}";
+        }
+        return "ConversionResult{errorCode=" + errorCode +
+               ", segmentOrder=" + segmentOrder +
+               ", position=" + position +
+               '}';
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.barcodeconverter.service;
 
+import com.example.barcodeconverter.model.BarcodeLayout;
 import com.example.barcodeconverter.model.BarcodeSegmentRule;
 import com.example.barcodeconverter.model.RuleSet;
 import com.example.barcodeconverter.model.SegmentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct; // Correct import for @PostConstruct
 
@@ -12,7 +15,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -25,11 +28,25 @@ public class ConversionService {
     private Map<String, Integer> wordToIndexMap;
     private static final String WORD_LIST_PATH = "/words.txt"; // Path in resources
     private static final int EXPECTED_WORD_COUNT_FOR_CONVERSION = 4;
+    static final int MIN_KERNEL_BATCH_SIZE = 64; // Below this, packing costs more than it saves
+    private static final int KERNEL_BLOCK_ROWS = 4096;
+    private IssuedBarcodeRegistry issuedBarcodeRegistry; // Optional; null when constructed outside Spring
+    private SequenceService sequenceService; // Optional; only needed for RuleSets with a SEQUENCE segment
+    private RuleSetHistory ruleSetHistory; // Optional; without it only the current RuleSet version decodes
+    private boolean repeatedWordsKeepLastIndex; // The encoding of repeated words before they kept their first index
+
+    // Dictionary load statistics, fixed once init() has run (GET /admin/stats/dictionary)
+    private int duplicateWordCount;
+    private long dictionaryLoadMillis;
+    private long dictionaryLoadedAt;
+    private long dictionaryBytes;
 
     @PostConstruct
     public void init() throws IOException {
+        long started = System.nanoTime();
         wordList = new ArrayList<>();
         wordToIndexMap = new HashMap<>();
+        duplicateWordCount = 0;
 
         System.out.println("Loading word list from: " + WORD_LIST_PATH);
         try (InputStream inputStream = ConversionService.class.getResourceAsStream(WORD_LIST_PATH);
@@ -43,11 +60,19 @@ public class ConversionService {
             while ((line = reader.readLine()) != null) {
                 String trimmedWord = line.trim();
                 if (!trimmedWord.isEmpty()) {
+                    // A repeated word encodes to its first index unless configured otherwise. It stays in the list
+                    // so that later words keep their indexes and barcodes using any of its indexes still decode.
                     wordList.add(trimmedWord);
-                    wordToIndexMap.put(trimmedWord, index++);
+                    Integer previous = repeatedWordsKeepLastIndex ? wordToIndexMap.put(trimmedWord, index)
+                                                                  : wordToIndexMap.putIfAbsent(trimmedWord, index);
+                    if (previous != null) {
+                        duplicateWordCount++;
+                    }
+                    index++;
                 }
             }
-            System.out.println("Successfully loaded " + wordList.size() + " words into memory.");
+            System.out.println("Successfully loaded " + wordList.size() + " words into memory (" + duplicateWordCount +
+                               " repeated words encode to their " + (repeatedWordsKeepLastIndex ? "last" : "first") + " index).");
         } catch (IOException e) {
             System.err.println("Failed to load word list: " + e.getMessage());
             throw e; // Re-throw to indicate service initialization failure
@@ -56,14 +81,32 @@ public class ConversionService {
              System.err.println("NullPointerException while trying to load word list. Check path: " + WORD_LIST_PATH);
             throw new IOException("Word list file not found at " + WORD_LIST_PATH + ". InputStream was null.", e);
         }
+        dictionaryBytes = estimateDictionaryBytes(wordList, wordToIndexMap);
+        dictionaryLoadMillis = (System.nanoTime() - started) / 1_000_000;
+        dictionaryLoadedAt = System.currentTimeMillis();
     }
 
     public String wordsToBarcode(List<String> words, RuleSet ruleSet) {
+        return encode(words, ruleSet).getBarcodeOrThrow();
+    }
+
+    /**
+     * Exception-free variant of {@link #wordsToBarcode}: invalid input is reported through the
+     * returned result instead of an IllegalArgumentException. A misconfigured RuleSet still
+     * throws IllegalStateException.
+     */
+    public ConversionResult encode(List<String> words, RuleSet ruleSet) {
+        return encode(words, ruleSet, true);
+    }
+
+    // recordIssued is false only for warm-up encodes of synthetic barcodes, which must not pass the issued-barcode gate later
+    ConversionResult encode(List<String> words, RuleSet ruleSet, boolean recordIssued) {
         if (words == null || words.size() != EXPECTED_WORD_COUNT_FOR_CONVERSION) {
-            throw new IllegalArgumentException("Exactly " + EXPECTED_WORD_COUNT_FOR_CONVERSION + " words are required.");
+            return ConversionResult.failure(ConversionErrorCode.WRONG_WORD_COUNT, null, null,
+                    ConversionResult.NOT_APPLICABLE, ConversionResult.NOT_APPLICABLE, EXPECTED_WORD_COUNT_FOR_CONVERSION, 0);
         }
         if (ruleSet == null) {
-            throw new IllegalArgumentException("RuleSet cannot be null.");
+            return ConversionResult.failure(ConversionErrorCode.RULE_SET_MISSING);
         }
         // Rely on RuleService to provide a validated RuleSet.
         // If it's not validated, an error during processing is acceptable,
@@ -91,72 +134,381 @@ public class ConversionService {
             throw new IllegalStateException("RuleSet is not configured for " + EXPECTED_WORD_COUNT_FOR_CONVERSION + " word mappings.");
         }
 
-        Map<Integer, String> barcodeParts = new HashMap<>();
-        int wordInputIndex = 0;
-        for (BarcodeSegmentRule rule : wordMappingRules) {
-            String currentWord = words.get(wordInputIndex++);
+        BarcodeLayout layout = ruleSet.getLayout();
+        int[] wordIndices = new int[wordMappingRules.size()];
+        for (int w = 0; w < wordMappingRules.size(); w++) {
+            BarcodeSegmentRule rule = wordMappingRules.get(w);
+            String currentWord = words.get(w);
             Integer wordIndex = wordToIndexMap.get(currentWord);
             if (wordIndex == null) {
-                throw new IllegalArgumentException("Word not found in dictionary: " + currentWord);
+                return ConversionResult.failure(ConversionErrorCode.WORD_NOT_FOUND, currentWord, ruleSet,
+                        rule.getOrder(), ConversionResult.NOT_APPLICABLE, 0, 0);
             }
-            // Format the index to match the segment length, padding with leading zeros
-            String formattedIndex = String.format("%0" + rule.getLength() + "d", wordIndex);
-            if (formattedIndex.length() > rule.getLength()) {
-                 throw new IllegalArgumentException("Word index " + wordIndex + " for word '" + currentWord +
-                                                   "' is too long for segment rule: " + rule);
+            // The index is zero-padded to the segment length, so it must have at most that many digits
+            if (wordIndex >= layout.getWordSegmentCapacity(w)) {
+                return ConversionResult.failure(ConversionErrorCode.WORD_INDEX_TOO_LONG, currentWord, ruleSet,
+                        rule.getOrder(), ConversionResult.NOT_APPLICABLE, wordIndex, 0);
             }
-            barcodeParts.put(rule.getOrder(), formattedIndex);
-        }
-
-        StringBuilder barcodeBuilder = new StringBuilder();
-        for (BarcodeSegmentRule rule : ruleSet.getRules()) {
-            if (barcodeParts.containsKey(rule.getOrder())) {
-                barcodeBuilder.append(barcodeParts.get(rule.getOrder()));
-            } else {
-                // Handle non-word-mapped segments
-                switch (rule.getType()) {
-                    case STATIC:
-                        barcodeBuilder.append(rule.getStaticValue());
-                        break;
-                    case NUMERIC:
-                        // This numeric segment is not from a word. It needs a source or default.
-                        // For now, let's fill with zeros as a placeholder. This needs refinement.
-                        barcodeBuilder.append("0".repeat(rule.getLength()));
-                        // Consider throwing an error if no source for this data
-                        // throw new IllegalStateException("Numeric segment not mapped to a word and no value provided: " + rule);
-                        break;
-                    case STATIC_OR:
-                        // For wordsToBarcode, if a STATIC_OR segment is not mapped to a word,
-                        // we need a deterministic way to choose one value. Default to the first.
-                        if (rule.getStaticOrValues() != null && !rule.getStaticOrValues().isEmpty()) {
-                            barcodeBuilder.append(rule.getStaticOrValues().get(0));
-                        } else {
-                            // This case should ideally be caught by BarcodeSegmentRule validation
-                            throw new IllegalStateException("STATIC_OR segment (order " + rule.getOrder() + ") has no values defined.");
-                        }
-                        break;
-                    case BASE64:
-                        // Placeholder for non-word-mapped BASE64 segments.
-                        // A robust implementation would require actual data to encode or a different strategy.
-                        if (rule.getLength() > 0) {
-                             String placeholderBase64 = "A".repeat(rule.getLength()); // Simple placeholder
-                             barcodeBuilder.append(placeholderBase64);
-                        }
-                        break;
-                    default:
-                        throw new IllegalStateException("Unhandled segment type for wordsToBarcode: " + rule.getType() + " at order " + rule.getOrder());
-                }
+            wordIndices[w] = wordIndex;
+        }
+
+        // Non-word segments come from the layout's template: STATIC values, the first STATIC_OR
+        // alternative, zeros for NUMERIC and 'A's for BASE64. Check digits are computed while the
+        // word digits are written.
+        char[] barcode = new char[layout.getTotalLength()];
+        layout.writeBarcode(wordIndices, 0, nextSequenceValue(ruleSet), barcode);
+        String issued = new String(barcode);
+        if (recordIssued) {
+            recordIssued(ruleSet.getName(), issued);
+        }
+        return ConversionResult.ofBarcode(issued);
+    }
+
+    /**
+     * Builds the barcode for word indexes (one per word-mapped segment, in barcode order) without
+     * looking up any words; used by bulk generation. Non-word segments are filled as in {@link #encode}.
+     */
+    public ConversionResult indicesToBarcode(int[] wordIndices, RuleSet ruleSet) {
+        if (ruleSet == null) {
+            return ConversionResult.failure(ConversionErrorCode.RULE_SET_MISSING);
+        }
+        BarcodeLayout layout = ruleSet.getLayout();
+        int[] wordSegments = layout.getWordSegments();
+        if (wordIndices == null || wordIndices.length != wordSegments.length) {
+            return ConversionResult.failure(ConversionErrorCode.WRONG_WORD_COUNT, null, null,
+                    ConversionResult.NOT_APPLICABLE, ConversionResult.NOT_APPLICABLE, wordSegments.length, 0);
+        }
+        for (int w = 0; w < wordSegments.length; w++) {
+            int order = layout.getRule(wordSegments[w]).getOrder();
+            if (wordIndices[w] < 0 || wordIndices[w] >= wordList.size()) {
+                return ConversionResult.failure(ConversionErrorCode.WORD_INDEX_OUT_OF_RANGE, null, ruleSet,
+                        order, ConversionResult.NOT_APPLICABLE, wordIndices[w], wordList.size());
+            }
+            if (wordIndices[w] >= layout.getWordSegmentCapacity(w)) {
+                return ConversionResult.failure(ConversionErrorCode.WORD_INDEX_TOO_LONG, wordList.get(wordIndices[w]), ruleSet,
+                        order, ConversionResult.NOT_APPLICABLE, wordIndices[w], 0);
             }
         }
-        return barcodeBuilder.toString();
+        char[] barcode = new char[layout.getTotalLength()];
+        layout.writeBarcode(wordIndices, 0, nextSequenceValue(ruleSet), barcode);
+        String issued = new String(barcode);
+        recordIssued(ruleSet.getName(), issued);
+        return ConversionResult.ofBarcode(issued);
+    }
+
+    /**
+     * Adds a barcode just issued for the RuleSet to its issued-barcode filter, if it has one, so that the label
+     * passes the {@link ConversionErrorCode#NOT_ISSUED} gate. Every path that hands out barcodes calls this.
+     */
+    public void recordIssued(String ruleSetName, String barcode) {
+        if (issuedBarcodeRegistry != null) {
+            issuedBarcodeRegistry.record(ruleSetName, barcode);
+        }
+    }
+
+    public int getWordCount() {
+        return wordList.size();
+    }
+
+    public String getWord(int index) {
+        return wordList.get(index);
+    }
+
+    /**
+     * @return in ascending order, the index of each word's first occurrence. Only these indexes come back
+     *         unchanged when their word is encoded; the others repeat an earlier word.
+     */
+    public int[] getUniqueWordIndexes() {
+        int[] indexes = new int[wordToIndexMap.size()];
+        int count = 0;
+        for (int i = 0; i < wordList.size(); i++) {
+            Integer first = wordToIndexMap.get(wordList.get(i));
+            if (first != null && first == i) {
+                indexes[count++] = i;
+            }
+        }
+        return count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * @return how many words.txt lines repeat an earlier word; they keep their index but never encode.
+     */
+    public int getDuplicateWordCount() {
+        return duplicateWordCount;
+    }
+
+    public long getDictionaryLoadMillis() {
+        return dictionaryLoadMillis;
+    }
+
+    /**
+     * @return when the word list was loaded, epoch millis.
+     */
+    public long getDictionaryLoadedAt() {
+        return dictionaryLoadedAt;
+    }
+
+    /**
+     * @return estimated heap retained by the word list and index map, computed once at load.
+     */
+    public long getDictionaryBytes() {
+        return dictionaryBytes;
+    }
+
+    // Compressed-oops sizes: a String is 24 bytes plus a 16-byte header on its Latin-1 byte[],
+    // a HashMap node 32 bytes plus its table slot, and an Integer above the small-value cache 16 bytes
+    static long estimateDictionaryBytes(List<String> words, Map<String, Integer> index) {
+        long bytes = 16 + 16 + 4L * words.size();  // ArrayList and its backing array
+        for (String word : words) {
+            bytes += 24 + align(16 + word.length());
+        }
+        int tableSize = Integer.highestOneBit(Math.max(1, (int) Math.ceil(index.size() / 0.75) - 1)) << 1;
+        bytes += 48 + 16 + 4L * tableSize;  // HashMap and its table
+        bytes += (32L + 16) * index.size(); // Keys are the list's strings
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @return the dictionary index of the word, or -1 if it is not in the word list.
+     */
+    public int getWordIndex(String word) {
+        Integer index = wordToIndexMap.get(word);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Which index a word that words.txt lists more than once encodes to: {@code first} (the default) or
+     * {@code last}, the encoding of earlier releases. The two give different barcodes for the same words;
+     * with {@code last}, many common words have indexes too large for 4-digit segments. Read by {@link #init}.
+     * @throws IllegalArgumentException for any other value.
+     */
+    @Autowired
+    public void setRepeatedWordIndex(@Value("${barcode.words.repeated-word-index:first}") String repeatedWordIndex) {
+        if (!repeatedWordIndex.equals("first") && !repeatedWordIndex.equals("last")) {
+            throw new IllegalArgumentException("barcode.words.repeated-word-index must be 'first' or 'last', not '" + repeatedWordIndex + "'.");
+        }
+        this.repeatedWordsKeepLastIndex = repeatedWordIndex.equals("last");
+    }
+
+    /**
+     * Gates {@link #decode} and {@link #validate} on the registry's issued-barcode filters, and feeds them
+     * the barcodes issued by {@link #encode} and {@link #indicesToBarcode}.
+     */
+    @Autowired(required = false)
+    public void setIssuedBarcodeRegistry(IssuedBarcodeRegistry issuedBarcodeRegistry) {
+        this.issuedBarcodeRegistry = issuedBarcodeRegistry;
+    }
+
+    /**
+     * Lets {@link #decode} and {@link #validate} fall back to superseded RuleSet versions for
+     * barcodes printed before the RuleSet was edited.
+     */
+    @Autowired(required = false)
+    public void setRuleSetHistory(RuleSetHistory ruleSetHistory) {
+        this.ruleSetHistory = ruleSetHistory;
+    }
+
+    @Autowired(required = false)
+    public void setSequenceService(SequenceService sequenceService) {
+        this.sequenceService = sequenceService;
+    }
+
+    /**
+     * Assigns the next serial number for the RuleSet's SEQUENCE segment.
+     * @return the value, or 0 if the RuleSet has no SEQUENCE segment.
+     * @throws IllegalStateException if no SequenceService is configured or the sequence is exhausted.
+     */
+    public long nextSequenceValue(RuleSet ruleSet) {
+        if (!ruleSet.getLayout().hasSequence()) {
+            return 0;
+        }
+        if (sequenceService == null) {
+            throw new IllegalStateException("RuleSet '" + ruleSet.getName() + "' has a SEQUENCE segment but no SequenceService is configured.");
+        }
+        return sequenceService.next(ruleSet);
     }
 
     public List<String> barcodeToWords(String barcode, RuleSet ruleSet) {
+        return decode(barcode, ruleSet).getWordsOrThrow();
+    }
+
+    /**
+     * Exception-free variant of {@link #barcodeToWords}. Invalid scans are expected to be common
+     * (damaged labels), so they are reported as a result carrying an error code, the failing
+     * segment order and position; no exception or message is created for them.
+     */
+    public ConversionResult decode(String barcode, RuleSet ruleSet) {
+        return decode(barcode, ruleSet, true);
+    }
+
+    private ConversionResult decode(String barcode, RuleSet ruleSet, boolean useHistory) {
+        ConversionResult failure = checkBarcode(barcode, ruleSet);
+        if (failure != null) {
+            RuleSet issuedUnder = useHistory ? olderVersionFor(barcode, ruleSet, failure) : null;
+            if (issuedUnder == null) {
+                return failure;
+            }
+            ruleSet = issuedUnder;
+        }
+
+        // The barcode conforms, so every word-mapped segment holds an in-range index
+        BarcodeLayout layout = ruleSet.getLayout();
+        int[] wordSegments = layout.getWordSegments();
+        List<String> resultWords = new ArrayList<>(wordSegments.length);
+        for (int segment : wordSegments) {
+            resultWords.add(wordList.get(layout.parseNumber(barcode, segment)));
+        }
+
+        if (resultWords.size() != EXPECTED_WORD_COUNT_FOR_CONVERSION) {
+             // This should ideally be caught by RuleSet validation, but as a safeguard:
+            System.err.println("Warning: Extracted " + resultWords.size() + " words, but expected " + EXPECTED_WORD_COUNT_FOR_CONVERSION +
+                               " based on RuleSet configuration.");
+            // Depending on strictness, could throw an error here.
+        }
+
+        return ConversionResult.ofWords(resultWords, ruleSet.getVersion());
+    }
+
+    /**
+     * Checks that a barcode conforms to the RuleSet (length, every segment's characters and
+     * word indexes within the word list) without materializing any words.
+     * @return {@link ConversionResult#valid(int)} with the version the barcode conforms to, or a failure result.
+     */
+    public ConversionResult validate(String barcode, RuleSet ruleSet) {
+        ConversionResult failure = checkBarcode(barcode, ruleSet);
+        if (failure == null) {
+            return ConversionResult.valid(ruleSet.getVersion());
+        }
+        RuleSet issuedUnder = olderVersionFor(barcode, ruleSet, failure);
+        return issuedUnder != null ? ConversionResult.valid(issuedUnder.getVersion()) : failure;
+    }
+
+    /**
+     * Finds the superseded version of the RuleSet a non-conforming barcode was issued under.
+     * Only runs after the current version has rejected the barcode, so conforming scans never pay for it.
+     * A VERSION segment in the current layout selects the candidate directly; otherwise retained
+     * versions are tried newest first, those without a VERSION segment only if auto-detection is enabled.
+     * @return the older version the barcode conforms to, or null.
+     */
+    private RuleSet olderVersionFor(String barcode, RuleSet current, ConversionResult failure) {
+        if (ruleSetHistory == null) {
+            return null;
+        }
+        switch (failure.getErrorCode()) {
+            case EMPTY_BARCODE:
+            case RULE_SET_MISSING:
+            case NOT_ISSUED: // The issued-barcode filter covers every version of the RuleSet
+            case CHECKSUM_MISMATCH: // A mistyped current barcode; it must not decode to other words under an old layout
+                return null;
+            default:
+                break;
+        }
+        BarcodeLayout layout = current.getLayout();
+        int versionDigits = layout.parseVersion(barcode);
+        RuleSet direct = versionDigits >= 0
+                ? ruleSetHistory.findByVersionDigits(current.getName(), versionDigits, layout.getVersionModulus()) : null;
+        if (direct != null && direct.getVersion() != current.getVersion() && checkBarcode(barcode, direct) == null) {
+            return direct;
+        }
+        // Versions from before the VERSION segment was introduced may have a different layout
+        for (RuleSet candidate : ruleSetHistory.getVersionsNewestFirst(current.getName())) {
+            if (candidate == direct || candidate.getVersion() == current.getVersion()) {
+                continue;
+            }
+            if ((candidate.getLayout().hasVersionSegment() || ruleSetHistory.isAutoDetect())
+                    && checkBarcode(barcode, candidate) == null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validates a batch of barcodes against one RuleSet. Results are in input order and identical
+     * to calling {@link #validate} for each barcode.
+     * <p>
+     * Batches of at least {@value #MIN_KERNEL_BATCH_SIZE} barcodes are packed block by block into a
+     * {@link BarcodeMatrix} and screened column by column by a {@link BatchValidationKernel};
+     * only the rows it rejects go through the scalar walk to get their exact error code and position.
+     */
+    public List<ConversionResult> validateBatch(List<String> barcodes, RuleSet ruleSet) {
+        return convertBatch(barcodes, ruleSet, false, true);
+    }
+
+    /**
+     * Decodes a batch of barcodes against one RuleSet. Results are in input order and identical
+     * to calling {@link #decode} for each barcode; conforming rows take their word indexes straight
+     * from the kernel's column-wise digit accumulation.
+     */
+    public List<ConversionResult> decodeBatch(List<String> barcodes, RuleSet ruleSet) {
+        return convertBatch(barcodes, ruleSet, true, true);
+    }
+
+    /**
+     * Like {@link #decodeBatch}, but judges every barcode by the given RuleSet version alone, without
+     * falling back to superseded versions; used to compare two versions of a RuleSet.
+     */
+    public List<ConversionResult> decodeBatchExactVersion(List<String> barcodes, RuleSet ruleSet) {
+        return convertBatch(barcodes, ruleSet, true, false);
+    }
+
+    private List<ConversionResult> convertBatch(List<String> barcodes, RuleSet ruleSet, boolean materializeWords, boolean useHistory) {
+        List<ConversionResult> results = new ArrayList<>(barcodes.size());
+        BatchValidationKernel kernel = barcodes.size() >= MIN_KERNEL_BATCH_SIZE && ruleSet != null
+                ? BatchValidationKernel.compile(ruleSet.getLayout()) : null;
+        if (kernel == null) {
+            for (String barcode : barcodes) {
+                results.add(materializeWords ? decode(barcode, ruleSet, useHistory) : validate(barcode, ruleSet));
+            }
+            return results;
+        }
+
+        // Fixed-size blocks keep the matrix and per-row buffers cache-resident and reusable
+        int blockRows = Math.min(KERNEL_BLOCK_ROWS, barcodes.size());
+        BarcodeMatrix matrix = new BarcodeMatrix(ruleSet.getTotalBarcodeLength(), blockRows);
+        byte[] rejected = new byte[blockRows];
+        int[] wordIndices = new int[kernel.getWordCount() * blockRows];
+        for (int blockStart = 0; blockStart < barcodes.size(); blockStart += blockRows) {
+            int rows = Math.min(blockRows, barcodes.size() - blockStart);
+            matrix.setRows(rows);
+            for (int row = 0; row < rows; row++) {
+                matrix.setRow(row, barcodes.get(blockStart + row));
+            }
+            kernel.run(matrix, wordList.size(), rejected, wordIndices);
+            for (int row = 0; row < rows; row++) {
+                String barcode = barcodes.get(blockStart + row);
+                if (rejected[row] != 0) {
+                    results.add(materializeWords ? decode(barcode, ruleSet, useHistory) : validate(barcode, ruleSet));
+                } else if (!isPossiblyIssued(barcode, ruleSet)) {
+                    results.add(notIssued(barcode, ruleSet));
+                } else if (!materializeWords) {
+                    results.add(ConversionResult.valid(ruleSet.getVersion()));
+                } else {
+                    List<String> words = new ArrayList<>(kernel.getWordCount());
+                    for (int w = 0; w < kernel.getWordCount(); w++) {
+                        words.add(wordList.get(wordIndices[w * rows + row]));
+                    }
+                    results.add(ConversionResult.ofWords(words, ruleSet.getVersion()));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The rule walk shared by {@link #decode} and {@link #validate}.
+     * @return null if the barcode conforms, otherwise the failure result.
+     */
+    private ConversionResult checkBarcode(String barcode, RuleSet ruleSet) {
         if (barcode == null || barcode.isEmpty()) {
-            throw new IllegalArgumentException("Barcode cannot be null or empty.");
+            return ConversionResult.failure(ConversionErrorCode.EMPTY_BARCODE);
         }
         if (ruleSet == null) {
-            throw new IllegalArgumentException("RuleSet cannot be null.");
+            return ConversionResult.failure(ConversionErrorCode.RULE_SET_MISSING);
         }
         // Similar to wordsToBarcode, rely on RuleService for validated RuleSets.
         if (!ruleSet.isValidated()) {
@@ -166,107 +518,68 @@ public class ConversionService {
         }
 
         if (barcode.length() != ruleSet.getTotalBarcodeLength()) {
-            throw new IllegalArgumentException("Barcode length (" + barcode.length() +
-                ") does not match expected length from RuleSet (" + ruleSet.getTotalBarcodeLength() + ").");
+            return ConversionResult.failure(ConversionErrorCode.LENGTH_MISMATCH, barcode, ruleSet,
+                    ConversionResult.NOT_APPLICABLE, ConversionResult.NOT_APPLICABLE, 0, 0);
         }
 
-        List<String> resultWords = new ArrayList<>();
-        int currentPos = 0;
-
-        List<BarcodeSegmentRule> wordMappingRules = ruleSet.getRules().stream()
-            .filter(BarcodeSegmentRule::isMapsToWord)
-            .collect(Collectors.toList());
+        // A filter miss is a few nanoseconds, so unknown codes skip the rule walk and any decoding
+        if (!isPossiblyIssued(barcode, ruleSet)) {
+            return notIssued(barcode, ruleSet);
+        }
 
-        if (wordMappingRules.isEmpty()) {
+        BarcodeLayout layout = ruleSet.getLayout();
+        int[] wordSegments = layout.getWordSegments();
+        if (wordSegments.length == 0) {
             throw new IllegalStateException("RuleSet does not define any segments that map to words.");
         }
 
-        // Iterate through all rules to parse the barcode, but only extract words from mapped segments
-        for (BarcodeSegmentRule rule : ruleSet.getRules()) {
-            if (currentPos + rule.getLength() > barcode.length()) {
-                throw new IllegalArgumentException("Barcode is too short to process rule: " + rule +
-                                                   ". Current position: " + currentPos);
-            }
-            String segmentValue = barcode.substring(currentPos, currentPos + rule.getLength());
-            currentPos += rule.getLength();
+        // Single pass over the per-position character tables of every segment (STATIC, STATIC_OR,
+        // NUMERIC, BASE64 and CHECKSUM), then the segment-level checks including check digits,
+        // all before any dictionary access; reports the first offending position
+        int failurePosition = layout.findFirstInvalidPosition(barcode);
+        if (failurePosition != BarcodeLayout.NO_FAILURE) {
+            BarcodeSegmentRule failedRule = layout.getRule(layout.getSegmentOfPosition(failurePosition));
+            return ConversionResult.failure(errorCodeFor(failedRule.getType()), barcode, ruleSet,
+                    failedRule.getOrder(), failurePosition, 0, 0);
+        }
 
-            if (rule.isMapsToWord()) {
-                if (rule.getType() != SegmentType.NUMERIC) {
-                     throw new IllegalStateException("Rule misconfiguration: Segment " + rule.getOrder() + " maps to word but is not NUMERIC.");
-                }
-                try {
-                    int wordIndex = Integer.parseInt(segmentValue);
-                    if (wordIndex < 0 || wordIndex >= wordList.size()) {
-                        throw new IllegalArgumentException("Invalid word index " + wordIndex +
-                                                           " extracted from segment (order " + rule.getOrder() +
-                                                           "). Out of bounds for word list size " + wordList.size());
-                    }
-                    resultWords.add(wordList.get(wordIndex));
-                } catch (NumberFormatException e) {
-                    throw new IllegalArgumentException("Segment (order " + rule.getOrder() +
-                                                       ") marked for word mapping does not contain a valid number: " + segmentValue);
-                }
-            } else {
-                // For non-word-mapped segments, we might still want to validate them
-                switch (rule.getType()) {
-                    case STATIC:
-                        if (!segmentValue.equals(rule.getStaticValue())) {
-                            throw new IllegalArgumentException("Static segment mismatch for rule (order " + rule.getOrder() +
-                                                               "). Expected '" + rule.getStaticValue() + "' but got '" + segmentValue + "'.");
-                        }
-                        break;
-                    case STATIC_OR:
-                        List<String> allowedValues = rule.getStaticOrValues();
-                        if (allowedValues == null || allowedValues.isEmpty()) {
-                             throw new IllegalStateException("STATIC_OR segment (order " + rule.getOrder() + ") has no defined allowed values in RuleSet.");
-                        }
-                        boolean matchFound = false;
-                        for (String allowedVal : allowedValues) {
-                            if (segmentValue.equals(allowedVal)) {
-                                matchFound = true;
-                                break;
-                            }
-                        }
-                        if (!matchFound) {
-                            throw new IllegalArgumentException("Segment value '" + segmentValue + "' for STATIC_OR rule (order " + rule.getOrder() +
-                                                               ") does not match any of the allowed values: " + allowedValues);
-                        }
-                        break;
-                    case NUMERIC:
-                        // This validation is for non-word-mapped NUMERIC segments.
-                        // Word-mapped NUMERIC segments are handled in the if (rule.isMapsToWord()) block.
-                        if (!segmentValue.matches("\\d+")) {
-                            throw new IllegalArgumentException("Numeric segment (order " + rule.getOrder() +
-                                                               ") contains non-numeric characters: '" + segmentValue + "'.");
-                        }
-                        break;
-                    case BASE64:
-                        // Validate if it's a valid Base64 string.
-                        // The BarcodeSegmentRule ensures length matches if type is BASE64 and not mapsToWord.
-                        // A more robust validation might check if the length is a valid Base64 encoded length (e.g. multiple of 4, padding).
-                        // For now, just check if it can be decoded.
-                        try {
-                            Base64.getDecoder().decode(segmentValue);
-                            // Additionally, ensure the decoded data, if re-encoded, would match the original length.
-                            // This is complex as padding characters affect this. For simplicity, we trust rule.getLength().
-                        } catch (IllegalArgumentException e) {
-                             throw new IllegalArgumentException("Base64 segment (order " + rule.getOrder() +
-                                                               ") contains invalid Base64 characters: '" + segmentValue + "'. Error: " + e.getMessage());
-                        }
-                        break;
-                    default:
-                        throw new IllegalStateException("Unhandled segment type for barcodeToWords: " + rule.getType() + " at order " + rule.getOrder());
-                }
+        // Word-mapped segments are known to be all digits at this point
+        for (int segment : wordSegments) {
+            int wordIndex = layout.parseNumber(barcode, segment);
+            if (wordIndex >= wordList.size()) {
+                return ConversionResult.failure(ConversionErrorCode.WORD_INDEX_OUT_OF_RANGE, barcode, ruleSet,
+                        layout.getRule(segment).getOrder(), layout.getSegmentStart(segment), wordIndex, wordList.size());
             }
         }
+        return null;
+    }
 
-        if (resultWords.size() != EXPECTED_WORD_COUNT_FOR_CONVERSION) {
-             // This should ideally be caught by RuleSet validation, but as a safeguard:
-            System.err.println("Warning: Extracted " + resultWords.size() + " words, but expected " + EXPECTED_WORD_COUNT_FOR_CONVERSION +
-                               " based on RuleSet configuration.");
-            // Depending on strictness, could throw an error here.
-        }
+    private boolean isPossiblyIssued(String barcode, RuleSet ruleSet) {
+        return issuedBarcodeRegistry == null || issuedBarcodeRegistry.mightBeIssued(ruleSet.getName(), barcode);
+    }
 
-        return resultWords;
+    private static ConversionResult notIssued(String barcode, RuleSet ruleSet) {
+        return ConversionResult.failure(ConversionErrorCode.NOT_ISSUED, barcode, ruleSet,
+                ConversionResult.NOT_APPLICABLE, ConversionResult.NOT_APPLICABLE, 0, 0);
+    }
+
+    private static ConversionErrorCode errorCodeFor(SegmentType type) {
+        switch (type) {
+            case STATIC:
+                return ConversionErrorCode.STATIC_MISMATCH;
+            case STATIC_OR:
+                return ConversionErrorCode.STATIC_OR_MISMATCH;
+            case NUMERIC:
+            case SEQUENCE:
+                return ConversionErrorCode.NON_NUMERIC;
+            case BASE64:
+                return ConversionErrorCode.INVALID_BASE64;
+            case CHECKSUM:
+                return ConversionErrorCode.CHECKSUM_MISMATCH;
+            case VERSION:
+                return ConversionErrorCode.VERSION_MISMATCH;
+            default:
+                throw new IllegalStateException("Unhandled segment type for barcodeToWords: " + type);
+        }
     }
 }
@@ -0,0 +1,73 @@
+package com.example.barcodeconverter.service;
+
+/**
+ * Keyed pseudo-random bijection on {@code [0, domainSize)}.
+ * <p>
+ * A balanced Feistel network over the smallest even number of bits covering the domain is a
+ * permutation of that power-of-two range; values that land outside the domain are fed through
+ * again (cycle walking) until they fall inside, which keeps the mapping a bijection on the domain.
+ * Because the bit range is less than four times the domain, this takes fewer than four rounds
+ * of the network on average.
+ */
+public final class FeistelPermutation {
+
+    private static final int ROUNDS = 6;
+
+    private final long domainSize;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public FeistelPermutation(long domainSize, long key) {
+        if (domainSize <= 0) {
+            throw new IllegalArgumentException("Domain size must be positive.");
+        }
+        this.domainSize = domainSize;
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(domainSize - 1));
+        if (bits > 62) {
+            throw new IllegalArgumentException("Domain size " + domainSize + " is too large.");
+        }
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        long state = key;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(state);
+        }
+    }
+
+    public long getDomainSize() {
+        return domainSize;
+    }
+
+    /**
+     * @return the image of {@code value}, also in {@code [0, domainSize)}.
+     */
+    public long permute(long value) {
+        if (value < 0 || value >= domainSize) {
+            throw new IllegalArgumentException("Value " + value + " is outside [0, " + domainSize + ").");
+        }
+        long result = value;
+        do {
+            result = encrypt(result);
+        } while (result >= domainSize);
+        return result;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (long roundKey : roundKeys) {
+            long next = left ^ (mix(right ^ roundKey) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private static long mix(long z) { // SplitMix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.RuleSet;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+
+/**
+ * Dry run of a RuleSet edit: decodes a corpus of barcodes under the current and the proposed rules
+ * and reports which barcodes would stop decoding, decode to different words, or start decoding.
+ * The corpus is an uploaded file or any other {@link Corpus}, such as a window of the conversion history.
+ * <p>
+ * The corpus is read in chunks that are compared on a worker pool through the batch decoder, with
+ * at most two chunks per thread in flight, so memory stays bounded however large the corpus is.
+ * Chunks are merged in corpus order, so the samples are the first affected barcodes.
+ * Both versions are judged on their own rules; superseded versions kept by {@link RuleSetHistory}
+ * are not consulted.
+ */
+@Service
+public class ImpactAnalysisService {
+
+    static final int CHUNK_ROWS = 8192;
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+    private final ConversionService conversionService;
+    private final ForkJoinPool pool;
+    private final int maxChunksInFlight;
+    private final int sampleLimit;
+
+    /**
+     * Source of the barcodes to compare; hands each one over in corpus order.
+     */
+    @FunctionalInterface
+    public interface Corpus {
+        void forEach(Consumer<String> barcodes) throws IOException;
+    }
+
+    /**
+     * One affected barcode and how it decodes under each version.
+     */
+    public static final class Sample {
+        private final String barcode;
+        private final List<String> currentWords;   // Null if the current rules reject the barcode
+        private final List<String> proposedWords;  // Null if the proposed rules reject the barcode
+        private final ConversionErrorCode errorCode;
+        private final String message;
+
+        Sample(String barcode, ConversionResult current, ConversionResult proposed) {
+            this.barcode = barcode;
+            this.currentWords = current.isSuccess() ? current.getWords() : null;
+            this.proposedWords = proposed.isSuccess() ? proposed.getWords() : null;
+            ConversionResult failed = !proposed.isSuccess() ? proposed : !current.isSuccess() ? current : null;
+            this.errorCode = failed != null ? failed.getErrorCode() : null;
+            this.message = failed != null ? failed.getMessage() : null;
+        }
+
+        public String getBarcode() {
+            return barcode;
+        }
+
+        public List<String> getCurrentWords() {
+            return currentWords;
+        }
+
+        public List<String> getProposedWords() {
+            return proposedWords;
+        }
+
+        public ConversionErrorCode getErrorCode() {
+            return errorCode;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Diff summary of one analysis; also used per chunk before merging.
+     */
+    public static final class Report {
+        private final int sampleLimit;
+        private String ruleSetName;
+        private int currentVersion;
+        private long total;
+        private long unchanged;       // Same words under both versions
+        private long stillInvalid;    // Rejected under both versions
+        private long broken;          // Decodes today, rejected under the proposed rules
+        private long changed;         // Decodes under both, to different words
+        private long fixed;           // Rejected today, decodes under the proposed rules
+        private final Map<ConversionErrorCode, Long> brokenByErrorCode = new EnumMap<>(ConversionErrorCode.class);
+        private final List<Sample> brokenSamples = new ArrayList<>();
+        private final List<Sample> changedSamples = new ArrayList<>();
+        private final List<Sample> fixedSamples = new ArrayList<>();
+        private long elapsedMillis;
+
+        Report(int sampleLimit) {
+            this.sampleLimit = sampleLimit;
+        }
+
+        void add(String barcode, ConversionResult current, ConversionResult proposed) {
+            total++;
+            if (current.isSuccess() && proposed.isSuccess()) {
+                if (current.getWords().equals(proposed.getWords())) {
+                    unchanged++;
+                } else {
+                    changed++;
+                    addSample(changedSamples, barcode, current, proposed);
+                }
+            } else if (current.isSuccess()) {
+                broken++;
+                brokenByErrorCode.merge(proposed.getErrorCode(), 1L, Long::sum);
+                addSample(brokenSamples, barcode, current, proposed);
+            } else if (proposed.isSuccess()) {
+                fixed++;
+                addSample(fixedSamples, barcode, current, proposed);
+            } else {
+                stillInvalid++;
+            }
+        }
+
+        private void addSample(List<Sample> samples, String barcode, ConversionResult current, ConversionResult proposed) {
+            if (samples.size() < sampleLimit) {
+                samples.add(new Sample(barcode, current, proposed));
+            }
+        }
+
+        void merge(Report chunk) {
+            total += chunk.total;
+            unchanged += chunk.unchanged;
+            stillInvalid += chunk.stillInvalid;
+            broken += chunk.broken;
+            changed += chunk.changed;
+            fixed += chunk.fixed;
+            chunk.brokenByErrorCode.forEach((code, count) -> brokenByErrorCode.merge(code, count, Long::sum));
+            mergeSamples(brokenSamples, chunk.brokenSamples);
+            mergeSamples(changedSamples, chunk.changedSamples);
+            mergeSamples(fixedSamples, chunk.fixedSamples);
+        }
+
+        private void mergeSamples(List<Sample> samples, List<Sample> more) {
+            for (int i = 0; i < more.size() && samples.size() < sampleLimit; i++) {
+                samples.add(more.get(i));
+            }
+        }
+
+        public String getRuleSetName() {
+            return ruleSetName;
+        }
+
+        public int getCurrentVersion() {
+            return currentVersion;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getUnchanged() {
+            return unchanged;
+        }
+
+        public long getStillInvalid() {
+            return stillInvalid;
+        }
+
+        public long getBroken() {
+            return broken;
+        }
+
+        public long getChanged() {
+            return changed;
+        }
+
+        public long getFixed() {
+            return fixed;
+        }
+
+        public Map<ConversionErrorCode, Long> getBrokenByErrorCode() {
+            return brokenByErrorCode;
+        }
+
+        public List<Sample> getBrokenSamples() {
+            return brokenSamples;
+        }
+
+        public List<Sample> getChangedSamples() {
+            return changedSamples;
+        }
+
+        public List<Sample> getFixedSamples() {
+            return fixedSamples;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    @Autowired
+    public ImpactAnalysisService(ConversionService conversionService,
+                                 @Value("${barcode.impact.parallelism:0}") int parallelism,
+                                 @Value("${barcode.impact.samples:10}") int sampleLimit) {
+        this.conversionService = conversionService;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("barcode-impact-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.maxChunksInFlight = threads * CHUNKS_IN_FLIGHT_PER_THREAD;
+        this.sampleLimit = Math.max(0, sampleLimit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Compares the current and proposed versions of a RuleSet over a corpus with one barcode per line.
+     * CSV lines are accepted too: only the first field is read, and a leading "barcode" header is skipped,
+     * so the output of bulk generation can be fed back in.
+     */
+    public Report analyze(RuleSet current, RuleSet proposed, BufferedReader corpus) throws IOException {
+        return analyze(current, proposed, barcodes -> {
+            boolean firstLine = true;
+            String line;
+            while ((line = corpus.readLine()) != null) {
+                String barcode = firstField(line);
+                if (barcode.isEmpty() || (firstLine && barcode.equalsIgnoreCase("barcode"))) {
+                    firstLine = false;
+                    continue;
+                }
+                firstLine = false;
+                barcodes.accept(barcode);
+            }
+        });
+    }
+
+    /**
+     * Compares the current and proposed versions of a RuleSet over the barcodes of {@code corpus}.
+     */
+    public Report analyze(RuleSet current, RuleSet proposed, Corpus corpus) throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report(sampleLimit);
+        report.ruleSetName = current.getName();
+        report.currentVersion = current.getVersion();
+        Chunker chunker = new Chunker(current, proposed, report);
+        try {
+            corpus.forEach(chunker);
+            chunker.finish();
+        } finally {
+            chunker.cancel(); // A failed read must not leave work queued behind it
+        }
+        report.elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return report;
+    }
+
+    /**
+     * Cuts the corpus into chunks, compares them on the pool and merges the results in corpus order.
+     */
+    private final class Chunker implements Consumer<String> {
+        private final RuleSet current;
+        private final RuleSet proposed;
+        private final Report report;
+        private final ArrayDeque<ForkJoinTask<Report>> inFlight = new ArrayDeque<>();
+        private List<String> chunk = new ArrayList<>(CHUNK_ROWS);
+
+        Chunker(RuleSet current, RuleSet proposed, Report report) {
+            this.current = current;
+            this.proposed = proposed;
+            this.report = report;
+        }
+
+        @Override
+        public void accept(String barcode) {
+            chunk.add(barcode);
+            if (chunk.size() == CHUNK_ROWS) {
+                if (inFlight.size() >= maxChunksInFlight) {
+                    report.merge(inFlight.poll().join());
+                }
+                submit();
+            }
+        }
+
+        private void submit() {
+            List<String> barcodes = chunk;
+            inFlight.add(pool.submit(() -> compare(current, proposed, barcodes)));
+            chunk = new ArrayList<>(CHUNK_ROWS);
+        }
+
+        void finish() {
+            if (!chunk.isEmpty()) {
+                submit();
+            }
+            while (!inFlight.isEmpty()) {
+                report.merge(inFlight.poll().join());
+            }
+        }
+
+        void cancel() {
+            for (ForkJoinTask<Report> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private Report compare(RuleSet current, RuleSet proposed, List<String> barcodes) {
+        List<ConversionResult> before = conversionService.decodeBatchExactVersion(barcodes, current);
+        List<ConversionResult> after = conversionService.decodeBatchExactVersion(barcodes, proposed);
+        Report chunk = new Report(sampleLimit);
+        for (int i = 0; i < barcodes.size(); i++) {
+            chunk.add(barcodes.get(i), before.get(i), after.get(i));
+        }
+        return chunk;
+    }
+
+    private static String firstField(String line) {
+        int comma = line.indexOf(',');
+        String field = (comma >= 0 ? line.substring(0, comma) : line).trim();
+        if (field.length() >= 2 && field.charAt(0) == '"' && field.charAt(field.length() - 1) == '"') {
+            field = field.substring(1, field.length() - 1).replace("\"\"", "\"");
+        }
+        return field;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.barcodeconverter.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-RuleSet {@link BarcodeBloomFilter}s of issued barcodes, used by {@link ConversionService}
+ * to reject barcodes that were never issued before decoding them.
+ * <p>
+ * When enabled, every {@code *.bloom} file in the configured directory is memory-mapped at
+ * startup (files are usually built offline with {@code BloomFilterBuilder}). RuleSets without a
+ * filter are not gated. Filters are kept up to date by {@link #record}, which
+ * {@link ConversionService#recordIssued} calls for every barcode encoded, generated or allocated, and by
+ * bulk {@link #importBarcodes}. A filter only knows the barcodes it has been fed, so the first
+ * import for a RuleSet must cover everything already issued for it.
+ */
+@Service
+public class IssuedBarcodeRegistry {
+
+    public static final String FILE_EXTENSION = ".bloom";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Map<String, BarcodeBloomFilter> filters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IssuedBarcodeRegistry(@Value("${barcode.issued-filter.enabled:false}") boolean enabled,
+                                 @Value("${barcode.issued-filter.dir:data/issued}") String directory,
+                                 @Value("${barcode.issued-filter.expected-insertions:10000000}") long expectedInsertions,
+                                 @Value("${barcode.issued-filter.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                BarcodeBloomFilter filter = BarcodeBloomFilter.open(file);
+                BarcodeBloomFilter previous = filters.put(filter.getRuleSetName(), filter);
+                if (previous != null) {
+                    System.err.println("Warning: More than one issued-barcode filter for RuleSet '" + filter.getRuleSetName() +
+                                       "'; using " + file.getFileName() + ".");
+                    previous.close();
+                }
+                System.out.println("Mapped issued-barcode filter for RuleSet '" + filter.getRuleSetName() + "' (" +
+                                   filter.getInsertionCount() + " barcodes, " + filter.getBitCount() / 8 / 1024 + " KB).");
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return false only if the RuleSet has a filter and the barcode is definitely not in it.
+     */
+    public boolean mightBeIssued(String ruleSetName, String barcode) {
+        if (filters.isEmpty()) {
+            return true;
+        }
+        BarcodeBloomFilter filter = filters.get(ruleSetName);
+        return filter == null || filter.mightContain(barcode);
+    }
+
+    public BarcodeBloomFilter getFilter(String ruleSetName) {
+        return filters.get(ruleSetName);
+    }
+
+    /**
+     * Adds a newly issued barcode to the RuleSet's filter, if it has one.
+     */
+    public void record(String ruleSetName, String barcode) {
+        BarcodeBloomFilter filter = filters.get(ruleSetName);
+        if (filter != null) {
+            filter.put(barcode);
+        }
+    }
+
+    /**
+     * Adds issued barcodes to the RuleSet's filter, creating the filter (and so starting to gate
+     * the RuleSet) if it does not exist yet.
+     * @return how many of the barcodes were definitely new to the filter.
+     * @throws IllegalStateException if the filter is disabled.
+     */
+    public long importBarcodes(String ruleSetName, Iterable<String> barcodes) {
+        if (!enabled) {
+            throw new IllegalStateException("The issued-barcode filter is disabled (barcode.issued-filter.enabled=false).");
+        }
+        BarcodeBloomFilter filter = filters.computeIfAbsent(ruleSetName, name -> {
+            try {
+                return BarcodeBloomFilter.create(directory.resolve(fileNameFor(name)), name, expectedInsertions, falsePositiveRate);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create issued-barcode filter for RuleSet '" + name + "'", e);
+            }
+        });
+        long added = 0;
+        for (String barcode : barcodes) {
+            if (barcode != null && !barcode.isEmpty() && filter.put(barcode)) {
+                added++;
+            }
+        }
+        filter.force();
+        return added;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (BarcodeBloomFilter filter : filters.values()) {
+            try {
+                filter.close();
+            } catch (IOException e) {
+                System.err.println("Failed to flush issued-barcode filter " + filter.getFile() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public static String fileNameFor(String ruleSetName) {
+        return RuleSetFiles.fileKey(ruleSetName) + FILE_EXTENSION;
+    }
+}
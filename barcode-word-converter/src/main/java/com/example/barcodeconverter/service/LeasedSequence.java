@@ -0,0 +1,173 @@
+package com.example.barcodeconverter.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable, never-repeating counter over {@code [0, limit)} for many concurrent callers.
+ * <p>
+ * Callers are spread over striped allocators. Each stripe hands out values from a block it has
+ * leased with a lock-free increment; only leasing a new block takes a lock, and the new lease
+ * high-water mark is written to the state file (temp file, fsync, atomic rename) before any value
+ * of the block is returned. After a crash, values of blocks that were leased but not handed out
+ * are skipped, never reissued. The state file also carries caller-defined attributes, fixed when
+ * the sequence is first created.
+ */
+public final class LeasedSequence {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path stateFile;
+    private final long limit;
+    private final int blockSize;
+    private final Map<String, Object> attributes;
+    private final Stripe[] stripes;
+    private long leasedUpTo; // Guarded by this
+
+    private static final class Block {
+        final AtomicLong cursor;
+        final long end;
+
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    private static final class Stripe {
+        volatile Block block = new Block(0, 0); // Empty until the first lease
+    }
+
+    private LeasedSequence(Path stateFile, long limit, int stripeCount, int blockSize,
+                           Map<String, Object> attributes, long leasedUpTo) {
+        this.stateFile = stateFile;
+        this.limit = limit;
+        this.blockSize = blockSize;
+        this.attributes = Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        this.leasedUpTo = leasedUpTo;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Opens the sequence stored in {@code stateFile}, creating it with the given limit and attributes
+     * if the file does not exist. An existing sequence keeps its stored limit and attributes.
+     */
+    public static LeasedSequence open(Path stateFile, long limit, int stripeCount, int blockSize,
+                                      Map<String, Object> attributes) throws IOException {
+        if (limit <= 0 || stripeCount <= 0 || blockSize <= 0) {
+            throw new IllegalArgumentException("Limit, stripe count and block size must be positive.");
+        }
+        if (Files.exists(stateFile)) {
+            Map<String, Object> state = OBJECT_MAPPER.readValue(stateFile.toFile(), new TypeReference<Map<String, Object>>() {});
+            @SuppressWarnings("unchecked")
+            Map<String, Object> storedAttributes = (Map<String, Object>) state.getOrDefault("attributes", Collections.emptyMap());
+            long storedLimit = ((Number) state.get("limit")).longValue();
+            long storedLeasedUpTo = ((Number) state.get("leasedUpTo")).longValue();
+            System.out.println("Recovered sequence '" + stateFile.getFileName() + "' at " + storedLeasedUpTo + " of " + storedLimit + ".");
+            return new LeasedSequence(stateFile, storedLimit, stripeCount, blockSize, storedAttributes, storedLeasedUpTo);
+        }
+        Files.createDirectories(stateFile.toAbsolutePath().getParent());
+        LeasedSequence sequence = new LeasedSequence(stateFile, limit, stripeCount, blockSize, attributes, 0);
+        synchronized (sequence) {
+            sequence.persist(0);
+        }
+        return sequence;
+    }
+
+    /**
+     * @return the next unused value.
+     * @throws IllegalStateException if every value below the limit has been leased.
+     * @throws UncheckedIOException if a new lease cannot be made durable.
+     */
+    public long next() {
+        Stripe stripe = stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+        while (true) {
+            Block block = stripe.block;
+            long value = block.cursor.getAndIncrement();
+            if (value < block.end) {
+                return value;
+            }
+            synchronized (stripe) {
+                if (stripe.block == block) { // Nobody refilled it while we waited
+                    stripe.block = leaseBlock();
+                }
+            }
+        }
+    }
+
+    private synchronized Block leaseBlock() {
+        if (leasedUpTo >= limit) {
+            throw new IllegalStateException("Sequence '" + stateFile.getFileName() + "' is exhausted (" + limit + " values).");
+        }
+        long start = leasedUpTo;
+        long end = Math.min(limit, start + blockSize);
+        try {
+            persist(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to persist sequence lease to " + stateFile, e);
+        }
+        leasedUpTo = end;
+        return new Block(start, end);
+    }
+
+    // Called with the monitor held
+    private void persist(long newLeasedUpTo) throws IOException {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("limit", limit);
+        state.put("leasedUpTo", newLeasedUpTo);
+        state.put("attributes", attributes);
+        byte[] json = OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(state);
+
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(json);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, stateFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        try (FileChannel directory = FileChannel.open(stateFile.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true); // Make the rename itself durable
+        } catch (IOException e) {
+            // Not supported on every platform; the file contents are already on disk
+        }
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return every value below this has been leased (handed out or skipped).
+     */
+    public synchronized long getLeasedUpTo() {
+        return leasedUpTo;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+}
@@ -7,7 +7,9 @@ import com.example.barcodeconverter.model.SegmentType;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
-// import org.springframework.beans.factory.annotation.Value; // Not used
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service; // Keep this one
@@ -21,27 +23,141 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays; // Added missing import
 import java.util.Collections;
 // import java.util.HashMap; // Not directly used by RuleService itself, map is ConcurrentHashMap
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
 @Service
 public class RuleService {
 
-    private final Map<String, RuleSet> ruleSets = new ConcurrentHashMap<>();
+    // Replaced whole when rules.json is (re)loaded, so a request racing a reload sees the old or the new RuleSets,
+    // never a half-filled map; saves and deletes update it in place
+    private volatile Map<String, RuleSet> ruleSets = new ConcurrentHashMap<>();
+    // Sorted names of every RuleSet, kept in step with saves and deletes so listings and searches never sort
+    private volatile ConcurrentSkipListSet<String> nameIndex = new ConcurrentSkipListSet<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
     private static final String RULES_FILE_NAME = "rules.json";
 
     // In a real scenario, you might make this path configurable
     // For ClassPathResource, it's relative to 'classes' root or classpath root.
     private final String rulesJsonPath = RULES_FILE_NAME; // This is correct for ClassPathResource
+    // Where eager-mode saves and deletes write rules.json; tests point it at a copy
+    private Path editableRulesFile = Paths.get("src", "main", "resources", RULES_FILE_NAME);
+
+    private RuleSetHistory ruleSetHistory; // Optional; without it edits replace RuleSets outright
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Told about every local save that creates a new version and every local delete, after it is published.
+     * Called while the RuleService lock is held, so changes arrive in order; replicated changes applied
+     * through {@link #applyReplicated} are not reported.
+     */
+    public interface ChangeListener {
+        void ruleSetSaved(RuleSet saved);
+
+        void ruleSetDeleted(RuleSet deleted);
+    }
+
+    // Catalog mode: RuleSets are indexed from this file at startup and parsed on first use
+    private final Path catalogPath;            // Null when RuleSets are loaded eagerly from the classpath
+    private final long catalogMaxBytes;
+    private volatile RuleSetCatalog catalog;   // Replaced after every save or delete in catalog mode
+
+    // Load statistics for GET /admin/stats/rulesets; per-RuleSet figures are only kept for eager loading
+    private volatile Map<String, Long> validationNanos = new ConcurrentHashMap<>();
+    private volatile long loadMillis;
+    private volatile long lastReloadAt;
+    private volatile int reloadCount;
+
+    /**
+     * Size and validation cost of one loaded RuleSet.
+     */
+    public static final class RuleSetStats {
+        private final String name;
+        private final int version;
+        private final int rules;
+        private final int barcodeLength;
+        private final long estimatedBytes;
+        private final long validationMicros;
+
+        RuleSetStats(RuleSet ruleSet, long validationNanos) {
+            this.name = ruleSet.getName();
+            this.version = ruleSet.getVersion();
+            this.rules = ruleSet.getRules().size();
+            this.barcodeLength = ruleSet.getTotalBarcodeLength();
+            this.estimatedBytes = RuleSetCatalog.estimateBytes(ruleSet);
+            this.validationMicros = validationNanos / 1000;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public int getRules() {
+            return rules;
+        }
+
+        public int getBarcodeLength() {
+            return barcodeLength;
+        }
+
+        /**
+         * @return estimated heap of the compiled RuleSet: rules, layout tables and checksum terms.
+         */
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        public long getValidationMicros() {
+            return validationMicros;
+        }
+    }
+
+    public RuleService() {
+        this("", 0);
+    }
+
+    @Autowired
+    public RuleService(@Value("${barcode.rules.catalog.path:}") String catalogPath,
+                       @Value("${barcode.rules.catalog.max-bytes:67108864}") long catalogMaxBytes) {
+        this.catalogPath = catalogPath == null || catalogPath.isBlank() ? null : Paths.get(catalogPath);
+        this.catalogMaxBytes = catalogMaxBytes;
+    }
+
+    @Autowired(required = false)
+    public void setRuleSetHistory(RuleSetHistory ruleSetHistory) {
+        this.ruleSetHistory = ruleSetHistory;
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
 
     @PostConstruct
-    public void init() {
+    public void init() throws IOException {
+        long started = System.nanoTime();
+        if (catalogPath != null) {
+            catalog = RuleSetCatalog.open(catalogPath, catalogMaxBytes);
+            nameIndex = new ConcurrentSkipListSet<>(catalog.getNames());
+            recordReload(started);
+            System.out.println("Indexed " + catalog.size() + " rulesets from catalog '" + catalogPath.toAbsolutePath() +
+                               "'; they are parsed and validated on first use.");
+            return;
+        }
         loadRuleSets();
         if (ruleSets.isEmpty()) {
             System.out.println("No rulesets loaded from '" + rulesJsonPath + "'. Creating a default one.");
@@ -49,6 +165,42 @@ public class RuleService {
             createDefaultRuleSetFileIfNotExistsInResources();
             loadRuleSets(); // Try loading again
         }
+        recordReload(started);
+    }
+
+    /**
+     * Loads the RuleSets again: rules.json from the classpath, or the catalog file in catalog mode.
+     * Requests running meanwhile keep seeing the previous RuleSets until the new ones are published whole.
+     */
+    public synchronized void reloadRuleSets() throws IOException {
+        long started = System.nanoTime();
+        if (catalog != null) {
+            reopenCatalog();
+        } else {
+            loadRuleSets();
+        }
+        recordReload(started);
+    }
+
+    private void recordReload(long startedNanos) {
+        loadMillis = (System.nanoTime() - startedNanos) / 1_000_000;
+        lastReloadAt = System.currentTimeMillis();
+        reloadCount++;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        RuleSetCatalog current = catalog;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * @return the catalog in catalog mode (barcode.rules.catalog.path set), otherwise null.
+     */
+    public RuleSetCatalog getCatalog() {
+        return catalog;
     }
 
     private void loadRuleSets() {
@@ -75,43 +227,23 @@ public class RuleService {
                  rawRuleSetList = objectMapper.readValue(inputStream, new TypeReference<List<Map<String, Object>>>() {});
             }
 
-            ruleSets.clear(); // Clear existing before loading new ones
+            // Filled aside and published at the end
+            Map<String, RuleSet> loaded = new ConcurrentHashMap<>();
+            Map<String, Long> loadedValidationNanos = new ConcurrentHashMap<>();
 
             for (Map<String, Object> rawRuleSet : rawRuleSetList) {
-                String name = (String) rawRuleSet.get("name");
-                @SuppressWarnings("unchecked") // Jackson deserializes to List<Map<...>> for complex objects in list
-                List<Map<String, Object>> rawRules = (List<Map<String, Object>>) rawRuleSet.get("rules");
-
-                if (name == null || rawRules == null) {
-                    System.err.println("Skipping a ruleset due to missing name or rules field.");
+                Object name = rawRuleSet.get("name");
+                if (name == null) {
+                    System.err.println("Skipping a ruleset due to missing name field.");
                     continue;
                 }
 
-                List<BarcodeSegmentRule> rules = new ArrayList<>();
-                for (Map<String, Object> rawRule : rawRules) {
-                    try {
-                        // Manually map or use objectMapper.convertValue for each rule
-                        BarcodeSegmentRule rule = objectMapper.convertValue(rawRule, BarcodeSegmentRule.class);
-                        rules.add(rule);
-                    } catch (IllegalArgumentException e) {
-                        System.err.println("Error converting raw rule to BarcodeSegmentRule for ruleset '" + name + "': " + e.getMessage() + ". Skipping this rule.");
-                    }
-                }
-
-                if (rules.isEmpty() && !rawRules.isEmpty()) {
-                     System.err.println("All rules failed to load for ruleset '" + name + "'. Skipping this ruleset.");
-                     continue;
-                }
-                 if (rules.isEmpty() && rawRules.isEmpty()) { // if rules list was empty in JSON
-                    System.err.println("Ruleset '" + name + "' has no rules defined. Skipping this ruleset.");
-                    continue;
-                }
-
-
                 try {
-                    RuleSet ruleSet = new RuleSet(name, rules); // Constructor sorts and validates rules
+                    long validationStarted = System.nanoTime();
+                    RuleSet ruleSet = RuleSetFiles.toRuleSet(rawRuleSet); // Constructor sorts the rules
                     ruleSet.validateRules(); // This is now called inside the RuleSet constructor or can be called explicitly
-                    ruleSets.put(ruleSet.getName(), ruleSet);
+                    loadedValidationNanos.put(ruleSet.getName(), System.nanoTime() - validationStarted);
+                    loaded.put(ruleSet.getName(), ruleSet);
                     System.out.println("Successfully loaded and validated RuleSet: " + ruleSet.getName() +
                                        " with " + ruleSet.getRules().size() + " rules and total length " +
                                        ruleSet.getTotalBarcodeLength());
@@ -122,7 +254,11 @@ public class RuleService {
                     e.printStackTrace();
                 }
             }
-            System.out.println("Finished loading " + ruleSets.size() + " rulesets from '" + rulesJsonPath + "'.");
+            // RuleSets before names, so a listed name always resolves
+            ruleSets = loaded;
+            validationNanos = loadedValidationNanos;
+            nameIndex = new ConcurrentSkipListSet<>(loaded.keySet());
+            System.out.println("Finished loading " + loaded.size() + " rulesets from '" + rulesJsonPath + "'.");
 
         } catch (IOException e) {
             System.err.println("Failed to load rulesets from '" + rulesJsonPath + "': " + e.getMessage());
@@ -213,32 +349,170 @@ public class RuleService {
     }
 
     public RuleSet getRuleSetByName(String name) {
+        RuleSetCatalog currentCatalog = catalog;
+        if (currentCatalog != null) {
+            RuleSet ruleSet = getRuleSetFromCatalog(currentCatalog, name);
+            // A save or delete may have replaced and closed the catalog mid-lookup; the new one decides
+            while (ruleSet == null && catalog != currentCatalog) {
+                currentCatalog = catalog;
+                ruleSet = getRuleSetFromCatalog(currentCatalog, name);
+            }
+            if (ruleSet == null && name != null && !name.trim().isEmpty()) {
+                System.out.println("RuleSet with name '" + name + "' not found.");
+            }
+            return ruleSet;
+        }
+        Map<String, RuleSet> loaded = ruleSets;
         if (name == null || name.trim().isEmpty()) {
-            if (!ruleSets.isEmpty()) {
+            if (!loaded.isEmpty()) {
                 System.out.println("RuleSetName is null/empty, attempting to use the first available ruleset (sorted by name).");
                 // Provide a consistent default: the one with the lexicographically smallest name
-                return ruleSets.values().stream()
+                return loaded.values().stream()
                                .min(java.util.Comparator.comparing(RuleSet::getName))
                                .orElse(null); // Should not be null if ruleSets is not empty
             }
             System.out.println("RuleSetName is null/empty and no rulesets are loaded.");
             return null;
         }
-        RuleSet ruleSet = ruleSets.get(name);
+        RuleSet ruleSet = loaded.get(name);
         if (ruleSet == null) {
             System.out.println("RuleSet with name '" + name + "' not found.");
         }
         return ruleSet;
     }
 
+    private static RuleSet getRuleSetFromCatalog(RuleSetCatalog currentCatalog, String name) {
+        if (name == null || name.trim().isEmpty()) {
+            // Same default as eager loading: the first valid RuleSet by name
+            for (String candidate : currentCatalog.getNames()) {
+                RuleSet ruleSet = currentCatalog.get(candidate);
+                if (ruleSet != null) {
+                    return ruleSet;
+                }
+            }
+            System.out.println("RuleSetName is null/empty and no rulesets are loaded.");
+            return null;
+        }
+        return currentCatalog.get(name);
+    }
+
+    private RuleSet currentRuleSet(String name) {
+        RuleSetCatalog currentCatalog = catalog;
+        if (currentCatalog == null) {
+            return ruleSets.get(name);
+        }
+        RuleSet ruleSet = currentCatalog.get(name);
+        while (ruleSet == null && catalog != currentCatalog) {
+            currentCatalog = catalog;
+            ruleSet = currentCatalog.get(name);
+        }
+        return ruleSet;
+    }
+
+    /**
+     * Looks up a specific version of a RuleSet: the current one, or a superseded version still
+     * retained by {@link RuleSetHistory}.
+     * @return the RuleSet version, or null if it is unknown or no longer retained.
+     */
+    public RuleSet getRuleSet(String name, int version) {
+        RuleSet current = currentRuleSet(name);
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        return ruleSetHistory != null ? ruleSetHistory.get(name, version) : null;
+    }
+
+    /**
+     * @return figures for every eagerly loaded RuleSet, by name; empty in catalog mode, where RuleSets are
+     *         parsed on demand and {@link #getCatalog()} has the cache figures. Nothing is recomputed but the
+     *         size estimate, which is a few multiplications.
+     */
+    public List<RuleSetStats> getRuleSetStats() {
+        List<RuleSetStats> stats = new ArrayList<>(ruleSets.size());
+        for (String name : nameIndex) {
+            RuleSet ruleSet = ruleSets.get(name);
+            if (ruleSet != null) {
+                stats.add(new RuleSetStats(ruleSet, validationNanos.getOrDefault(name, 0L)));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return duration of the last (re)load: the startup load, or the rewrite after a save or delete.
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * @return when RuleSets were last (re)loaded, epoch millis.
+     */
+    public long getLastReloadAt() {
+        return lastReloadAt;
+    }
+
+    /**
+     * @return how many times RuleSets were loaded or changed since startup; changes whenever any RuleSet does.
+     */
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
     public List<String> getAllRuleSetNames() {
-        List<String> names = new ArrayList<>(ruleSets.keySet());
-        Collections.sort(names); // Ensure consistent order
-        return names;
+        return new ArrayList<>(nameIndex); // Already sorted; catalog entries are not parsed to list them
+    }
+
+    /**
+     * Searches RuleSet names without parsing any RuleSet. Names starting with the query come first,
+     * found by a range lookup in the sorted index; names containing it elsewhere (ignoring case)
+     * follow, found by a scan of the index. Both groups are sorted.
+     * @param query  text to look for; null or blank matches every name
+     * @param offset number of matches to skip, for pagination
+     * @param limit  maximum number of names to return
+     */
+    public List<String> searchRuleSetNames(String query, int offset, int limit) {
+        NavigableSet<String> index = nameIndex;
+        List<String> matches = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        if (limit <= 0) {
+            return matches;
+        }
+        String prefix = query == null ? "" : query.trim();
+        int skipped = 0;
+        Iterable<String> prefixMatches = prefix.isEmpty() ? index : index.subSet(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (String name : prefixMatches) {
+            if (skipped++ < offset) {
+                continue;
+            }
+            matches.add(name);
+            if (matches.size() == limit) {
+                return matches;
+            }
+        }
+        if (prefix.isEmpty()) {
+            return matches;
+        }
+        String needle = prefix.toLowerCase(Locale.ROOT);
+        for (String name : index) {
+            if (name.startsWith(prefix) || !name.toLowerCase(Locale.ROOT).contains(needle)) {
+                continue;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+            matches.add(name);
+            if (matches.size() == limit) {
+                break;
+            }
+        }
+        return matches;
     }
 
     /**
      * Saves a RuleSet. This implementation attempts to write back to the src/main/resources/rules.json file.
+     * Saving different rules under an existing name creates the next version; the superseded version
+     * is handed to {@link RuleSetHistory} so barcodes printed under it stay decodable.
+     * In catalog mode the catalog file is rewritten instead; only the saved entry is parsed and validated.
      * This is suitable for development environments. In production, configuration management
      * or a database would be more appropriate for managing rulesets.
      * Note: Changes to src/main/resources/rules.json might require a project rebuild to be reflected in the classpath.
@@ -261,19 +535,50 @@ public class RuleService {
             throw new IllegalArgumentException("RuleSet '" + ruleSetToSave.getName() + "' is invalid and cannot be saved: " + e.getMessage(), e);
         }
 
-        // Load existing rules
-        List<RuleSet> currentRuleSetsList = loadRuleSetsFromFile();
+        // Load existing rules; the catalog copies its other entries without parsing them
+        List<RuleSet> currentRuleSetsList = catalog == null ? loadRuleSetsFromFile() : null;
 
-        // Remove old version if it exists, then add new/updated one
         final String nameToSave = ruleSetToSave.getName();
-        currentRuleSetsList.removeIf(rs -> nameToSave.equals(rs.getName()));
-        currentRuleSetsList.add(ruleSetToSave); // Add the (validated) version from the argument
-
-        // Persist the updated list
-        persistRuleSetsToFile(currentRuleSetsList);
+        RuleSet previous = currentRuleSet(nameToSave);
+        if (previous == null && currentRuleSetsList != null) {
+            previous = currentRuleSetsList.stream().filter(rs -> nameToSave.equals(rs.getName())).findFirst().orElse(null);
+        }
+        RuleSet versioned;
+        if (previous != null && previous.getRules().equals(ruleSetToSave.getRules())) {
+            versioned = previous; // Unchanged rules keep their version
+        } else {
+            int latestVersion = previous != null ? previous.getVersion() : 0;
+            if (ruleSetHistory != null) {
+                // A RuleSet deleted and created again continues the numbering of its history
+                latestVersion = Math.max(latestVersion, ruleSetHistory.getLatestVersion(nameToSave));
+            }
+            long validationStarted = System.nanoTime();
+            versioned = new RuleSet(nameToSave, ruleSetToSave.getRules(), latestVersion + 1);
+            versioned.validateRules();
+            validationNanos.put(nameToSave, System.nanoTime() - validationStarted);
+            if (previous != null && ruleSetHistory != null) {
+                ruleSetHistory.archive(previous); // Before the new version is written, so no version is ever lost
+            }
+        }
 
-        // After saving, reload the rules in memory to reflect the changes immediately
-        loadRuleSets(); // This reloads from the file just written
+        long started = System.nanoTime();
+        if (catalog != null) {
+            rewriteCatalog(nameToSave, versioned);
+        } else {
+            // Remove old version if it exists, then add new/updated one
+            currentRuleSetsList.removeIf(rs -> nameToSave.equals(rs.getName()));
+            currentRuleSetsList.add(versioned);
+            persistRuleSetsToFile(currentRuleSetsList);
+            // Publish the saved version directly; the classpath copy of rules.json is only refreshed by a rebuild
+            ruleSets.put(nameToSave, versioned);
+            nameIndex.add(nameToSave);
+        }
+        recordReload(started);
+        if (versioned != previous) {
+            for (ChangeListener listener : changeListeners) {
+                listener.ruleSetSaved(versioned);
+            }
+        }
     }
 
     public synchronized void deleteRuleSet(String nameToDelete) throws IOException, IllegalArgumentException {
@@ -281,23 +586,112 @@ public class RuleService {
             throw new IllegalArgumentException("RuleSet name to delete cannot be null or empty.");
         }
 
-        List<RuleSet> currentRuleSetsList = loadRuleSetsFromFile();
-        boolean removed = currentRuleSetsList.removeIf(rs -> nameToDelete.equals(rs.getName()));
+        List<RuleSet> currentRuleSetsList = catalog == null ? loadRuleSetsFromFile() : null;
+        RuleSet deleted = currentRuleSetsList == null ? currentRuleSet(nameToDelete)
+                : currentRuleSetsList.stream().filter(rs -> nameToDelete.equals(rs.getName())).findFirst().orElse(null);
 
-        if (!removed) {
+        if (deleted == null) {
             // Optionally, throw an exception or return a status indicating the ruleset was not found
             System.out.println("RuleSet with name '" + nameToDelete + "' not found for deletion.");
             // Or throw new IllegalArgumentException("RuleSet with name '" + nameToDelete + "' not found.");
             return; // No changes to persist
         }
 
-        persistRuleSetsToFile(currentRuleSetsList);
-        loadRuleSets(); // Reload in-memory map
+        if (ruleSetHistory != null) {
+            ruleSetHistory.archive(deleted); // So a RuleSet created again under the name continues after this version
+        }
+        long started = System.nanoTime();
+        if (catalog != null) {
+            rewriteCatalog(nameToDelete, null);
+        } else {
+            currentRuleSetsList.removeIf(rs -> nameToDelete.equals(rs.getName()));
+            persistRuleSetsToFile(currentRuleSetsList);
+            ruleSets.remove(nameToDelete); // Its history is kept, so a RuleSet created again under the name continues its versions
+            nameIndex.remove(nameToDelete);
+        }
+        validationNanos.remove(nameToDelete);
+        recordReload(started);
         System.out.println("Successfully deleted RuleSet '" + nameToDelete + "' and updated rules.json.");
+        for (ChangeListener listener : changeListeners) {
+            listener.ruleSetDeleted(deleted);
+        }
+    }
+
+    /**
+     * Applies a RuleSet change made on another node: stores {@code replicated} under its own version, or
+     * deletes the RuleSet when it is null. {@code accept} sees the current RuleSet (null if there is none)
+     * under the same lock as local saves and deletes and decides whether the change still applies, so a
+     * replicated change can never overwrite a newer local one. Change listeners are not told.
+     * @return whether the change was applied.
+     */
+    public synchronized boolean applyReplicated(String name, RuleSet replicated, Predicate<RuleSet> accept) throws IOException {
+        RuleSet current = currentRuleSet(name);
+        if (!accept.test(current)) {
+            return false;
+        }
+        if (replicated == null && current == null) {
+            return true; // Already gone
+        }
+        if (replicated != null) {
+            replicated.validateRules(); // Throws IllegalStateException for rules this node cannot compile
+        }
+        if (current != null && ruleSetHistory != null && (replicated == null || replicated.getVersion() != current.getVersion())) {
+            ruleSetHistory.archive(current);
+        }
+        long started = System.nanoTime();
+        if (catalog != null) {
+            rewriteCatalog(name, replicated);
+        } else {
+            List<RuleSet> currentRuleSetsList = loadRuleSetsFromFile();
+            currentRuleSetsList.removeIf(rs -> name.equals(rs.getName()));
+            if (replicated != null) {
+                currentRuleSetsList.add(replicated);
+            }
+            persistRuleSetsToFile(currentRuleSetsList);
+            if (replicated != null) {
+                ruleSets.put(name, replicated);
+                nameIndex.add(name);
+            } else {
+                ruleSets.remove(name);
+                nameIndex.remove(name);
+            }
+        }
+        validationNanos.remove(name);
+        recordReload(started);
+        return true;
+    }
+
+    // Rewrites only the edited entry of the catalog file; the other entries keep their parsed RuleSets
+    private void rewriteCatalog(String name, RuleSet replacement) throws IOException {
+        RuleSetCatalog previous = catalog;
+        catalog = previous.rewrite(name, replacement);
+        if (replacement != null) {
+            nameIndex.add(name);
+        } else {
+            nameIndex.remove(name);
+        }
+        previous.close();
+        System.out.println("Successfully persisted rules to '" + catalogPath.toAbsolutePath() + "'.");
+    }
+
+    // Offsets change whenever the file is rewritten, so the catalog is indexed again and cold entries re-parse lazily
+    private void reopenCatalog() throws IOException {
+        RuleSetCatalog previous = catalog;
+        catalog = RuleSetCatalog.open(catalogPath, catalogMaxBytes);
+        nameIndex = new ConcurrentSkipListSet<>(catalog.getNames());
+        previous.close();
+    }
+
+    private Path rulesFilePath() {
+        return catalogPath != null ? catalogPath : editableRulesFile;
+    }
+
+    void setEditableRulesFile(Path editableRulesFile) {
+        this.editableRulesFile = editableRulesFile;
     }
 
     private List<RuleSet> loadRuleSetsFromFile() throws IOException {
-        Path rulesFilePath = Paths.get("src", "main", "resources", RULES_FILE_NAME);
+        Path rulesFilePath = rulesFilePath();
         List<RuleSet> ruleSetsList = new ArrayList<>();
 
         if (Files.exists(rulesFilePath)) {
@@ -305,30 +699,12 @@ public class RuleService {
                 byte[] jsonData = Files.readAllBytes(rulesFilePath);
                 List<Map<String, Object>> rawRuleSetList = objectMapper.readValue(jsonData, new TypeReference<List<Map<String, Object>>>() {});
                 for (Map<String, Object> rawRuleSet : rawRuleSetList) {
-                    String name = (String) rawRuleSet.get("name");
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> rawRules = (List<Map<String, Object>>) rawRuleSet.get("rules");
-                    if (name != null && rawRules != null) {
-                        List<BarcodeSegmentRule> rules = new ArrayList<>();
-                        for (Map<String, Object> rawRule : rawRules) {
-                            try {
-                                rules.add(objectMapper.convertValue(rawRule, BarcodeSegmentRule.class));
-                            } catch (Exception e) {
-                                System.err.println("Skipping invalid rule data during file load for RuleSet '" + name + "': " + rawRule + ". Error: " + e.getMessage());
-                            }
-                        }
-                        if (!rules.isEmpty()) { // Only add if there are valid rules
-                           try {
-                                RuleSet rs = new RuleSet(name, rules);
-                                rs.validateRules(); // Validate before adding to list from file
-                                ruleSetsList.add(rs);
-                           } catch (IllegalArgumentException | IllegalStateException e) {
-                               System.err.println("Skipping invalid RuleSet '" + name + "' from file during load: " + e.getMessage());
-                           }
-                        } else if (rawRules.isEmpty()){
-                             // Handle case where a ruleset in JSON has an empty rules list
-                            System.err.println("RuleSet '" + name + "' in file has no rules. Skipping.");
-                        }
+                    try {
+                        RuleSet rs = RuleSetFiles.toRuleSet(rawRuleSet);
+                        rs.validateRules(); // Validate before adding to list from file
+                        ruleSetsList.add(rs);
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        System.err.println("Skipping invalid RuleSet '" + rawRuleSet.get("name") + "' from file during load: " + e.getMessage());
                     }
                 }
             } catch (IOException e) {
@@ -340,13 +716,16 @@ public class RuleService {
     }
 
     private void persistRuleSetsToFile(List<RuleSet> ruleSetsToPersist) throws IOException {
-        Path rulesFilePath = Paths.get("src", "main", "resources", RULES_FILE_NAME);
+        Path rulesFilePath = rulesFilePath();
         Path parentDir = rulesFilePath.getParent();
         if (parentDir != null && !Files.exists(parentDir)) {
             Files.createDirectories(parentDir);
         }
         try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(rulesFilePath.toFile(), ruleSetsToPersist);
+            // Written aside and moved into place, so an open catalog keeps reading the file it indexed
+            Path tempFile = rulesFilePath.resolveSibling(rulesFilePath.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tempFile.toFile(), ruleSetsToPersist);
+            Files.move(tempFile, rulesFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             System.out.println("Successfully persisted rules to '" + rulesFilePath.toAbsolutePath() + "'.");
             System.out.println("Please rebuild/refresh your project for changes to be reflected in the classpath if running in certain IDEs.");
         } catch (IOException e) {
@@ -0,0 +1,399 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-only view of a large rules file that parses RuleSets on first use.
+ * <p>
+ * Opening the catalog streams the file once with a Jackson {@link JsonParser}, recording only each
+ * RuleSet's name and the byte range of its JSON object; no rules are converted or validated.
+ * {@link #get} reads a RuleSet's byte range back with a positional read, parses and validates it,
+ * and keeps the result in a least-recently-used cache bounded by an estimate of its heap size, so
+ * startup time and heap do not grow with the number of RuleSets that are never used. The cache is an
+ * access-ordered map: a lookup holds its lock only to move the entry to the recent end, and eviction
+ * drops entries from the eldest end, so neither depends on how many RuleSets are cached. Parsing runs
+ * outside the lock. The file must not be modified behind the catalog's back; edit it through
+ * {@link #rewrite}, or open a new catalog after rewriting it.
+ * <p>
+ * A name that appears more than once is served from its last entry, as with eager loading; the earlier
+ * entries are kept in the file on rewrite unless that name is the one edited.
+ */
+public final class RuleSetCatalog implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int ENTRY_OVERHEAD = 512;        // Rough bytes for the RuleSet, layout and map node headers
+    private static final int BYTES_PER_RULE = 160;        // Rule object, its strings and lists
+    private static final int BYTES_PER_POSITION = 64;     // Allowed-character bitmaps, template and checksum terms
+    private static final byte[] ARRAY_START = "[\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SEPARATOR = ",\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_END = "\n]\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Integer> indexByName; // Index of each name's last entry
+    private final List<String> sortedNames;
+    private final String[] entryNames; // Every entry in file order, including shadowed duplicates
+    private final long[] offsets;
+    private final int[] lengths;
+    private final Set<String> invalid = ConcurrentHashMap.newKeySet(); // Entries that failed to parse
+    private final long maxBytes;
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedRuleSet> cache = new LinkedHashMap<>(16, 0.75f, true); // Eldest first; guarded by cacheLock
+    private long cachedBytes; // Guarded by cacheLock
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder parseCount = new LongAdder();
+
+    private static final class CachedRuleSet {
+        private final RuleSet ruleSet;
+        private final long bytes;
+
+        private CachedRuleSet(RuleSet ruleSet, long bytes) {
+            this.ruleSet = ruleSet;
+            this.bytes = bytes;
+        }
+    }
+
+    private RuleSetCatalog(Path file, FileChannel channel, Map<String, Integer> indexByName,
+                           String[] entryNames, long[] offsets, int[] lengths, long maxBytes) {
+        this.file = file;
+        this.channel = channel;
+        this.indexByName = indexByName;
+        this.entryNames = entryNames;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.maxBytes = maxBytes;
+        List<String> names = new ArrayList<>(indexByName.keySet());
+        Collections.sort(names);
+        this.sortedNames = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Indexes a rules file: a JSON array of RuleSet objects, as written by {@link RuleService}.
+     * @param maxBytes estimated heap the parsed RuleSets may occupy before the least recently used are evicted
+     * @throws IOException if the file cannot be read or is not a JSON array of objects
+     */
+    public static RuleSetCatalog open(Path file, long maxBytes) throws IOException {
+        Map<String, Integer> indexByName = new HashMap<>();
+        String[] entryNames = new String[64];
+        long[] offsets = new long[64];
+        int[] lengths = new int[64];
+        int count = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+             JsonParser parser = new JsonFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Rules file " + file + " does not hold a JSON array.");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                long start = parser.currentTokenLocation().getByteOffset();
+                String name = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("name".equals(field) && value == JsonToken.VALUE_STRING) {
+                        name = parser.getText();
+                    } else {
+                        parser.skipChildren(); // Rules are not even tokenized into objects
+                    }
+                }
+                long end = parser.currentLocation().getByteOffset(); // Just past the closing brace
+                if (name == null) {
+                    System.err.println("Skipping a RuleSet without a name at byte " + start + " of " + file + ".");
+                    continue;
+                }
+                if (count == offsets.length) {
+                    entryNames = Arrays.copyOf(entryNames, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                    lengths = Arrays.copyOf(lengths, count * 2);
+                }
+                entryNames[count] = name;
+                offsets[count] = start;
+                lengths[count] = Math.toIntExact(end - start);
+                if (indexByName.put(name, count++) != null) { // A later duplicate wins, as with eager loading
+                    System.err.println("RuleSet '" + name + "' appears more than once in " + file + "; its last entry, at byte " + start + ", is used.");
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IOException("Unexpected " + token + " in rules file " + file + "; expected RuleSet objects.");
+            }
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new RuleSetCatalog(file, channel, indexByName, Arrays.copyOf(entryNames, count),
+                Arrays.copyOf(offsets, count), Arrays.copyOf(lengths, count), maxBytes);
+    }
+
+    /**
+     * @return the validated RuleSet, parsed on first use, or null if the name is unknown or its
+     *         entry is invalid (reported once on stderr).
+     */
+    public RuleSet get(String name) {
+        Integer index = indexByName.get(name);
+        if (index == null) {
+            return null;
+        }
+        CachedRuleSet cached;
+        cacheLock.lock();
+        try {
+            cached = cache.get(name); // Moves it to the most recently used end
+        } finally {
+            cacheLock.unlock();
+        }
+        if (cached != null) {
+            hitCount.increment();
+            return cached.ruleSet;
+        }
+        missCount.increment();
+        if (invalid.contains(name)) {
+            return null;
+        }
+
+        // Concurrent first uses of one name may both parse, and the first result is kept
+        RuleSet parsed;
+        try {
+            parsed = parse(name, index);
+        } catch (IOException | RuntimeException e) {
+            if (!channel.isOpen()) {
+                return null; // Closed by a concurrent reopen, not a broken entry; RuleService retries on the new catalog
+            }
+            System.err.println("Error processing or validating RuleSet '" + name + "' from catalog " + file + ": " + e.getMessage() + ". Skipping this ruleset.");
+            invalid.add(name);
+            return null;
+        }
+        parseCount.increment();
+        return putInCache(name, parsed);
+    }
+
+    private RuleSet putInCache(String name, RuleSet ruleSet) {
+        long cost = estimateBytes(ruleSet);
+        if (cost > maxBytes) {
+            return ruleSet; // Would evict everything else for one entry; served uncached
+        }
+        cacheLock.lock();
+        try {
+            CachedRuleSet existing = cache.putIfAbsent(name, new CachedRuleSet(ruleSet, cost));
+            if (existing != null) {
+                return existing.ruleSet;
+            }
+            cachedBytes += cost;
+            // Drops the least recently used entries until the cache fits its budget again
+            Iterator<CachedRuleSet> eldestFirst = cache.values().iterator();
+            while (cachedBytes > maxBytes) {
+                cachedBytes -= eldestFirst.next().bytes;
+                eldestFirst.remove();
+            }
+            return ruleSet;
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private RuleSet parse(String name, int index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(lengths[index]);
+        long position = offsets[index];
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Rules file " + file + " is shorter than when it was indexed.");
+            }
+        }
+        Map<String, Object> rawRuleSet = OBJECT_MAPPER.readValue(buffer.array(), new TypeReference<Map<String, Object>>() {});
+        if (!name.equals(rawRuleSet.get("name"))) {
+            throw new IOException("Rules file " + file + " changed since it was indexed.");
+        }
+        RuleSet ruleSet = RuleSetFiles.toRuleSet(rawRuleSet);
+        ruleSet.validateRules();
+        return ruleSet;
+    }
+
+    /**
+     * Writes the file again with the RuleSet {@code name} replaced by {@code replacement}, or left out when
+     * it is null, and returns a catalog of the new file. Every other entry is copied byte for byte and keeps
+     * its parsed RuleSet, so an edit parses and validates nothing but the replacement, which the caller has
+     * already validated. The new file is written aside and moved into place; this catalog keeps reading the
+     * file it indexed until it is closed. Earlier duplicates of other names are copied too and stay shadowed;
+     * those of {@code name} are left out, so a deleted RuleSet does not come back from one.
+     */
+    public RuleSetCatalog rewrite(String name, RuleSet replacement) throws IOException {
+        byte[] replacementJson = replacement != null ? OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(replacement) : null;
+        boolean replaced = false;
+
+        Map<String, Integer> newIndexByName = new HashMap<>();
+        String[] newEntryNames = new String[entryNames.length + 1];
+        long[] newOffsets = new long[entryNames.length + 1];
+        int[] newLengths = new int[entryNames.length + 1];
+        int count = 0;
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(out, ARRAY_START);
+            for (int index = 0; index < entryNames.length; index++) {
+                String entryName = entryNames[index];
+                boolean edited = entryName.equals(name);
+                if (edited && (replacementJson == null || indexByName.get(name) != index)) {
+                    continue; // Deleted, or a shadowed duplicate of the edited RuleSet
+                }
+                if (count > 0) {
+                    write(out, SEPARATOR);
+                }
+                newOffsets[count] = out.position();
+                if (edited) {
+                    write(out, replacementJson);
+                    replaced = true;
+                } else {
+                    copy(index, out);
+                }
+                newLengths[count] = Math.toIntExact(out.position() - newOffsets[count]);
+                newEntryNames[count] = entryName;
+                newIndexByName.put(entryName, count++);
+            }
+            if (replacementJson != null && !replaced) {
+                if (count > 0) {
+                    write(out, SEPARATOR);
+                }
+                newOffsets[count] = out.position();
+                write(out, replacementJson);
+                newLengths[count] = Math.toIntExact(out.position() - newOffsets[count]);
+                newEntryNames[count] = name;
+                newIndexByName.put(name, count++);
+            }
+            write(out, ARRAY_END);
+            out.force(true);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        RuleSetCatalog rewritten = new RuleSetCatalog(file, FileChannel.open(file, StandardOpenOption.READ), newIndexByName,
+                Arrays.copyOf(newEntryNames, count), Arrays.copyOf(newOffsets, count), Arrays.copyOf(newLengths, count), maxBytes);
+        cacheLock.lock();
+        try {
+            for (Map.Entry<String, CachedRuleSet> entry : cache.entrySet()) { // Eldest first, so the order carries over
+                if (!entry.getKey().equals(name)) {
+                    rewritten.cache.put(entry.getKey(), entry.getValue());
+                    rewritten.cachedBytes += entry.getValue().bytes;
+                }
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+        for (String invalidName : invalid) {
+            if (!invalidName.equals(name)) {
+                rewritten.invalid.add(invalidName);
+            }
+        }
+        if (replacement != null) {
+            rewritten.putInCache(name, replacement);
+        }
+        return rewritten;
+    }
+
+    private static void write(FileChannel out, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private void copy(int index, FileChannel out) throws IOException {
+        long position = offsets[index];
+        long end = position + lengths[index];
+        while (position < end) {
+            long copied = channel.transferTo(position, end - position, out);
+            if (copied <= 0) {
+                throw new EOFException("Rules file " + file + " is shorter than when it was indexed.");
+            }
+            position += copied;
+        }
+    }
+
+    static long estimateBytes(RuleSet ruleSet) {
+        return ENTRY_OVERHEAD + (long) BYTES_PER_RULE * ruleSet.getRules().size()
+                + (long) BYTES_PER_POSITION * ruleSet.getTotalBarcodeLength();
+    }
+
+    public boolean contains(String name) {
+        return indexByName.containsKey(name);
+    }
+
+    /**
+     * @return every indexed RuleSet name, sorted, including entries that turn out to be invalid when parsed.
+     */
+    public List<String> getNames() {
+        return sortedNames;
+    }
+
+    public int size() {
+        return sortedNames.size();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getCachedCount() {
+        cacheLock.lock();
+        try {
+            return cache.size();
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public long getCachedBytes() {
+        cacheLock.lock();
+        try {
+            return cachedBytes;
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
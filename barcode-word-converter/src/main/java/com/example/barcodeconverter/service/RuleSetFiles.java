@@ -0,0 +1,64 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How RuleSets are read back from the JSON files this application writes: rules.json, the catalog,
+ * RuleSet histories and replicated change files, and how files kept per RuleSet are named.
+ */
+public final class RuleSetFiles {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private RuleSetFiles() {
+    }
+
+    /**
+     * RuleSet names are free text; the key keeps file names portable, and the hash keeps names that
+     * differ only in replaced characters apart.
+     * @return the part of a file name that identifies the RuleSet, without an extension.
+     */
+    public static String fileKey(String ruleSetName) {
+        return ruleSetName.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(ruleSetName.hashCode());
+    }
+
+    /**
+     * Converts a RuleSet object as Jackson reads it into a map: "name", "rules" and an optional "version".
+     * @return the RuleSet, not yet validated.
+     * @throws IllegalArgumentException if the name or rules are missing or a rule cannot be converted.
+     */
+    public static RuleSet toRuleSet(Map<String, Object> rawRuleSet) {
+        Object name = rawRuleSet.get("name");
+        if (!(name instanceof String)) {
+            throw new IllegalArgumentException("RuleSet has no name.");
+        }
+        return new RuleSet((String) name, toRules(rawRuleSet.get("rules")), versionOf(rawRuleSet));
+    }
+
+    /**
+     * @return the rules of a raw "rules" list, in file order.
+     * @throws IllegalArgumentException if there are no rules or a rule cannot be converted.
+     */
+    public static List<BarcodeSegmentRule> toRules(Object rawRules) {
+        if (!(rawRules instanceof List) || ((List<?>) rawRules).isEmpty()) {
+            throw new IllegalArgumentException("RuleSet has no rules defined.");
+        }
+        List<BarcodeSegmentRule> rules = new ArrayList<>(((List<?>) rawRules).size());
+        for (Object rawRule : (List<?>) rawRules) {
+            rules.add(OBJECT_MAPPER.convertValue(rawRule, BarcodeSegmentRule.class));
+        }
+        return rules;
+    }
+
+    // RuleSets written before versioning have no "version" field and count as version 1
+    public static int versionOf(Map<String, Object> rawRuleSet) {
+        Object version = rawRuleSet.get("version");
+        return version instanceof Number ? ((Number) version).intValue() : 1;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Superseded versions of RuleSets, kept so that barcodes printed under an earlier layout still
+ * decode after the RuleSet is edited.
+ * <p>
+ * Each RuleSet's retained versions are an immutable array indexed by version number, replaced
+ * as a whole when a version is archived, so lookups by (name, version) are two array/map reads
+ * without locking. At most {@code max-versions} superseded versions are kept per RuleSet; the
+ * oldest are dropped first. Every RuleSet's history is stored in its own JSON file.
+ */
+@Service
+public class RuleSetHistory {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Path directory;
+    private final int maxVersions;
+    private final boolean autoDetect;
+    private final Map<String, Versions> histories = new ConcurrentHashMap<>();
+
+    /**
+     * Retained versions of one RuleSet; never modified after construction.
+     */
+    static final class Versions {
+        final int firstVersion;
+        final RuleSet[] byVersion; // Index version - firstVersion; null for versions never archived
+
+        Versions(int firstVersion, RuleSet[] byVersion) {
+            this.firstVersion = firstVersion;
+            this.byVersion = byVersion;
+        }
+
+        RuleSet get(int version) {
+            int index = version - firstVersion;
+            return index >= 0 && index < byVersion.length ? byVersion[index] : null;
+        }
+
+        int latestVersion() {
+            return firstVersion + byVersion.length - 1;
+        }
+    }
+
+    @Autowired
+    public RuleSetHistory(@Value("${barcode.rules.history.dir:data/rule-history}") String directory,
+                          @Value("${barcode.rules.history.max-versions:10}") int maxVersions,
+                          @Value("${barcode.rules.history.auto-detect:false}") boolean autoDetect) {
+        this.directory = Paths.get(directory);
+        this.maxVersions = Math.max(0, maxVersions);
+        this.autoDetect = autoDetect;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path file : files) {
+                try {
+                    load(file);
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Skipping unreadable RuleSet history file " + file.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        Map<String, Object> stored = OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<Map<String, Object>>() {});
+        String name = (String) stored.get("name");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> rawVersions = (List<Map<String, Object>>) stored.get("versions");
+        List<RuleSet> versions = new ArrayList<>();
+        for (Map<String, Object> rawVersion : rawVersions) {
+            int version = ((Number) rawVersion.get("version")).intValue();
+            RuleSet ruleSet = new RuleSet(name, RuleSetFiles.toRules(rawVersion.get("rules")), version);
+            ruleSet.validateRules();
+            versions.add(ruleSet);
+        }
+        if (!versions.isEmpty()) {
+            histories.put(name, toVersions(versions));
+            System.out.println("Loaded " + versions.size() + " earlier version(s) of RuleSet '" + name + "'.");
+        }
+    }
+
+    /**
+     * @return the retained version, or null if it was never archived or has been dropped.
+     */
+    public RuleSet get(String name, int version) {
+        Versions versions = histories.get(name);
+        return versions != null ? versions.get(version) : null;
+    }
+
+    /**
+     * @return the newest retained version whose number is {@code digits} modulo {@code modulus}
+     *         (the value a VERSION segment of that width holds), or null.
+     */
+    public RuleSet findByVersionDigits(String name, int digits, int modulus) {
+        Versions versions = histories.get(name);
+        if (versions == null || digits < 0 || modulus <= 0) {
+            return null;
+        }
+        int latest = versions.latestVersion();
+        for (int version = latest - Math.floorMod(latest - digits, modulus); version >= versions.firstVersion; version -= modulus) {
+            RuleSet ruleSet = versions.get(version);
+            if (ruleSet != null) {
+                return ruleSet;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the retained versions of the RuleSet, newest first.
+     */
+    public List<RuleSet> getVersionsNewestFirst(String name) {
+        Versions versions = histories.get(name);
+        if (versions == null) {
+            return Collections.emptyList();
+        }
+        List<RuleSet> result = new ArrayList<>(versions.byVersion.length);
+        for (int i = versions.byVersion.length - 1; i >= 0; i--) {
+            if (versions.byVersion[i] != null) {
+                result.add(versions.byVersion[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the highest version ever archived for the RuleSet, or 0.
+     */
+    public int getLatestVersion(String name) {
+        Versions versions = histories.get(name);
+        return versions != null ? versions.latestVersion() : 0;
+    }
+
+    /**
+     * Whether RuleSets without a VERSION segment may fall back to older versions by trying them in turn.
+     */
+    public boolean isAutoDetect() {
+        return autoDetect;
+    }
+
+    /**
+     * Retains a superseded version and persists the RuleSet's history, dropping the oldest versions
+     * beyond the retention limit.
+     */
+    public synchronized void archive(RuleSet superseded) throws IOException {
+        if (maxVersions == 0) {
+            return;
+        }
+        superseded.validateRules();
+        List<RuleSet> versions = new ArrayList<>(getVersionsNewestFirst(superseded.getName()));
+        Collections.reverse(versions);
+        versions.removeIf(existing -> existing.getVersion() == superseded.getVersion());
+        versions.add(superseded);
+        versions.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+        if (versions.size() > maxVersions) {
+            versions = new ArrayList<>(versions.subList(versions.size() - maxVersions, versions.size()));
+        }
+        persist(superseded.getName(), versions);
+        histories.put(superseded.getName(), toVersions(versions));
+    }
+
+    private static Versions toVersions(List<RuleSet> sortedVersions) {
+        int first = sortedVersions.get(0).getVersion();
+        int last = sortedVersions.get(sortedVersions.size() - 1).getVersion();
+        RuleSet[] byVersion = new RuleSet[last - first + 1];
+        for (RuleSet ruleSet : sortedVersions) {
+            byVersion[ruleSet.getVersion() - first] = ruleSet;
+        }
+        return new Versions(first, byVersion);
+    }
+
+    private void persist(String name, List<RuleSet> versions) throws IOException {
+        List<Map<String, Object>> rawVersions = new ArrayList<>(versions.size());
+        for (RuleSet ruleSet : versions) {
+            Map<String, Object> rawVersion = new LinkedHashMap<>();
+            rawVersion.put("version", ruleSet.getVersion());
+            rawVersion.put("rules", ruleSet.getRules());
+            rawVersions.add(rawVersion);
+        }
+        Map<String, Object> stored = new LinkedHashMap<>();
+        stored.put("name", name);
+        stored.put("versions", rawVersions);
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve(RuleSetFiles.fileKey(name) + ".json");
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), stored);
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeLayout;
+import com.example.barcodeconverter.model.RuleSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serial numbers for SEQUENCE segments, one durable {@link LeasedSequence} per RuleSet.
+ * <p>
+ * Numbers are taken lock-free from per-thread stripes, and only the block lease is written to disk,
+ * so issuing a barcode costs no disk write. A restart skips whatever was left of the leased blocks;
+ * numbers are never reused but may have gaps. With more than one stripe, numbers rise per stripe
+ * rather than globally; configure a single stripe where strict ordering matters more than contention.
+ */
+@Service
+public class SequenceService {
+
+    private static final String DIGITS_ATTRIBUTE = "digits";
+
+    private final Path stateDirectory;
+    private final int stripes;
+    private final int blockSize;
+    private final Map<String, LeasedSequence> sequences = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SequenceService(@Value("${barcode.sequence.state-dir:data/sequences}") String stateDirectory,
+                           @Value("${barcode.sequence.stripes:0}") int stripes,
+                           @Value("${barcode.sequence.block-size:1000}") int blockSize) {
+        this.stateDirectory = Paths.get(stateDirectory);
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 2;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @return the next unused serial number for the RuleSet's SEQUENCE segment.
+     * @throws IllegalStateException if the RuleSet has no SEQUENCE segment, the sequence is exhausted,
+     *                               or the stored sequence was created for a different segment length.
+     */
+    public long next(RuleSet ruleSet) {
+        return sequenceFor(ruleSet).next();
+    }
+
+    /**
+     * @return how many serial numbers have been leased for the RuleSet so far (issued or skipped after a restart).
+     */
+    public long getLeasedCount(RuleSet ruleSet) {
+        return sequenceFor(ruleSet).getLeasedUpTo();
+    }
+
+    private LeasedSequence sequenceFor(RuleSet ruleSet) {
+        LeasedSequence sequence = sequences.get(ruleSet.getName());
+        if (sequence == null) {
+            sequence = sequences.computeIfAbsent(ruleSet.getName(), name -> openSequence(ruleSet));
+        }
+        // The sequence outlives edits of the RuleSet; one that resized the SEQUENCE segment must not
+        // keep numbering at the old width
+        checkCapacity(ruleSet, sequence);
+        return sequence;
+    }
+
+    private LeasedSequence openSequence(RuleSet ruleSet) {
+        BarcodeLayout layout = ruleSet.getLayout();
+        if (!layout.hasSequence()) {
+            throw new IllegalStateException("RuleSet '" + ruleSet.getName() + "' has no SEQUENCE segment.");
+        }
+        long capacity = layout.getSequenceCapacity();
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("ruleSet", ruleSet.getName());
+        attributes.put(DIGITS_ATTRIBUTE, Long.toString(capacity - 1).length());
+        LeasedSequence sequence;
+        try {
+            sequence = LeasedSequence.open(stateDirectory.resolve(RuleSetFiles.fileKey(ruleSet.getName()) + ".json"), capacity, stripes, blockSize, attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open sequence state for RuleSet '" + ruleSet.getName() + "'", e);
+        }
+        checkCapacity(ruleSet, sequence);
+        return sequence;
+    }
+
+    private static void checkCapacity(RuleSet ruleSet, LeasedSequence sequence) {
+        BarcodeLayout layout = ruleSet.getLayout();
+        if (!layout.hasSequence()) {
+            throw new IllegalStateException("RuleSet '" + ruleSet.getName() + "' has no SEQUENCE segment.");
+        }
+        if (sequence.getLimit() != layout.getSequenceCapacity()) {
+            throw new IllegalStateException("Sequence state for RuleSet '" + ruleSet.getName() + "' was created for a " +
+                                            sequence.getAttributes().get(DIGITS_ATTRIBUTE) + "-digit SEQUENCE segment; refusing to number barcodes.");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.barcodeconverter.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one computation per key at a time: a caller that arrives while the same key is being
+ * computed waits for that computation and gets its result (or its exception) instead of starting another.
+ * Nothing is cached; once a computation finishes, the next caller for the key computes afresh.
+ * The computation runs on the first caller's thread.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            shared.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        computed.increment();
+        try {
+            V value = computation.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
+
+    /**
+     * @return computations started, i.e. callers that did the work themselves.
+     */
+    public long getComputedCount() {
+        return computed.sum();
+    }
+
+    /**
+     * @return callers that got another caller's result instead of computing.
+     */
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeLayout;
+import com.example.barcodeconverter.model.RuleSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out word-index tuples that have never been issued before for a RuleSet.
+ * <p>
+ * Rather than tracking used tuples in a set that grows (and gets slower to search) as the space
+ * fills up, each RuleSet gets a durable {@link LeasedSequence} over its combination space and a
+ * secret-keyed {@link FeistelPermutation} of that space. The n-th allocation is the tuple at
+ * position {@code permute(n)}: the used set is implicitly the sequence's prefix, so its state is
+ * a single number, allocation cost is constant however full the space is, and consecutive
+ * allocations do not look sequential.
+ * <p>
+ * The permutation key and the combination count are stored with the sequence. If the word list
+ * or the RuleSet's word segments change the count, allocation for that RuleSet is refused rather
+ * than risking repeats. Only the first occurrence of a word repeated in the word list counts, so
+ * every allocated tuple encodes back to the same barcode.
+ */
+@Service
+public class TupleAllocator {
+
+    private static final String KEY_ATTRIBUTE = "permutationKey";
+    private static final String RADICES_ATTRIBUTE = "radices";
+
+    private final ConversionService conversionService;
+    private final Path stateDirectory;
+    private final int stripes;
+    private final int blockSize;
+    private final Map<String, Allocator> allocators = new ConcurrentHashMap<>();
+
+    /**
+     * A freshly allocated tuple with its barcode and words.
+     */
+    public static final class Allocation {
+        private final long sequenceNumber;
+        private final int[] wordIndices;
+        private final String barcode;
+        private final List<String> words;
+
+        Allocation(long sequenceNumber, int[] wordIndices, String barcode, List<String> words) {
+            this.sequenceNumber = sequenceNumber;
+            this.wordIndices = wordIndices;
+            this.barcode = barcode;
+            this.words = words;
+        }
+
+        public long getSequenceNumber() {
+            return sequenceNumber;
+        }
+
+        public int[] getWordIndices() {
+            return wordIndices.clone();
+        }
+
+        public String getBarcode() {
+            return barcode;
+        }
+
+        public List<String> getWords() {
+            return words;
+        }
+    }
+
+    private static final class Allocator {
+        final LeasedSequence sequence;
+        final FeistelPermutation permutation;
+        final int[] radices;
+        final int[] wordIndexes;    // Digit value -> word index; unique words only
+        final int ruleSetVersion;   // The RuleSet version the radices were computed for
+
+        Allocator(LeasedSequence sequence, FeistelPermutation permutation, int[] radices, int[] wordIndexes, int ruleSetVersion) {
+            this.sequence = sequence;
+            this.permutation = permutation;
+            this.radices = radices;
+            this.wordIndexes = wordIndexes;
+            this.ruleSetVersion = ruleSetVersion;
+        }
+    }
+
+    @Autowired
+    public TupleAllocator(ConversionService conversionService,
+                          @Value("${barcode.allocator.state-dir:data/allocator}") String stateDirectory,
+                          @Value("${barcode.allocator.stripes:0}") int stripes,
+                          @Value("${barcode.allocator.block-size:1024}") int blockSize) {
+        this.conversionService = conversionService;
+        this.stateDirectory = Paths.get(stateDirectory);
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 2;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocates one unused tuple for the RuleSet.
+     * @throws IllegalStateException if the space is exhausted or the stored state no longer matches the RuleSet.
+     */
+    public Allocation allocate(RuleSet ruleSet) {
+        Allocator allocator = allocatorFor(ruleSet);
+        long sequenceNumber = allocator.sequence.next();
+        long combination = allocator.permutation.permute(sequenceNumber);
+
+        int[] radices = allocator.radices;
+        int[] indices = new int[radices.length];
+        for (int w = radices.length - 1; w >= 0; w--) {
+            indices[w] = allocator.wordIndexes[(int) (combination % radices[w])];
+            combination /= radices[w];
+        }
+        ConversionResult result = conversionService.indicesToBarcode(indices, ruleSet);
+        List<String> words = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            words.add(conversionService.getWord(index));
+        }
+        // indicesToBarcode has recorded the barcode in the issued-barcode filter
+        return new Allocation(sequenceNumber, indices, result.getBarcodeOrThrow(), words);
+    }
+
+    public List<Allocation> allocate(RuleSet ruleSet, int count) {
+        List<Allocation> allocations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            allocations.add(allocate(ruleSet));
+        }
+        return allocations;
+    }
+
+    /**
+     * @return how many tuples have been leased for the RuleSet so far (issued or skipped after a restart).
+     */
+    public long getLeasedCount(RuleSet ruleSet) {
+        return allocatorFor(ruleSet).sequence.getLeasedUpTo();
+    }
+
+    private Allocator allocatorFor(RuleSet ruleSet) {
+        Allocator allocator = allocators.get(ruleSet.getName());
+        if (allocator != null && allocator.ruleSetVersion == ruleSet.getVersion()) {
+            return allocator;
+        }
+        // First use, or the RuleSet was edited since: its word segments may have changed width
+        return allocators.compute(ruleSet.getName(), (name, existing) -> {
+            if (existing == null) {
+                return openAllocator(ruleSet);
+            }
+            if (existing.ruleSetVersion == ruleSet.getVersion()) {
+                return existing;
+            }
+            int[] wordIndexes = conversionService.getUniqueWordIndexes();
+            int[] radices = radicesFor(ruleSet, wordIndexes);
+            if (!Arrays.equals(radices, existing.radices)) {
+                throw new IllegalStateException("RuleSet '" + name + "' version " + ruleSet.getVersion() + " changed the combination space " +
+                                                "of its word segments from " + toList(existing.radices) + " to " + toList(radices) +
+                                                "; refusing to allocate.");
+            }
+            return new Allocator(existing.sequence, existing.permutation, radices, wordIndexes, ruleSet.getVersion());
+        });
+    }
+
+    // Per word segment, the number of distinct words whose index fits it. Repeated words are left out:
+    // they encode to their first occurrence, so two tuples differing only there would give the same barcode.
+    private static int[] radicesFor(RuleSet ruleSet, int[] wordIndexes) {
+        BarcodeLayout layout = ruleSet.getLayout();
+        int[] radices = new int[layout.getWordSegments().length];
+        for (int w = 0; w < radices.length; w++) {
+            int fitting = Arrays.binarySearch(wordIndexes, layout.getWordSegmentCapacity(w));
+            radices[w] = fitting >= 0 ? fitting : -fitting - 1;
+        }
+        return radices;
+    }
+
+    private Allocator openAllocator(RuleSet ruleSet) {
+        int[] wordIndexes = conversionService.getUniqueWordIndexes();
+        int[] radices = radicesFor(ruleSet, wordIndexes);
+        long space = 1;
+        for (int radix : radices) {
+            space = Math.multiplyExact(space, radix);
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("ruleSet", ruleSet.getName());
+        attributes.put(KEY_ATTRIBUTE, new SecureRandom().nextLong());
+        attributes.put(RADICES_ATTRIBUTE, toList(radices));
+        LeasedSequence sequence;
+        try {
+            sequence = LeasedSequence.open(stateDirectory.resolve(RuleSetFiles.fileKey(ruleSet.getName()) + ".json"), space, stripes, blockSize, attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open allocator state for RuleSet '" + ruleSet.getName() + "'", e);
+        }
+        if (sequence.getLimit() != space || !toList(radices).equals(sequence.getAttributes().get(RADICES_ATTRIBUTE))) {
+            throw new IllegalStateException("Allocator state for RuleSet '" + ruleSet.getName() + "' was created for a different " +
+                                            "combination space " + sequence.getAttributes().get(RADICES_ATTRIBUTE) + "; refusing to allocate.");
+        }
+        long key = ((Number) sequence.getAttributes().get(KEY_ATTRIBUTE)).longValue();
+        return new Allocator(sequence, new FeistelPermutation(space, key), radices, wordIndexes, ruleSet.getVersion());
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeLayout;
+import com.example.barcodeconverter.model.RuleSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Startup warm-up: runs synthetic encode, decode, validate and batch cycles against every loaded
+ * RuleSet, including the error paths of damaged and truncated barcodes and unknown words, so the JIT
+ * has compiled the conversion paths before the first scan arrives.
+ * <p>
+ * It runs on the {@link ApplicationReadyEvent}, before Spring Boot moves readiness to
+ * {@link ReadinessState#ACCEPTING_TRAFFIC}, so readiness (GET /ready, or an actuator readiness probe)
+ * reports ready only once warm-up is done. Decode latency is sampled before and after, and the duration
+ * and both samples are logged and kept for GET /ready.
+ * <p>
+ * Barcodes are built from the layout directly, with serial number 0 for SEQUENCE segments, and such
+ * RuleSets are not encoded, so warm-up never draws real serial numbers.
+ */
+@Service
+public class WarmupService {
+
+    private static final int BATCH_SIZE = 64;
+    private static final int LATENCY_SAMPLES = 1000;
+    private static final List<String> UNKNOWN_WORDS = List.of("\u0000", "\u0000", "\u0000", "\u0000");
+
+    private final ConversionService conversionService;
+    private final RuleService ruleService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int cycles;
+    private final int maxRuleSets;
+    private volatile Report report;
+
+    /**
+     * Outcome of the warm-up, as reported at GET /ready.
+     */
+    public static final class Report {
+        private final int ruleSets;
+        private final long cycles;
+        private final long durationMillis;
+        private final long coldDecodeP50Nanos;
+        private final long coldDecodeP99Nanos;
+        private final long warmDecodeP50Nanos;
+        private final long warmDecodeP99Nanos;
+
+        Report(int ruleSets, long cycles, long durationMillis, long[] cold, long[] warm) {
+            this.ruleSets = ruleSets;
+            this.cycles = cycles;
+            this.durationMillis = durationMillis;
+            this.coldDecodeP50Nanos = cold[0];
+            this.coldDecodeP99Nanos = cold[1];
+            this.warmDecodeP50Nanos = warm[0];
+            this.warmDecodeP99Nanos = warm[1];
+        }
+
+        public int getRuleSets() {
+            return ruleSets;
+        }
+
+        public long getCycles() {
+            return cycles;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getColdDecodeP50Nanos() {
+            return coldDecodeP50Nanos;
+        }
+
+        public long getColdDecodeP99Nanos() {
+            return coldDecodeP99Nanos;
+        }
+
+        public long getWarmDecodeP50Nanos() {
+            return warmDecodeP50Nanos;
+        }
+
+        public long getWarmDecodeP99Nanos() {
+            return warmDecodeP99Nanos;
+        }
+    }
+
+    @Autowired
+    public WarmupService(ConversionService conversionService, RuleService ruleService, ApplicationEventPublisher eventPublisher,
+                         @Value("${barcode.warmup.enabled:true}") boolean enabled,
+                         @Value("${barcode.warmup.cycles:10000}") int cycles,
+                         @Value("${barcode.warmup.max-rule-sets:100}") int maxRuleSets) {
+        this.conversionService = conversionService;
+        this.ruleService = ruleService;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.cycles = Math.max(0, cycles);
+        this.maxRuleSets = Math.max(0, maxRuleSets);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        // Readiness is refused until this listener returns; say so explicitly in case something published earlier
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        warmUp();
+    }
+
+    /**
+     * Runs the warm-up cycles; failures are logged and never stop the application from becoming ready.
+     */
+    public Report warmUp() {
+        long started = System.nanoTime();
+        List<RuleSet> ruleSets = new ArrayList<>();
+        for (String name : ruleService.getAllRuleSetNames()) {
+            if (ruleSets.size() >= maxRuleSets) {
+                break;
+            }
+            RuleSet ruleSet = ruleService.getRuleSetByName(name);
+            if (ruleSet != null) {
+                ruleSets.add(ruleSet);
+            }
+        }
+        if (ruleSets.isEmpty()) {
+            System.out.println("Warm-up skipped: no RuleSets loaded.");
+            report = new Report(0, 0, 0, new long[2], new long[2]);
+            return report;
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] cold = sampleDecodeLatency(ruleSets.get(0), random);
+        long completed = 0;
+        for (RuleSet ruleSet : ruleSets) {
+            try {
+                completed += runCycles(ruleSet, random);
+            } catch (RuntimeException e) {
+                System.err.println("Warm-up of RuleSet '" + ruleSet.getName() + "' stopped: " + e.getMessage());
+            }
+        }
+        long[] warm = sampleDecodeLatency(ruleSets.get(0), random);
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        report = new Report(ruleSets.size(), completed, durationMillis, cold, warm);
+        System.out.println("Warm-up finished: " + completed + " cycles over " + ruleSets.size() + " RuleSet(s) in " + durationMillis
+                + " ms. Decode p50/p99: cold " + cold[0] + "/" + cold[1] + " ns, warm " + warm[0] + "/" + warm[1] + " ns.");
+        return report;
+    }
+
+    private long runCycles(RuleSet ruleSet, SplittableRandom random) {
+        BarcodeLayout layout = ruleSet.getLayout();
+        // encode() only accepts RuleSets with exactly four word segments
+        boolean encodable = layout.getWordSegments().length == UNKNOWN_WORDS.size();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            int[] indices = randomIndices(layout, random);
+            String barcode = syntheticBarcode(layout, indices);
+            ConversionResult decoded = conversionService.decode(barcode, ruleSet);
+            conversionService.validate(barcode, ruleSet);
+            if (encodable && decoded.isSuccess() && !layout.hasSequence()) {
+                conversionService.encode(decoded.getWords(), ruleSet, false);
+            }
+
+            // Error paths: a damaged character, a truncated scan and an unknown word
+            char[] damaged = barcode.toCharArray();
+            damaged[random.nextInt(damaged.length)] = '#';
+            conversionService.decode(new String(damaged), ruleSet);
+            conversionService.validate(barcode.substring(1), ruleSet);
+            if (encodable) {
+                conversionService.encode(UNKNOWN_WORDS, ruleSet); // Fails before a serial number is drawn
+            }
+
+            batch.add(barcode);
+            if (batch.size() == BATCH_SIZE) {
+                conversionService.validateBatch(batch, ruleSet);
+                conversionService.decodeBatch(batch, ruleSet);
+                batch.clear();
+            }
+        }
+        return cycles;
+    }
+
+    private int[] randomIndices(BarcodeLayout layout, SplittableRandom random) {
+        int[] indices = new int[layout.getWordSegments().length];
+        for (int w = 0; w < indices.length; w++) {
+            indices[w] = random.nextInt(Math.max(1, Math.min(conversionService.getWordCount(), layout.getWordSegmentCapacity(w))));
+        }
+        return indices;
+    }
+
+    private static String syntheticBarcode(BarcodeLayout layout, int[] indices) {
+        char[] barcode = new char[layout.getTotalLength()];
+        layout.writeBarcode(indices, 0, 0L, barcode);
+        return new String(barcode);
+    }
+
+    // p50 and p99 of single decodes
+    private long[] sampleDecodeLatency(RuleSet ruleSet, SplittableRandom random) {
+        BarcodeLayout layout = ruleSet.getLayout();
+        long[] nanos = new long[LATENCY_SAMPLES];
+        for (int i = 0; i < LATENCY_SAMPLES; i++) {
+            String barcode = syntheticBarcode(layout, randomIndices(layout, random));
+            long start = System.nanoTime();
+            conversionService.decode(barcode, ruleSet);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new long[]{nanos[LATENCY_SAMPLES / 2], nanos[LATENCY_SAMPLES * 99 / 100]};
+    }
+
+    /**
+     * @return the finished warm-up's report, or null while warm-up has not run.
+     */
+    public Report getReport() {
+        return report;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.barcodeconverter.sync;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.RuleSetFiles;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One published RuleSet change: a saved version, or the deletion of a version. Stored as one JSON file named
+ * {@code <name key>@<version>@<d|s>@<node>.json}, so the order of changes to a RuleSet is known from file
+ * names alone. Changes are ordered by version, then a deletion after a save of the same version, then by node
+ * id: when two nodes save the same version concurrently every node settles on the same winner.
+ */
+final class RuleSetChange implements Comparable<RuleSetChange> {
+
+    static final String SUFFIX = ".json";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final int version;
+    private final boolean deleted;
+    private final String node;
+    private final List<BarcodeSegmentRule> rules; // Null for deletions, and when only the file name was parsed
+
+    RuleSetChange(String name, int version, boolean deleted, String node, List<BarcodeSegmentRule> rules) {
+        this.name = name;
+        this.version = version;
+        this.deleted = deleted;
+        this.node = node;
+        this.rules = rules;
+    }
+
+    static RuleSetChange saved(RuleSet ruleSet, String node) {
+        return new RuleSetChange(ruleSet.getName(), ruleSet.getVersion(), false, node, ruleSet.getRules());
+    }
+
+    static RuleSetChange deleted(RuleSet ruleSet, String node) {
+        return new RuleSetChange(ruleSet.getName(), ruleSet.getVersion(), true, node, null);
+    }
+
+    String fileName() {
+        return RuleSetFiles.fileKey(name) + "@" + String.format("%010d", version) + "@" + (deleted ? "d" : "s") + "@" + node + SUFFIX;
+    }
+
+    /**
+     * Parses the ordering fields of a change file name; the RuleSet name itself is only in the file.
+     * @return the name key, or null if the file is not a change file.
+     */
+    static String parseNameKey(String fileName) {
+        String[] parts = splitFileName(fileName);
+        return parts != null ? parts[0] : null;
+    }
+
+    static RuleSetChange parseFileName(String fileName) {
+        String[] parts = splitFileName(fileName);
+        if (parts == null) {
+            return null;
+        }
+        try {
+            return new RuleSetChange(null, Integer.parseInt(parts[1]), "d".equals(parts[2]), parts[3], null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String[] splitFileName(String fileName) {
+        if (!fileName.endsWith(SUFFIX) || fileName.startsWith(".")) {
+            return null; // Temporary files start with a dot
+        }
+        String[] parts = fileName.substring(0, fileName.length() - SUFFIX.length()).split("@", -1);
+        return parts.length == 4 && !parts[0].isEmpty() && !parts[3].isEmpty() ? parts : null;
+    }
+
+    void write(Path file) throws IOException {
+        Map<String, Object> stored = new LinkedHashMap<>();
+        stored.put("name", name);
+        stored.put("version", version);
+        stored.put("deleted", deleted);
+        stored.put("node", node);
+        stored.put("rules", rules);
+        OBJECT_MAPPER.writeValue(file.toFile(), stored);
+    }
+
+    static RuleSetChange read(Path file) throws IOException {
+        Map<String, Object> stored = OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<Map<String, Object>>() {});
+        Object name = stored.get("name");
+        Object version = stored.get("version");
+        Object node = stored.get("node");
+        if (!(name instanceof String) || !(version instanceof Number) || !(node instanceof String)) {
+            throw new IOException("Change file " + file + " lacks a name, version or node.");
+        }
+        boolean deleted = Boolean.TRUE.equals(stored.get("deleted"));
+        List<BarcodeSegmentRule> rules = null;
+        if (!deleted) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> rawRules = (List<Map<String, Object>>) stored.get("rules");
+            if (rawRules == null || rawRules.isEmpty()) {
+                throw new IOException("Change file " + file + " has no rules.");
+            }
+            rules = RuleSetFiles.toRules(rawRules);
+        }
+        return new RuleSetChange((String) name, ((Number) version).intValue(), deleted, (String) node, rules);
+    }
+
+    /**
+     * @return the RuleSet this change saves, unvalidated, or null for a deletion.
+     */
+    RuleSet toRuleSet() {
+        return deleted ? null : new RuleSet(name, rules, version);
+    }
+
+    @Override
+    public int compareTo(RuleSetChange other) {
+        int byVersion = Integer.compare(version, other.version);
+        if (byVersion != 0) {
+            return byVersion;
+        }
+        if (deleted != other.deleted) {
+            return deleted ? 1 : -1;
+        }
+        return node.compareTo(other.node);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    boolean isDeleted() {
+        return deleted;
+    }
+
+    String getNode() {
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return (deleted ? "delete of '" : "save of '") + name + "' v" + version + " by " + node;
+    }
+}
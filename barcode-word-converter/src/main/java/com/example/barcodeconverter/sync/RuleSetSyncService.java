@@ -0,0 +1,331 @@
+package com.example.barcodeconverter.sync;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.RuleService;
+import com.example.barcodeconverter.service.RuleSetFiles;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the RuleSets of several nodes in step through a shared directory (a local or NFS path).
+ * <p>
+ * Every local save that creates a version, and every local delete, is published as a change file
+ * (see {@link RuleSetChange}), written aside and moved into place so peers never read half a file.
+ * Peers notice new files through a {@link WatchService} and apply the newest change per RuleSet through
+ * {@link RuleService#applyReplicated}, which checks the order against local changes under the RuleService
+ * lock. Network file systems do not report other hosts' writes to a WatchService, so the directory is also
+ * listed every {@code rescan-seconds}; only file names not seen before are read.
+ * <p>
+ * Superseded change files beyond {@code keep-versions} per RuleSet are deleted by whichever node publishes
+ * the next change to that RuleSet, so a node starting later still finds every RuleSet's latest change.
+ */
+@Service
+public class RuleSetSyncService implements RuleService.ChangeListener {
+
+    private final RuleService ruleService;
+    private final boolean enabled;
+    private final Path directory;
+    private final String nodeId;
+    private final long rescanMillis;
+    private final int keepVersions;
+
+    // Newest change applied or published per RuleSet name; read and written under the RuleService lock
+    private final Map<String, RuleSetChange> latest = new ConcurrentHashMap<>();
+    private final Set<String> seenFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile long lastAppliedAt;
+    private volatile WatchService watchService;
+    private volatile Thread watcher;
+    private volatile boolean running;
+
+    @Autowired
+    public RuleSetSyncService(RuleService ruleService,
+                              @Value("${barcode.sync.enabled:false}") boolean enabled,
+                              @Value("${barcode.sync.dir:data/ruleset-sync}") String directory,
+                              @Value("${barcode.sync.node-id:}") String nodeId,
+                              @Value("${barcode.sync.rescan-seconds:30}") long rescanSeconds,
+                              @Value("${barcode.sync.keep-versions:20}") int keepVersions) {
+        this.ruleService = ruleService;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.nodeId = (nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId.trim()).replaceAll("[^A-Za-z0-9._-]", "_");
+        this.rescanMillis = Math.max(1, rescanSeconds) * 1000;
+        this.keepVersions = Math.max(1, keepVersions);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "node";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        ruleService.addChangeListener(this);
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        running = true;
+        rescan(); // Catch up with changes published while this node was down
+        watcher = new Thread(this::watchLoop, "ruleset-sync-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        System.out.println("RuleSet sync enabled as node '" + nodeId + "' on " + directory.toAbsolutePath() + ".");
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        running = false;
+        WatchService current = watchService;
+        if (current != null) {
+            current.close(); // Wakes the watcher
+        }
+        Thread thread = watcher;
+        if (thread != null) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void watchLoop() {
+        long nextRescan = System.currentTimeMillis() + rescanMillis;
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(Math.max(1, nextRescan - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    rescan();
+                    nextRescan = System.currentTimeMillis() + rescanMillis;
+                    continue;
+                }
+                boolean overflow = false;
+                List<Path> changed = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        changed.add(directory.resolve((Path) event.context()));
+                    }
+                }
+                key.reset();
+                if (overflow) {
+                    rescan();
+                } else {
+                    apply(changed);
+                }
+            } catch (ClosedWatchServiceException e) {
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("RuleSet sync watcher error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lists the directory and applies every change file not seen before.
+     */
+    public void rescan() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + RuleSetChange.SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list RuleSet sync directory " + directory + ": " + e.getMessage());
+            return;
+        }
+        apply(files);
+    }
+
+    // Only the newest unseen change per RuleSet is read; older ones are superseded by it
+    private void apply(List<Path> files) {
+        Map<String, Path> newestByKey = new HashMap<>();
+        Map<String, RuleSetChange> newestOrder = new HashMap<>();
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            RuleSetChange order = RuleSetChange.parseFileName(fileName);
+            if (order == null || seenFiles.contains(fileName)) {
+                continue;
+            }
+            String key = RuleSetChange.parseNameKey(fileName);
+            RuleSetChange newest = newestOrder.get(key);
+            if (newest == null || order.compareTo(newest) > 0) {
+                if (newest != null) {
+                    seenFiles.add(newestByKey.get(key).getFileName().toString());
+                }
+                newestOrder.put(key, order);
+                newestByKey.put(key, file);
+            } else {
+                seenFiles.add(fileName);
+            }
+        }
+        for (Path file : newestByKey.values()) {
+            applyFile(file);
+        }
+    }
+
+    private void applyFile(Path file) {
+        String fileName = file.getFileName().toString();
+        RuleSetChange change;
+        try {
+            change = RuleSetChange.read(file);
+        } catch (NoSuchFileException e) {
+            seenFiles.add(fileName); // Pruned by a peer after a newer change
+            return;
+        } catch (IOException e) {
+            failedCount.incrementAndGet();
+            System.err.println("Could not read RuleSet change " + file + ": " + e.getMessage() + ". Retrying on the next rescan.");
+            return;
+        }
+        seenFiles.add(fileName);
+        try {
+            boolean applied = ruleService.applyReplicated(change.getName(), change.toRuleSet(),
+                    current -> isNewer(change, current));
+            if (applied) {
+                latest.put(change.getName(), change);
+                appliedCount.incrementAndGet();
+                lastAppliedAt = System.currentTimeMillis();
+                System.out.println("Applied RuleSet " + change + ".");
+            }
+        } catch (IOException | RuntimeException e) {
+            failedCount.incrementAndGet();
+            System.err.println("Could not apply RuleSet " + change + ": " + e.getMessage());
+        }
+    }
+
+    // Called under the RuleService lock; the current RuleSet counts as an anonymous change if none is recorded
+    private boolean isNewer(RuleSetChange change, RuleSet current) {
+        RuleSetChange known = latest.get(change.getName());
+        if (known == null || (current != null && current.getVersion() > known.getVersion())) {
+            known = current != null ? new RuleSetChange(current.getName(), current.getVersion(), false, "", null) : null;
+        }
+        return known == null || change.compareTo(known) > 0;
+    }
+
+    @Override
+    public void ruleSetSaved(RuleSet saved) {
+        publish(RuleSetChange.saved(saved, nodeId));
+    }
+
+    @Override
+    public void ruleSetDeleted(RuleSet deleted) {
+        publish(RuleSetChange.deleted(deleted, nodeId));
+    }
+
+    // Called under the RuleService lock; a failure leaves this node's change local and is reported, not thrown
+    private void publish(RuleSetChange change) {
+        latest.put(change.getName(), change);
+        String fileName = change.fileName();
+        seenFiles.add(fileName);
+        Path file = directory.resolve(fileName);
+        Path temp = directory.resolve("." + fileName + ".tmp");
+        try {
+            change.write(temp);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            publishedCount.incrementAndGet();
+        } catch (IOException e) {
+            failedCount.incrementAndGet();
+            System.err.println("Could not publish RuleSet " + change + " to " + directory + ": " + e.getMessage());
+            return;
+        }
+        prune(RuleSetFiles.fileKey(change.getName()));
+    }
+
+    private void prune(String nameKey) {
+        List<String> fileNames = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + RuleSetChange.SUFFIX)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                if (nameKey.equals(RuleSetChange.parseNameKey(fileName)) && RuleSetChange.parseFileName(fileName) != null) {
+                    fileNames.add(fileName);
+                }
+            }
+        } catch (IOException e) {
+            return; // Pruned next time
+        }
+        if (fileNames.size() <= keepVersions) {
+            return;
+        }
+        fileNames.sort(Comparator.comparing(RuleSetChange::parseFileName));
+        for (String fileName : fileNames.subList(0, fileNames.size() - keepVersions)) {
+            try {
+                Files.deleteIfExists(directory.resolve(fileName));
+            } catch (IOException e) {
+                // Another node may be pruning too
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return when a peer's change was last applied here, epoch millis, or 0.
+     */
+    public long getLastAppliedAt() {
+        return lastAppliedAt;
+    }
+}
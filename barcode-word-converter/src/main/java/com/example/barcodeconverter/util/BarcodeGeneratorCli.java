@@ -0,0 +1,137 @@
+package com.example.barcodeconverter.util;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.BarcodeGenerationService;
+import com.example.barcodeconverter.service.ConversionService;
+import com.example.barcodeconverter.service.RuleService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Command-line front end of {@link BarcodeGenerationService}, using the bundled word list and rules.json.
+ * <pre>
+ *   BarcodeGeneratorCli [--rule-set NAME] [--format csv|ndjson] [--out FILE]
+ *                       (--range START COUNT | --random SEED COUNT | --tuples FILE)
+ * </pre>
+ * A tuples file holds one tuple per line, words separated by whitespace or commas.
+ * Without --out the barcodes are written to standard output.
+ */
+public class BarcodeGeneratorCli {
+
+    public static void main(String[] args) {
+        try {
+            run(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error generating barcodes: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void run(String[] args) throws IOException {
+        String ruleSetName = null;
+        String outFile = null;
+        BarcodeGenerationService.OutputFormat format = BarcodeGenerationService.OutputFormat.CSV;
+        String mode = null;
+        List<String> modeArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rule-set":
+                    ruleSetName = requireValue(args, ++i);
+                    break;
+                case "--format":
+                    format = BarcodeGenerationService.OutputFormat.valueOf(requireValue(args, ++i).toUpperCase());
+                    break;
+                case "--out":
+                    outFile = requireValue(args, ++i);
+                    break;
+                case "--range":
+                case "--random":
+                    mode = args[i];
+                    modeArgs = Arrays.asList(requireValue(args, ++i), requireValue(args, ++i));
+                    break;
+                case "--tuples":
+                    mode = args[i];
+                    modeArgs = List.of(requireValue(args, ++i));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (mode == null) {
+            throw new IllegalArgumentException("One of --range START COUNT, --random SEED COUNT or --tuples FILE is required.");
+        }
+
+        // The services log to System.out while loading; keep that out of generated output on stdout
+        PrintStream stdout = System.out;
+        ConversionService conversionService = new ConversionService();
+        RuleService ruleService = new RuleService();
+        RuleSet ruleSet;
+        System.setOut(System.err);
+        try {
+            conversionService.init();
+            ruleService.init();
+            ruleSet = ruleService.getRuleSetByName(ruleSetName);
+        } finally {
+            System.setOut(stdout);
+        }
+        if (ruleSet == null) {
+            throw new IllegalArgumentException("RuleSet '" + ruleSetName + "' not found.");
+        }
+
+        BarcodeGenerationService generationService = new BarcodeGenerationService(conversionService, 0, Long.MAX_VALUE);
+        try {
+            BarcodeGenerationService.Generation generation;
+            switch (mode) {
+                case "--range":
+                    generation = generationService.prepareRange(ruleSet, Long.parseLong(modeArgs.get(0)), Long.parseLong(modeArgs.get(1)), format);
+                    break;
+                case "--random":
+                    generation = generationService.prepareRandom(ruleSet, Long.parseLong(modeArgs.get(0)), Long.parseLong(modeArgs.get(1)), format);
+                    break;
+                default:
+                    generation = generationService.prepareTuples(ruleSet, readTuples(Paths.get(modeArgs.get(0))), format);
+                    break;
+            }
+            long start = System.nanoTime();
+            try (OutputStream out = outFile != null
+                    ? new BufferedOutputStream(Files.newOutputStream(Paths.get(outFile)), 1 << 16)
+                    : new BufferedOutputStream(stdout, 1 << 16)) {
+                generation.writeTo(out);
+            }
+            System.err.printf("Generated %d barcodes with RuleSet '%s' in %d ms.%n",
+                              generation.getCount(), ruleSet.getName(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            generationService.shutdown();
+        }
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static List<List<String>> readTuples(Path file) throws IOException {
+        try (var lines = Files.lines(file)) {
+            return lines.map(String::trim)
+                        .filter(line -> !line.isEmpty())
+                        .map(line -> Arrays.asList(line.split("[\\s,]+")))
+                        .collect(Collectors.toList());
+        }
+    }
+}
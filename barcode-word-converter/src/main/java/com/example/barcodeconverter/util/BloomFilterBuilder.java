@@ -0,0 +1,129 @@
+package com.example.barcodeconverter.util;
+
+import com.example.barcodeconverter.service.BarcodeBloomFilter;
+import com.example.barcodeconverter.service.IssuedBarcodeRegistry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline (re)build of an issued-barcode filter from lists of issued barcodes.
+ * <pre>
+ *   BloomFilterBuilder --rule-set NAME [--dir DIR | --out FILE] [--expected N] [--fpp RATE] [FILE...]
+ * </pre>
+ * Input files hold one barcode per line; CSV output of BarcodeGeneratorCli is accepted as is
+ * (the header is skipped and only the first column is read). Without input files barcodes are
+ * read from standard input, and then --expected is required. Without --out the filter is written
+ * to DIR (default data/issued) under the name the application looks for. The new file replaces
+ * the old one atomically; restart the application to map it.
+ */
+public class BloomFilterBuilder {
+
+    public static void main(String[] args) {
+        try {
+            run(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error building filter: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void run(String[] args) throws IOException {
+        String ruleSetName = null;
+        String directory = "data/issued";
+        String outFile = null;
+        long expected = 0;
+        double falsePositiveRate = 0.001;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rule-set":
+                    ruleSetName = requireValue(args, ++i);
+                    break;
+                case "--dir":
+                    directory = requireValue(args, ++i);
+                    break;
+                case "--out":
+                    outFile = requireValue(args, ++i);
+                    break;
+                case "--expected":
+                    expected = Long.parseLong(requireValue(args, ++i));
+                    break;
+                case "--fpp":
+                    falsePositiveRate = Double.parseDouble(requireValue(args, ++i));
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                    }
+                    inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (ruleSetName == null || ruleSetName.isEmpty()) {
+            throw new IllegalArgumentException("--rule-set NAME is required; the filter only gates the RuleSet it is built for.");
+        }
+        if (expected <= 0) {
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("--expected N is required when reading from standard input.");
+            }
+            for (Path input : inputs) {
+                try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                    while (reader.readLine() != null) {
+                        expected++;
+                    }
+                }
+            }
+            expected = Math.max(1, expected); // Sized for exactly the current list; pass --expected to leave room for growth
+        }
+
+        Path target = outFile != null ? Paths.get(outFile) : Paths.get(directory).resolve(IssuedBarcodeRegistry.fileNameFor(ruleSetName));
+        long start = System.nanoTime();
+        long read = 0;
+        try (BarcodeBloomFilter filter = BarcodeBloomFilter.create(target, ruleSetName, expected, falsePositiveRate)) {
+            if (inputs.isEmpty()) {
+                read += addAll(filter, new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+            }
+            for (Path input : inputs) {
+                try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                    read += addAll(filter, reader);
+                }
+            }
+            System.err.printf("Built filter for RuleSet '%s' from %d barcodes (%d distinct) into %s: %d KB, %d probes, in %d ms.%n",
+                              ruleSetName, read, filter.getInsertionCount(), target, filter.getBitCount() / 8 / 1024,
+                              filter.getProbeCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static long addAll(BarcodeBloomFilter filter, BufferedReader reader) throws IOException {
+        long count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int comma = line.indexOf(',');
+            String barcode = (comma >= 0 ? line.substring(0, comma) : line).trim();
+            if (barcode.isEmpty() || barcode.equals("barcode")) { // Blank line or CSV header
+                continue;
+            }
+            filter.put(barcode);
+            count++;
+        }
+        return count;
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
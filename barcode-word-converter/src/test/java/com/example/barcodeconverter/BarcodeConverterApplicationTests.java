@@ -1,13 +1,32 @@
 package com.example.barcodeconverter;
 
+import jakarta.servlet.MultipartConfigElement;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest
 class BarcodeConverterApplicationTests {
 
+	@Autowired
+	private MultipartProperties multipartProperties;
+
+	@Autowired
+	private MultipartConfigElement multipartConfigElement;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void onlyTheContainerGetsTheLargeUploadLimit() {
+		assertEquals(DataSize.ofMegabytes(10), multipartProperties.getMaxRequestSize());
+		assertEquals(DataSize.ofMegabytes(512).toBytes(), multipartConfigElement.getMaxRequestSize());
+		assertEquals(DataSize.ofMegabytes(512).toBytes(), multipartConfigElement.getMaxFileSize());
+	}
+
 }
@@ -0,0 +1,137 @@
+package com.example.barcodeconverter.benchmark;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import com.example.barcodeconverter.service.ConversionResult;
+import com.example.barcodeconverter.service.ConversionService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Simple micro-benchmark of the conversion hot paths. It is not a unit test (surefire does not
+ * pick it up); run it manually after compiling the tests:
+ * <pre>
+ *   mvn -q test-compile
+ *   java -cp target/classes:target/test-classes com.example.barcodeconverter.benchmark.ConversionBenchmark
+ * </pre>
+ * Each case runs a few warm-up rounds before the measured rounds; the best and average
+ * nanoseconds per operation are printed.
+ */
+public class ConversionBenchmark {
+
+    private static final int BARCODE_COUNT = 100_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final double INVALID_FRACTION = 0.10; // Damaged labels
+
+    static volatile long sink; // Keeps the JIT from discarding results
+
+    public static void main(String[] args) throws Exception {
+        ConversionService conversionService = new ConversionService();
+        conversionService.init();
+        RuleSet ruleSet = createDefaultRuleSet();
+        String[] barcodes = createBarcodes(new SplittableRandom(42), BARCODE_COUNT);
+
+        benchmark("barcodeToWords (exceptions)", barcodes.length, () -> {
+            long acc = 0;
+            for (String barcode : barcodes) {
+                try {
+                    acc += conversionService.barcodeToWords(barcode, ruleSet).size();
+                } catch (IllegalArgumentException e) {
+                    acc += e.getMessage().length();
+                }
+            }
+            return acc;
+        });
+        benchmark("decode (result objects)", barcodes.length, () -> {
+            long acc = 0;
+            for (String barcode : barcodes) {
+                ConversionResult result = conversionService.decode(barcode, ruleSet);
+                acc += result.isSuccess() ? result.getWords().size() : result.getPosition();
+            }
+            return acc;
+        });
+        benchmark("validate (no words)", barcodes.length, () -> {
+            long acc = 0;
+            for (String barcode : barcodes) {
+                ConversionResult result = conversionService.validate(barcode, ruleSet);
+                acc += result.isSuccess() ? 1 : result.getPosition();
+            }
+            return acc;
+        });
+        List<String> batch = Arrays.asList(barcodes);
+        benchmark("validateBatch (column kernel)", barcodes.length, () -> {
+            long acc = 0;
+            for (ConversionResult result : conversionService.validateBatch(batch, ruleSet)) {
+                acc += result.isSuccess() ? 1 : result.getPosition();
+            }
+            return acc;
+        });
+        benchmark("decodeBatch (column kernel)", barcodes.length, () -> {
+            long acc = 0;
+            for (ConversionResult result : conversionService.decodeBatch(batch, ruleSet)) {
+                acc += result.isSuccess() ? result.getWords().size() : result.getPosition();
+            }
+            return acc;
+        });
+    }
+
+    interface Round {
+        long run();
+    }
+
+    static void benchmark(String name, int opsPerRound, Round round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += round.run();
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += round.run();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-32s best %8.1f ns/op   avg %8.1f ns/op%n", name,
+                          (double) best / opsPerRound, (double) total / MEASURED_ROUNDS / opsPerRound);
+    }
+
+    /**
+     * Same layout as the shipped "default-20char" RuleSet: N4 T N4 [EXY] N4 B64(2) N4 T.
+     */
+    static RuleSet createDefaultRuleSet() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 1, SegmentType.STATIC, "T", false));
+        rules.add(new BarcodeSegmentRule(2, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(3, 1, SegmentType.STATIC_OR, Arrays.asList("E", "X", "Y"), false));
+        rules.add(new BarcodeSegmentRule(4, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(5, 2, SegmentType.BASE64, (String) null, false));
+        rules.add(new BarcodeSegmentRule(6, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(7, 1, SegmentType.STATIC, "T", false));
+        RuleSet ruleSet = new RuleSet("default-20char", rules);
+        ruleSet.validateRules();
+        return ruleSet;
+    }
+
+    static String[] createBarcodes(SplittableRandom random, int count) {
+        String[] barcodes = new String[count];
+        for (int i = 0; i < count; i++) {
+            String barcode = String.format("%04dT%04dE%04dAA%04dT",
+                    random.nextInt(9000), random.nextInt(9000), random.nextInt(9000), random.nextInt(9000));
+            if (random.nextDouble() < INVALID_FRACTION) {
+                // Flip one character to something no segment accepts
+                char[] chars = barcode.toCharArray();
+                chars[random.nextInt(chars.length)] = '#';
+                barcode = new String(chars);
+            }
+            barcodes[i] = barcode;
+        }
+        return barcodes;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.barcodeconverter.benchmark;
+
+import com.example.barcodeconverter.dto.ConversionJsonCodec;
+import com.example.barcodeconverter.dto.ConversionRequest;
+import com.example.barcodeconverter.dto.ConversionResponse;
+import com.example.barcodeconverter.service.ConversionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the /api/convert body codec with Jackson databind, the converter it replaces. Run it like
+ * {@link ConversionBenchmark}:
+ * <pre>
+ *   mvn -q test-compile
+ *   java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.example.barcodeconverter.benchmark.JsonCodecBenchmark
+ * </pre>
+ */
+public class JsonCodecBenchmark {
+
+    private static final int MESSAGE_COUNT = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        ConversionService conversionService = new ConversionService();
+        conversionService.init();
+        List<String> dictionary = new ArrayList<>();
+        for (int i = 0; i < conversionService.getWordCount(); i++) {
+            dictionary.add(conversionService.getWord(i));
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        ConversionJsonCodec codec = new ConversionJsonCodec(objectMapper.getFactory(), dictionary);
+
+        SplittableRandom random = new SplittableRandom(42);
+        String[] barcodes = ConversionBenchmark.createBarcodes(random, MESSAGE_COUNT);
+        byte[][] requests = new byte[MESSAGE_COUNT][];
+        ConversionResponse[] responses = new ConversionResponse[MESSAGE_COUNT];
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            requests[i] = ("{\"ruleSetName\":\"default-20char\",\"barcode\":\"" + barcodes[i] + "\"}").getBytes(StandardCharsets.UTF_8);
+            List<String> words = new ArrayList<>(4);
+            for (int w = 0; w < 4; w++) {
+                words.add(dictionary.get(random.nextInt(dictionary.size())));
+            }
+            responses[i] = ConversionResponse.successWords(words);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+        ConversionBenchmark.benchmark("read request (databind)", MESSAGE_COUNT, () -> {
+            long acc = 0;
+            try {
+                for (byte[] request : requests) {
+                    acc += objectMapper.readValue(new ByteArrayInputStream(request), ConversionRequest.class).getBarcode().length();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return acc;
+        });
+        ConversionBenchmark.benchmark("read request (codec)", MESSAGE_COUNT, () -> {
+            long acc = 0;
+            try {
+                for (byte[] request : requests) {
+                    acc += codec.readRequest(new ByteArrayInputStream(request)).getBarcode().length();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return acc;
+        });
+        ConversionBenchmark.benchmark("write response (databind)", MESSAGE_COUNT, () -> {
+            long acc = 0;
+            try {
+                for (ConversionResponse response : responses) {
+                    out.reset();
+                    objectMapper.writeValue(out, response);
+                    acc += out.size();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return acc;
+        });
+        ConversionBenchmark.benchmark("write response (codec)", MESSAGE_COUNT, () -> {
+            long acc = 0;
+            try {
+                for (ConversionResponse response : responses) {
+                    out.reset();
+                    codec.writeResponse(response, out);
+                    acc += out.size();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return acc;
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.barcodeconverter.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadLimitFilterTest {
+
+    private static final long LIMIT = 1000;
+
+    private final UploadLimitFilter filter = new UploadLimitFilter(LIMIT, List.of("/admin/rules/impact", " /api/jobs"));
+
+    @Test
+    void multipartAboveTheDefaultLimit_isRefusedOutsideTheLargeUploadPaths() throws Exception {
+        assertEquals(413, run(multipart("/admin/rules/save", LIMIT + 1)).getStatus());
+        assertEquals(200, run(multipart("/admin/rules/save", LIMIT)).getStatus());
+
+        assertEquals(200, run(multipart("/api/jobs", 100 * LIMIT)).getStatus());
+        assertEquals(200, run(multipart("/admin/rules/impact", 100 * LIMIT)).getStatus());
+    }
+
+    @Test
+    void multipartOfUnknownLength_needsContentLengthOutsideTheLargeUploadPaths() throws Exception {
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/admin/rules/save");
+        chunked.setContentType("multipart/form-data; boundary=x");
+        assertEquals(411, run(chunked).getStatus());
+
+        chunked.setRequestURI("/api/jobs");
+        assertEquals(200, run(chunked).getStatus());
+    }
+
+    @Test
+    void nonMultipartRequests_areNotChecked() throws Exception {
+        MockHttpServletRequest json = new MockHttpServletRequest("POST", "/api/convert");
+        json.setContentType("application/json");
+        json.setContent(new byte[(int) LIMIT * 2]);
+        assertEquals(200, run(json).getStatus());
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertEquals(response.getStatus() == 200, chain.getRequest() != null);
+        return response;
+    }
+
+    private static MockHttpServletRequest multipart(String path, long length) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("multipart/form-data; boundary=x");
+        request.setContent(new byte[(int) length]);
+        return request;
+    }
+}
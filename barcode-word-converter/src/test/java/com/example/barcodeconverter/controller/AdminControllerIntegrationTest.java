@@ -0,0 +1,185 @@
+package com.example.barcodeconverter.controller;
+
+import com.example.barcodeconverter.history.ConversionHistoryLog;
+import com.example.barcodeconverter.service.ConversionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdminControllerIntegrationTest {
+
+    private static final String ADMIN_AUTH = "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConversionHistoryLog historyLog;
+
+    @Autowired
+    private ConversionService conversionService;
+
+    @Test
+    void editForm_showsChecksumFieldsOfBundledRuleSet() throws Exception {
+        mockMvc.perform(get("/admin/rules/edit").param("name", "luhn-21char").header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("name=\"displayRules[7].checksumAlgorithm\"")))
+                .andExpect(content().string(containsString("<option value=\"LUHN\" selected=\"selected\">")))
+                .andExpect(content().string(containsString("name=\"displayRules[7].checksumOver\"")));
+    }
+
+    @Test
+    void saveRuleSet_bindsChecksumAlgorithmAndCoveredOrders() throws Exception {
+        // Order 1 is STATIC, so validation fails before anything is written to rules.json
+        mockMvc.perform(post("/admin/rules/save").header("Authorization", ADMIN_AUTH)
+                        .param("name", "checksum-form-test")
+                        .param("displayRules[0].length", "4").param("displayRules[0].type", "NUMERIC").param("displayRules[0].mapsToWord", "true")
+                        .param("displayRules[1].length", "1").param("displayRules[1].type", "STATIC").param("displayRules[1].staticValue", "T")
+                        .param("displayRules[2].length", "4").param("displayRules[2].type", "NUMERIC").param("displayRules[2].mapsToWord", "true")
+                        .param("displayRules[3].length", "4").param("displayRules[3].type", "NUMERIC").param("displayRules[3].mapsToWord", "true")
+                        .param("displayRules[4].length", "4").param("displayRules[4].type", "NUMERIC").param("displayRules[4].mapsToWord", "true")
+                        .param("displayRules[5].length", "2").param("displayRules[5].type", "CHECKSUM")
+                        .param("displayRules[5].checksumAlgorithm", "MOD97").param("displayRules[5].checksumOver", "0,1"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("errorMessage", containsString("covers order 1, which is not a NUMERIC or SEQUENCE segment")));
+    }
+
+    @Test
+    void listRuleSets_searchesAndPaginates() throws Exception {
+        mockMvc.perform(get("/admin/rules").param("q", "char").param("size", "1").header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("default-20char")))
+                .andExpect(content().string(not(containsString("luhn-21char</td>"))))
+                .andExpect(content().string(containsString("page=1")));
+
+        mockMvc.perform(get("/admin/rules").param("q", "no-such-ruleset").header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("No rule sets match")));
+
+        mockMvc.perform(get("/admin/rules").param("page", String.valueOf(Integer.MAX_VALUE)).param("size", "100").header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("page", Integer.MAX_VALUE / 100 - 1))
+                .andExpect(model().attribute("hasNext", false))
+                .andExpect(content().string(containsString("No rule sets found")));
+    }
+
+    @Test
+    void analyzeImpact_comparesFormRulesWithSavedRuleSet() throws Exception {
+        // default-20char with its trailing STATIC changed from T to U; nothing is saved
+        MockMultipartFile corpus = new MockMultipartFile("corpus", "corpus.txt", "text/plain",
+                "0001T0002E0003AA0004T\n0001T0002X0003QQ0004U\n\nnot-a-barcode\n".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(multipart("/admin/rules/impact").file(corpus).header("Authorization", ADMIN_AUTH)
+                        .param("name", "default-20char")
+                        .param("displayRules[0].length", "4").param("displayRules[0].type", "NUMERIC").param("displayRules[0].mapsToWord", "true")
+                        .param("displayRules[1].length", "1").param("displayRules[1].type", "STATIC").param("displayRules[1].staticValue", "T")
+                        .param("displayRules[2].length", "4").param("displayRules[2].type", "NUMERIC").param("displayRules[2].mapsToWord", "true")
+                        .param("displayRules[3].length", "1").param("displayRules[3].type", "STATIC_OR").param("displayRules[3].staticOrValues", "E,X,Y")
+                        .param("displayRules[4].length", "4").param("displayRules[4].type", "NUMERIC").param("displayRules[4].mapsToWord", "true")
+                        .param("displayRules[5].length", "2").param("displayRules[5].type", "BASE64")
+                        .param("displayRules[6].length", "4").param("displayRules[6].type", "NUMERIC").param("displayRules[6].mapsToWord", "true")
+                        .param("displayRules[7].length", "1").param("displayRules[7].type", "STATIC").param("displayRules[7].staticValue", "U"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.broken").value(1))
+                .andExpect(jsonPath("$.fixed").value(1))
+                .andExpect(jsonPath("$.stillInvalid").value(1))
+                .andExpect(jsonPath("$.brokenByErrorCode.STATIC_MISMATCH").value(1))
+                .andExpect(jsonPath("$.brokenSamples[0].barcode").value("0001T0002E0003AA0004T"))
+                .andExpect(jsonPath("$.fixedSamples[0].proposedWords.length()").value(4));
+
+        mockMvc.perform(multipart("/admin/rules/impact").file(corpus).header("Authorization", ADMIN_AUTH).param("name", "never-saved"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("not saved yet")));
+    }
+
+    @Test
+    void analyzeImpact_withoutUploadUsesTheConversionHistory() throws Exception {
+        String from = Instant.now().minusSeconds(1).toString();
+        mockMvc.perform(post("/api/convert").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ruleSetName\":\"default-20char\",\"barcode\":\"0001T0002E0003AA0004T\"}"))
+                .andExpect(status().isOk());
+        historyLog.awaitWritten(5000);
+
+        // default-20char with its trailing STATIC changed from T to U
+        mockMvc.perform(multipart("/admin/rules/impact").header("Authorization", ADMIN_AUTH)
+                        .param("name", "default-20char").param("from", from)
+                        .param("displayRules[0].length", "4").param("displayRules[0].type", "NUMERIC").param("displayRules[0].mapsToWord", "true")
+                        .param("displayRules[1].length", "1").param("displayRules[1].type", "STATIC").param("displayRules[1].staticValue", "T")
+                        .param("displayRules[2].length", "4").param("displayRules[2].type", "NUMERIC").param("displayRules[2].mapsToWord", "true")
+                        .param("displayRules[3].length", "1").param("displayRules[3].type", "STATIC_OR").param("displayRules[3].staticOrValues", "E,X,Y")
+                        .param("displayRules[4].length", "4").param("displayRules[4].type", "NUMERIC").param("displayRules[4].mapsToWord", "true")
+                        .param("displayRules[5].length", "2").param("displayRules[5].type", "BASE64")
+                        .param("displayRules[6].length", "4").param("displayRules[6].type", "NUMERIC").param("displayRules[6].mapsToWord", "true")
+                        .param("displayRules[7].length", "1").param("displayRules[7].type", "STATIC").param("displayRules[7].staticValue", "U"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.brokenSamples[*].barcode", hasItem("0001T0002E0003AA0004T")));
+    }
+
+    @Test
+    void conversionHistory_recordsApiConversions() throws Exception {
+        // Only this test's conversions are queried, however many records other tests left
+        String from = Instant.now().minusSeconds(1).toString();
+        String barcode = "HISTORY-" + System.nanoTime() + "-LONGER-THAN-21"; // Never default-20char's 21 characters
+        mockMvc.perform(post("/api/convert").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ruleSetName\":\"default-20char\",\"barcode\":\"" + barcode + "\"}"))
+                .andExpect(status().isBadRequest());
+        historyLog.awaitWritten(5000);
+
+        String inputFilter = "$[?(@.input == '" + barcode + "')]";
+        mockMvc.perform(get("/admin/history").param("from", from).param("to", Instant.now().plusSeconds(1).toString())
+                        .header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(inputFilter + ".direction", hasItem("BARCODE_TO_WORDS")))
+                .andExpect(jsonPath(inputFilter + ".ruleSetName", hasItem("default-20char")))
+                .andExpect(jsonPath(inputFilter + ".httpStatus", hasItem(400)))
+                .andExpect(jsonPath(inputFilter + ".errorCode", hasItem("LENGTH_MISMATCH")));
+
+        mockMvc.perform(post("/api/convert").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ruleSetName\":\"default-20char\",\"barcode\":\"0001T0002E0003AA0004T\"}"))
+                .andExpect(status().isOk());
+        historyLog.awaitWritten(5000);
+        mockMvc.perform(get("/admin/history").param("word", conversionService.getWord(3))
+                        .param("from", from).param("to", Instant.now().plusSeconds(1).toString()).header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].input", hasItem("0001T0002E0003AA0004T")))
+                .andExpect(jsonPath("$[*].success", not(hasItem(false))));
+
+        mockMvc.perform(get("/admin/history").param("from", "yesterday").header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void stats_reportDictionaryAndRuleSets() throws Exception {
+        mockMvc.perform(get("/admin/stats/dictionary").header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.words").value(conversionService.getWordCount()))
+                .andExpect(jsonPath("$.duplicatesSkipped").value(conversionService.getDuplicateWordCount()))
+                .andExpect(jsonPath("$.estimatedBytes").isNumber());
+
+        mockMvc.perform(get("/admin/stats/rulesets").header("Authorization", ADMIN_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reloadCount").isNumber())
+                .andExpect(jsonPath("$.ruleSets[?(@.name == 'default-20char')].barcodeLength", hasItem(21)));
+
+        mockMvc.perform(get("/admin/stats/dictionary"))
+                .andExpect(status().isUnauthorized());
+    }
+}
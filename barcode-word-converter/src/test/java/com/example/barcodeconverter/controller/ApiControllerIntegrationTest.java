@@ -1,6 +1,8 @@
 package com.example.barcodeconverter.controller;
 
+import com.example.barcodeconverter.dto.BatchValidationRequest;
 import com.example.barcodeconverter.dto.ConversionRequest;
+import com.example.barcodeconverter.dto.GenerationRequest;
 import com.example.barcodeconverter.model.BarcodeSegmentRule;
 import com.example.barcodeconverter.model.RuleSet;
 import com.example.barcodeconverter.model.SegmentType;
@@ -13,6 +15,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -29,6 +32,10 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.doReturn;
 import static org.junit.jupiter.api.Assertions.*; // Added this line
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -130,7 +137,8 @@ public class ApiControllerIntegrationTest {
                 .andExpect(jsonPath("$.words[0]", is(expectedWords.get(0))))
                 .andExpect(jsonPath("$.words[1]", is(expectedWords.get(1))))
                 .andExpect(jsonPath("$.words[2]", is(expectedWords.get(2))))
-                .andExpect(jsonPath("$.words[3]", is(expectedWords.get(3))));
+                .andExpect(jsonPath("$.words[3]", is(expectedWords.get(3))))
+                .andExpect(jsonPath("$.ruleSetVersion", is(1)));
     }
 
     @Test
@@ -218,4 +226,189 @@ public class ApiControllerIntegrationTest {
                 .andExpect(jsonPath("$.status", is("error")))
                 .andExpect(jsonPath("$.message", containsString("RuleSet with name 'nonExistentRuleSet' not found.")));
     }
+
+    @Test
+    void validate_conformingBarcode_returnsCompactVerdict() throws Exception {
+        ConversionRequest request = new ConversionRequest();
+        request.setBarcode("0000IT0001AAA0005Z0002");
+        request.setRuleSetName(DEFAULT_RULE_SET_NAME);
+
+        mockMvc.perform(post("/api/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid", is(true)))
+                .andExpect(jsonPath("$.ruleSetVersion", is(1)))
+                .andExpect(jsonPath("$.errorCode").doesNotExist())
+                .andExpect(jsonPath("$.words").doesNotExist());
+    }
+
+    @Test
+    void validateBatch_mixedBarcodes_returnsVerdictsInOrder() throws Exception {
+        BatchValidationRequest request = new BatchValidationRequest();
+        request.setRuleSetName(DEFAULT_RULE_SET_NAME);
+        request.setBarcodes(Arrays.asList("0000IT0001AAA0005Z0002", "0000IX0001AAA0005Z0002", "123"));
+
+        mockMvc.perform(post("/api/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.validCount", is(1)))
+                .andExpect(jsonPath("$.invalidCount", is(2)))
+                .andExpect(jsonPath("$.results", hasSize(3)))
+                .andExpect(jsonPath("$.results[0].valid", is(true)))
+                .andExpect(jsonPath("$.results[1].errorCode", is("STATIC_MISMATCH")))
+                .andExpect(jsonPath("$.results[1].segmentOrder", is(1)))
+                .andExpect(jsonPath("$.results[1].position", is(5)))
+                .andExpect(jsonPath("$.results[2].errorCode", is("LENGTH_MISMATCH")))
+                .andExpect(jsonPath("$.results[2].position").doesNotExist());
+    }
+
+    @Test
+    void generate_range_streamsCsvForAuthenticatedClient() throws Exception {
+        GenerationRequest request = new GenerationRequest();
+        request.setRuleSetName(DEFAULT_RULE_SET_NAME);
+        request.setStartIndex(0L);
+        request.setCount(3L);
+
+        MvcResult started = mockMvc.perform(post("/api/generate")
+                .header("Authorization", "Basic " + java.util.Base64.getEncoder().encodeToString("user:user".getBytes()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn();
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("barcode,word1,word2,word3,word4", lines[0]);
+        assertTrue(lines[1].startsWith("0000IT0000AAA0000Z0000,that,that,that,that"));
+        assertTrue(lines[3].startsWith("0000IT0000AAA0000Z0002,"));
+    }
+
+    @Test
+    void generate_unknownWord_returnsBadRequestBeforeStreaming() throws Exception {
+        GenerationRequest request = new GenerationRequest();
+        request.setRuleSetName(DEFAULT_RULE_SET_NAME);
+        request.setWordTuples(List.of(Arrays.asList("notaword", "this", "have", "with")));
+
+        mockMvc.perform(post("/api/generate")
+                .header("Authorization", "Basic " + java.util.Base64.getEncoder().encodeToString("user:user".getBytes()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is("error")))
+                .andExpect(jsonPath("$.message", containsString("notaword")));
+    }
+
+    @Test
+    void generate_requiresAuthentication() throws Exception {
+        GenerationRequest request = new GenerationRequest();
+        request.setCount(1L);
+
+        mockMvc.perform(post("/api/generate")
+                .header("X-Requested-With", "XMLHttpRequest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void allocate_missingBodyOrNoRuleSet_returnsBadRequest() throws Exception {
+        String auth = "Basic " + java.util.Base64.getEncoder().encodeToString("user:user".getBytes());
+
+        mockMvc.perform(post("/api/allocate")
+                .header("Authorization", auth)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is("error")))
+                .andExpect(jsonPath("$.message", is("Request body is missing.")));
+
+        doReturn(null).when(ruleService).getRuleSetByName(null);
+        mockMvc.perform(post("/api/allocate")
+                .header("Authorization", auth)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is("error")))
+                .andExpect(jsonPath("$.message", containsString("No default rule set")));
+    }
+
+    @Test
+    void renderBarcode_servesPngAndSvgWithoutAuthentication() throws Exception {
+        MvcResult png = mockMvc.perform(get("/api/barcodes/1234T5678.png").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(header().string("Cache-Control", containsString("max-age=86400")))
+                .andReturn();
+        assertEquals('P', png.getResponse().getContentAsByteArray()[1]);
+
+        mockMvc.perform(get("/api/barcodes/1234T5678.svg").param("symbology", "datamatrix"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/svg+xml"))
+                .andExpect(content().string(containsString("<svg")));
+
+        mockMvc.perform(get("/api/barcodes/1234T5678.png").param("symbology", "aztec"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("aztec")));
+    }
+
+    @Test
+    void searchRuleSets_returnsPrefixMatchesBeforeSubstringMatches() throws Exception {
+        mockMvc.perform(get("/api/rulesets").param("q", "luhn"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("luhn-21char"));
+
+        mockMvc.perform(get("/api/rulesets").param("q", "21CHAR").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0]").value("luhn-21char"));
+    }
+
+    @Test
+    void ready_reportsAcceptingTrafficAfterWarmup() throws Exception {
+        mockMvc.perform(get("/ready"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ACCEPTING_TRAFFIC"))
+                .andExpect(jsonPath("$.warmup.ruleSets").isNumber())
+                .andExpect(jsonPath("$.historyDroppedRecords").value(0));
+    }
+
+    @Test
+    void conversionJob_submitPollDownloadAndDelete() throws Exception {
+        String user = "Basic " + java.util.Base64.getEncoder().encodeToString("user:user".getBytes());
+        String admin = "Basic " + java.util.Base64.getEncoder().encodeToString("admin:password".getBytes());
+        MockMultipartFile file = new MockMultipartFile("file", "barcodes.csv", "text/csv", "barcode\nnot-a-barcode\n".getBytes());
+
+        mockMvc.perform(multipart("/api/jobs").file(file).param("ruleSetName", "luhn-21char").header("X-Requested-With", "XMLHttpRequest"))
+                .andExpect(status().isUnauthorized());
+        MvcResult submitted = mockMvc.perform(multipart("/api/jobs").file(file).param("ruleSetName", "luhn-21char")
+                        .param("direction", "validate").header("Authorization", user))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.priority").value("INTERACTIVE"))
+                .andReturn();
+        String location = submitted.getResponse().getHeader("Location");
+        assertNotNull(location);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!objectMapper.readTree(mockMvc.perform(get(location).header("Authorization", user)).andReturn()
+                .getResponse().getContentAsString()).path("status").asText().equals("DONE")) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the job");
+            Thread.sleep(20);
+        }
+        mockMvc.perform(get(location).header("Authorization", admin)).andExpect(status().isNotFound());
+        MvcResult result = mockMvc.perform(get(location + "/result").header("Authorization", user))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn();
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("not-a-barcode,false,"));
+
+        mockMvc.perform(delete(location).header("Authorization", user)).andExpect(status().isNoContent());
+        mockMvc.perform(get(location).header("Authorization", user)).andExpect(status().isNotFound());
+    }
 }
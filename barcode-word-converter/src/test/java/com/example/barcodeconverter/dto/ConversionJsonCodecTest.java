@@ -0,0 +1,65 @@
+package com.example.barcodeconverter.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversionJsonCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConversionJsonCodec codec = new ConversionJsonCodec(objectMapper.getFactory(), List.of("that", "this", "have", "with"));
+
+    private String write(ConversionResponse response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.writeResponse(response, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private ConversionRequest read(String json) throws IOException {
+        return codec.readRequest(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void writeResponse_matchesDatabindOutput() throws Exception {
+        List<ConversionResponse> responses = List.of(
+                ConversionResponse.successWords(List.of("that", "this", "have", "with")),
+                ConversionResponse.successWords(Arrays.asList("that", "não-no-dicionário", null, "tab\there")),
+                ConversionResponse.successBarcode("0001T0002E0003AA0004T"),
+                ConversionResponse.error("RuleSet with name 'a\"b\\c' not found.\n\u0001 ü€"),
+                new ConversionResponse(),
+                withVersion(ConversionResponse.successWords(List.of("that", "this", "have", "with")), 12));
+        for (ConversionResponse response : responses) {
+            assertEquals(objectMapper.writeValueAsString(response), write(response));
+        }
+    }
+
+    @Test
+    void readRequest_readsFieldsLikeDatabind() throws Exception {
+        ConversionRequest request = read("{\"ruleSetName\":\"default-20char\",\"extra\":{\"nested\":[1,2]},\"words\":[\"that\",\"this\",null,\"with\"],\"barcode\":null}");
+        assertEquals("default-20char", request.getRuleSetName());
+        assertEquals(Arrays.asList("that", "this", null, "with"), request.getWords());
+        assertNull(request.getBarcode());
+
+        ConversionRequest numeric = read("{\"barcode\": 12345 }");
+        assertEquals("12345", numeric.getBarcode());
+        assertNull(numeric.getWords());
+
+        assertNull(read("null"));
+        assertThrows(IOException.class, () -> read("[\"not\", \"an\", \"object\"]"));
+        assertThrows(IOException.class, () -> read("{\"words\":\"that this have with\"}"));
+        assertThrows(IOException.class, () -> read("{\"barcode\":"));
+    }
+
+    private static ConversionResponse withVersion(ConversionResponse response, int ruleSetVersion) {
+        response.setRuleSetVersion(ruleSetVersion);
+        return response;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.barcodeconverter.gateway;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.ConversionService;
+import com.example.barcodeconverter.service.RuleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the gateway on an ephemeral port against the real word list and the default rules.json
+public class LineProtocolServerTest {
+
+    private LineProtocolServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ConversionService conversionService = new ConversionService();
+        conversionService.init();
+        RuleService ruleService = new RuleService() {
+            @Override
+            public RuleSet getRuleSetByName(String name) {
+                if ("broken".equals(name)) {
+                    throw new IllegalStateException("broken RuleSet");
+                }
+                return super.getRuleSetByName(name);
+            }
+        };
+        ruleService.init();
+
+        server = new LineProtocolServer(conversionService, ruleService, "127.0.0.1", 0, "default-20char", 256);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void decodesBarcodeLinesInOrder() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getLocalPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream out = socket.getOutputStream();
+            // Two requests in one write, the second with an explicit RuleSet and CRLF
+            out.write("0000T0001E0002AA0003T\ndefault-20char\t0003T0002X0001AA0000T\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            assertEquals("OK that this with from", reader.readLine());
+            assertEquals("OK from with this that", reader.readLine());
+        }
+    }
+
+    @Test
+    void invalidInputGetsErrorReplyAndConnectionStaysUsable() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getLocalPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream out = socket.getOutputStream();
+            out.write("12345\n".getBytes(StandardCharsets.US_ASCII));
+            out.write("unknown-set\t0000T0001E0002AA0003T\n".getBytes(StandardCharsets.US_ASCII));
+            out.write(("X".repeat(300) + "\n").getBytes(StandardCharsets.US_ASCII)); // Longer than the 256-byte buffer
+            out.write("0000T0001E0002AA0003T\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            assertTrue(reader.readLine().startsWith("ERR Barcode length"));
+            assertEquals("ERR RuleSet 'unknown-set' not found.", reader.readLine());
+            assertTrue(reader.readLine().startsWith("ERR Line exceeds"));
+            assertEquals("OK that this with from", reader.readLine());
+        }
+    }
+
+    @Test
+    void unexpectedErrorClosesOnlyThatConnection() throws Exception {
+        try (Socket healthy = new Socket("127.0.0.1", server.getLocalPort());
+             BufferedReader healthyReader = new BufferedReader(new InputStreamReader(healthy.getInputStream(), StandardCharsets.UTF_8))) {
+            try (Socket failing = new Socket("127.0.0.1", server.getLocalPort());
+                 BufferedReader failingReader = new BufferedReader(new InputStreamReader(failing.getInputStream(), StandardCharsets.UTF_8))) {
+                failing.setSoTimeout(5000);
+                failing.getOutputStream().write("broken\t0000T0001E0002AA0003T\n".getBytes(StandardCharsets.US_ASCII));
+                failing.getOutputStream().flush();
+                assertNull(failingReader.readLine()); // Closed by the gateway
+            }
+
+            healthy.setSoTimeout(5000);
+            healthy.getOutputStream().write("0000T0001E0002AA0003T\n".getBytes(StandardCharsets.US_ASCII));
+            healthy.getOutputStream().flush();
+            assertEquals("OK that this with from", healthyReader.readLine());
+        }
+    }
+}
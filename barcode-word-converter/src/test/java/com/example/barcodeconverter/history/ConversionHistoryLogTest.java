@@ -0,0 +1,268 @@
+package com.example.barcodeconverter.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversionHistoryLogTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @TempDir
+    Path tempDir;
+
+    private static HistoryRecord record(long timestamp, String input) {
+        return new HistoryRecord(timestamp, HistoryRecord.Direction.BARCODE_TO_WORDS, "default-20char", input,
+                "that this have with", 200, null);
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void query_returnsRecordsInWindow_andSurvivesRestart() throws Exception {
+        AtomicLong clock = new AtomicLong(10 * DAY);
+        ConversionHistoryLog log = new ConversionHistoryLog(true, tempDir, 1 << 20, HOUR, 90 * DAY, 1024, clock::get);
+        log.init();
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(log.record(record(10 * DAY + i * 1000L, "barcode-" + i)));
+            }
+            log.record(new HistoryRecord(10 * DAY + 20_000, HistoryRecord.Direction.WORDS_TO_BARCODE, "missing",
+                    "a b c d", "RuleSet with name 'missing' not found.", 400, null));
+            assertTrue(log.awaitWritten(5000));
+
+            List<HistoryRecord> window = log.query(10 * DAY + 3000, 10 * DAY + 6000, 100);
+            assertEquals(List.of("barcode-3", "barcode-4", "barcode-5"), window.stream().map(HistoryRecord::getInput).toList());
+            assertEquals("that this have with", window.get(0).getOutput());
+            assertTrue(window.get(0).isSuccess());
+            assertEquals(2, log.query(10 * DAY, 10 * DAY + HOUR, 2).size());
+
+            HistoryRecord failed = log.query(10 * DAY + 20_000, 10 * DAY + 20_001, 10).get(0);
+            assertEquals(HistoryRecord.Direction.WORDS_TO_BARCODE, failed.getDirection());
+            assertEquals(400, failed.getHttpStatus());
+            assertNull(failed.getErrorCode());
+        } finally {
+            log.close();
+        }
+
+        ConversionHistoryLog reopened = new ConversionHistoryLog(true, tempDir, 1 << 20, HOUR, 90 * DAY, 1024, clock::get);
+        reopened.init();
+        try {
+            assertEquals(11, reopened.query(0, Long.MAX_VALUE, 100).size());
+            assertEquals(2, reopened.getSegmentCount());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void forEachBarcode_visitsTheRuleSetsBarcodesInWindowAcrossSegments() throws Exception {
+        AtomicLong clock = new AtomicLong(DAY);
+        ConversionHistoryLog log = new ConversionHistoryLog(true, tempDir, 4 * HistoryRecord.SIZE, HOUR, 90 * DAY, 1024, clock::get);
+        log.init();
+        try {
+            for (int i = 0; i < 6; i++) {
+                log.record(record(DAY + i, "decoded-" + i));
+            }
+            log.record(new HistoryRecord(DAY + 6, HistoryRecord.Direction.WORDS_TO_BARCODE, "default-20char", "a b c d", "encoded", 200, null));
+            log.record(new HistoryRecord(DAY + 7, HistoryRecord.Direction.WORDS_TO_BARCODE, "default-20char", "a b c x", "unknown word", 400, "UNKNOWN_WORD"));
+            log.record(new HistoryRecord(DAY + 8, HistoryRecord.Direction.BARCODE_TO_WORDS, "other", "elsewhere", "a b c d", 200, null));
+            assertTrue(log.awaitWritten(5000));
+            assertTrue(log.getSegmentCount() > 1);
+
+            List<String> barcodes = new ArrayList<>();
+            log.forEachBarcode("default-20char", DAY + 1, DAY + 100, barcodes::add);
+            assertEquals(List.of("decoded-1", "decoded-2", "decoded-3", "decoded-4", "decoded-5", "encoded"), barcodes);
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    void segmentsRollBySizeAndTime_andExpireAfterRetention() throws Exception {
+        AtomicLong clock = new AtomicLong(100 * DAY);
+        ConversionHistoryLog log = new ConversionHistoryLog(true, tempDir, 4 * HistoryRecord.SIZE, HOUR, 30 * DAY, 1024, clock::get);
+        log.init();
+        try {
+            for (int i = 0; i < 10; i++) {
+                log.record(record(clock.get(), "size-" + i));
+            }
+            assertTrue(log.awaitWritten(5000));
+            assertEquals(3, log.getSegmentCount()); // 4 + 4 + 2 records
+            assertEquals(10, log.query(0, Long.MAX_VALUE, 100).size());
+
+            clock.addAndGet(2 * HOUR);
+            log.record(record(clock.get(), "later"));
+            assertTrue(log.awaitWritten(5000));
+            assertEquals(4, log.getSegmentCount());
+            assertEquals(List.of("later"), log.query(clock.get() - 1, clock.get() + 1, 10).stream().map(HistoryRecord::getInput).toList());
+
+            // A segment ends where the next starts: the size-rolled ones at 100 days, the third two hours later
+            log.deleteExpiredSegments(100 * DAY + 30 * DAY);
+            assertEquals(4, log.getSegmentCount());
+            log.deleteExpiredSegments(100 * DAY + 30 * DAY + HOUR);
+            assertEquals(2, log.getSegmentCount());
+            log.deleteExpiredSegments(100 * DAY + 30 * DAY + 3 * HOUR);
+            assertEquals(1, log.getSegmentCount());
+            assertEquals(1, segmentFiles());
+            assertEquals(1, log.query(0, Long.MAX_VALUE, 100).size());
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    void findByWord_usesPerSegmentIndex_andRebuildsMissingIndexFiles() throws Exception {
+        List<String> dictionary = List.of("that", "this", "have", "with", "from");
+        AtomicLong clock = new AtomicLong(DAY);
+        ConversionHistoryLog log = new ConversionHistoryLog(true, tempDir, 4 * HistoryRecord.SIZE, HOUR, 90 * DAY, 1024, clock::get);
+        log.setWordLookup(dictionary::indexOf);
+        log.init();
+        try {
+            for (int i = 0; i < 10; i++) {
+                String words = i % 3 == 0 ? "from this have with" : "that this have with";
+                log.record(new HistoryRecord(DAY + i, HistoryRecord.Direction.WORDS_TO_BARCODE, "default-20char", words, "B" + i, 200, null));
+            }
+            log.record(new HistoryRecord(DAY + 10, HistoryRecord.Direction.WORDS_TO_BARCODE, "default-20char", "from x y z", "unknown word", 400, "UNKNOWN_WORD"));
+            assertTrue(log.awaitWritten(5000));
+
+            assertEquals(List.of("B0", "B3", "B6", "B9"), outputs(log.findByWord("from", 0, Long.MAX_VALUE, 100)));
+            assertEquals(List.of("B3", "B6"), outputs(log.findByWord(" FROM ", DAY + 1, DAY + 9, 100)));
+            assertEquals(List.of("B0", "B3"), outputs(log.findByWord("from", 0, Long.MAX_VALUE, 2)));
+            assertEquals(10, log.findByWord("with", 0, Long.MAX_VALUE, 100).size());
+            assertTrue(log.findByWord("nonexistent", 0, Long.MAX_VALUE, 100).isEmpty());
+        } finally {
+            log.close();
+        }
+
+        Files.delete(tempDir.resolve(HistorySegment.fileName(2, DAY).replace(".hlog", ".hidx")));
+        ConversionHistoryLog reopened = new ConversionHistoryLog(true, tempDir, 4 * HistoryRecord.SIZE, HOUR, 90 * DAY, 1024, clock::get);
+        reopened.setWordLookup(dictionary::indexOf);
+        reopened.init();
+        try {
+            assertEquals(List.of("B0", "B3", "B6", "B9"), outputs(reopened.findByWord("from", 0, Long.MAX_VALUE, 100)));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void postingList_roundTripsGapEncodedSlots() {
+        PostingList postings = new PostingList();
+        int[] slots = {0, 1, 2, 130, 131, 20_000, 20_000, 1 << 20};
+        for (int slot : slots) {
+            postings.add(slot);
+        }
+        assertArrayEquals(new int[]{0, 1, 2, 130, 131, 20_000, 1 << 20}, postings.toArray());
+        assertEquals(7, postings.size());
+        assertEquals(11, postings.byteLength()); // Gaps 0, 0, 0, 127, 0, 19868, 1028575
+    }
+
+    private static List<String> outputs(List<HistoryRecord> records) {
+        return records.stream().map(HistoryRecord::getOutput).toList();
+    }
+
+    @Test
+    void record_isDroppedWhenDisabledOrClosed() throws Exception {
+        ConversionHistoryLog disabled = new ConversionHistoryLog(false, tempDir, 1 << 20, HOUR, DAY, 1024, System::currentTimeMillis);
+        disabled.init();
+        assertFalse(disabled.record(record(1, "x")));
+        assertTrue(disabled.query(0, Long.MAX_VALUE, 10).isEmpty());
+        assertEquals(0, segmentFiles());
+
+        ConversionHistoryLog log = new ConversionHistoryLog(true, tempDir, 1 << 20, HOUR, DAY, 1024, System::currentTimeMillis);
+        log.init();
+        log.close();
+        assertFalse(log.record(record(1, "x")));
+    }
+
+    @Test
+    void record_waitsForRoomInsteadOfDroppingABurst() throws Exception {
+        ConversionHistoryLog log = new ConversionHistoryLog(true, tempDir, 1 << 20, HOUR, DAY, 2, 5000, System::currentTimeMillis);
+        log.init();
+        try {
+            for (int i = 0; i < 2000; i++) {
+                assertTrue(log.record(record(i, "burst-" + i)));
+            }
+            assertTrue(log.awaitWritten(5000));
+            assertEquals(0, log.getDroppedCount());
+            assertEquals(2000, log.query(0, Long.MAX_VALUE, 5000).size());
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    void ring_rejectsWhenFull_andHandsEveryRecordToConsumerOnce() throws Exception {
+        RecordRing small = new RecordRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(small.offer(record(i, "r" + i)));
+        }
+        assertFalse(small.offer(record(4, "r4")));
+        assertEquals("r0", small.poll().getInput());
+        assertTrue(small.offer(record(4, "r4")));
+
+        RecordRing ring = new RecordRing(64);
+        int producers = 4;
+        int perProducer = 5000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    HistoryRecord r = record(producer * perProducer + i, null);
+                    while (!ring.offer(r)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Set<Long> seen = new HashSet<>();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (seen.size() < producers * perProducer && System.currentTimeMillis() < deadline) {
+            HistoryRecord r = ring.poll();
+            if (r != null) {
+                assertTrue(seen.add(r.getTimestamp()), "Record handed out twice");
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * perProducer, seen.size());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void record_truncatesLongTextAtCharacterBoundary() {
+        ByteBuffer buffer = ByteBuffer.allocate(HistoryRecord.SIZE);
+        String words = "€".repeat(40); // 120 bytes, more than the 80-byte input slot
+        new HistoryRecord(42, HistoryRecord.Direction.WORDS_TO_BARCODE, null, words, "", 200, "CHECKSUM_MISMATCH").writeBody(buffer, 0);
+
+        HistoryRecord read = HistoryRecord.readBody(buffer, 0);
+        assertEquals("€".repeat(26), read.getInput()); // 78 bytes
+        assertTrue(read.isTruncated());
+        assertNull(read.getRuleSetName());
+        assertEquals("", read.getOutput());
+        assertEquals("CHECKSUM_MISMATCH", read.getErrorCode());
+        assertEquals(42, read.getTimestamp());
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.barcodeconverter.job;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.ConversionService;
+import com.example.barcodeconverter.service.RuleService;
+import com.example.barcodeconverter.service.RuleSetFixture;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversionJobServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConversionService conversionService;
+    private RuleService ruleService;
+    private RuleSet ruleSet;
+    private final List<ConversionJobService> jobServices = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RuleSet plain = RuleSetFixture.fourWords("plain", 4);
+        Path file = tempDir.resolve("rules.json");
+        new ObjectMapper().writeValue(file.toFile(), List.of(plain));
+        ruleService = new RuleService(file.toString(), 1L << 20);
+        ruleService.init();
+        ruleSet = ruleService.getRuleSetByName("plain");
+        conversionService = new ConversionService();
+        conversionService.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ConversionJobService jobService : jobServices) {
+            jobService.close();
+        }
+        ruleService.close();
+    }
+
+    // Not initialized: no workers run, the test drives chunks with runNext()
+    private ConversionJobService jobService(int workers, int chunkRows) {
+        ConversionJobService jobService = new ConversionJobService(conversionService, ruleService,
+                tempDir.resolve("jobs").toString(), workers, chunkRows, 1024, 10, 24);
+        jobServices.add(jobService);
+        return jobService;
+    }
+
+    // A header, then count barcodes; every fifth one is damaged
+    private String decodeInput(int count) {
+        StringBuilder csv = new StringBuilder("barcode\r\n");
+        for (int i = 0; i < count; i++) {
+            List<String> words = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                words.add(conversionService.getWord((i * 4 + w) % 1000));
+            }
+            String barcode = conversionService.encode(words, ruleSet).getBarcode();
+            csv.append(i % 5 == 4 ? barcode.substring(1) : barcode).append("\r\n");
+        }
+        return csv.toString();
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitFinished(ConversionJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for job " + job.getId());
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void decodeJob_writesOneResultRowPerInputRow() throws Exception {
+        ConversionJobService jobService = jobService(1, 4);
+        ConversionJob job = jobService.submit(stream(decodeInput(10)), "alice", "plain", ConversionJob.Direction.DECODE, false);
+        while (jobService.runNext()) {
+        }
+
+        assertEquals(ConversionJob.Status.DONE, job.getStatus());
+        assertEquals(10, job.getRows());
+        assertEquals(2, job.getErrorRows());
+        List<String> lines = Files.readAllLines(jobService.getResultFile(job));
+        assertEquals(11, lines.size());
+        assertEquals("barcode,word1,word2,word3,word4,errorCode,message", lines.get(0));
+        String[] first = lines.get(1).split(",", -1);
+        assertEquals(conversionService.getWord(0), first[1]);
+        assertEquals(conversionService.getWord(3), first[4]);
+        assertEquals("", first[5]);
+        assertFalse(lines.get(5).split(",", -1)[5].isEmpty());
+    }
+
+    @Test
+    void encodeJob_reportsUnknownWords() throws Exception {
+        ConversionJobService jobService = jobService(1, 100);
+        String input = "word1,word2,word3,word4\n"
+                + String.join(",", conversionService.getWord(1), conversionService.getWord(2), conversionService.getWord(3), conversionService.getWord(4)) + "\n"
+                + "not-a-word,x,y,z\n";
+        ConversionJob job = jobService.submit(stream(input), "alice", "plain", ConversionJob.Direction.ENCODE, false);
+        jobService.runNext();
+
+        List<String> lines = Files.readAllLines(jobService.getResultFile(job));
+        assertEquals(3, lines.size());
+        assertFalse(lines.get(1).split(",", -1)[4].isEmpty());
+        assertTrue(lines.get(2).split(",", -1)[4].isEmpty());
+        assertEquals(1, job.getErrorRows());
+    }
+
+    @Test
+    void interactiveJob_runsBeforeEarlierBulkJob() throws Exception {
+        ConversionJobService jobService = jobService(1, 2);
+        ConversionJob bulk = jobService.submit(stream(decodeInput(6)), "alice", "plain", ConversionJob.Direction.VALIDATE, true);
+        ConversionJob interactive = jobService.submit(stream(decodeInput(6)), "bob", "plain", ConversionJob.Direction.VALIDATE, false);
+        assertEquals(ConversionJob.Priority.BULK, bulk.getPriority());
+        assertEquals(ConversionJob.Priority.INTERACTIVE, interactive.getPriority());
+
+        for (int chunk = 0; chunk < 3; chunk++) {
+            jobService.runNext();
+        }
+        assertEquals(ConversionJob.Status.DONE, interactive.getStatus());
+        assertEquals(0, bulk.getRows());
+        while (jobService.runNext()) {
+        }
+        assertEquals(ConversionJob.Status.DONE, bulk.getStatus());
+    }
+
+    @Test
+    void largeUpload_isAlwaysBulk() throws Exception {
+        ConversionJob job = jobService(1, 100).submit(stream(decodeInput(200)), "alice", "plain", ConversionJob.Direction.DECODE, false);
+        assertEquals(ConversionJob.Priority.BULK, job.getPriority());
+    }
+
+    @Test
+    void restart_resumesFromTheLastCheckpoint() throws Exception {
+        ConversionJobService before = jobService(1, 3);
+        ConversionJob job = before.submit(stream(decodeInput(20)), "alice", "plain", ConversionJob.Direction.DECODE, true);
+        before.runNext();
+        assertEquals(3, job.getRows());
+        // A chunk that was written but not checkpointed before the crash
+        Files.writeString(job.getOutputPartFile(), "garbage\n", StandardOpenOption.APPEND);
+
+        ConversionJobService after = jobService(1, 3);
+        after.init();
+        ConversionJob resumed = after.get(job.getId());
+        awaitFinished(resumed);
+
+        assertEquals(ConversionJob.Status.DONE, resumed.getStatus());
+        assertEquals(20, resumed.getRows());
+        List<String> lines = Files.readAllLines(after.getResultFile(resumed));
+        assertEquals(21, lines.size());
+        assertEquals(21, new HashSet<>(lines).size());
+        assertFalse(lines.contains("garbage"));
+    }
+
+    @Test
+    void close_midChunkLeavesTheJobToResume() throws Exception {
+        ConversionJobService before = jobService(1, 200);
+        ConversionJob job = before.submit(stream(decodeInput(20_000)), "alice", "plain", ConversionJob.Direction.DECODE, true);
+        before.init();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getRows() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "The worker never started the job");
+            Thread.yield();
+        }
+        before.close();
+        assertNotEquals(ConversionJob.Status.FAILED, job.getStatus(), job.getError());
+
+        ConversionJobService after = jobService(1, 5000);
+        after.init();
+        ConversionJob resumed = after.get(job.getId());
+        awaitFinished(resumed);
+
+        assertEquals(ConversionJob.Status.DONE, resumed.getStatus());
+        assertEquals(20_000, resumed.getRows());
+        assertEquals(20_001, Files.readAllLines(after.getResultFile(resumed)).size());
+    }
+
+    @Test
+    void restart_finishesAJobCheckpointedDoneBeforeItsOutputWasMoved() throws Exception {
+        ConversionJobService before = jobService(1, 100);
+        ConversionJob job = before.submit(stream(decodeInput(10)), "alice", "plain", ConversionJob.Direction.DECODE, false);
+        before.runNext();
+        Files.move(job.getOutputFile(), job.getOutputPartFile());
+
+        ConversionJob loaded = ConversionJob.load(job.getDirectory());
+
+        assertEquals(ConversionJob.Status.DONE, loaded.getStatus());
+        assertTrue(Files.exists(loaded.getOutputFile()));
+        assertFalse(Files.exists(loaded.getOutputPartFile()));
+    }
+
+    @Test
+    void restart_treatsAMovedOutputAsFinished() throws Exception {
+        ConversionJobService before = jobService(1, 100);
+        ConversionJob job = before.submit(stream(decodeInput(10)), "alice", "plain", ConversionJob.Direction.DECODE, false);
+        before.runNext();
+        // The output was moved into place but the DONE checkpoint never made it to disk
+        job.setStatus(ConversionJob.Status.RUNNING);
+        job.save();
+
+        ConversionJobService after = jobService(1, 100);
+        after.init();
+        ConversionJob loaded = after.get(job.getId());
+
+        assertEquals(ConversionJob.Status.DONE, loaded.getStatus());
+        assertEquals(10, loaded.getRows());
+        assertEquals(11, Files.readAllLines(after.getResultFile(loaded)).size());
+    }
+
+    @Test
+    void delete_removesTheJobAndItsFiles() throws Exception {
+        ConversionJobService jobService = jobService(1, 2);
+        ConversionJob job = jobService.submit(stream(decodeInput(6)), "alice", "plain", ConversionJob.Direction.DECODE, false);
+        jobService.runNext();
+
+        assertTrue(jobService.delete(job.getId()));
+        assertNull(jobService.get(job.getId()));
+        assertFalse(Files.exists(job.getDirectory()));
+        assertFalse(jobService.runNext());
+        assertFalse(jobService.delete(job.getId()));
+    }
+
+    @Test
+    void cleanup_deletesExpiredJobsWithoutNewSubmissions() throws Exception {
+        // Retention 0: a job expires as soon as it finishes
+        ConversionJobService jobService = new ConversionJobService(conversionService, ruleService,
+                tempDir.resolve("jobs").toString(), 1, 100, 1024, 10, 0, 50);
+        jobServices.add(jobService);
+        jobService.init();
+        ConversionJob job = jobService.submit(stream(decodeInput(3)), "alice", "plain", ConversionJob.Direction.DECODE, false);
+        awaitFinished(job);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jobService.get(job.getId()) != null || Files.exists(job.getDirectory())) {
+            assertTrue(System.currentTimeMillis() < deadline, "Expired job was not cleaned up");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void submit_rejectsUnknownRuleSet() {
+        assertThrows(IllegalArgumentException.class, () ->
+                jobService(1, 2).submit(stream("x\n"), "alice", "missing", ConversionJob.Direction.DECODE, false));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.barcodeconverter.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BarcodeLayoutTests {
+
+    private BarcodeLayout createLayout() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 4, SegmentType.NUMERIC, (String) null, true));                 // 0-3
+        rules.add(new BarcodeSegmentRule(1, 2, SegmentType.STATIC, "XY", false));                           // 4-5
+        rules.add(new BarcodeSegmentRule(2, 4, SegmentType.NUMERIC, (String) null, true));                 // 6-9
+        rules.add(new BarcodeSegmentRule(3, 4, SegmentType.BASE64, (String) null, false));                 // 10-13
+        rules.add(new BarcodeSegmentRule(4, 4, SegmentType.NUMERIC, (String) null, true));                 // 14-17
+        rules.add(new BarcodeSegmentRule(5, 2, SegmentType.STATIC_OR, Arrays.asList("AB", "CD"), false));  // 18-19
+        rules.add(new BarcodeSegmentRule(6, 4, SegmentType.NUMERIC, (String) null, true));                 // 20-23
+        RuleSet ruleSet = new RuleSet("layout-test", rules);
+        ruleSet.validateRules();
+        return ruleSet.getLayout();
+    }
+
+    @Test
+    void findFirstInvalidPosition_validBarcode_returnsNoFailure() {
+        BarcodeLayout layout = createLayout();
+        assertEquals(24, layout.getTotalLength());
+        assertEquals(BarcodeLayout.NO_FAILURE, layout.findFirstInvalidPosition("0001XY0002QUJD0003AB0004"));
+        assertEquals(BarcodeLayout.NO_FAILURE, layout.findFirstInvalidPosition("0001XY0002QQ==0003CD0004"));
+    }
+
+    @Test
+    void findFirstInvalidPosition_reportsExactPosition() {
+        BarcodeLayout layout = createLayout();
+        assertEquals(5, layout.findFirstInvalidPosition("0001XZ0002QUJD0003AB0004"));  // STATIC
+        assertEquals(8, layout.findFirstInvalidPosition("0001XY00a2QUJD0003AB0004"));  // NUMERIC
+        assertEquals(11, layout.findFirstInvalidPosition("0001XY0002Q!JD0003AB0004")); // BASE64 alphabet
+        assertEquals(23, layout.findFirstInvalidPosition("0001XY0002QUJD0003AB000é")); // Non-ASCII
+    }
+
+    @Test
+    void findFirstInvalidPosition_staticOrCombinationNotInAlternatives_fails() {
+        BarcodeLayout layout = createLayout();
+        // 'A' and 'D' are each allowed at their position, but "AD" is not an alternative
+        assertEquals(18, layout.findFirstInvalidPosition("0001XY0002QUJD0003AD0004"));
+    }
+
+    @Test
+    void findFirstInvalidPosition_misplacedBase64Padding_fails() {
+        BarcodeLayout layout = createLayout();
+        assertEquals(11, layout.findFirstInvalidPosition("0001XY0002Q=JD0003AB0004"));
+        assertEquals(11, layout.findFirstInvalidPosition("0001XY0002Q===0003AB0004"));
+    }
+
+    @Test
+    void parseNumber_andDescribeFailure() {
+        BarcodeLayout layout = createLayout();
+        String barcode = "0001XY0042QUJD0003AB9999";
+        assertArrayEquals(new int[]{0, 2, 4, 6}, layout.getWordSegments());
+        assertEquals(42, layout.parseNumber(barcode, 2));
+        assertEquals(9999, layout.parseNumber(barcode, 6));
+
+        String message = layout.describeFailure("0001XZ0002QUJD0003AB0004", 5);
+        assertTrue(message.contains("Static segment mismatch"));
+        assertTrue(message.contains("position 5"));
+    }
+
+    @Test
+    void writeBarcode_luhnChecksum_matchesReferenceAndCatchesSingleDigitErrors() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 3, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 3, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(2, 2, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(3, 2, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(4, 1, ChecksumAlgorithm.LUHN, null));
+        RuleSet ruleSet = new RuleSet("luhn-test", rules);
+        ruleSet.validateRules();
+        BarcodeLayout layout = ruleSet.getLayout();
+
+        char[] out = new char[layout.getTotalLength()];
+        layout.writeBarcode(new int[]{799, 273, 98, 71}, 0, out);
+        assertEquals("79927398713", new String(out)); // Reference Luhn example: payload 7992739871, check digit 3
+        assertEquals(BarcodeLayout.NO_FAILURE, layout.findFirstInvalidPosition("79927398713"));
+
+        for (int p = 0; p < 10; p++) {
+            char[] typo = out.clone();
+            typo[p] = (char) ('0' + (typo[p] - '0' + 1) % 10);
+            assertEquals(10, layout.findFirstInvalidPosition(new String(typo)), "Undetected typo at position " + p);
+        }
+        String message = layout.describeFailure("79927398714", 10);
+        assertTrue(message.contains("expected '3' but got '4'"), message);
+    }
+
+    @Test
+    void writeBarcode_mod97ChecksumOverSelectedSegments() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 1, SegmentType.STATIC, "T", false));
+        rules.add(new BarcodeSegmentRule(2, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(3, 2, ChecksumAlgorithm.MOD97, Arrays.asList(2, 5)));
+        rules.add(new BarcodeSegmentRule(4, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(5, 4, SegmentType.NUMERIC, (String) null, true));
+        RuleSet ruleSet = new RuleSet("mod97-test", rules);
+        ruleSet.validateRules();
+        BarcodeLayout layout = ruleSet.getLayout();
+
+        char[] out = new char[layout.getTotalLength()];
+        for (int[] indices : new int[][]{{0, 0, 0, 0}, {1, 2, 3, 4}, {9999, 1234, 5678, 9876}, {42, 5, 0, 97}}) {
+            layout.writeBarcode(indices, 0, out);
+            String barcode = new String(out);
+            // ISO 7064 MOD 97-10: covered payload followed by the check digits is 1 mod 97
+            String payloadAndCheck = barcode.substring(5, 9) + barcode.substring(15, 19) + barcode.substring(9, 11);
+            assertEquals(1, new BigInteger(payloadAndCheck).mod(BigInteger.valueOf(97)).intValue(), barcode);
+            assertEquals(BarcodeLayout.NO_FAILURE, layout.findFirstInvalidPosition(barcode), barcode);
+        }
+        // Segment order 4 is not covered, so changing it keeps the checksum valid
+        assertEquals(BarcodeLayout.NO_FAILURE, layout.findFirstInvalidPosition("0042T0005" + new String(out, 9, 2) + "1111" + "0097"));
+        assertEquals(9, layout.findFirstInvalidPosition("0042T0006" + new String(out, 9, 2) + "0000" + "0097"));
+    }
+
+    @Test
+    void writeBarcode_sequenceDigitsAreWrittenAndCoveredByChecksum() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 2, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 6, SegmentType.SEQUENCE, (String) null, false));
+        rules.add(new BarcodeSegmentRule(2, 2, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(3, 1, ChecksumAlgorithm.LUHN, Arrays.asList(1)));
+        rules.add(new BarcodeSegmentRule(4, 1, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(5, 1, SegmentType.NUMERIC, (String) null, true));
+        RuleSet ruleSet = new RuleSet("sequence-test", rules);
+        ruleSet.validateRules();
+        BarcodeLayout layout = ruleSet.getLayout();
+        assertTrue(layout.hasSequence());
+        assertEquals(1_000_000, layout.getSequenceCapacity());
+
+        char[] out = new char[layout.getTotalLength()];
+        layout.writeBarcode(new int[]{12, 34, 5, 6}, 0, 799273L, out);
+        String barcode = new String(out);
+        assertEquals("1279927334856", barcode);
+        assertEquals(799273, layout.parseSequence(barcode)); // Luhn over 799273 alone: 7+9+9+4+7+6 = 42, so the check digit is 8
+        assertEquals(BarcodeLayout.NO_FAILURE, layout.findFirstInvalidPosition(barcode));
+        assertEquals(10, layout.findFirstInvalidPosition("1279927434856"));
+        assertEquals(3, layout.findFirstInvalidPosition("127X927334856"));
+        assertTrue(layout.describeFailure("127X927334856", 3).contains("Sequence segment"));
+
+        layout.writeBarcode(new int[]{12, 34, 5, 6}, 0, out);
+        assertEquals("1200000034056", new String(out)); // Without a value the sequence stays zero
+    }
+}
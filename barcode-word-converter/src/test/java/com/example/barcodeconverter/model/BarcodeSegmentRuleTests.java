@@ -143,6 +143,19 @@ public class BarcodeSegmentRuleTests {
         assertTrue(exception.getMessage().contains("Only NUMERIC segments can be mapped to a word"));
     }
 
+    @Test
+    void constructor_checksumRule_lengthMustMatchAlgorithm() {
+        BarcodeSegmentRule rule = new BarcodeSegmentRule(4, 2, ChecksumAlgorithm.MOD97, Arrays.asList(0, 2));
+        assertEquals(SegmentType.CHECKSUM, rule.getType());
+        assertEquals(Arrays.asList(0, 2), rule.getChecksumOver());
+        assertFalse(rule.isMapsToWord());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            new BarcodeSegmentRule(4, 2, ChecksumAlgorithm.LUHN, null);
+        });
+        assertTrue(exception.getMessage().contains("must be 1 for a LUHN checksum"));
+    }
+
     @Test
     void constructor_staticOrRule_mapsToWord_throwsException() {
         List<String> values = Arrays.asList("VAL1", "VAL2");
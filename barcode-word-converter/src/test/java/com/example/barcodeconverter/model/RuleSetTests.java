@@ -252,6 +252,21 @@ public class RuleSetTests {
         });
     }
 
+    @Test
+    void validateRules_checksumCoveringNonNumericSegment_shouldThrowIllegalStateException() {
+        List<BarcodeSegmentRule> rules = createValidRuleList("checksum");
+        rules.add(new BarcodeSegmentRule(7, 1, ChecksumAlgorithm.LUHN, Arrays.asList(0, 1))); // Order 1 is STATIC
+        RuleSet ruleSet = new RuleSet("ChecksumSet", rules);
+        Exception exception = assertThrows(IllegalStateException.class, ruleSet::validateRules);
+        assertTrue(exception.getMessage().contains("covers order 1, which is not a NUMERIC or SEQUENCE segment"));
+
+        List<BarcodeSegmentRule> valid = createValidRuleList("checksum");
+        valid.add(new BarcodeSegmentRule(7, 1, ChecksumAlgorithm.LUHN, null));
+        RuleSet validSet = new RuleSet("ChecksumSetValid", valid);
+        validSet.validateRules();
+        assertEquals(20, validSet.getTotalBarcodeLength());
+    }
+
     @Test
     void validateRules_base64CannotMapToWord_shouldThrowIllegalStateException() {
         // Similar to STATIC_OR, BarcodeSegmentRule constructor prevents this.
@@ -343,4 +358,38 @@ public class RuleSetTests {
         assertTrue(exception.getMessage().contains("Total barcode length must be positive"));
         assertFalse(ruleSet.isValidated());
     }
+
+    @Test
+    void validateRules_moreThanOneSequence_shouldThrowIllegalStateException() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        for (int order = 0; order < 4; order++) {
+            rules.add(new BarcodeSegmentRule(order, 4, SegmentType.NUMERIC, (String) null, true));
+        }
+        rules.add(new BarcodeSegmentRule(4, 6, SegmentType.SEQUENCE, (String) null, false));
+        rules.add(new BarcodeSegmentRule(5, 6, SegmentType.SEQUENCE, (String) null, false));
+
+        RuleSet ruleSet = new RuleSet("twoSequences", rules);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, ruleSet::validateRules);
+        assertTrue(exception.getMessage().contains("at most one SEQUENCE rule"));
+    }
+
+    @Test
+    void validateRules_staticValuesSetThroughSetters_areCheckedBeforeCompiling() {
+        List<BarcodeSegmentRule> shortStatic = createValidRuleList("short");
+        shortStatic.get(1).setStaticValue(""); // As deserialized from JSON, bypassing the constructor checks
+        IllegalStateException exception = assertThrows(IllegalStateException.class, new RuleSet("shortStatic", shortStatic)::validateRules);
+        assertTrue(exception.getMessage().contains("staticValue of length 1"));
+
+        List<BarcodeSegmentRule> missingStatic = createValidRuleList("missing");
+        missingStatic.get(3).setStaticValue(null);
+        assertThrows(IllegalStateException.class, new RuleSet("missingStatic", missingStatic)::validateRules);
+
+        List<BarcodeSegmentRule> staticOr = createValidRuleListWithNewTypes();
+        staticOr.get(5).setStaticOrValues(Arrays.asList("A", null));
+        assertThrows(IllegalStateException.class, new RuleSet("staticOr", staticOr)::validateRules);
+
+        List<BarcodeSegmentRule> untyped = createValidRuleList("untyped");
+        untyped.get(1).setType(null);
+        assertThrows(IllegalStateException.class, new RuleSet("untyped", untyped)::validateRules);
+    }
 }
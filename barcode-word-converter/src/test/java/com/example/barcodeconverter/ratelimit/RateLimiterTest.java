@@ -0,0 +1,135 @@
+package com.example.barcodeconverter.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void acquireEndpoint_admitsBurstThenRefillsAtRate() {
+        AtomicLong clock = new AtomicLong(1_000 * SECOND);
+        RateLimiter limiter = new RateLimiter(true, "", "/api/convert=10:3", "", "", 1000, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.acquireEndpoint("ip:a", "/api/convert"));
+        }
+        long wait = limiter.acquireEndpoint("ip:a", "/api/convert");
+        assertEquals(SECOND / 10, wait);
+        assertEquals(0, limiter.acquireEndpoint("ip:b", "/api/convert")); // Other clients have their own bucket
+        assertEquals(0, limiter.acquireEndpoint("ip:a", "/api/validate")); // No limit configured, no default
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.acquireEndpoint("ip:a", "/api/convert"));
+        assertTrue(limiter.acquireEndpoint("ip:a", "/api/convert") > 0);
+
+        assertEquals(5, limiter.getAdmittedCount()); // Unlimited endpoints are not counted
+        assertEquals(Map.of("endpoint /api/convert", 2L), limiter.getRejectedByScope());
+        assertEquals(1, RateLimitInterceptor.retryAfterSeconds(wait));
+    }
+
+    @Test
+    void acquireRuleSet_limitsOnlyConfiguredRuleSets_andDefaultCoversOtherEndpoints() {
+        AtomicLong clock = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(true, "1:1", "", "luhn-21char=0.5:2", "", 1000, clock::get);
+
+        assertEquals(0, limiter.acquireRuleSet("key:k", "luhn-21char"));
+        assertEquals(0, limiter.acquireRuleSet("key:k", "luhn-21char"));
+        assertEquals(2 * SECOND, limiter.acquireRuleSet("key:k", "luhn-21char"));
+        assertEquals(0, limiter.acquireRuleSet("key:k", "default-20char"));
+        assertEquals(0, limiter.acquireEndpoint("key:k", "/api/barcodes/{code}.png"));
+        assertEquals(SECOND, limiter.acquireEndpoint("key:k", "/api/barcodes/{code}.png"));
+        assertEquals(2, limiter.getRejectedCount());
+    }
+
+    @Test
+    void fullTable_rejectsNewClientsWithoutSharingBuckets_untilSweepMakesRoom() {
+        AtomicLong clock = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(true, "1:1", "", "", "", 2, clock::get);
+
+        assertEquals(0, limiter.acquireEndpoint("ip:a", "/api/convert"));
+        assertEquals(0, limiter.acquireEndpoint("ip:b", "/api/convert"));
+        assertEquals(SECOND, limiter.acquireEndpoint("ip:c", "/api/convert")); // Over the cap, and no bucket is refilled
+        assertEquals(SECOND, limiter.acquireEndpoint("ip:d", "/api/convert"));
+        assertEquals(2, limiter.getTrackedBucketCount());
+        assertTrue(limiter.acquireEndpoint("ip:a", "/api/convert") > 0); // Tracked clients keep their own buckets
+
+        clock.addAndGet(2 * SECOND);
+        assertEquals(0, limiter.acquireEndpoint("ip:c", "/api/convert")); // Refilled buckets were swept to make room
+        assertEquals(0, limiter.acquireEndpoint("ip:d", "/api/convert"));
+        assertTrue(limiter.acquireEndpoint("ip:c", "/api/convert") > 0);  // c and d do not share a bucket
+        assertEquals(2, limiter.getTrackedBucketCount());
+    }
+
+    @Test
+    void requests_sweepRefilledBucketsAFewAtATime() {
+        AtomicLong clock = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(true, "1:1", "", "", "", 1000, clock::get);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquireEndpoint("ip:" + i, "/api/convert");
+        }
+        assertEquals(100, limiter.getTrackedBucketCount());
+
+        clock.addAndGet(2 * SECOND);
+        limiter.acquireEndpoint("ip:busy", "/api/convert");
+        assertTrue(limiter.getTrackedBucketCount() > 90); // One request examines only a few buckets
+        for (int i = 0; i < 50; i++) {
+            limiter.acquireEndpoint("ip:busy", "/api/convert");
+        }
+        assertEquals(1, limiter.getTrackedBucketCount());
+    }
+
+    @Test
+    void acquire_admitsExactlyBurstUnderContention() throws Exception {
+        RateLimiter limiter = new RateLimiter(true, "", "/api/convert=0.001:500", "", "", 1000, () -> 0L);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.acquireEndpoint("ip:shared", "/api/convert") == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(500, admitted.get());
+        assertEquals(3500, limiter.getRejectedCount());
+    }
+
+    @Test
+    void clientKey_honorsOnlyConfiguredApiKeys_andDisabledLimiterAdmitsAll() {
+        RateLimiter limiter = new RateLimiter(true, "1:1", "", "", "station-4, station-5", 10, () -> 0L);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        assertEquals("ip:10.0.0.7", limiter.clientKey(request));
+        request.addHeader(RateLimiter.API_KEY_HEADER, " station-4 ");
+        assertEquals("key:station-4", limiter.clientKey(request));
+
+        MockHttpServletRequest madeUp = new MockHttpServletRequest();
+        madeUp.setRemoteAddr("10.0.0.7");
+        madeUp.addHeader(RateLimiter.API_KEY_HEADER, "made-up-" + System.nanoTime());
+        assertEquals("ip:10.0.0.7", limiter.clientKey(madeUp)); // A new key per request does not escape the limit
+
+        RateLimiter disabled = new RateLimiter(false, "1:1", "", "", "", 10, () -> 0L);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, disabled.acquireEndpoint("ip:a", "/api/convert"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(true, "", "/api/convert", "", "", 10, () -> 0L));
+    }
+}
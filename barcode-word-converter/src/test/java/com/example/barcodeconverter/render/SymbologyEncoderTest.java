@@ -0,0 +1,110 @@
+package com.example.barcodeconverter.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbologyEncoderTest {
+
+    @Test
+    void code128_choosesCodeSetsAndComputesCheckSymbol() {
+        // 104 + 48*1 + 42*2 + 42*3 + 17*4 + 18*5 + 19*6 + 35*7 = 879; 879 mod 103 = 55
+        assertArrayEquals(new int[]{104, 48, 42, 42, 17, 18, 19, 35, 55}, Code128Encoder.symbols("PJJ123C"));
+        // All digits: set C from the start; 105 + 12 + 34*2 + 56*3 + 78*4 = 665; 665 mod 103 = 47
+        assertArrayEquals(new int[]{105, 12, 34, 56, 78, 47}, Code128Encoder.symbols("12345678"));
+        // Trailing digit run switches to set C: 104 + 33 + 34*2 + 35*3 + 99*4 + 12*5 + 34*6 = 970; mod 103 = 43
+        assertArrayEquals(new int[]{104, 33, 34, 35, 99, 12, 34, 43}, Code128Encoder.symbols("ABC1234"));
+        // Odd digit count: the last digit drops back to set B; 105 + 12 + 68 + 300 + 84 = 569; mod 103 = 54
+        assertArrayEquals(new int[]{105, 12, 34, 100, 21, 54}, Code128Encoder.symbols("12345"));
+        assertArrayEquals(new int[]{104, 65, 101, 73, 100, 66}, Arrays.copyOf(Code128Encoder.symbols("a\tb"), 6)); // Tab needs set A
+        assertThrows(IllegalArgumentException.class, () -> Code128Encoder.symbols("café"));
+
+        ModuleMatrix matrix = Code128Encoder.encode("12345678");
+        assertEquals(6 * 11 + 13, matrix.getWidth());
+        assertTrue(matrix.isLinear());
+        assertTrue(matrix.isDark(0, 0));
+        assertTrue(matrix.isDark(matrix.getWidth() - 1, 0)); // Termination bar
+    }
+
+    @Test
+    void qr_errorCorrectionAndFormatInformationMatchReferenceValues() {
+        // "HELLO WORLD" at 1-M, from the worked example of the standard
+        int[] data = {32, 91, 11, 120, 209, 114, 220, 77, 67, 64, 236, 17, 236, 17, 236, 17};
+        assertArrayEquals(new int[]{196, 35, 39, 119, 235, 215, 231, 226, 93, 23},
+                          ReedSolomon.QR.remainder(data, 0, data.length, ReedSolomon.QR.generator(10)));
+        assertEquals(0b101010000010010, QrCodeEncoder.formatBits(0));
+        assertEquals(0b000111110010010100, QrCodeEncoder.versionBits(7));
+        int[] expectedCapacities = {16, 28, 44, 64, 86, 108, 124, 154, 182, 216};
+        for (int version = 1; version <= QrCodeEncoder.MAX_VERSION; version++) {
+            assertEquals(expectedCapacities[version - 1], QrCodeEncoder.dataCodewordCount(version), "Version " + version);
+        }
+
+        int[] padded = QrCodeEncoder.dataCodewords("AB".getBytes(), 1);
+        assertArrayEquals(new int[]{0x40, 0x24, 0x14, 0x20, 0xEC, 0x11}, Arrays.copyOf(padded, 6));
+
+        assertEquals(21, QrCodeEncoder.encode("1234T5678").getWidth());
+        ModuleMatrix larger = QrCodeEncoder.encode("X".repeat(200));
+        assertEquals(57, larger.getWidth()); // Version 10
+        assertTrue(larger.isDark(0, 0) && larger.isDark(6, 6) && !larger.isDark(1, 1)); // Finder pattern
+        assertThrows(IllegalArgumentException.class, () -> QrCodeEncoder.encode("X".repeat(300)));
+    }
+
+    @Test
+    void dataMatrix_codewordsAndPlacementCoverEveryBitOnce() {
+        // "123456" in a 10x10 symbol: three digit-pair codewords and five error correction codewords
+        assertArrayEquals(new int[]{142, 164, 186, 114, 25, 5, 88, 102},
+                          DataMatrixEncoder.codewords(DataMatrixEncoder.asciiEncode("123456".getBytes()), 3, 5));
+        int[] padded = DataMatrixEncoder.codewords(DataMatrixEncoder.asciiEncode("A".getBytes()), 3, 5);
+        assertEquals(66, padded[0]);
+        assertEquals(129, padded[1]);
+        assertEquals(129 + (149 * 3) % 253 + 1 - 254, padded[2]); // Randomized second pad
+
+        int[][] sizes = {{10, 8}, {12, 12}, {14, 18}, {16, 24}, {18, 32}, {20, 40}, {22, 50}, {24, 60}, {26, 72}};
+        for (int[] size : sizes) {
+            int region = size[0] - 2;
+            int[] placement = DataMatrixEncoder.placement(region, region);
+            boolean[] seen = new boolean[size[1] * 10 + 9];
+            for (int value : placement) {
+                if (value >= 10) {
+                    assertFalse(seen[value], "Module placed twice in " + size[0] + "x" + size[0]);
+                    seen[value] = true;
+                }
+            }
+            for (int codeword = 1; codeword <= size[1]; codeword++) {
+                for (int bit = 1; bit <= 8; bit++) {
+                    assertTrue(seen[codeword * 10 + bit], "Missing codeword " + codeword + " bit " + bit + " in " + size[0] + "x" + size[0]);
+                }
+            }
+        }
+
+        ModuleMatrix matrix = DataMatrixEncoder.encode("1234T5678");
+        assertEquals(12, matrix.getWidth());
+        for (int i = 0; i < 12; i++) {
+            assertTrue(matrix.isDark(0, i) && matrix.isDark(i, 11)); // L-shaped finder
+            assertEquals(i % 2 == 0, matrix.isDark(i, 0));          // Clock track
+        }
+        assertThrows(IllegalArgumentException.class, () -> DataMatrixEncoder.encode("X".repeat(45)));
+    }
+
+    @Test
+    void png_hasValidHeaderAndScaledDimensions() {
+        ModuleMatrix matrix = QrCodeEncoder.encode("1234T5678");
+        PngEncoder encoder = new PngEncoder();
+        byte[] png = encoder.encode(matrix, 3, Symbology.QR.getQuietZone(), 50);
+        assertArrayEquals(new byte[]{(byte) 0x89, 'P', 'N', 'G'}, Arrays.copyOf(png, 4));
+        assertEquals((21 + 8) * 3, readInt(png, 16));
+        assertEquals((21 + 8) * 3, readInt(png, 20));
+        assertArrayEquals(png, encoder.encode(matrix, 3, Symbology.QR.getQuietZone(), 50)); // Reused buffers leave no residue
+
+        byte[] linear = encoder.encode(Code128Encoder.encode("12345678"), 2, 10, 50);
+        assertEquals((79 + 20) * 2, readInt(linear, 16));
+        assertEquals((50 + 20) * 2, readInt(linear, 20));
+        encoder.close();
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+}
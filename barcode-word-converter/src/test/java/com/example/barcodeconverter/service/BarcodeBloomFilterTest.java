@@ -0,0 +1,114 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.RuleSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarcodeBloomFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void filter_hasNoFalseNegativesAndBoundedFalsePositivesAfterReopen() throws Exception {
+        Path file = tempDir.resolve("codes.bloom");
+        try (BarcodeBloomFilter filter = BarcodeBloomFilter.create(file, "bloom-test", 20000, 0.01)) {
+            for (int i = 0; i < 20000; i++) {
+                filter.put("ISSUED" + i);
+            }
+            assertTrue(filter.getInsertionCount() > 19900 && filter.getInsertionCount() <= 20000);
+        }
+
+        try (BarcodeBloomFilter reopened = BarcodeBloomFilter.open(file)) {
+            assertEquals("bloom-test", reopened.getRuleSetName());
+            for (int i = 0; i < 20000; i++) {
+                assertTrue(reopened.mightContain("ISSUED" + i), "False negative for ISSUED" + i);
+            }
+            int falsePositives = 0;
+            for (int i = 0; i < 100000; i++) {
+                if (reopened.mightContain("UNKNOWN" + i)) {
+                    falsePositives++;
+                }
+            }
+            assertTrue(falsePositives < 2000, "False-positive rate too high: " + falsePositives + " of 100000");
+        }
+    }
+
+    @Test
+    void concurrentPuts_doNotLoseBits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (BarcodeBloomFilter filter = BarcodeBloomFilter.create(tempDir.resolve("concurrent.bloom"), "bloom-test", 1000, 0.01)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        filter.put("T" + thread + "-" + i); // Small filter, so threads keep hitting the same words
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            for (int t = 0; t < 4; t++) {
+                for (int i = 0; i < 2000; i++) {
+                    assertTrue(filter.mightContain("T" + t + "-" + i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void registry_gatesDecodeAndLearnsEveryIssuedBarcode() throws Exception {
+        ConversionService conversionService = WordListFixture.withWords(10);
+        RuleSet ruleSet = RuleSetFixture.fourWords("gated", 1);
+
+        IssuedBarcodeRegistry registry = new IssuedBarcodeRegistry(true, tempDir.resolve("issued").toString(), 1000, 0.0001);
+        conversionService.setIssuedBarcodeRegistry(registry);
+        assertTrue(conversionService.decode("0123", ruleSet).isSuccess(), "RuleSets without a filter are not gated");
+
+        assertEquals(1, registry.importBarcodes("gated", List.of("0123", "0123")));
+        assertTrue(conversionService.decode("0123", ruleSet).isSuccess());
+        ConversionResult unknown = conversionService.decode("4567", ruleSet);
+        assertEquals(ConversionErrorCode.NOT_ISSUED, unknown.getErrorCode());
+        assertTrue(unknown.getMessage().contains("gated"));
+        assertEquals(ConversionErrorCode.LENGTH_MISMATCH, conversionService.validate("45678", ruleSet).getErrorCode());
+
+        TupleAllocator allocator = new TupleAllocator(conversionService, tempDir.resolve("allocator").toString(), 2, 4);
+        String allocated = allocator.allocate(ruleSet).getBarcode();
+        assertTrue(conversionService.validate(allocated, ruleSet).isSuccess());
+        String encoded = conversionService.wordsToBarcode(List.of("w9", "w8", "w7", "w6"), ruleSet);
+        assertTrue(conversionService.validate(encoded, ruleSet).isSuccess());
+        BarcodeGenerationService generationService = new BarcodeGenerationService(conversionService, 1, 100);
+        ByteArrayOutputStream generated = new ByteArrayOutputStream();
+        generationService.prepareRange(ruleSet, 5000, 3, BarcodeGenerationService.OutputFormat.CSV).writeTo(generated);
+        generationService.shutdown();
+        for (String line : generated.toString(StandardCharsets.UTF_8).split("\n")) {
+            String barcode = line.split(",")[0];
+            if (!barcode.equals("barcode")) {
+                assertTrue(conversionService.validate(barcode, ruleSet).isSuccess(), barcode);
+            }
+        }
+        registry.close();
+
+        // A new registry maps the persisted filter at startup
+        IssuedBarcodeRegistry restarted = new IssuedBarcodeRegistry(true, tempDir.resolve("issued").toString(), 1000, 0.0001);
+        restarted.init();
+        assertTrue(restarted.mightBeIssued("gated", allocated));
+        assertTrue(restarted.mightBeIssued("other", "4567"));
+        restarted.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarcodeGenerationServiceTest {
+
+    private ConversionService conversionService;
+    private BarcodeGenerationService generationService;
+    private RuleSet ruleSet;
+
+    @BeforeEach
+    void setUp() {
+        conversionService = WordListFixture.withWords(12);
+        generationService = new BarcodeGenerationService(conversionService, 3, 1_000_000);
+
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 2, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 1, SegmentType.STATIC, "T", false));
+        rules.add(new BarcodeSegmentRule(2, 2, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(3, 1, SegmentType.STATIC_OR, Arrays.asList("E", "X"), false));
+        rules.add(new BarcodeSegmentRule(4, 2, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(5, 2, SegmentType.BASE64, (String) null, false));
+        rules.add(new BarcodeSegmentRule(6, 2, SegmentType.NUMERIC, (String) null, true));
+        ruleSet = new RuleSet("gen-test", rules);
+        ruleSet.validateRules();
+    }
+
+    @AfterEach
+    void tearDown() {
+        generationService.shutdown();
+    }
+
+    private static String write(BarcodeGenerationService.Generation generation) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generation.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void range_isMixedRadixInOrderAndDecodable() throws IOException {
+        assertEquals(12L * 12 * 12 * 12, generationService.getCombinationCount(ruleSet));
+        long count = BarcodeGenerationService.CHUNK_ROWS * 5L + 17; // Several chunks plus a partial one
+        String csv = write(generationService.prepareRange(ruleSet, 100, count, BarcodeGenerationService.OutputFormat.CSV));
+        String[] lines = csv.split("\n");
+        assertEquals("barcode,word1,word2,word3,word4", lines[0]);
+        assertEquals(count + 1, lines.length);
+        // 100 = 0*1728 + 0*144 + 8*12 + 4
+        assertEquals("00T00E08AA04,w0,w0,w8,w4", lines[1]);
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split(",");
+            long index = 100 + i - 1;
+            assertEquals(Arrays.asList("w" + index / 1728, "w" + index / 144 % 12, "w" + index / 12 % 12, "w" + index % 12),
+                         conversionService.barcodeToWords(fields[0], ruleSet));
+        }
+    }
+
+    @Test
+    void random_dependsOnlyOnSeed() throws IOException {
+        BarcodeGenerationService serial = new BarcodeGenerationService(conversionService, 1, 1_000_000);
+        try {
+            long count = BarcodeGenerationService.CHUNK_ROWS * 3L + 5;
+            String parallelRun = write(generationService.prepareRandom(ruleSet, 42, count, BarcodeGenerationService.OutputFormat.NDJSON));
+            String serialRun = write(serial.prepareRandom(ruleSet, 42, count, BarcodeGenerationService.OutputFormat.NDJSON));
+            assertEquals(serialRun, parallelRun);
+            assertNotEquals(parallelRun, write(generationService.prepareRandom(ruleSet, 43, count, BarcodeGenerationService.OutputFormat.NDJSON)));
+            assertTrue(parallelRun.startsWith("{\"barcode\":\""));
+        } finally {
+            serial.shutdown();
+        }
+    }
+
+    @Test
+    void tuples_keepOrderAndRejectUnknownWordsUpFront() throws IOException {
+        List<List<String>> tuples = Arrays.asList(
+                Arrays.asList("w1", "w2", "w3", "w4"),
+                Arrays.asList("w11", "w0", "w10", "w5"));
+        String ndjson = write(generationService.prepareTuples(ruleSet, tuples, BarcodeGenerationService.OutputFormat.NDJSON));
+        assertEquals("{\"barcode\":\"01T02E03AA04\",\"words\":[\"w1\",\"w2\",\"w3\",\"w4\"]}\n" +
+                     "{\"barcode\":\"11T00E10AA05\",\"words\":[\"w11\",\"w0\",\"w10\",\"w5\"]}\n", ndjson);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                generationService.prepareTuples(ruleSet, List.of(Arrays.asList("w1", "nope", "w3", "w4")), BarcodeGenerationService.OutputFormat.CSV));
+        assertTrue(e.getMessage().contains("nope"));
+        assertThrows(IllegalArgumentException.class, () ->
+                generationService.prepareRange(ruleSet, 20_000, 1000, BarcodeGenerationService.OutputFormat.CSV));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.render.ImageFormat;
+import com.example.barcodeconverter.render.RenderCache;
+import com.example.barcodeconverter.render.Symbology;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarcodeImageServiceTest {
+
+    @Test
+    void render_servesRepeatsFromCacheAndEvictsLeastRecentlyUsed() {
+        BarcodeImageService service = new BarcodeImageService(1_000_000, 20, 2);
+        byte[] first = service.render("1234T5678", Symbology.CODE128, ImageFormat.PNG, 2);
+        assertSame(first, service.render("1234T5678", Symbology.CODE128, ImageFormat.PNG, 2));
+        assertNotSame(first, service.render("1234T5678", Symbology.CODE128, ImageFormat.PNG, 3)); // Size is part of the key
+        RenderCache cache = service.getCache();
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        String svg = new String(service.render("1234T5678", Symbology.QR, ImageFormat.SVG, 4), StandardCharsets.UTF_8);
+        assertTrue(svg.contains("width=\"116\"") && svg.contains("viewBox=\"0 0 29 29\""), svg); // 21 modules + quiet zones
+        assertThrows(IllegalArgumentException.class, () -> service.render("1234T5678", Symbology.QR, ImageFormat.PNG, 21));
+        service.close();
+
+        BarcodeImageService small = new BarcodeImageService(4_000, 20, 2);
+        for (int i = 0; i < 50; i++) {
+            small.render("CODE" + i, Symbology.DATAMATRIX, ImageFormat.SVG, 1);
+        }
+        assertTrue(small.getCache().getTotalBytes() <= 4_000);
+        assertTrue(small.getCache().getEntryCount() < 50);
+        small.render("CODE49", Symbology.DATAMATRIX, ImageFormat.SVG, 1);
+        assertEquals(1, small.getCache().getHitCount()); // Most recent entry survived eviction
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.ChecksumAlgorithm;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The batch paths must agree exactly with the scalar validate()/decode() for every row
+public class BatchValidationKernelTest {
+
+    private static final String MUTATION_CHARS = "0123456789AEXYTZab+/=#é";
+
+    private ConversionService conversionService;
+
+    @BeforeEach
+    void setUp() {
+        conversionService = WordListFixture.withWords("word", 5000); // Smaller than 10^4, so some 4-digit indexes are out of range
+    }
+
+    private static RuleSet defaultLayout() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 1, SegmentType.STATIC, "T", false));
+        rules.add(new BarcodeSegmentRule(2, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(3, 1, SegmentType.STATIC_OR, Arrays.asList("E", "X", "Y"), false));
+        rules.add(new BarcodeSegmentRule(4, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(5, 2, SegmentType.BASE64, (String) null, false));
+        rules.add(new BarcodeSegmentRule(6, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(7, 1, SegmentType.STATIC, "T", false));
+        return RuleSetFixture.validated("default-like", rules);
+    }
+
+    private static RuleSet paddedLayout() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 3, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 2, SegmentType.STATIC_OR, Arrays.asList("AB", "BA", "ZZ"), false));
+        rules.add(new BarcodeSegmentRule(2, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(3, 4, SegmentType.BASE64, (String) null, false));
+        rules.add(new BarcodeSegmentRule(4, 2, SegmentType.NUMERIC, (String) null, false));
+        rules.add(new BarcodeSegmentRule(5, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(6, 1, SegmentType.NUMERIC, (String) null, true));
+        return RuleSetFixture.validated("padded", rules);
+    }
+
+    private static RuleSet checksumLayout() {
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(2, 1, ChecksumAlgorithm.LUHN, null));
+        rules.add(new BarcodeSegmentRule(3, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(4, 4, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(5, 2, ChecksumAlgorithm.MOD97, Arrays.asList(1, 4)));
+        return RuleSetFixture.validated("checksums", rules);
+    }
+
+    private static List<String> mutate(SplittableRandom random, String[] seeds, int count) {
+        List<String> barcodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            char[] chars = seeds[random.nextInt(seeds.length)].toCharArray();
+            int mutations = random.nextInt(3);
+            for (int m = 0; m < mutations; m++) {
+                chars[random.nextInt(chars.length)] = MUTATION_CHARS.charAt(random.nextInt(MUTATION_CHARS.length()));
+            }
+            String barcode = new String(chars);
+            if (random.nextInt(50) == 0) {
+                barcode = barcode.substring(1); // Wrong length
+            }
+            barcodes.add(barcode);
+        }
+        return barcodes;
+    }
+
+    private void assertMatchesScalar(List<String> barcodes, RuleSet ruleSet) {
+        List<ConversionResult> validated = conversionService.validateBatch(barcodes, ruleSet);
+        List<ConversionResult> decoded = conversionService.decodeBatch(barcodes, ruleSet);
+        assertEquals(barcodes.size(), validated.size());
+        assertEquals(barcodes.size(), decoded.size());
+        for (int i = 0; i < barcodes.size(); i++) {
+            ConversionResult expected = conversionService.decode(barcodes.get(i), ruleSet);
+            String context = "barcode '" + barcodes.get(i) + "'";
+            assertEquals(expected.getErrorCode(), validated.get(i).getErrorCode(), context);
+            assertEquals(expected.getPosition(), validated.get(i).getPosition(), context);
+            assertEquals(expected.getErrorCode(), decoded.get(i).getErrorCode(), context);
+            assertEquals(expected.getWords(), decoded.get(i).getWords(), context);
+        }
+    }
+
+    @Test
+    void batch_matchesScalar_defaultLayout() {
+        String[] seeds = {"0001T0002E0003AA0004T", "4999T0000Y1234+/0042T", "0123T4567XA0999==0000T"};
+        List<String> barcodes = mutate(new SplittableRandom(7), new String[]{seeds[0], seeds[1]}, 5000);
+        barcodes.add(seeds[2]); // Wrong length, and padding where none is allowed
+        barcodes.add("");
+        assertMatchesScalar(barcodes, defaultLayout());
+    }
+
+    @Test
+    void batch_matchesScalar_paddingAndMultiCharAlternatives() {
+        String[] seeds = {"001AB0002Zm==1200049", "499ZZ4999abcd0000010", "007BA0100QQ=A9912342"};
+        assertMatchesScalar(mutate(new SplittableRandom(11), seeds, 5000), paddedLayout());
+    }
+
+    @Test
+    void batch_matchesScalar_checksums() {
+        RuleSet ruleSet = checksumLayout();
+        String[] seeds = new String[4];
+        int[][] tuples = {{1, 2, 3, 4}, {4999, 0, 17, 4242}, {123, 4567, 890, 12}, {0, 0, 0, 0}};
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = conversionService.indicesToBarcode(tuples[i], ruleSet).getBarcodeOrThrow();
+            assertTrue(conversionService.validate(seeds[i], ruleSet).isSuccess(), seeds[i]);
+        }
+        List<String> barcodes = mutate(new SplittableRandom(13), seeds, 5000);
+        assertMatchesScalar(barcodes, ruleSet);
+        assertTrue(conversionService.validateBatch(barcodes, ruleSet).stream()
+                .anyMatch(result -> result.getErrorCode() == ConversionErrorCode.CHECKSUM_MISMATCH));
+    }
+
+    @Test
+    void smallBatch_usesScalarPath() {
+        RuleSet ruleSet = defaultLayout();
+        List<ConversionResult> results = conversionService.validateBatch(
+                Arrays.asList("0001T0002E0003AA0004T", "0001S0002E0003AA0004T"), ruleSet);
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(ConversionErrorCode.STATIC_MISMATCH, results.get(1).getErrorCode());
+        assertEquals(4, results.get(1).getPosition());
+    }
+}
@@ -240,4 +240,97 @@ public class ConversionServiceTest {
         assertTrue(exception.getMessage().contains("is too long for segment rule"));
         assertTrue(exception.getMessage().contains("Word index 10 for word 'mango'"));
     }
+
+    @Test
+    void decode_invalidStaticSegment_returnsErrorCodeWithoutThrowing() {
+        ConversionResult result = conversionService.decode("0000XZ0001AAA0002Y0003", mockRuleSet);
+        assertFalse(result.isSuccess());
+        assertEquals(ConversionErrorCode.STATIC_MISMATCH, result.getErrorCode());
+        assertEquals(1, result.getSegmentOrder());
+        assertEquals(5, result.getPosition());
+        assertNull(result.getWords());
+        assertTrue(result.getMessage().contains("Static segment mismatch"));
+    }
+
+    @Test
+    void decode_wordIndexOutOfRange_reportsSegmentStart() {
+        ConversionResult result = conversionService.decode("0000XX0001AAA0002Y0016", mockRuleSet);
+        assertEquals(ConversionErrorCode.WORD_INDEX_OUT_OF_RANGE, result.getErrorCode());
+        assertEquals(6, result.getSegmentOrder());
+        assertEquals(18, result.getPosition());
+        assertTrue(result.getMessage().contains("Invalid word index 16"));
+    }
+
+    @Test
+    void decode_success_returnsWords() {
+        ConversionResult result = conversionService.decode("0000XX0001AAA0002Y0003", mockRuleSet);
+        assertTrue(result.isSuccess());
+        assertNull(result.getErrorCode());
+        assertNull(result.getMessage());
+        assertEquals(Arrays.asList("apple", "banana", "cherry", "date"), result.getWords());
+    }
+
+    @Test
+    void encode_wordNotFound_returnsErrorCode() {
+        ConversionResult result = conversionService.encode(Arrays.asList("apple", "nonexistent", "cherry", "date"), mockRuleSet);
+        assertEquals(ConversionErrorCode.WORD_NOT_FOUND, result.getErrorCode());
+        assertEquals(2, result.getSegmentOrder());
+        assertEquals("Word not found in dictionary: nonexistent", result.getMessage());
+    }
+
+    @Test
+    void validate_doesNotMaterializeWords() {
+        ConversionResult valid = conversionService.validate("0000XX0001AAA0002Y0003", mockRuleSet);
+        assertTrue(valid.isSuccess());
+        assertNull(valid.getWords());
+
+        ConversionResult invalid = conversionService.validate("0000XX0001AAA0002Y0016", mockRuleSet);
+        assertEquals(ConversionErrorCode.WORD_INDEX_OUT_OF_RANGE, invalid.getErrorCode());
+    }
+
+    @Test
+    void indicesToBarcode_matchesWordsToBarcode() {
+        ConversionResult result = conversionService.indicesToBarcode(new int[]{1, 2, 15, 3}, mockRuleSet);
+        assertTrue(result.isSuccess());
+        assertEquals(conversionService.wordsToBarcode(Arrays.asList("banana", "cherry", "raspberry", "date"), mockRuleSet),
+                     result.getBarcode());
+        assertEquals("0001XX0002AAA0015Y0003", result.getBarcode());
+
+        ConversionResult outOfRange = conversionService.indicesToBarcode(new int[]{1, 2, 16, 3}, mockRuleSet);
+        assertEquals(ConversionErrorCode.WORD_INDEX_OUT_OF_RANGE, outOfRange.getErrorCode());
+        assertEquals(4, outOfRange.getSegmentOrder());
+    }
+
+    @Test
+    void init_repeatedWordKeepsItsFirstIndex() throws IOException {
+        ConversionService loaded = new ConversionService();
+        loaded.init();
+        assertTrue(loaded.getDuplicateWordCount() > 0); // words.txt repeats common words further down
+        assertEquals(0, loaded.getWordIndex("that"));
+        for (int i = 0; i < loaded.getWordCount(); i++) {
+            assertTrue(loaded.getWordIndex(loaded.getWord(i)) <= i);
+        }
+        assertTrue(loaded.getDictionaryBytes() > 40L * loaded.getWordCount());
+    }
+
+    @Test
+    void init_repeatedWordKeepsItsLastIndexWhenConfigured() throws IOException {
+        ConversionService first = new ConversionService();
+        first.init();
+        ConversionService last = new ConversionService();
+        last.setRepeatedWordIndex("last");
+        last.init();
+
+        int changed = 0;
+        for (int i = 0; i < last.getWordCount(); i++) {
+            String word = last.getWord(i);
+            assertTrue(last.getWordIndex(word) >= i);
+            if (first.getWordIndex(word) == i && last.getWordIndex(word) != i) { // Each repeated word once
+                changed++;
+            }
+        }
+        assertTrue(last.getWordIndex("that") > 0);
+        assertTrue(changed > 0 && changed <= first.getDuplicateWordCount());
+        assertThrows(IllegalArgumentException.class, () -> last.setRepeatedWordIndex("middle"));
+    }
 }
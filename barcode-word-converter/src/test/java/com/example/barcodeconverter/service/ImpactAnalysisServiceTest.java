@@ -0,0 +1,78 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImpactAnalysisServiceTest {
+
+    // Four word segments of the given lengths followed by a one-character STATIC_OR marker
+    private static RuleSet ruleSet(String marker, int... wordLengths) {
+        List<BarcodeSegmentRule> rules = RuleSetFixture.wordSegments(wordLengths);
+        rules.add(new BarcodeSegmentRule(wordLengths.length, 1, SegmentType.STATIC_OR, List.of("A", marker), false));
+        return RuleSetFixture.validated("impact", rules);
+    }
+
+    @Test
+    void analyze_countsEveryOutcomeAcrossChunksAndKeepsFirstSamples() throws Exception {
+        ImpactAnalysisService service = new ImpactAnalysisService(WordListFixture.withWords(90), 2, 3);
+        try {
+            RuleSet current = ruleSet("B", 2, 2, 2, 2);
+            RuleSet proposed = ruleSet("C", 2, 2, 2, 2);
+            // Several chunks: 'A' decodes under both, 'B' only today and 'C' only after the edit;
+            // word index 95 is out of range for the 90-word list under both
+            StringBuilder corpus = new StringBuilder("barcode,word1,word2,word3,word4\n");
+            int rows = ImpactAnalysisService.CHUNK_ROWS * 3 + 17;
+            long[] byMarker = new long[3];
+            for (int i = 0; i < rows; i++) {
+                byMarker[i % 3]++;
+                corpus.append(String.format("%02d%02d0102%c", i % 90, (i / 90) % 90, "ABC".charAt(i % 3))).append(",x\n");
+            }
+            corpus.append("95010203A\n");
+
+            ImpactAnalysisService.Report report = service.analyze(current, proposed, new BufferedReader(new StringReader(corpus.toString())));
+            assertEquals(rows + 1, report.getTotal());
+            assertEquals(byMarker[0], report.getUnchanged());
+            assertEquals(byMarker[1], report.getBroken());
+            assertEquals(byMarker[2], report.getFixed());
+            assertEquals(1, report.getStillInvalid());
+            assertEquals(0, report.getChanged());
+            assertEquals(byMarker[1], report.getBrokenByErrorCode().get(ConversionErrorCode.STATIC_OR_MISMATCH));
+
+            assertEquals(3, report.getBrokenSamples().size());
+            assertEquals("01000102B", report.getBrokenSamples().get(0).getBarcode());
+            assertEquals(List.of("w1", "w0", "w1", "w2"), report.getBrokenSamples().get(0).getCurrentWords());
+            assertNull(report.getBrokenSamples().get(0).getProposedWords());
+            assertEquals(ConversionErrorCode.STATIC_OR_MISMATCH, report.getBrokenSamples().get(0).getErrorCode());
+            assertEquals("02000102C", report.getFixedSamples().get(0).getBarcode());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void analyze_reportsBarcodesThatDecodeToDifferentWords() throws Exception {
+        ImpactAnalysisService service = new ImpactAnalysisService(WordListFixture.withWords(90), 1, 10);
+        try {
+            // Moving a digit from the first word segment to the second changes what "10050102" means
+            RuleSet current = ruleSet("B", 2, 2, 2, 2);
+            RuleSet proposed = ruleSet("B", 1, 3, 2, 2);
+            ImpactAnalysisService.Report report = service.analyze(current, proposed,
+                    new BufferedReader(new StringReader("00050102A\n10050102A\n")));
+            assertEquals(1, report.getUnchanged());
+            assertEquals(1, report.getChanged());
+            ImpactAnalysisService.Sample sample = report.getChangedSamples().get(0);
+            assertEquals(List.of("w10", "w5", "w1", "w2"), sample.getCurrentWords());
+            assertEquals(List.of("w1", "w5", "w1", "w2"), sample.getProposedWords());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.barcodeconverter.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeasedSequenceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void concurrentCallers_neverReceiveTheSameValue() throws Exception {
+        LeasedSequence sequence = LeasedSequence.open(tempDir.resolve("seq.json"), 1_000_000, 4, 64, Map.of());
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    assertTrue(seen.add(sequence.next()));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, seen.size());
+        assertTrue(sequence.getLeasedUpTo() >= 40_000);
+    }
+
+    @Test
+    void reopen_skipsLeasedValuesAndKeepsAttributes() throws Exception {
+        Path file = tempDir.resolve("seq.json");
+        LeasedSequence first = LeasedSequence.open(file, 1000, 1, 100, Map.of("key", 7));
+        Set<Long> issued = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            issued.add(first.next());
+        }
+        // Simulate a crash: the rest of the leased block is never handed out
+        LeasedSequence recovered = LeasedSequence.open(file, 5, 1, 100, Map.of("key", 99));
+        assertEquals(1000, recovered.getLimit());
+        assertEquals(7, ((Number) recovered.getAttributes().get("key")).intValue());
+        long next = recovered.next();
+        assertFalse(issued.contains(next));
+        assertEquals(100, next);
+    }
+
+    @Test
+    void exhaustedSequence_throws() throws Exception {
+        LeasedSequence sequence = LeasedSequence.open(tempDir.resolve("small.json"), 3, 2, 2, Map.of());
+        Set<Long> values = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            values.add(sequence.next());
+        }
+        assertEquals(Set.of(0L, 1L, 2L), values);
+        assertThrows(IllegalStateException.class, sequence::next);
+    }
+}
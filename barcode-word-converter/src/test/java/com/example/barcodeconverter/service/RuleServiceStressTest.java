@@ -0,0 +1,251 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeLayout;
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races RuleSet reloads, saves and deletes against reader threads that look RuleSets up and convert with
+ * them, and checks that no reader ever sees a RuleSet missing, half-built or out of step with its compiled
+ * layout. Throughput under contention is printed. Runs briefly by default; for a longer soak use
+ * -Dstress.threads=500 -Dstress.millis=60000.
+ */
+public class RuleServiceStressTest {
+
+    private static final int READERS = Integer.getInteger("stress.threads", 64);
+    private static final long DURATION_MILLIS = Long.getLong("stress.millis", 1500L);
+    private static final int STABLE_RULE_SETS = 20;
+
+    @TempDir
+    Path tempDir;
+
+    private ConversionService conversionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        conversionService = new ConversionService();
+        conversionService.init();
+    }
+
+    // Four word segments and a static suffix; the suffix length tells the two versions of the hot RuleSet apart
+    @Test
+    void reloadsRacingReaders_neverExposeMissingRuleSets() throws Exception {
+        RuleService ruleService = new RuleService();
+        ruleService.init();
+        List<String> names = ruleService.getAllRuleSetNames();
+        assertFalse(names.isEmpty());
+
+        Harness harness = new Harness(ruleService, names, null);
+        harness.writer("reload", ruleService::reloadRuleSets);
+        harness.run("eager reload");
+    }
+
+    @Test
+    void eagerSavesAndDeletesRacingReaders_neverExposeMissingOrTornRuleSets() throws Exception {
+        Path bundled = Paths.get("src", "main", "resources", "rules.json");
+        byte[] bundledBefore = Files.readAllBytes(bundled);
+        Path file = tempDir.resolve("rules.json");
+        Files.write(file, bundledBefore);
+        RuleService ruleService = new RuleService();
+        ruleService.setEditableRulesFile(file);
+        ruleService.init();
+        ruleService.saveRuleSet(RuleSetFixture.withSuffix("hot", 4, "A"));
+        List<String> names = new ArrayList<>(ruleService.getAllRuleSetNames());
+
+        // No reload writer: eager reloads read the classpath copy, which saves do not change
+        Harness harness = new Harness(ruleService, names, "churn");
+        boolean[] flip = new boolean[1];
+        harness.writer("save", () -> ruleService.saveRuleSet(RuleSetFixture.withSuffix("hot", 4, (flip[0] = !flip[0]) ? "BB" : "A")));
+        harness.writer("delete", () -> {
+            ruleService.deleteRuleSet("churn");
+            ruleService.saveRuleSet(RuleSetFixture.withSuffix("churn", 4, "C"));
+        });
+        harness.run("eager save/delete");
+
+        assertTrue(ruleService.getRuleSetByName("hot").getVersion() > 1);
+        String written = Files.readString(file);
+        assertTrue(written.contains("\"hot\"") && written.contains("\"churn\""));
+        assertArrayEquals(bundledBefore, Files.readAllBytes(bundled), "the bundled rules.json was modified");
+    }
+
+    @Test
+    void savesDeletesAndReloadsRacingReaders_neverExposeMissingOrTornRuleSets() throws Exception {
+        List<RuleSet> initial = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < STABLE_RULE_SETS; i++) {
+            initial.add(RuleSetFixture.withSuffix("stable-" + i, 4, "S"));
+            names.add("stable-" + i);
+        }
+        initial.add(RuleSetFixture.withSuffix("hot", 4, "A"));
+        initial.add(RuleSetFixture.withSuffix("churn", 4, "C"));
+        names.add("hot");
+        Path file = tempDir.resolve("rules.json");
+        new ObjectMapper().writeValue(file.toFile(), initial);
+        RuleService ruleService = new RuleService(file.toString(), 1L << 20);
+        ruleService.init();
+
+        try {
+            Harness harness = new Harness(ruleService, names, "churn");
+            boolean[] flip = new boolean[1];
+            harness.writer("save", () -> {
+                RuleSet edited = RuleSetFixture.withSuffix("hot", 4, (flip[0] = !flip[0]) ? "BB" : "A");
+                ruleService.saveRuleSet(edited);
+                // Editing the caller's rules after saving must not reach the published RuleSet
+                edited.getRules().get(4).setLength(9);
+                edited.getRules().get(0).setMapsToWord(false);
+            });
+            harness.writer("delete", () -> {
+                ruleService.deleteRuleSet("churn");
+                ruleService.saveRuleSet(RuleSetFixture.withSuffix("churn", 4, "C"));
+            });
+            harness.writer("reload", ruleService::reloadRuleSets);
+            harness.run("catalog save/delete/reload");
+
+            assertTrue(ruleService.getRuleSetByName("hot").getVersion() > 1);
+        } finally {
+            ruleService.close();
+        }
+    }
+
+    private interface Write {
+        void run() throws Exception;
+    }
+
+    private final class Harness {
+        private final RuleService ruleService;
+        private final List<String> names;        // Must resolve on every lookup
+        private final String optionalName;       // Deleted and recreated; may be missing, never torn
+        private final List<Thread> writers = new ArrayList<>();
+        private final AtomicBoolean stop = new AtomicBoolean();
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+
+        Harness(RuleService ruleService, List<String> names, String optionalName) {
+            this.ruleService = ruleService;
+            this.names = names;
+            this.optionalName = optionalName;
+        }
+
+        void writer(String name, Write write) {
+            writers.add(new Thread(() -> {
+                while (!stop.get() && failures.isEmpty()) {
+                    try {
+                        write.run();
+                        writes.increment();
+                    } catch (Exception e) {
+                        failures.add(name + " failed: " + e);
+                    }
+                }
+            }, "stress-" + name));
+        }
+
+        void run(String label) throws InterruptedException {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>(writers);
+            for (int r = 0; r < READERS; r++) {
+                int seed = r;
+                threads.add(new Thread(() -> {
+                    try {
+                        start.await();
+                        read(seed);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException | AssertionError e) {
+                        failures.add(Thread.currentThread().getName() + " failed: " + e);
+                    }
+                }, "stress-reader-" + r));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            Thread.sleep(DURATION_MILLIS);
+            stop.set(true);
+            for (Thread thread : threads) {
+                thread.join(10_000);
+                assertFalse(thread.isAlive(), thread.getName() + " did not stop");
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("Stress %s: %d readers, %.0f lookups+conversions/s, %.0f writes/s%n",
+                    label, READERS, reads.sum() / seconds, writes.sum() / seconds);
+            assertTrue(failures.isEmpty(), () -> failures.size() + " failures, first: " + failures.peek());
+            assertTrue(reads.sum() > 0 && writes.sum() > 0);
+        }
+
+        private void read(int seed) {
+            int[] lastVersion = new int[names.size()];
+            int[] indices = new int[4];
+            int i = seed;
+            while (!stop.get() && failures.isEmpty()) {
+                int n = Math.floorMod(i++, names.size() + (optionalName != null ? 1 : 0));
+                String name = n < names.size() ? names.get(n) : optionalName;
+                RuleSet ruleSet = ruleService.getRuleSetByName(name);
+                if (ruleSet == null) {
+                    if (n < names.size()) {
+                        fail("RuleSet '" + name + "' was missing");
+                    }
+                    continue;
+                }
+                if (n < names.size()) {
+                    // Once a thread has seen a version it must never see an older one
+                    assertTrue(ruleSet.getVersion() >= lastVersion[n], "RuleSet '" + name + "' went back a version");
+                    lastVersion[n] = ruleSet.getVersion();
+                }
+                checkConsistent(ruleSet, indices, i);
+                reads.increment();
+            }
+        }
+
+        // The rules, the compiled layout and a conversion through it must all agree
+        private void checkConsistent(RuleSet ruleSet, int[] indices, int salt) {
+            assertTrue(ruleSet.isValidated(), "RuleSet '" + ruleSet.getName() + "' was not validated");
+            int ruleLength = 0;
+            int wordRules = 0;
+            for (BarcodeSegmentRule rule : ruleSet.getRules()) {
+                ruleLength += rule.getLength();
+                wordRules += rule.isMapsToWord() ? 1 : 0;
+                if (rule.getType() == SegmentType.STATIC) {
+                    assertEquals(rule.getLength(), rule.getStaticValue().length(), "torn STATIC rule in '" + ruleSet.getName() + "'");
+                }
+            }
+            BarcodeLayout layout = ruleSet.getLayout();
+            assertEquals(ruleLength, ruleSet.getTotalBarcodeLength(), "rules and length of '" + ruleSet.getName() + "' disagree");
+            assertEquals(ruleLength, layout.getTotalLength(), "rules and layout of '" + ruleSet.getName() + "' disagree");
+            assertEquals(wordRules, layout.getWordSegments().length);
+            if (wordRules != indices.length) {
+                return;
+            }
+            for (int w = 0; w < indices.length; w++) {
+                int bound = Math.min(conversionService.getWordCount(), layout.getWordSegmentCapacity(w));
+                indices[w] = Math.floorMod(salt * 31 + w * 7919, bound);
+            }
+            char[] barcode = new char[layout.getTotalLength()];
+            layout.writeBarcode(indices, 0, 0L, barcode);
+            ConversionResult decoded = conversionService.decode(new String(barcode), ruleSet);
+            assertTrue(decoded.isSuccess(), () -> "decode under '" + ruleSet.getName() + "' failed: " + decoded.getMessage());
+            for (int w = 0; w < indices.length; w++) {
+                assertEquals(conversionService.getWord(indices[w]), decoded.getWords().get(w));
+            }
+        }
+    }
+}
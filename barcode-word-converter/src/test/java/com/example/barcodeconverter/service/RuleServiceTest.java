@@ -0,0 +1,61 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Catalog mode keeps saves and deletes in the temporary file instead of src/main/resources
+    private RuleService ruleService(String... names) throws Exception {
+        List<RuleSet> ruleSets = new ArrayList<>();
+        for (String name : names) {
+            ruleSets.add(RuleSetFixture.fourWords(name, 2));
+        }
+        Path file = tempDir.resolve("rules.json");
+        new ObjectMapper().writeValue(file.toFile(), ruleSets);
+        RuleService ruleService = new RuleService(file.toString(), 1L << 20);
+        ruleService.init();
+        return ruleService;
+    }
+
+    @Test
+    void searchRuleSetNames_prefixMatchesFirstThenSubstringIgnoringCase() throws Exception {
+        RuleService ruleService = ruleService("acme-labels", "b-ACME", "acme-boxes", "zeta", "x-acme-old");
+        try {
+            assertEquals(List.of("acme-boxes", "acme-labels", "b-ACME", "x-acme-old"), ruleService.searchRuleSetNames("acme", 0, 10));
+            assertEquals(List.of("acme-labels", "b-ACME"), ruleService.searchRuleSetNames("acme", 1, 2));
+            assertEquals(List.of("x-acme-old"), ruleService.searchRuleSetNames(" acme ", 3, 2));
+            assertEquals(List.of("acme-boxes", "acme-labels", "b-ACME"), ruleService.searchRuleSetNames(null, 0, 3));
+            assertEquals(List.of("zeta"), ruleService.searchRuleSetNames("", 4, 3));
+            assertTrue(ruleService.searchRuleSetNames("acme", 0, 0).isEmpty());
+            assertTrue(ruleService.searchRuleSetNames("nothing", 0, 10).isEmpty());
+        } finally {
+            ruleService.close();
+        }
+    }
+
+    @Test
+    void searchRuleSetNames_followsSavesAndDeletes() throws Exception {
+        RuleService ruleService = ruleService("alpha", "beta");
+        try {
+            ruleService.saveRuleSet(RuleSetFixture.fourWords("alpine", 2));
+            assertEquals(List.of("alpha", "alpine"), ruleService.searchRuleSetNames("alp", 0, 10));
+            ruleService.deleteRuleSet("alpha");
+            assertEquals(List.of("alpine"), ruleService.searchRuleSetNames("alp", 0, 10));
+            assertEquals(List.of("alpine", "beta"), ruleService.getAllRuleSetNames());
+        } finally {
+            ruleService.close();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSetCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static RuleSet ruleSet(String name, String marker) {
+        return RuleSetFixture.fourWords(name, 2, new BarcodeSegmentRule(4, 1, SegmentType.STATIC_OR, Arrays.asList(marker, "Z"), false));
+    }
+
+    private Path writeCatalog(int size) throws Exception {
+        List<RuleSet> ruleSets = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            // Multi-byte names check that offsets are byte offsets, not character offsets
+            ruleSets.add(ruleSet("kunde-" + i + "-ü€", String.valueOf((char) ('A' + i % 20))));
+        }
+        Path file = tempDir.resolve("catalog.json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), ruleSets);
+        return file;
+    }
+
+    @Test
+    void open_indexesNamesWithoutParsing_andParsesOnFirstUse() throws Exception {
+        try (RuleSetCatalog catalog = RuleSetCatalog.open(writeCatalog(500), 1L << 20)) {
+            assertEquals(500, catalog.size());
+            assertEquals("kunde-0-ü€", catalog.getNames().get(0));
+            assertEquals(0, catalog.getParseCount());
+
+            RuleSet parsed = catalog.get("kunde-437-ü€");
+            assertEquals("kunde-437-ü€", parsed.getName());
+            assertTrue(parsed.isValidated());
+            assertEquals(ruleSet("kunde-437-ü€", "R").getRules(), parsed.getRules());
+            assertSame(parsed, catalog.get("kunde-437-ü€"));
+            assertEquals(1, catalog.getParseCount());
+            assertEquals(1, catalog.getHitCount());
+            assertNull(catalog.get("missing"));
+        }
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedUnderBudget() throws Exception {
+        long entryBytes = RuleSetCatalog.estimateBytes(ruleSet("x", "A"));
+        try (RuleSetCatalog catalog = RuleSetCatalog.open(writeCatalog(10), 3 * entryBytes)) {
+            RuleSet first = catalog.get("kunde-0-ü€");
+            catalog.get("kunde-1-ü€");
+            catalog.get("kunde-2-ü€");
+            catalog.get("kunde-0-ü€"); // Now most recently used
+            catalog.get("kunde-3-ü€"); // Evicts kunde-1
+            assertEquals(3, catalog.getCachedCount());
+            assertTrue(catalog.getCachedBytes() <= catalog.getMaxBytes());
+            assertSame(first, catalog.get("kunde-0-ü€"));
+            assertEquals(4, catalog.getParseCount());
+
+            assertEquals("kunde-1-ü€", catalog.get("kunde-1-ü€").getName()); // Parsed again after eviction
+            assertEquals(5, catalog.getParseCount());
+        }
+    }
+
+    @Test
+    void get_invalidEntryIsSkippedLikeEagerLoading() throws Exception {
+        Path file = tempDir.resolve("mixed.json");
+        Files.write(file, ("[{\"name\":\"broken\",\"rules\":[{\"order\":0,\"length\":4,\"type\":\"NUMERIC\",\"mapsToWord\":true}]},"
+                + new ObjectMapper().writeValueAsString(ruleSet("ok", "A")) + "]").getBytes(StandardCharsets.UTF_8));
+        try (RuleSetCatalog catalog = RuleSetCatalog.open(file, 1L << 20)) {
+            assertEquals(List.of("broken", "ok"), catalog.getNames());
+            assertNull(catalog.get("broken"));
+            assertNull(catalog.get("broken"));
+            assertEquals("ok", catalog.get("ok").getName());
+        }
+    }
+
+    @Test
+    void rewrite_copiesOtherEntriesAndKeepsTheirParsedRuleSets() throws Exception {
+        Path file = writeCatalog(5);
+        try (RuleSetCatalog catalog = RuleSetCatalog.open(file, 1L << 20)) {
+            RuleSet cold = catalog.get("kunde-0-ü€");
+            catalog.get("kunde-3-ü€");
+
+            try (RuleSetCatalog edited = catalog.rewrite("kunde-3-ü€", ruleSet("kunde-3-ü€", "Q"));
+                 RuleSetCatalog deleted = edited.rewrite("kunde-1-ü€", null);
+                 RuleSetCatalog added = deleted.rewrite("neu", ruleSet("neu", "N"))) {
+                assertEquals(List.of("kunde-0-ü€", "kunde-2-ü€", "kunde-3-ü€", "kunde-4-ü€", "neu"), added.getNames());
+                assertSame(cold, added.get("kunde-0-ü€"));
+                assertEquals(Arrays.asList("Q", "Z"), added.get("kunde-3-ü€").getRules().get(4).getStaticOrValues());
+                assertEquals("neu", added.get("neu").getName());
+                assertNull(added.get("kunde-1-ü€"));
+                assertEquals(0, added.getParseCount()); // Nothing but the edits was parsed
+                assertEquals("kunde-4-ü€", added.get("kunde-4-ü€").getName()); // Copied entries still parse
+            }
+        }
+
+        try (RuleSetCatalog reopened = RuleSetCatalog.open(file, 1L << 20)) {
+            assertEquals(5, reopened.size());
+            for (String name : reopened.getNames()) {
+                assertEquals(name, reopened.get(name).getName());
+            }
+            assertEquals(Arrays.asList("Q", "Z"), reopened.get("kunde-3-ü€").getRules().get(4).getStaticOrValues());
+        }
+    }
+
+    @Test
+    void rewrite_keepsShadowedDuplicatesOfOtherNames_andDropsThoseOfTheEditedName() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Path file = tempDir.resolve("duplicates.json");
+        Files.write(file, ("[" + mapper.writeValueAsString(ruleSet("a", "A")) + "," + mapper.writeValueAsString(ruleSet("b", "B"))
+                + "," + mapper.writeValueAsString(ruleSet("a", "C")) + "," + mapper.writeValueAsString(ruleSet("b", "D")) + "]")
+                .getBytes(StandardCharsets.UTF_8));
+        try (RuleSetCatalog catalog = RuleSetCatalog.open(file, 1L << 20)) {
+            assertEquals(List.of("a", "b"), catalog.getNames());
+            assertEquals(Arrays.asList("C", "Z"), catalog.get("a").getRules().get(4).getStaticOrValues()); // Last entry wins
+
+            catalog.rewrite("b", null).close();
+        }
+
+        String rewritten = Files.readString(file);
+        assertEquals(2, rewritten.split("\"name\"").length - 1); // Both entries of "a", none of "b"
+        try (RuleSetCatalog reopened = RuleSetCatalog.open(file, 1L << 20)) {
+            assertEquals(List.of("a"), reopened.getNames());
+            assertEquals(Arrays.asList("C", "Z"), reopened.get("a").getRules().get(4).getStaticOrValues());
+        }
+    }
+
+    @Test
+    void get_evictsEldestEntriesInAccessOrderWhenManyAreCached() throws Exception {
+        long entryBytes = RuleSetCatalog.estimateBytes(ruleSet("x", "A"));
+        try (RuleSetCatalog catalog = RuleSetCatalog.open(writeCatalog(200), 100 * entryBytes)) {
+            for (int i = 0; i < 100; i++) {
+                catalog.get("kunde-" + i + "-ü€");
+            }
+            for (int i = 0; i < 100; i += 2) {
+                catalog.get("kunde-" + i + "-ü€"); // Even entries become the most recently used
+            }
+            for (int i = 100; i < 150; i++) {
+                catalog.get("kunde-" + i + "-ü€"); // Evicts the 50 odd entries
+            }
+            assertEquals(100, catalog.getCachedCount());
+            long parses = catalog.getParseCount();
+            for (int i = 0; i < 100; i += 2) {
+                catalog.get("kunde-" + i + "-ü€");
+            }
+            assertEquals(parses, catalog.getParseCount());
+            catalog.get("kunde-1-ü€");
+            assertEquals(parses + 1, catalog.getParseCount());
+        }
+    }
+
+    @Test
+    void ruleService_catalogModeServesAndRewritesCatalog() throws Exception {
+        Path file = writeCatalog(3);
+        RuleService ruleService = new RuleService(file.toString(), 1L << 20);
+        ruleService.init();
+        try {
+            assertEquals(List.of("kunde-0-ü€", "kunde-1-ü€", "kunde-2-ü€"), ruleService.getAllRuleSetNames());
+            assertEquals("kunde-0-ü€", ruleService.getRuleSetByName(null).getName());
+            assertEquals(1, ruleService.getCatalog().getCachedCount()); // Listing names parsed nothing
+
+            ruleService.saveRuleSet(ruleSet("kunde-1-ü€", "Q"));
+            RuleSet saved = ruleService.getRuleSetByName("kunde-1-ü€");
+            assertEquals(2, saved.getVersion());
+            assertEquals(Arrays.asList("Q", "Z"), saved.getRules().get(4).getStaticOrValues());
+
+            ruleService.deleteRuleSet("kunde-2-ü€");
+            assertEquals(List.of("kunde-0-ü€", "kunde-1-ü€"), ruleService.getAllRuleSetNames());
+            assertNull(ruleService.getRuleSetByName("kunde-2-ü€"));
+        } finally {
+            ruleService.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validated RuleSets for tests: most of them need four NUMERIC word segments and at most a few segments after them.
+ */
+public final class RuleSetFixture {
+
+    private RuleSetFixture() {
+    }
+
+    /**
+     * @return NUMERIC word segments of the given lengths with orders 0, 1, ...; the list may be appended to.
+     */
+    public static List<BarcodeSegmentRule> wordSegments(int... lengths) {
+        List<BarcodeSegmentRule> rules = new ArrayList<>(lengths.length + 2);
+        for (int order = 0; order < lengths.length; order++) {
+            rules.add(new BarcodeSegmentRule(order, lengths[order], SegmentType.NUMERIC, (String) null, true));
+        }
+        return rules;
+    }
+
+    /**
+     * @return a RuleSet of four word segments of {@code wordLength} digits followed by {@code trailing},
+     *         whose orders must continue from 4.
+     */
+    public static RuleSet fourWords(String name, int wordLength, BarcodeSegmentRule... trailing) {
+        return fourWords(name, 1, wordLength, trailing);
+    }
+
+    public static RuleSet fourWords(String name, int version, int wordLength, BarcodeSegmentRule... trailing) {
+        List<BarcodeSegmentRule> rules = wordSegments(wordLength, wordLength, wordLength, wordLength);
+        rules.addAll(Arrays.asList(trailing));
+        return validated(name, version, rules);
+    }
+
+    /**
+     * @return four word segments followed by a STATIC {@code suffix}, which tells edits of the same RuleSet apart.
+     */
+    public static RuleSet withSuffix(String name, int wordLength, String suffix) {
+        return fourWords(name, wordLength, new BarcodeSegmentRule(4, suffix.length(), SegmentType.STATIC, suffix, false));
+    }
+
+    public static RuleSet validated(String name, List<BarcodeSegmentRule> rules) {
+        return validated(name, 1, rules);
+    }
+
+    public static RuleSet validated(String name, int version, List<BarcodeSegmentRule> rules) {
+        RuleSet ruleSet = new RuleSet(name, rules, version);
+        ruleSet.validateRules();
+        return ruleSet;
+    }
+}
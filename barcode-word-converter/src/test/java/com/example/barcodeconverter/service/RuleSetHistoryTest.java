@@ -0,0 +1,107 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.ChecksumAlgorithm;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSetHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Four 1-digit word segments, an optional 1-digit VERSION segment and a STATIC marker
+    private static RuleSet ruleSet(int version, boolean withVersionSegment, String marker) {
+        List<BarcodeSegmentRule> rules = RuleSetFixture.wordSegments(1, 1, 1, 1);
+        if (withVersionSegment) {
+            rules.add(new BarcodeSegmentRule(4, 1, SegmentType.VERSION, (String) null, false));
+        }
+        rules.add(new BarcodeSegmentRule(rules.size(), 1, SegmentType.STATIC, marker, false));
+        return RuleSetFixture.validated("labels", version, rules);
+    }
+
+    private static ConversionService conversionService(RuleSetHistory history) {
+        ConversionService conversionService = WordListFixture.withWords(10);
+        conversionService.setRuleSetHistory(history);
+        return conversionService;
+    }
+
+    @Test
+    void archive_retainsNewestVersionsAndSurvivesRestart() throws Exception {
+        RuleSetHistory history = new RuleSetHistory(tempDir.toString(), 2, true);
+        history.init();
+        history.archive(ruleSet(1, true, "A"));
+        history.archive(ruleSet(2, true, "B"));
+        history.archive(ruleSet(3, true, "C"));
+
+        assertNull(history.get("labels", 1)); // Dropped by the two-version retention limit
+        assertEquals("B", history.get("labels", 2).getRules().get(5).getStaticValue());
+        assertEquals(3, history.getLatestVersion("labels"));
+        assertEquals(0, history.getLatestVersion("unknown"));
+
+        RuleSetHistory restarted = new RuleSetHistory(tempDir.toString(), 2, true);
+        restarted.init();
+        assertEquals(List.of(3, 2), restarted.getVersionsNewestFirst("labels").stream().map(RuleSet::getVersion).toList());
+        assertEquals(3, restarted.findByVersionDigits("labels", 3, 10).getVersion());
+        assertNull(restarted.findByVersionDigits("labels", 1, 10));
+    }
+
+    @Test
+    void decode_versionSegmentSelectsSupersededVersion() throws Exception {
+        RuleSetHistory history = new RuleSetHistory(tempDir.toString(), 10, false);
+        history.init();
+        history.archive(ruleSet(1, true, "A"));
+        RuleSet current = ruleSet(2, true, "B");
+        ConversionService conversionService = conversionService(history);
+        assertEquals("12342B", conversionService.wordsToBarcode(List.of("w1", "w2", "w3", "w4"), current));
+
+        assertEquals(List.of("w1", "w2", "w3", "w4"), conversionService.barcodeToWords("12341A", current));
+        assertEquals(1, conversionService.decode("12341A", current).getRuleSetVersion());
+        assertEquals(1, conversionService.validate("12341A", current).getRuleSetVersion());
+        assertEquals(2, conversionService.validate("12342B", current).getRuleSetVersion());
+        assertEquals(List.of("w1", "w2", "w3", "w4"), conversionService.barcodeToWords("12342B", current));
+
+        ConversionResult unknown = conversionService.decode("12343B", current);
+        assertEquals(ConversionErrorCode.VERSION_MISMATCH, unknown.getErrorCode());
+        assertEquals(4, unknown.getPosition());
+        // Version 1 rejects the marker, so the current version's failure is reported
+        assertEquals(ConversionErrorCode.VERSION_MISMATCH, conversionService.decode("12341B", current).getErrorCode());
+    }
+
+    @Test
+    void decode_autoDetectTriesRetainedVersionsWithoutVersionSegment() throws Exception {
+        RuleSetHistory history = new RuleSetHistory(tempDir.toString(), 10, true);
+        history.init();
+        history.archive(ruleSet(1, false, "A"));
+        RuleSet current = ruleSet(2, false, "B");
+
+        assertEquals(List.of("w5", "w6", "w7", "w8"), conversionService(history).barcodeToWords("5678A", current));
+
+        RuleSetHistory strict = new RuleSetHistory(tempDir.toString(), 10, false);
+        strict.init();
+        ConversionResult result = conversionService(strict).decode("5678A", current);
+        assertEquals(ConversionErrorCode.STATIC_MISMATCH, result.getErrorCode());
+    }
+
+    @Test
+    void decode_checksumMismatchNeverFallsBack() throws Exception {
+        RuleSetHistory history = new RuleSetHistory(tempDir.toString(), 10, true);
+        history.init();
+        RuleSet old = RuleSetFixture.fourWords("labels", 1, 1, new BarcodeSegmentRule(4, 1, SegmentType.NUMERIC, (String) null, false));
+        history.archive(old);
+        RuleSet current = RuleSetFixture.fourWords("labels", 2, 1, new BarcodeSegmentRule(4, 1, ChecksumAlgorithm.LUHN, null));
+        ConversionService conversionService = conversionService(history);
+
+        String barcode = conversionService.wordsToBarcode(List.of("w1", "w2", "w3", "w4"), current);
+        String mistyped = barcode.substring(0, 4) + (char) ('0' + (barcode.charAt(4) - '0' + 1) % 10);
+        assertEquals(ConversionErrorCode.CHECKSUM_MISMATCH, conversionService.decode(mistyped, current).getErrorCode());
+        assertFalse(conversionService.validate(mistyped, current).isSuccess());
+    }
+}
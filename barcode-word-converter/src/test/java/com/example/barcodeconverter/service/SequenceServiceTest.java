@@ -0,0 +1,82 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SequenceServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static RuleSet sequencedRuleSet(String name, int sequenceDigits) {
+        return sequencedRuleSet(name, sequenceDigits, 1);
+    }
+
+    private static RuleSet sequencedRuleSet(String name, int sequenceDigits, int version) {
+        return RuleSetFixture.fourWords(name, version, 1, new BarcodeSegmentRule(4, sequenceDigits, SegmentType.SEQUENCE, (String) null, false));
+    }
+
+    @Test
+    void restart_skipsLeasedBlockAndNeverReusesNumbers() {
+        RuleSet ruleSet = sequencedRuleSet("numbered", 6);
+        SequenceService first = new SequenceService(tempDir.toString(), 1, 100);
+        Set<Long> issued = new HashSet<>();
+        for (int i = 0; i < 150; i++) {
+            assertEquals(i, first.next(ruleSet)); // A single stripe numbers strictly in order
+            issued.add((long) i);
+        }
+        assertEquals(200, first.getLeasedCount(ruleSet));
+
+        // Simulated crash: the unused rest of the second block is skipped, not reissued
+        SequenceService restarted = new SequenceService(tempDir.toString(), 1, 100);
+        long next = restarted.next(ruleSet);
+        assertEquals(200, next);
+        assertFalse(issued.contains(next));
+
+        RuleSet resized = sequencedRuleSet("numbered", 8);
+        SequenceService mismatched = new SequenceService(tempDir.toString(), 1, 100);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> mismatched.next(resized));
+        assertTrue(exception.getMessage().contains("6-digit"), exception.getMessage());
+    }
+
+    @Test
+    void editResizingTheSequenceSegment_stopsNumbering() {
+        ConversionService conversionService = WordListFixture.withWords(10);
+        conversionService.setSequenceService(new SequenceService(tempDir.toString(), 1, 10));
+        List<String> words = List.of("w1", "w2", "w3", "w4");
+        RuleSet wide = sequencedRuleSet("resized", 2);
+        for (int i = 0; i < 12; i++) {
+            conversionService.wordsToBarcode(words, wide);
+        }
+
+        RuleSet narrow = sequencedRuleSet("resized", 1, 2);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> conversionService.wordsToBarcode(words, narrow));
+        assertTrue(exception.getMessage().contains("2-digit"), exception.getMessage());
+        // Value 11 would have spilled into the last word segment
+        assertThrows(IllegalArgumentException.class, () -> narrow.getLayout().writeBarcode(new int[]{1, 2, 3, 4}, 0, 11L, new char[5]));
+    }
+
+    @Test
+    void wordsToBarcode_assignsSerialNumbers() {
+        ConversionService conversionService = WordListFixture.withWords(10);
+        RuleSet ruleSet = sequencedRuleSet("numbered-words", 4);
+        List<String> words = List.of("w1", "w2", "w3", "w4");
+
+        assertThrows(IllegalStateException.class, () -> conversionService.wordsToBarcode(words, ruleSet));
+
+        conversionService.setSequenceService(new SequenceService(tempDir.toString(), 1, 10));
+        assertEquals("12340000", conversionService.wordsToBarcode(words, ruleSet));
+        assertEquals("12340001", conversionService.wordsToBarcode(words, ruleSet));
+        assertEquals(words, conversionService.barcodeToWords("12340001", ruleSet));
+    }
+}
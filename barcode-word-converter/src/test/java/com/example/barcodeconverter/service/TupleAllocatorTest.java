@@ -0,0 +1,108 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.model.SegmentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TupleAllocatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConversionService conversionService;
+    private RuleSet ruleSet;
+
+    @BeforeEach
+    void setUp() {
+        conversionService = WordListFixture.withWords(5);
+        List<BarcodeSegmentRule> rules = new ArrayList<>();
+        rules.add(new BarcodeSegmentRule(0, 1, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(1, 1, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(2, 1, SegmentType.STATIC, "T", false));
+        rules.add(new BarcodeSegmentRule(3, 1, SegmentType.NUMERIC, (String) null, true));
+        rules.add(new BarcodeSegmentRule(4, 1, SegmentType.NUMERIC, (String) null, true));
+        ruleSet = RuleSetFixture.validated("alloc-test", rules);
+    }
+
+    @Test
+    void permutation_isBijectionOnOddSizedDomain() {
+        FeistelPermutation permutation = new FeistelPermutation(1000, 12345);
+        Set<Long> images = new HashSet<>();
+        for (long i = 0; i < 1000; i++) {
+            long image = permutation.permute(i);
+            assertTrue(image >= 0 && image < 1000);
+            images.add(image);
+        }
+        assertEquals(1000, images.size());
+    }
+
+    @Test
+    void allocate_coversWholeSpaceWithoutRepeats_acrossRestart() {
+        TupleAllocator allocator = new TupleAllocator(conversionService, tempDir.toString(), 2, 16);
+        Set<String> barcodes = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            TupleAllocator.Allocation allocation = allocator.allocate(ruleSet);
+            assertTrue(barcodes.add(allocation.getBarcode()), "Repeated " + allocation.getBarcode());
+            assertEquals(allocation.getWords(), conversionService.barcodeToWords(allocation.getBarcode(), ruleSet));
+        }
+
+        // A new instance recovers from the state file; leased but unissued tuples are skipped
+        TupleAllocator restarted = new TupleAllocator(conversionService, tempDir.toString(), 2, 16);
+        try {
+            while (true) {
+                assertTrue(barcodes.add(restarted.allocate(ruleSet).getBarcode()));
+            }
+        } catch (IllegalStateException exhausted) {
+            assertTrue(exhausted.getMessage().contains("exhausted"));
+        }
+        assertTrue(barcodes.size() <= 5 * 5 * 5 * 5);
+        assertEquals(5 * 5 * 5 * 5, restarted.getLeasedCount(ruleSet));
+    }
+
+    @Test
+    void changedWordList_isRefused() {
+        new TupleAllocator(conversionService, tempDir.toString(), 1, 16).allocate(ruleSet);
+        TupleAllocator withMoreWords = new TupleAllocator(WordListFixture.withWords(6), tempDir.toString(), 1, 16);
+        assertThrows(IllegalStateException.class, () -> withMoreWords.allocate(ruleSet));
+    }
+
+    @Test
+    void repeatedWords_areNotAllocated() {
+        ConversionService repeating = WordListFixture.withWords(List.of("w0", "w1", "w0", "w3", "w1")); // Indexes 2 and 4 repeat
+        TupleAllocator allocator = new TupleAllocator(repeating, tempDir.toString(), 1, 16);
+
+        Set<String> barcodes = new HashSet<>();
+        for (int i = 0; i < 81; i++) { // 3^4 combinations of distinct words
+            TupleAllocator.Allocation allocation = allocator.allocate(ruleSet);
+            assertTrue(barcodes.add(allocation.getBarcode()));
+            assertEquals(allocation.getBarcode(), repeating.wordsToBarcode(allocation.getWords(), ruleSet));
+        }
+        assertThrows(IllegalStateException.class, () -> allocator.allocate(ruleSet));
+    }
+
+    @Test
+    void editedRuleSet_isPickedUpOrRefusedWhenItsWordSegmentsChange() {
+        TupleAllocator allocator = new TupleAllocator(WordListFixture.withWords(12), tempDir.toString(), 1, 16);
+        allocator.allocate(ruleSet);
+
+        List<BarcodeSegmentRule> sameWidths = new ArrayList<>(ruleSet.getRules());
+        sameWidths.set(2, new BarcodeSegmentRule(2, 1, SegmentType.STATIC, "U", false));
+        RuleSet edited = RuleSetFixture.validated("alloc-test", 2, sameWidths);
+        assertTrue(allocator.allocate(edited).getBarcode().contains("U"));
+
+        // Two-digit word segments: with 12 words, 12 fit each segment instead of 10
+        RuleSet wider = RuleSetFixture.fourWords("alloc-test", 3, 2);
+        assertThrows(IllegalStateException.class, () -> allocator.allocate(wider));
+    }
+}
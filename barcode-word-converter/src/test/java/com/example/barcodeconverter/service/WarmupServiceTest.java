@@ -0,0 +1,56 @@
+package com.example.barcodeconverter.service;
+
+import com.example.barcodeconverter.model.BarcodeSegmentRule;
+import com.example.barcodeconverter.model.SegmentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarmupServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void warmUp_coversEveryRuleSetAndRefusesTrafficUntilDone() throws Exception {
+        Path file = tempDir.resolve("rules.json");
+        new ObjectMapper().writeValue(file.toFile(), List.of(RuleSetFixture.fourWords("plain", 4),
+                RuleSetFixture.fourWords("serial", 4, new BarcodeSegmentRule(4, 6, SegmentType.SEQUENCE, (String) null, false))));
+        RuleService ruleService = new RuleService(file.toString(), 1L << 20);
+        ruleService.init();
+        ConversionService conversionService = new ConversionService();
+        conversionService.init();
+        List<Object> events = new ArrayList<>();
+        try {
+            WarmupService warmupService = new WarmupService(conversionService, ruleService, events::add, true, 200, 100);
+            warmupService.onApplicationReady();
+
+            assertEquals(1, events.size());
+            assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) events.get(0)).getState());
+            WarmupService.Report report = warmupService.getReport();
+            assertEquals(2, report.getRuleSets());
+            assertEquals(400, report.getCycles());
+            assertTrue(report.getWarmDecodeP50Nanos() > 0);
+            assertTrue(report.getWarmDecodeP99Nanos() >= report.getWarmDecodeP50Nanos());
+        } finally {
+            ruleService.close();
+        }
+    }
+
+    @Test
+    void warmUp_disabledDoesNothing() throws Exception {
+        List<Object> events = new ArrayList<>();
+        WarmupService warmupService = new WarmupService(new ConversionService(), null, events::add, false, 200, 100);
+        warmupService.onApplicationReady();
+        assertTrue(events.isEmpty());
+        assertNull(warmupService.getReport());
+    }
+}
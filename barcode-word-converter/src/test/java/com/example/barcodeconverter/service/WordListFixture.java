@@ -0,0 +1,46 @@
+package com.example.barcodeconverter.service;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConversionServices over a small made-up dictionary, for tests that do not need the bundled word list.
+ */
+final class WordListFixture {
+
+    private WordListFixture() {
+    }
+
+    /**
+     * @return a ConversionService whose dictionary is w0, w1, ... up to {@code count} words.
+     */
+    static ConversionService withWords(int count) {
+        return withWords("w", count);
+    }
+
+    static ConversionService withWords(String prefix, int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(prefix + i);
+        }
+        return withWords(words);
+    }
+
+    /**
+     * @return a ConversionService over {@code words} in order; a repeated word maps to its first index, as with words.txt.
+     */
+    static ConversionService withWords(List<String> words) {
+        ConversionService conversionService = new ConversionService();
+        Map<String, Integer> wordToIndexMap = new HashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            wordToIndexMap.putIfAbsent(words.get(i), i);
+        }
+        ReflectionTestUtils.setField(conversionService, "wordList", new ArrayList<>(words));
+        ReflectionTestUtils.setField(conversionService, "wordToIndexMap", wordToIndexMap);
+        return conversionService;
+    }
+}
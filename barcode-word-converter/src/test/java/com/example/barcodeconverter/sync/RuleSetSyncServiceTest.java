@@ -0,0 +1,110 @@
+package com.example.barcodeconverter.sync;
+
+import com.example.barcodeconverter.model.RuleSet;
+import com.example.barcodeconverter.service.RuleService;
+import com.example.barcodeconverter.service.RuleSetFixture;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSetSyncServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<RuleService> ruleServices = new ArrayList<>();
+    private final List<RuleSetSyncService> syncServices = new ArrayList<>();
+
+    // One node: its own catalog file, the shared directory, and a one-second rescan
+    private RuleService node(String nodeId, RuleSet... ruleSets) throws IOException {
+        Path file = tempDir.resolve(nodeId + "-rules.json");
+        new ObjectMapper().writeValue(file.toFile(), List.of(ruleSets));
+        RuleService ruleService = new RuleService(file.toString(), 1L << 20);
+        ruleService.init();
+        RuleSetSyncService syncService = new RuleSetSyncService(ruleService, true, tempDir.resolve("shared").toString(), nodeId, 1, 3);
+        syncService.init();
+        ruleServices.add(ruleService);
+        syncServices.add(syncService);
+        return ruleService;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (RuleSetSyncService syncService : syncServices) {
+            syncService.close();
+        }
+        for (RuleService ruleService : ruleServices) {
+            ruleService.close();
+        }
+    }
+
+    private static void await(String what, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting until " + what);
+            Thread.sleep(20);
+        }
+    }
+
+    private static String suffixOf(RuleService ruleService, String name) {
+        RuleSet ruleSet = ruleService.getRuleSetByName(name);
+        return ruleSet != null ? ruleSet.getRules().get(4).getStaticValue() : null;
+    }
+
+    @Test
+    void saveAndDelete_reachPeersWithTheirVersion() throws Exception {
+        RuleService a = node("node-a", RuleSetFixture.withSuffix("shared", 2, "A"));
+        RuleService b = node("node-b", RuleSetFixture.withSuffix("shared", 2, "A"));
+
+        a.saveRuleSet(RuleSetFixture.withSuffix("shared", 2, "BB"));
+        a.saveRuleSet(RuleSetFixture.withSuffix("created", 2, "C"));
+        await("node-b has node-a's edit", () -> "BB".equals(suffixOf(b, "shared")) && b.getRuleSetByName("created") != null);
+        assertEquals(2, b.getRuleSetByName("shared").getVersion());
+
+        b.deleteRuleSet("created");
+        await("node-a sees the delete", () -> a.getRuleSetByName("created") == null);
+        assertEquals(1, syncServices.get(0).getAppliedCount());
+    }
+
+    @Test
+    void concurrentSavesOfOneVersion_settleOnTheHighestNode() throws Exception {
+        RuleService a = node("node-a", RuleSetFixture.withSuffix("shared", 2, "A"));
+        RuleService b = node("node-b", RuleSetFixture.withSuffix("shared", 2, "A"));
+        syncServices.get(0).close(); // Both save version 2 before either hears of the other
+        syncServices.get(1).close();
+        a.saveRuleSet(RuleSetFixture.withSuffix("shared", 2, "XA"));
+        b.saveRuleSet(RuleSetFixture.withSuffix("shared", 2, "XB"));
+        syncServices.get(0).rescan();
+        syncServices.get(1).rescan();
+
+        assertEquals("XB", suffixOf(a, "shared"));
+        assertEquals("XB", suffixOf(b, "shared"));
+        assertEquals(2, a.getRuleSetByName("shared").getVersion());
+    }
+
+    @Test
+    void lateNode_catchesUpAndOldChangesArePruned() throws Exception {
+        RuleService a = node("node-a", RuleSetFixture.withSuffix("shared", 2, "A"));
+        for (int i = 0; i < 5; i++) {
+            a.saveRuleSet(RuleSetFixture.withSuffix("shared", 2, i % 2 == 0 ? "E" : "O"));
+        }
+        try (Stream<Path> files = Files.list(tempDir.resolve("shared"))) {
+            assertEquals(3, files.count()); // keep-versions
+        }
+
+        RuleService late = node("node-c", RuleSetFixture.withSuffix("shared", 2, "A"));
+        assertEquals("E", suffixOf(late, "shared"));
+        assertEquals(6, late.getRuleSetByName("shared").getVersion());
+    }
+}